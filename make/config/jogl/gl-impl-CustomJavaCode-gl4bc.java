@@ -20,6 +20,7 @@ public GL4bcImpl(GLProfile glp, GLContextImpl context) {
   this.bufferSizeTracker  = context.getBufferSizeTracker();
   this.bufferStateTracker = context.getBufferStateTracker();
   this.glStateTracker     = context.getGLStateTracker();
+  this.trusted            = context.isTrusted();
   this.glProfile = glp;
 }
 
@@ -130,6 +131,8 @@ private int imageSizeInBytes(int format, int type, int w, int h, int d,
 private GLBufferSizeTracker  bufferSizeTracker;
 private GLBufferStateTracker bufferStateTracker;
 private GLStateTracker       glStateTracker;
+/** Skip throwing buffer object checks, see {@link GLContext#CTX_OPTION_TRUSTED} */
+private final boolean        trusted;
 
 private boolean bufferObjectExtensionsInitialized = false;
 private boolean haveARBPixelBufferObject;
@@ -155,6 +158,9 @@ private boolean checkBufferObject(boolean extension1,
                                   boolean enabled,
                                   int state,
                                   String kind, boolean throwException) {
+  if (trusted && throwException) {
+    return true;
+  }
   if (inBeginEndPair) {
     throw new GLException("May not call this between glBegin and glEnd");
   }
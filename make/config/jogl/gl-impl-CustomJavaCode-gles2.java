@@ -7,6 +7,7 @@ public GLES2Impl(GLProfile glp, GLContextImpl context) {
   this.bufferSizeTracker  = context.getBufferSizeTracker();
   this.bufferStateTracker = context.getBufferStateTracker();
   this.glStateTracker     = context.getGLStateTracker();
+  this.trusted            = context.isTrusted();
   this.glProfile = glp;
 }
 
@@ -165,6 +166,8 @@ private int imageSizeInBytes(int format, int type, int w, int h, int d,
 private GLBufferSizeTracker  bufferSizeTracker;
 private GLBufferStateTracker bufferStateTracker;
 private GLStateTracker       glStateTracker;
+/** Skip throwing buffer object checks, see {@link GLContext#CTX_OPTION_TRUSTED} */
+private final boolean        trusted;
 
 private boolean bufferObjectExtensionsInitialized = false;
 private boolean haveOESFramebufferObject;
@@ -180,6 +183,9 @@ private boolean checkBufferObject(boolean avail,
                                   boolean enabled,
                                   int state,
                                   String kind, boolean throwException) {
+  if (trusted && throwException) {
+    return true;
+  }
   if (!avail) {
     if (!enabled)
       return true;
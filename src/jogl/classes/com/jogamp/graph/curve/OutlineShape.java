@@ -29,6 +29,7 @@ package com.jogamp.graph.curve;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 
 import com.jogamp.graph.geom.Outline;
 import com.jogamp.graph.geom.Triangle;
@@ -99,6 +100,12 @@ public class OutlineShape {
      *  outline shape.
      */
     private ArrayList<Outline> outlines = new ArrayList<Outline>(3);
+    
+    /** Outlines produced by {@link #transformOutlines(int)} -> their version at that time */
+    private IdentityHashMap<Outline, Integer> quadraticOutlines = new IdentityHashMap<Outline, Integer>();
+    
+    /** Modification counter of the outline list, see {@link #getVersion()} */
+    private int modCount = 0;
 
     /** Create a new Outline based Shape
      */
@@ -121,6 +128,7 @@ public class OutlineShape {
      */
     public void addEmptyOutline(){
         outlines.add(new Outline());
+        modCount++;
     }
 
     /** Adds an {@link Outline} to the OutlineShape object
@@ -137,6 +145,7 @@ public class OutlineShape {
             outlines.remove(getLastOutline());
         }
         outlines.add(outline);
+        modCount++;
     }
 
     /** Adds a vertex to the last open outline in the
@@ -202,6 +211,23 @@ public class OutlineShape {
     public final Outline getLastOutline(){
         return outlines.get(outlines.size()-1);
     }
+    
+    /** 
+     * Returns the modification counter of this shape, which increases with each change 
+     * of the outline list or of one of its {@link Outline#getVersion() outlines}.
+     * <p>
+     * Renderer caching the triangulation of this shape use it to detect stale data,
+     * see {@link com.jogamp.graph.curve.opengl.RegionRenderer}.
+     * </p>
+     */
+    public final int getVersion() {
+        int v = modCount;
+        for(int i=0; i<outlines.size(); i++) {
+            v += outlines.get(i).getVersion();
+        }
+        return v;
+    }
+
     /** Make sure that the outlines represent
      * the specified destinationType, if not
      * transform outlines to destination type.
@@ -214,12 +240,23 @@ public class OutlineShape {
     }
 
     private void transformOutlinesQuadratic(){
+        final int oldVersion = getVersion();
         ArrayList<Outline> newOutlines = new ArrayList<Outline>(3);
+        IdentityHashMap<Outline, Integer> newQuadraticOutlines = new IdentityHashMap<Outline, Integer>();
+        boolean modified = false;
 
         /**loop over the outlines and make sure no
          * adj off-curve vertices
          */
         for(Outline outline:outlines){
+            final Integer quadraticVersion = quadraticOutlines.get(outline);
+            if( null != quadraticVersion && quadraticVersion.intValue() == outline.getVersion() ) {
+                // already transformed and unchanged since
+                newOutlines.add(outline);
+                newQuadraticOutlines.put(outline, quadraticVersion);
+                continue;
+            }
+            modified = true;
             Outline newOutline = new Outline();
 
             ArrayList<Vertex> vertices = outline.getVertices();
@@ -238,8 +275,14 @@ public class OutlineShape {
                 }
             }
             newOutlines.add(newOutline);
+            newQuadraticOutlines.put(newOutline, new Integer(newOutline.getVersion()));
+        }
+        quadraticOutlines = newQuadraticOutlines;
+        if(modified) {
+            outlines = newOutlines;
+            // keep the version monotonic, the new outlines start w/ their own counter
+            modCount += oldVersion - getVersion() + 1;
         }
-        outlines = newOutlines;
     }
 
     private void generateVertexIds(){
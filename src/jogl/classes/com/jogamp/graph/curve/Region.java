@@ -78,6 +78,25 @@ public interface Region {
      */
     public void render(GL2ES2 gl, RenderState rs, int vp_width, int vp_height, int width);
     
+    /** Prepares the multi pass rendering w/o rendering,
+     *  i.e. reserves the texture space of the first pass for the given texture width.
+     *  <p>
+     *  Preparing all Regions of a frame before rendering them renders 
+     *  their pending first passes with one render target switch, 
+     *  instead of one per Region whose texture width has changed.
+     *  Optional, {@code render} prepares the Region if required.
+     *  </p>
+     *  <p>
+     *  No-op for single pass rendering.
+     *  </p>
+     * @param vp_width current screen width
+     * @param vp_height current screen height
+     * @param width texture width for mp rendering
+     * 
+     * @see render(GL2ES2, RenderState, int, int, int)
+     */
+    public void prepare(GL2ES2 gl, RenderState rs, int vp_width, int vp_height, int width);
+    
     /** Adds a list of {@link Triangle} objects to the Region
      * These triangles are to be binded to OGL objects 
      * on the next call to {@code update}
@@ -114,6 +133,22 @@ public interface Region {
      */
     public boolean isDirty();
     
+    /** Returns the size of the OGL buffers of this region in bytes,
+     *  as passed by the last {@code update}, excluding resources shared with other regions.
+     * @return the buffer size in bytes
+     * 
+     * @see update()
+     */
+    public int getByteSize();
+    
+    /** Removes all vertices and triangles, keeping the OGL objects. 
+     *  The region is refilled by adding vertices and triangles and calling {@code update}, 
+     *  which passes only the modified data to OGL if the number of vertices and triangles is unchanged.
+     *  
+     * @see update()
+     */
+    public void clear();
+    
     /** Delete and clean the associated OGL
      *  objects
      */
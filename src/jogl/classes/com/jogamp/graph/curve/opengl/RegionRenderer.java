@@ -28,10 +28,11 @@
 package com.jogamp.graph.curve.opengl;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 
 import javax.media.opengl.GL2ES2;
+import javax.media.opengl.GLException;
 
 import com.jogamp.graph.curve.OutlineShape;
 import com.jogamp.graph.curve.Region;
@@ -72,16 +73,49 @@ public abstract class RegionRenderer extends Renderer {
      * @throws Exception if HwRegionRenderer not initialized
      */
     public abstract void renderOutlineShape(GL2ES2 gl, OutlineShape outlineShape, float[] position, int texSize);
-
-    protected HashMap<Integer, Region> regions = new HashMap<Integer, Region>();
+    
+    /** Prepares the multipass rendering of an {@link OutlineShape} w/o rendering it,
+     *  see {@link #prepareOutlineShapes(GL2ES2, OutlineShape[], int)}.
+     */
+    public final void prepareOutlineShape(GL2ES2 gl, OutlineShape outlineShape, int texSize) {
+        singleShape[0] = outlineShape;
+        try {
+            prepareOutlineShapes(gl, singleShape, texSize);
+        } finally {
+            singleShape[0] = null;
+        }
+    }
+    
+    /** Prepares the multipass rendering of an array of {@link OutlineShape}s combined in one region
+     *  w/o rendering it, see {@link Region#prepare(GL2ES2, RenderState, int, int, int)}.
+     *  <p>
+     *  Preparing all shapes of a frame before rendering them renders the first pass of all
+     *  regions whose texture size has changed, e.g. while zooming, with one FBO bind.
+     *  </p>
+     *  <p>
+     *  No-op if the cache is turned off or for {@link Region#SINGLE_PASS} rendering.
+     *  </p>
+     * @param outlineShapes array of OutlineShapes to be rendered
+     * @param texSize texture size for multipass render
+     * @throws GLException if not initialized
+     */
+    public final void prepareOutlineShapes(GL2ES2 gl, OutlineShape[] outlineShapes, int texSize) {
+        if(!isInitialized()){
+            throw new GLException("RegionRenderer: not initialized!");
+        }
+        if( Region.TWO_PASS == renderType && 0 != getCacheLimit() ) {
+            getCachedRegion(gl, outlineShapes).prepare(gl, rs, vp_width, vp_height, texSize);
+        }
+    }
 
     public void flushCache(GL2ES2 gl) {
-        Iterator<Region> iterator = regions.values().iterator();
+        Iterator<RegionEntry> iterator = regionCacheMap.values().iterator();
         while(iterator.hasNext()){
-            Region region = iterator.next();
-            region.destroy(gl, rs);
+            RegionEntry entry = iterator.next();
+            entry.region.destroy(gl, rs);
         }
-        regions.clear();
+        regionCacheMap.clear();
+        regionCacheBytes = 0;
     }       
 
     @Override
@@ -89,58 +123,304 @@ public abstract class RegionRenderer extends Renderer {
         // fluchCache(gl) already called
     }
     
+    /**
+     * <p>Sets the cache limit for reusing Region's of {@link OutlineShape}s.
+     * Default is {@link #DEFAULT_CACHE_LIMIT}, -1 unlimited, 0 turns cache off, >0 limited </p>
+     * 
+     * <p>The cache will be validate when the next shape rendering happens.</p>
+     *  
+     * <p>The least recently used Region is evicted first, 
+     * see {@link #setCacheByteLimit(long)} for an additional GPU memory budget.</p>
+     *  
+     * @param newLimit new cache size
+     * 
+     * @see #DEFAULT_CACHE_LIMIT
+     */
+    public final void setCacheLimit(int newLimit ) { regionCacheLimit = newLimit; }
+    
+    /**
+     * Sets the cache limit, see {@link #setCacheLimit(int)} and validates the cache.
+     * 
+     * @param gl current GL used to remove cached objects if required
+     * @param newLimit new cache size
+     */
+    public final void setCacheLimit(GL2ES2 gl, int newLimit ) { regionCacheLimit = newLimit; validateCache(gl, 0, 0); }
+    
+    /**
+     * @return the current cache limit
+     */
+    public final int getCacheLimit() { return regionCacheLimit; }
+    
     /** 
-     * Create an ogl {@link Region} defining this {@link OutlineShape}
-     * @return the resulting Region.
+     * @return the current utilized cache size, <= {@link #getCacheLimit()}
+     */
+    public final int getCacheSize() { return regionCacheMap.size(); }
+    
+    /**
+     * <p>Sets the GPU memory budget of the cache in bytes, i.e. the sum of the approximate VBO sizes 
+     * of the cached Region's, see {@link #getCacheByteSize()}.
+     * Default is 0, no budget.</p>
+     * 
+     * <p>The least recently used Region's are evicted until both, 
+     * the {@link #setCacheLimit(int) entry limit} and the byte budget are met.</p>
+     * 
+     * @param newByteLimit new budget in bytes, <= 0 for no budget
+     */
+    public final void setCacheByteLimit(long newByteLimit) { regionCacheByteLimit = newByteLimit; }
+    
+    /**
+     * Sets the GPU memory budget, see {@link #setCacheByteLimit(long)} and validates the cache.
+     * 
+     * @param gl current GL used to remove cached objects if required
+     * @param newByteLimit new budget in bytes, <= 0 for no budget
+     */
+    public final void setCacheByteLimit(GL2ES2 gl, long newByteLimit) { regionCacheByteLimit = newByteLimit; validateCache(gl, 0, 0); }
+    
+    /**
+     * @return the current GPU memory budget of the cache in bytes, <= 0 if none
+     */
+    public final long getCacheByteLimit() { return regionCacheByteLimit; }
+    
+    /**
+     * @return the sum of the approximate VBO sizes of all cached Region's in bytes
+     */
+    public final long getCacheByteSize() { return regionCacheBytes; }
+    
+    /** @return number of cache lookups finding a Region */
+    public final long getCacheHitCount() { return regionCacheHits; }
+    
+    /** @return number of cache lookups not finding a Region */
+    public final long getCacheMissCount() { return regionCacheMisses; }
+    
+    /** @return number of Region's evicted due to the cache limits */
+    public final long getCacheEvictionCount() { return regionCacheEvictions; }
+    
+    /** @return number of cache hits, whose Region has been updated due to modified shapes */
+    public final long getCacheUpdateCount() { return regionCacheUpdates; }
+    
+    /** @return number of {@link OutlineShape}s triangulated, initially or due to their modification */
+    public final long getTriangulationCount() { return triangulations; }
+    
+    /** Resets the hit, miss, eviction, update and triangulation counter. */
+    public final void resetCacheCounter() {
+        regionCacheHits = 0;
+        regionCacheMisses = 0;
+        regionCacheEvictions = 0;
+        regionCacheUpdates = 0;
+        triangulations = 0;
+    }
+    
+    /**
+     * Evicts the least recently used Region's until the given space fits into the cache limits,
+     * i.e. evicts all Region's if the cache is turned off.
+     */
+    private void validateCache(GL2ES2 gl, int space, long spaceBytes) {
+        final Iterator<RegionEntry> iterator = regionCacheMap.values().iterator();
+        while ( iterator.hasNext() && 
+                ( ( getCacheLimit() >= 0 && getCacheSize() + space > getCacheLimit() ) ||
+                  ( getCacheByteLimit() > 0 && getCacheByteSize() + spaceBytes > getCacheByteLimit() ) ) ) {
+            final RegionEntry entry = iterator.next();
+            iterator.remove();
+            regionCacheBytes -= entry.byteSize;
+            regionCacheEvictions++;
+            entry.region.destroy(gl, rs);
+        }
+    }
+    
+    /**
+     * Returns the {@link Region} of the given {@link OutlineShape}, see {@link #getCachedRegion(GL2ES2, OutlineShape[])}.
+     */
+    protected final Region getCachedRegion(GL2ES2 gl, OutlineShape outlineShape) {
+        singleShape[0] = outlineShape;
+        try {
+            return getCachedRegion(gl, singleShape);
+        } finally {
+            singleShape[0] = null;
+        }
+    }
+    
+    /**
+     * Returns the {@link Region} combining the given {@link OutlineShape}s, 
+     * which is created if not cached yet.
+     * <p>
+     * The cache is keyed by the identity of the shapes, the Region is updated if one of the shapes 
+     * has been {@link OutlineShape#getVersion() modified} since. In such case only the modified shapes
+     * are triangulated again and only the changed data is passed to the VBOs, see {@link Region#clear()}.
+     * </p>
+     * <p>
+     * If the cache is turned off, see {@link #setCacheLimit(int)}, all cached Region's are evicted
+     * and the returned Region is not cached, hence the caller shall destroy it after use.
+     * </p>
      */
-    protected Region createRegion(GL2ES2 gl, OutlineShape outlineShape) {
-        Region region = RegionFactory.create(rs, renderType);
+    protected final Region getCachedRegion(GL2ES2 gl, OutlineShape[] outlineShapes) {
+        if( 0 == getCacheLimit() && 0 < getCacheSize() ) {
+            validateCache(gl, 0, 0);
+        }
+        lookupKey.set(outlineShapes);
+        RegionEntry entry = regionCacheMap.get(lookupKey);
+        lookupKey.set(null);
         
-        outlineShape.transformOutlines(OutlineShape.QUADRATIC_NURBS);
-        ArrayList<Triangle> triangles = (ArrayList<Triangle>) outlineShape.triangulate(rs.getSharpness().floatValue());
-        ArrayList<Vertex> vertices = (ArrayList<Vertex>) outlineShape.getVertices();
-        region.addVertices(vertices);
-        region.addTriangles(triangles);
+        if( null != entry ) {
+            regionCacheHits++;
+            if( !entry.isValid(getSharpness()) ) {
+                regionCacheUpdates++;
+                regionCacheMap.remove(entry.key);
+                regionCacheBytes -= entry.byteSize;
+                updateRegion(gl, entry);
+                validateCache(gl, 1, entry.byteSize);
+                regionCacheMap.put(entry.key, entry);
+                regionCacheBytes += entry.byteSize;
+            }
+            return entry.region;
+        }
+        regionCacheMisses++;
+        entry = new RegionEntry(outlineShapes.clone());
+        entry.region = RegionFactory.create(rs, renderType);
+        updateRegion(gl, entry);
+        if ( 0 != getCacheLimit() ) {
+            validateCache(gl, 1, entry.byteSize);
+            regionCacheMap.put(entry.key, entry);
+            regionCacheBytes += entry.byteSize;
+        }
+        return entry.region;
+    }
+    
+    /** 
+     * Triangulates the modified shapes of the entry and refills its {@link Region}.
+     */
+    private void updateRegion(GL2ES2 gl, RegionEntry entry) {
+        final float sharpness = getSharpness();
+        final boolean all = sharpness != entry.sharpness;
+        final OutlineShape[] shapes = entry.key.shapes;
+        for(int i=0; i<shapes.length; i++) {
+            final OutlineShape outlineShape = shapes[i];
+            if( all || null == entry.triangles[i] || entry.versions[i] != outlineShape.getVersion() ) {
+                outlineShape.transformOutlines(OutlineShape.QUADRATIC_NURBS);
+                final ArrayList<Triangle> triangles = outlineShape.triangulate(sharpness);
+                entry.triangles[i] = null != triangles ? triangles : new ArrayList<Triangle>(0);
+                entry.vertices[i] = outlineShape.getVertices();
+                entry.versions[i] = outlineShape.getVersion();
+                triangulations++;
+            }
+        }
+        entry.sharpness = sharpness;
         
+        // the triangles' own vertices get their ids assigned by the Region
+        for(int i=0; i<shapes.length; i++) {
+            final ArrayList<Triangle> triangles = entry.triangles[i];
+            for(int j=0; j<triangles.size(); j++) {
+                final Vertex[] t_vertices = triangles.get(j).getVertices();
+                t_vertices[0].setId(Integer.MAX_VALUE);
+                t_vertices[1].setId(Integer.MAX_VALUE);
+                t_vertices[2].setId(Integer.MAX_VALUE);
+            }
+        }
+        final Region region = entry.region;
+        region.clear();
+        int numVertices = 0;
+        for(int i=0; i<shapes.length; i++) {
+            final ArrayList<Vertex> vertices = entry.vertices[i];
+            for(int j=0; j<vertices.size(); j++) {
+                vertices.get(j).setId(numVertices++);
+            }
+            region.addVertices(vertices);
+            region.addTriangles(entry.triangles[i]);
+        }
         region.update(gl);
-        return region;
+        entry.byteSize = region.getByteSize();
     }
     
-    /** Create an ogl {@link Region} defining the list of {@link OutlineShape}.
-     * Combining the Shapes into single buffers.
-     * @return the resulting Region inclusive the generated region
+    /** 
+     * Collision free cache key of one or more {@link OutlineShape}s, compared by identity.
      */
-    protected Region createRegion(GL2ES2 gl, OutlineShape[] outlineShapes) {
-        Region region = RegionFactory.create(rs, renderType);
+    private static final class RegionKey {
+        OutlineShape[] shapes;
+        int hash;
         
-        int numVertices = region.getNumVertices();
+        RegionKey(OutlineShape[] shapes) {
+            set(shapes);
+        }
         
-        for(OutlineShape outlineShape:outlineShapes){
-            outlineShape.transformOutlines(OutlineShape.QUADRATIC_NURBS);
-
-            ArrayList<Triangle> triangles = outlineShape.triangulate(rs.getSharpness().floatValue());
-            region.addTriangles(triangles);
-            
-            ArrayList<Vertex> vertices = outlineShape.getVertices();
-            for(Vertex vert:vertices){
-                vert.setId(numVertices++);
+        void set(OutlineShape[] shapes) {
+            this.shapes = shapes;
+            int h = 1;
+            if( null != shapes ) {
+                for(int i=0; i<shapes.length; i++) {
+                    // 31 * x == (x << 5) - x
+                    h = ((h << 5) - h) + System.identityHashCode(shapes[i]);
+                }
             }
-            region.addVertices(vertices);
+            this.hash = h;
         }
         
-        region.update(gl);
-        return region;
+        public final int hashCode() { return hash; }
+        
+        public final boolean equals(Object o) {
+            if( this == o ) {
+                return true;
+            }
+            if( !(o instanceof RegionKey) ) {
+                return false;
+            }
+            final OutlineShape[] s = ((RegionKey) o).shapes;
+            if( s.length != shapes.length ) {
+                return false;
+            }
+            for(int i=0; i<s.length; i++) {
+                if( s[i] != shapes[i] ) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
     
-    protected static int getHashCode(OutlineShape outlineShape){
-        return outlineShape.hashCode();
+    /**
+     * Cached Region and the per shape state it has been created from.
+     */
+    private static final class RegionEntry {
+        final RegionKey key;
+        final int[] versions;
+        final ArrayList<Triangle>[] triangles;
+        final ArrayList<Vertex>[] vertices;
+        float sharpness = Float.NaN;
+        Region region;
+        int byteSize;
+        
+        @SuppressWarnings("unchecked")
+        RegionEntry(OutlineShape[] shapes) {
+            key = new RegionKey(shapes);
+            versions = new int[shapes.length];
+            triangles = new ArrayList[shapes.length];
+            vertices = new ArrayList[shapes.length];
+        }
+        
+        boolean isValid(float sharpness) {
+            if( sharpness != this.sharpness ) {
+                return false;
+            }
+            for(int i=0; i<versions.length; i++) {
+                if( versions[i] != key.shapes[i].getVersion() ) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
     
-    protected static int getHashCode(OutlineShape[] outlineShapes){
-        int hashcode = 0;
-        for(OutlineShape outlineShape:outlineShapes){
-            hashcode += getHashCode(outlineShape);
-        }
-        return hashcode;
-    }       
-}
\ No newline at end of file
+    /** Default cache limit, see {@link #setCacheLimit(int)} */
+    public static final int DEFAULT_CACHE_LIMIT = 256;
+    
+    /** Access ordered, i.e. iteration starts w/ the least recently used entry */
+    private LinkedHashMap<RegionKey, RegionEntry> regionCacheMap = new LinkedHashMap<RegionKey, RegionEntry>(DEFAULT_CACHE_LIMIT, 0.75f, true);
+    private final RegionKey lookupKey = new RegionKey(null);
+    private final OutlineShape[] singleShape = new OutlineShape[1];
+    private int regionCacheLimit = DEFAULT_CACHE_LIMIT;
+    private long regionCacheByteLimit = 0;
+    private long regionCacheBytes = 0;
+    private long regionCacheHits = 0;
+    private long regionCacheMisses = 0;
+    private long regionCacheEvictions = 0;
+    private long regionCacheUpdates = 0;
+    private long triangulations = 0;
+}
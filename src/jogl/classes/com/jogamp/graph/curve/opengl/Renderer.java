@@ -189,6 +189,23 @@ public abstract class Renderer {
     public final RenderState getRenderState() { return rs; }
     public final ShaderState getShaderState() { return rs.getShaderState(); }
     
+    /** 
+     * @return the ratio of reserved to available texels of the FBO atlas 
+     *         shared by all {@link Region#TWO_PASS} regions of this renderer's {@link RenderState}
+     */
+    public final float getAtlasOccupancy() {
+        return ((RenderStateImpl) rs).getFBOAtlas().getOccupancy();
+    }
+    
+    /** 
+     * @return the vertical fragmentation ratio of the FBO atlas 
+     *         shared by all {@link Region#TWO_PASS} regions of this renderer's {@link RenderState},
+     *         see {@link com.jogamp.opengl.util.packrect.RectanglePacker#verticalFragmentationRatio()}
+     */
+    public final float getAtlasFragmentation() {
+        return ((RenderStateImpl) rs).getFBOAtlas().getFragmentation();
+    }
+    
     public final void enable(GL2ES2 gl, boolean enable) { 
         rs.getShaderState().useProgram(gl, enable);
     }
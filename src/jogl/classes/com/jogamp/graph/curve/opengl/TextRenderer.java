@@ -27,18 +27,21 @@
  */
 package com.jogamp.graph.curve.opengl;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 
 import javax.media.opengl.GL;
 import javax.media.opengl.GL2ES2;
+import javax.media.opengl.GLException;
 
+import jogamp.graph.curve.text.GlyphMesh;
+import jogamp.graph.curve.text.GlyphMeshCache;
 import jogamp.graph.curve.text.GlyphString;
 import jogamp.graph.font.FontInt;
 import jogamp.graph.geom.plane.AffineTransform;
 import jogamp.graph.geom.plane.Path2D;
 
+import com.jogamp.graph.curve.Region;
 import com.jogamp.graph.font.Font;
 
 public abstract class TextRenderer extends Renderer {
@@ -57,7 +60,11 @@ public abstract class TextRenderer extends Renderer {
     
 
     /** Render the String in 3D space wrt to the font provided at the position provided
-     * the outlines will be generated, if not yet generated
+     * the outlines will be generated, if not yet generated.
+     * <p>
+     * In {@link #setBatchMode(GL2ES2, boolean) batch mode} the string is only appended to the
+     * current batch, see {@link #flushBatch(GL2ES2)}.
+     * </p>
      * @param gl the current GL state
      * @param font {@link Font} to be used
      * @param str text to be rendered 
@@ -69,6 +76,33 @@ public abstract class TextRenderer extends Renderer {
     public abstract void renderString3D(GL2ES2 gl, Font font,
                                         String str, float[] position, int fontSize, int texSize);
 
+    /** Prepares the multipass rendering of the String w/o rendering it,
+     * the outlines will be generated, if not yet generated.
+     * <p>
+     * Preparing all strings of a frame before rendering them renders the first pass of all
+     * strings whose texture size has changed, e.g. while zooming, with one FBO bind,
+     * see {@link Region#prepare(GL2ES2, RenderState, int, int, int)}.
+     * </p>
+     * <p>
+     * No-op in {@link #setBatchMode(GL2ES2, boolean) batch mode}, if the cache is turned off
+     * or for {@link Region#SINGLE_PASS} rendering.
+     * </p>
+     * @param gl the current GL state
+     * @param font {@link Font} to be used
+     * @param str text to be rendered 
+     * @param fontSize font size
+     * @param texSize texture size for multipass render
+     * @throws GLException if TextRenderer not initialized
+     */
+    public final void prepareString3D(GL2ES2 gl, Font font, String str, int fontSize, int texSize) {
+        if(!isInitialized()){
+            throw new GLException("TextRenderer: not initialized!");
+        }
+        if( !isBatchMode() && Region.TWO_PASS == renderType && 0 != getCacheLimit() ) {
+            getGlyphString(gl, font, str, fontSize).prepareString3D(gl, rs, vp_width, vp_height, texSize);
+        }
+    }
+
     /**Create the resulting {@link GlyphString} that represents
      * the String wrt to the font.
      * @param font {@link Font} to be used
@@ -99,9 +133,72 @@ public abstract class TextRenderer extends Renderer {
            glyphString.destroy(gl, rs);
        }
        stringCacheMap.clear();    
-       stringCacheArray.clear();
+       stringCacheBytes = 0;
+       glyphMeshCache.clear();
+   }
+   
+   /**
+    * Enables or disables the batch mode.
+    * <p>
+    * In batch mode {@link #renderString3D(GL2ES2, Font, String, float[], int, int) renderString3D(..)}
+    * assembles the string from cached glyph meshes and appends it to a shared, growable VBO batch.
+    * The glyph meshes are font size independent and triangulated only once per {@link Font} and glyph, 
+    * hence dynamic text only costs a vertex copy instead of a triangulation per string.  
+    * </p>
+    * <p>
+    * The batch is rendered single pass with one draw call by {@link #flushBatch(GL2ES2)}, 
+    * usually once per frame. Since all batched strings share the current {@link #getMatrix() PMVMatrix}, 
+    * the string's position is applied to its vertices.
+    * </p>
+    * <p>
+    * Disabling the batch mode flushes the pending batch.
+    * </p>
+    * <p>
+    * The batch mode is not available for {@link Region#TWO_PASS} rendering, 
+    * since the batch can't be rendered with the two pass shader state.
+    * </p>
+    * 
+    * @param gl current GL used to flush the batch if required
+    * @param enable true to enable the batch mode
+    * @throws GLException if enabled for {@link Region#TWO_PASS} rendering
+    */
+   public final void setBatchMode(GL2ES2 gl, boolean enable) {
+       if( enable && Region.TWO_PASS == renderType ) {
+           throw new GLException("TextRenderer: batch mode not supported for TWO_PASS rendering");
+       }
+       if( batchMode && !enable ) {
+           flushBatch(gl);
+       }
+       batchMode = enable;
+   }
+   
+   /** 
+    * @return true if the batch mode is enabled 
+    * @see #setBatchMode(GL2ES2, boolean)
+    */
+   public final boolean isBatchMode() { return batchMode; }
+   
+   /**
+    * Renders all strings of the current batch with one draw call and clears the batch.
+    * <p>No-op if the batch is empty.</p>
+    * 
+    * @see #setBatchMode(GL2ES2, boolean)
+    */
+   public abstract void flushBatch(GL2ES2 gl);
+   
+   /**
+    * @return the font size independent triangulated mesh of the given glyph, 
+    *         created if not yet cached
+    */
+   protected final GlyphMesh getCachedGlyphMesh(Font.Glyph glyph) {
+       return glyphMeshCache.get(rs.getPointFactory(), (FontInt.Glyph) glyph, rs.getSharpness().floatValue());
    }
    
+   /**
+    * @return the number of cached glyph meshes used in batch mode
+    */
+   public final int getGlyphCacheSize() { return glyphMeshCache.getSize(); }
+   
    @Override
    protected void disposeImpl(GL2ES2 gl) {
        // fluchCache(gl) already called
@@ -113,6 +210,9 @@ public abstract class TextRenderer extends Renderer {
     * 
     * <p>The cache will be validate when the next string rendering happens.</p>
     *  
+    * <p>The least recently used GlyphString is evicted first, 
+    * see {@link #setCacheByteLimit(long)} for an additional GPU memory budget.</p>
+    *  
     * @param newLimit new cache size
     * 
     * @see #DEFAULT_CACHE_LIMIT
@@ -137,57 +237,185 @@ public abstract class TextRenderer extends Renderer {
    /** 
     * @return the current utilized cache size, <= {@link #getCacheLimit()}
     */
-   public final int getCacheSize() { return stringCacheArray.size(); }
+   public final int getCacheSize() { return stringCacheMap.size(); }
+   
+   /**
+    * <p>Sets the GPU memory budget of the cache in bytes, i.e. the sum of the VBO sizes 
+    * of the cached GlyphString's Region, see {@link #getCacheByteSize()}.
+    * Default is 0, no budget.</p>
+    * 
+    * <p>The least recently used GlyphString's are evicted until both, 
+    * the {@link #setCacheLimit(int) entry limit} and the byte budget are met.</p>
+    * 
+    * <p>The cache will be validate when the next string rendering happens.</p>
+    * 
+    * @param newByteLimit new budget in bytes, <= 0 for no budget
+    */
+   public final void setCacheByteLimit(long newByteLimit) { stringCacheByteLimit = newByteLimit; }
+   
+   /**
+    * Sets the GPU memory budget, see {@link #setCacheByteLimit(long)} and validates the cache.
+    * 
+    * @param gl current GL used to remove cached objects if required
+    * @param newByteLimit new budget in bytes, <= 0 for no budget
+    */
+   public final void setCacheByteLimit(GL2ES2 gl, long newByteLimit) { stringCacheByteLimit = newByteLimit; validateCache(gl, 0); }
+   
+   /**
+    * @return the current GPU memory budget of the cache in bytes, <= 0 if none
+    */
+   public final long getCacheByteLimit() { return stringCacheByteLimit; }
+   
+   /**
+    * @return the sum of the VBO sizes of all cached GlyphString's Region in bytes
+    */
+   public final long getCacheByteSize() { return stringCacheBytes; }
+   
+   /** @return number of cache lookups finding a GlyphString */
+   public final long getCacheHitCount() { return stringCacheHits; }
+   
+   /** @return number of cache lookups not finding a GlyphString */
+   public final long getCacheMissCount() { return stringCacheMisses; }
+   
+   /** @return number of GlyphString's evicted due to the cache limits */
+   public final long getCacheEvictionCount() { return stringCacheEvictions; }
+   
+   /** Resets the hit, miss and eviction counter. */
+   public final void resetCacheCounter() {
+       stringCacheHits = 0;
+       stringCacheMisses = 0;
+       stringCacheEvictions = 0;
+   }
    
    protected final void validateCache(GL2ES2 gl, int space) {
-       if ( getCacheLimit() > 0 ) {
-           while ( getCacheSize() + space > getCacheLimit() ) {
-               removeCachedGlyphString(gl, 0);
-           }
+       validateCache(gl, space, 0);
+   }
+   
+   /**
+    * Evicts the least recently used GlyphString's until the given space fits into the cache limits.
+    */
+   private void validateCache(GL2ES2 gl, int space, long spaceBytes) {
+       final Iterator<GlyphString> iterator = stringCacheMap.values().iterator();
+       while ( iterator.hasNext() && 
+               ( ( getCacheLimit() > 0 && getCacheSize() + space > getCacheLimit() ) ||
+                 ( getCacheByteLimit() > 0 && getCacheByteSize() + spaceBytes > getCacheByteLimit() ) ) ) {
+           final GlyphString glyphString = iterator.next();
+           iterator.remove();
+           stringCacheBytes -= glyphString.getByteSize();
+           stringCacheEvictions++;
+           glyphString.destroy(gl, rs);
        }
    }
    
    protected final GlyphString getCachedGlyphString(Font font, String str, int fontSize) {
-       return stringCacheMap.get(getKey(font, str, fontSize));
+       final GlyphString glyphString = stringCacheMap.get(new StringKey(font, str, fontSize));
+       if( null != glyphString ) {
+           stringCacheHits++;
+       } else {
+           stringCacheMisses++;
+       }
+       return glyphString;
+   }
+
+   /**
+    * @return the cached GlyphString, created and added to the cache if not cached yet
+    */
+   protected final GlyphString getGlyphString(GL2ES2 gl, Font font, String str, int fontSize) {
+       GlyphString glyphString = getCachedGlyphString(font, str, fontSize);
+       if(null == glyphString) {
+           glyphString = createString(gl, font, fontSize, str);
+           addCachedGlyphString(gl, font, str, fontSize, glyphString);
+       }
+       return glyphString;
    }
 
    protected final void addCachedGlyphString(GL2ES2 gl, Font font, String str, int fontSize, GlyphString glyphString) {
        if ( 0 != getCacheLimit() ) {
-           final String key = getKey(font, str, fontSize);
-           GlyphString oldGlyphString = stringCacheMap.put(key, glyphString);
-           if ( null == oldGlyphString ) {
-               // new entry ..
-               validateCache(gl, 1);
-               stringCacheArray.add(stringCacheArray.size(), key);
-           } /// else overwrite is nop ..
+           final StringKey key = new StringKey(font, str, fontSize);
+           final GlyphString oldGlyphString = stringCacheMap.remove(key);
+           if ( null != oldGlyphString ) {
+               stringCacheBytes -= oldGlyphString.getByteSize();
+               if( oldGlyphString != glyphString ) {
+                   oldGlyphString.destroy(gl, rs);
+               }
+           }
+           validateCache(gl, 1, glyphString.getByteSize());
+           stringCacheMap.put(key, glyphString);
+           stringCacheBytes += glyphString.getByteSize();
        }
    }
    
    protected final void removeCachedGlyphString(GL2ES2 gl, Font font, String str, int fontSize) {
-       final String key = getKey(font, str, fontSize);
-       GlyphString glyphString = stringCacheMap.remove(key);
+       final GlyphString glyphString = stringCacheMap.remove(new StringKey(font, str, fontSize));
        if(null != glyphString) {
+           stringCacheBytes -= glyphString.getByteSize();
            glyphString.destroy(gl, rs);
        }       
-       stringCacheArray.remove(key);
    }
 
+   /**
+    * Removes the cached GlyphString at the given position in access order,
+    * i.e. 0 is the least recently used one.
+    */
    protected final void removeCachedGlyphString(GL2ES2 gl, int idx) {
-       final String key = stringCacheArray.remove(idx);
-       final GlyphString glyphString = stringCacheMap.remove(key);
-       if(null != glyphString) {
+       final Iterator<GlyphString> iterator = stringCacheMap.values().iterator();
+       for(int i=0; i<idx && iterator.hasNext(); i++) {
+           iterator.next();
+       }
+       if( iterator.hasNext() ) {
+           final GlyphString glyphString = iterator.next();
+           iterator.remove();
+           stringCacheBytes -= glyphString.getByteSize();
            glyphString.destroy(gl, rs);
        }
    }
       
-   protected final String getKey(Font font, String str, int fontSize) {
-       return font.getName(Font.NAME_UNIQUNAME) + "." + str.hashCode() + "." + fontSize;
+   /** 
+    * Collision free cache key, 
+    * the font is compared by identity as {@link com.jogamp.graph.font.FontFactory} instances are unique.
+    */
+   private static final class StringKey {
+       final Font font;
+       final String str;
+       final int fontSize;
+       final int hash;
+       
+       StringKey(Font font, String str, int fontSize) {
+           this.font = font;
+           this.str = str;
+           this.fontSize = fontSize;
+           // 31 * x == (x << 5) - x
+           int h = 31 + System.identityHashCode(font);
+           h = ((h << 5) - h) + str.hashCode();
+           this.hash = ((h << 5) - h) + fontSize;
+       }
+       
+       public final int hashCode() { return hash; }
+       
+       public final boolean equals(Object o) {
+           if( this == o ) {
+               return true;
+           }
+           if( !(o instanceof StringKey) ) {
+               return false;
+           }
+           final StringKey k = (StringKey) o;
+           return font == k.font && fontSize == k.fontSize && str.equals(k.str);
+       }
    }
 
    /** Default cache limit, see {@link #setCacheLimit(int)} */
    public static final int DEFAULT_CACHE_LIMIT = 256;
    
-   private HashMap<String, GlyphString> stringCacheMap = new HashMap<String, GlyphString>(DEFAULT_CACHE_LIMIT);
-   private ArrayList<String> stringCacheArray = new ArrayList<String>(DEFAULT_CACHE_LIMIT);
+   /** Access ordered, i.e. iteration starts w/ the least recently used entry */
+   private LinkedHashMap<StringKey, GlyphString> stringCacheMap = new LinkedHashMap<StringKey, GlyphString>(DEFAULT_CACHE_LIMIT, 0.75f, true);
    private int stringCacheLimit = DEFAULT_CACHE_LIMIT;      
+   private long stringCacheByteLimit = 0;
+   private long stringCacheBytes = 0;
+   private long stringCacheHits = 0;
+   private long stringCacheMisses = 0;
+   private long stringCacheEvictions = 0;
+   
+   private GlyphMeshCache glyphMeshCache = new GlyphMeshCache();
+   private boolean batchMode = false;
 }
\ No newline at end of file
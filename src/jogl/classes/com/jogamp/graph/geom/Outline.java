@@ -48,6 +48,7 @@ public class Outline implements Comparable<Outline> {
     private ArrayList<Vertex> vertices = new ArrayList<Vertex>(3);
     private boolean closed = false;
     private AABBox box = new AABBox();
+    private int version = 0;
     
     /**Create an outline defined by control vertices.
      * An outline can contain off Curve vertices which define curved
@@ -64,6 +65,7 @@ public class Outline implements Comparable<Outline> {
     public final void addVertex(Vertex vertex) {
         vertices.add(vertex);
         box.resize(vertex.getX(), vertex.getY(), vertex.getZ());
+        version++;
     }
     
     /**  Add a {@link Vertex} by specifying its 2D attributes to the outline. 
@@ -132,6 +134,7 @@ public class Outline implements Comparable<Outline> {
     }
     public void setVertices(ArrayList<Vertex> vertices) {
         this.vertices = vertices;
+        version++;
     }
     public AABBox getBox() {
         return box;
@@ -154,10 +157,28 @@ public class Outline implements Comparable<Outline> {
             if(!VectorUtil.checkEquality(first.getCoord(), last.getCoord())){
                 Vertex v = first.clone();
                 vertices.add(v);
+                version++;
             }
         }
     }
     
+    /** 
+     * Returns the modification counter, incremented by each structural change
+     * like adding vertices, used to detect stale triangulations.
+     * <p>
+     * Changing a {@link Vertex} of this outline in place is not tracked, 
+     * use {@link #markModified()} in such case.
+     * </p>
+     */
+    public final int getVersion() {
+        return version;
+    }
+    
+    /** Marks this outline modified, e.g. after changing one of its vertices in place. */
+    public final void markModified() {
+        version++;
+    }
+    
     /** Compare two outlines with Bounding Box area
      * as criteria. 
      * @see java.lang.Comparable#compareTo(java.lang.Object)
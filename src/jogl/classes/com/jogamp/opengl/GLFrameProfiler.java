@@ -0,0 +1,206 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+
+import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.GLEventListener;
+
+import jogamp.opengl.GLFrameProfilerImpl;
+
+/**
+ * Opt-in profiling of the frames rendered by {@link GLAutoDrawable}s.
+ * <p>
+ * If enabled, each frame rendered via <code>display()</code> records the duration of the
+ * phases {@link #MAKE_CURRENT}, {@link #DISPLAY}, {@link #SWAP_BUFFERS} and {@link #GL_RUNNABLES},
+ * the duration of each {@link GLEventListener#display(GLAutoDrawable)} call
+ * and, if {@link #setGPUTimingEnabled(boolean) enabled} and available,
+ * the GPU time of the display phase via <code>GL_TIME_ELAPSED</code> timer queries, see {@link #GPU_DISPLAY}.
+ * GPU times are read back w/o stalling the pipeline and hence lag a few frames.
+ * </p>
+ * <p>
+ * Profiling is disabled by default, it may be enabled via {@link #setEnabled(boolean)}
+ * or the property <code>jogl.debug.FrameProfiler</code>, which also dumps a summary
+ * every {@link javax.media.opengl.FPSCounter#DEFAULT_FRAMES_PER_INTERVAL} frames to <code>System.err</code>.
+ * If disabled, the cost for the rendering thread is a single volatile read per frame.
+ * </p>
+ */
+public class GLFrameProfiler {
+    /** Phase: Duration of making the context current. */
+    public static final int MAKE_CURRENT = 0;
+    /** Phase: Duration of all {@link GLEventListener#display(GLAutoDrawable)} calls, including pending initialization. */
+    public static final int DISPLAY      = 1;
+    /** Phase: Duration of the automatic buffer swap. */
+    public static final int SWAP_BUFFERS = 2;
+    /** Phase: Duration of the execution of queued {@link javax.media.opengl.GLRunnable}s. */
+    public static final int GL_RUNNABLES = 3;
+    /** Phase: GPU time of the {@link #DISPLAY} phase, measured w/ <code>GL_TIME_ELAPSED</code> timer queries. */
+    public static final int GPU_DISPLAY  = 4;
+    /** Number of phases */
+    public static final int PHASE_COUNT  = 5;
+
+    /** Receives each profiled frame. */
+    public interface Listener {
+        /**
+         * Called on the rendering thread after each profiled frame.
+         * Implementations shall return quickly.
+         */
+        void frameProfiled(Profile profile);
+    }
+
+    /** The accumulated frame profile of one {@link GLAutoDrawable}. */
+    public interface Profile {
+        /** Returns the profiled drawable, or null if it has been garbage collected. */
+        GLAutoDrawable getDrawable();
+
+        /** Returns the number of profiled frames since creation or {@link #reset()}. */
+        long getFrames();
+
+        /** Returns a snapshot of the given phase's statistics, e.g. {@link GLFrameProfiler#DISPLAY}. */
+        Stats getPhaseStats(int phase);
+
+        /** Returns a snapshot of the display statistics per {@link GLEventListener}. */
+        Map<GLEventListener, Stats> getListenerStats();
+
+        /** Clears all statistics. */
+        void reset();
+    }
+
+    /** Immutable timing statistics in nanoseconds. */
+    public static class Stats {
+        private final long count, total, min, max, last;
+
+        public Stats(long count, long total, long min, long max, long last) {
+            this.count = count; this.total = total; this.min = min; this.max = max; this.last = last;
+        }
+
+        /** Number of samples */
+        public long getCount() { return count; }
+        /** Sum of all samples in nanoseconds */
+        public long getTotal() { return total; }
+        /** Shortest sample in nanoseconds, 0 if none */
+        public long getMin() { return min; }
+        /** Longest sample in nanoseconds, 0 if none */
+        public long getMax() { return max; }
+        /** Last sample in nanoseconds, 0 if none */
+        public long getLast() { return last; }
+        /** Average in nanoseconds, 0 if none */
+        public long getAverage() { return count > 0 ? total / count : 0; }
+
+        public StringBuilder toString(StringBuilder sb) {
+            if(null==sb) {
+                sb = new StringBuilder();
+            }
+            sb.append("avg ").append(toMillis(getAverage())).append(" ms, max ").append(toMillis(max))
+              .append(" ms, last ").append(toMillis(last)).append(" ms, ").append(count).append(" x");
+            return sb;
+        }
+
+        public String toString() {
+            return toString(null).toString();
+        }
+
+        private static String toMillis(long nanos) {
+            final long micros = nanos / 1000;
+            final long frac = micros % 1000;
+            return ( micros / 1000 ) + "." + ( frac < 10 ? "00" : ( frac < 100 ? "0" : "" ) ) + frac;
+        }
+    }
+
+    /** Returns the name of the given phase. */
+    public static String getPhaseName(int phase) {
+        switch(phase) {
+            case MAKE_CURRENT: return "makeCurrent";
+            case DISPLAY:      return "display";
+            case SWAP_BUFFERS: return "swapBuffers";
+            case GL_RUNNABLES: return "glRunnables";
+            case GPU_DISPLAY:  return "gpuDisplay";
+            default:           return "phase-"+phase;
+        }
+    }
+
+    /** Enables or disables frame profiling for all drawables. */
+    public static void setEnabled(boolean enable) {
+        GLFrameProfilerImpl.setEnabled(enable);
+    }
+
+    /** Returns true if frame profiling is enabled. */
+    public static boolean isEnabled() {
+        return GLFrameProfilerImpl.isEnabled();
+    }
+
+    /**
+     * Enables or disables GPU timing via <code>GL_TIME_ELAPSED</code> timer queries,
+     * which is used for GL3 contexts supporting <code>glGetQueryObjectui64v</code>. Disabled by default.
+     */
+    public static void setGPUTimingEnabled(boolean enable) {
+        GLFrameProfilerImpl.setGPUTimingEnabled(enable);
+    }
+
+    /** Returns true if GPU timing is enabled. */
+    public static boolean isGPUTimingEnabled() {
+        return GLFrameProfilerImpl.isGPUTimingEnabled();
+    }
+
+    /**
+     * @param frames Summary interval in frames per drawable. If <= 0, no summary is printed.
+     * @param out print stream where the summary of a drawable's profile gets printed at every <i>frames</i> interval
+     */
+    public static void setUpdateFrames(int frames, PrintStream out) {
+        GLFrameProfilerImpl.setUpdateFrames(frames, out);
+    }
+
+    public static void addListener(Listener l) {
+        GLFrameProfilerImpl.addListener(l);
+    }
+
+    public static void removeListener(Listener l) {
+        GLFrameProfilerImpl.removeListener(l);
+    }
+
+    /** Returns the profile of the given drawable, or null if no frame of it has been profiled yet. */
+    public static Profile getProfile(GLAutoDrawable drawable) {
+        return GLFrameProfilerImpl.getProfile(drawable);
+    }
+
+    /** Returns the profiles of all profiled drawables still alive. */
+    public static List<Profile> getProfiles() {
+        return GLFrameProfilerImpl.getProfiles();
+    }
+
+    /** Clears the statistics of all profiles. */
+    public static void reset() {
+        List<Profile> profiles = getProfiles();
+        for(int i=0; i<profiles.size(); i++) {
+            profiles.get(i).reset();
+        }
+    }
+}
@@ -148,6 +148,7 @@ public class Animator extends AnimatorBase {
                             if (DEBUG) {
                                 System.err.println("Animator pause:" + Thread.currentThread() + ": " + toString());
                             }
+                            releaseStickyContext(false);
                             setIsAnimatingSynced(false); // barrier
                             Animator.this.notifyAll();
                             try {
@@ -183,6 +184,7 @@ public class Animator extends AnimatorBase {
                     if(DEBUG) {
                         System.err.println("Animator stop " + Thread.currentThread() + ": " + toString());
                     }
+                    stopImpl();
                     stopIssued = false;
                     pauseIssued = false;
                     animThread = null;
@@ -31,6 +31,7 @@ package com.jogamp.opengl.util;
 import com.jogamp.common.util.locks.RecursiveLock;
 import jogamp.opengl.Debug;
 import jogamp.opengl.FPSCounterImpl;
+import jogamp.opengl.GLDrawableHelper;
 
 import java.io.PrintStream;
 import java.util.ArrayList;
@@ -68,6 +69,7 @@ public abstract class AnimatorBase implements GLAnimatorControl {
     protected boolean printExceptions;
     protected FPSCounterImpl fpsCounter = new FPSCounterImpl();    
     protected RecursiveLock stateSync = new RecursiveLock();
+    protected volatile boolean stickyContext;
 
     /** Creates a new, empty Animator. */
     public AnimatorBase() {
@@ -139,10 +141,113 @@ public abstract class AnimatorBase implements GLAnimatorControl {
         components this Animator manages, in particular when multiple
         lightweight widgets are continually being redrawn. */
     protected void display() {
+        final boolean sticky = stickyContext;
+        if (sticky != GLDrawableHelper.isStickyContextThread()) {
+            GLDrawableHelper.setStickyContextThread(sticky);
+        }
+        if (sticky) {
+            GLDrawableHelper.releaseStickyContext(true);
+        }
         impl.display(drawables, ignoreExceptions, printExceptions);
         fpsCounter.tickFPS();
     }
 
+    /**
+     * Enables or disables sticky contexts.
+     * <p>
+     * If enabled, the contexts of drawables rendered on the animation thread are left current between frames,
+     * saving the native makeCurrent/release calls of each frame, which are expensive on some platforms, e.g. X11/GLX.
+     * A context is released once another drawable is rendered, another thread requires it,
+     * the animation is paused or stopped, or sticky contexts get disabled.
+     * Other threads requiring the context wait at most one frame for its release.
+     * </p>
+     * <p>
+     * Most efficient when animating a single drawable. Not applied to drawables rendered on other threads,
+     * e.g. lightweight AWT components or worker threads, see {@link #setParallelDisplay(boolean, boolean)}.
+     * Takes effect with the next frame.
+     * </p>
+     */
+    public final void setStickyContext(boolean enable) {
+        stickyContext = enable;
+    }
+
+    /** Returns true if sticky contexts are enabled, see {@link #setStickyContext(boolean)}. */
+    public final boolean isStickyContext() {
+        return stickyContext;
+    }
+
+    /**
+     * Releases a context left current on the animation thread, see {@link #setStickyContext(boolean)}.
+     * To be called by subclasses on the animation thread before waiting.
+     * @param onlyIfRequested if true, only release it if another thread requires it
+     */
+    protected final void releaseStickyContext(boolean onlyIfRequested) {
+        if (GLDrawableHelper.isStickyContextThread()) {
+            GLDrawableHelper.releaseStickyContext(onlyIfRequested);
+        }
+    }
+
+    /**
+     * Enables or disables parallel display of the managed drawables.
+     * <p>
+     * If enabled, each drawable is rendered on its own worker thread, where drawables
+     * with shared contexts are grouped on the same worker. Each frame still ends once all
+     * drawables have been rendered, hence pause, resume and stop behave as in serial mode,
+     * but the frame duration is bound by the slowest drawable instead of the sum of all.
+     * </p>
+     * <p>
+     * If <code>frameBarrier</code> is true, the buffers of all drawables using automatic
+     * buffer swapping are swapped only after every drawable has finished rendering the frame.
+     * </p>
+     * <p>
+     * Intended for independent heavyweight drawables, e.g. one {@link javax.media.opengl.GLAutoDrawable}
+     * per monitor. The animation is paused while switching modes.
+     * </p>
+     */
+    public final synchronized void setParallelDisplay(boolean enable, boolean frameBarrier) {
+        final boolean paused = pause();
+        if (impl instanceof ParallelAnimatorImpl) {
+            final ParallelAnimatorImpl pImpl = (ParallelAnimatorImpl) impl;
+            pImpl.shutdown();
+            impl = pImpl.getSerialImpl();
+        }
+        if (enable) {
+            impl = new ParallelAnimatorImpl(impl, frameBarrier, baseName);
+        }
+        if (paused) {
+            resume();
+        }
+    }
+
+    /** Returns true if parallel display is enabled, see {@link #setParallelDisplay(boolean, boolean)}. */
+    public final boolean isParallelDisplay() {
+        return impl instanceof ParallelAnimatorImpl;
+    }
+
+    /**
+     * Returns the duration of the last <code>display()</code> call of the given drawable in nanoseconds,
+     * or -1 if it has not been rendered yet or parallel display is disabled,
+     * see {@link #setParallelDisplay(boolean, boolean)}.
+     */
+    public final long getLastFrameDuration(GLAutoDrawable drawable) {
+        final AnimatorImpl _impl = impl;
+        if (_impl instanceof ParallelAnimatorImpl) {
+            return ((ParallelAnimatorImpl) _impl).getLastFrameDuration(drawable);
+        }
+        return -1;
+    }
+
+    /** Releases the worker threads of the parallel display mode, if enabled,
+        and a context left current on the animation thread.
+        To be called by subclasses on the animation thread once the animation has stopped. */
+    protected final void stopImpl() {
+        GLDrawableHelper.setStickyContextThread(false);
+        final AnimatorImpl _impl = impl;
+        if (_impl instanceof ParallelAnimatorImpl) {
+            ((ParallelAnimatorImpl) _impl).shutdown();
+        }
+    }
+
     public final void setUpdateFPSFrames(int frames, PrintStream out) {
         fpsCounter.setUpdateFPSFrames(frames, out);
     }
@@ -183,6 +288,27 @@ public abstract class AnimatorBase implements GLAnimatorControl {
         return fpsCounter.getTotalFPS();
     }        
 
+    /**
+     * Returns the given percentile of the recent frame times in nanoseconds,
+     * e.g. 0.5f, 0.95f or 0.99f, or 0 if not available yet.
+     * The frame time is the duration between the end of two consecutive frames,
+     * see {@link FPSCounterImpl#FRAME_TIME_SAMPLES} for the number of recorded frames.
+     */
+    public final long getFrameTimePercentile(float p) {
+        return fpsCounter.getFrameTimePercentile(p);
+    }
+
+    /** Returns the longest recent frame time in nanoseconds, see {@link #getFrameTimePercentile(float)}. */
+    public final long getMaxFrameTime() {
+        return fpsCounter.getMaxFrameTime();
+    }
+
+    /** Returns the jitter, i.e. the standard deviation of the recent frame times in nanoseconds,
+        see {@link #getFrameTimePercentile(float)}. */
+    public final long getFrameTimeJitter() {
+        return fpsCounter.getFrameTimeJitter();
+    }
+
     public final Thread getThread() {
         stateSync.lock();
         try {
@@ -0,0 +1,166 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * A pool of direct {@link ByteBuffer}s in native byte order,
+ * allowing repeatedly rebuilt arrays to reuse native memory
+ * instead of allocating new direct buffers, which are only reclaimed by the GC.
+ * <p>
+ * Buffers are managed in power of two capacity buckets,
+ * i.e. {@link #acquire(int)} may return a buffer with a larger capacity than requested.
+ * The pool retains at most {@link #getMaxPooledBytes()} bytes, 
+ * excess buffers passed to {@link #release(ByteBuffer)} are left to the GC.
+ * </p>
+ * <p>
+ * A released buffer must no longer be used by the releasing party, 
+ * including any views created from it.
+ * </p>
+ * <p>
+ * All methods are thread safe.
+ * </p>
+ */
+public class DirectBufferPool {
+    /** Smallest pooled capacity in bytes, smaller requests are rounded up. */
+    public static final int MIN_BUCKET_SIZE = 64;
+    
+    /** Default maximum of retained bytes, see {@link #DirectBufferPool()} */ 
+    public static final int DEFAULT_MAX_POOLED_BYTES = 16 * 1024 * 1024;
+    
+    private static final int MIN_BUCKET_SHIFT = 6; // 1 << 6 == MIN_BUCKET_SIZE
+    
+    private final ArrayList<ByteBuffer>[] buckets;
+    private final int maxPooledBytes;
+    private int pooledBytes;
+    private long hitCount, missCount;
+    
+    /**
+     * Creates a pool retaining at most {@link #DEFAULT_MAX_POOLED_BYTES}.
+     */
+    public DirectBufferPool() {
+        this(DEFAULT_MAX_POOLED_BYTES);
+    }
+    
+    /**
+     * @param maxPooledBytes maximum number of bytes retained by this pool
+     */
+    @SuppressWarnings("unchecked")
+    public DirectBufferPool(int maxPooledBytes) {
+        this.maxPooledBytes = maxPooledBytes;
+        this.buckets = new ArrayList[32 - MIN_BUCKET_SHIFT];
+    }
+    
+    /**
+     * Returns a cleared direct buffer in native byte order 
+     * with a capacity of at least <code>byteSize</code>.
+     */
+    public synchronized ByteBuffer acquire(int byteSize) {
+        final int idx = getBucketIndex(byteSize);
+        final ArrayList<ByteBuffer> bucket = buckets[idx];
+        if( null != bucket && bucket.size() > 0 ) {
+            final ByteBuffer bb = bucket.remove(bucket.size()-1);
+            pooledBytes -= bb.capacity();
+            hitCount++;
+            bb.clear();
+            return bb;
+        }
+        missCount++;
+        return Buffers.newDirectByteBuffer(MIN_BUCKET_SIZE << idx);
+    }
+    
+    /**
+     * Passes the given buffer back to this pool.
+     * <p>
+     * Only direct buffers with a bucket capacity, i.e. the ones returned by {@link #acquire(int)}, are retained
+     * as long the pool limit is not exceeded.
+     * </p>
+     * 
+     * @return true if the buffer is retained by this pool, otherwise false
+     */
+    public synchronized boolean release(ByteBuffer bb) {
+        if( null == bb || !bb.isDirect() ) {
+            return false;
+        }
+        final int capacity = bb.capacity();
+        if( capacity < MIN_BUCKET_SIZE || 0 != ( capacity & ( capacity - 1 ) ) || 
+            pooledBytes + capacity > maxPooledBytes ) {
+            return false;
+        }
+        final int idx = getBucketIndex(capacity);
+        ArrayList<ByteBuffer> bucket = buckets[idx];
+        if( null == bucket ) {
+            bucket = new ArrayList<ByteBuffer>();
+            buckets[idx] = bucket;
+        }
+        bucket.add(bb);
+        pooledBytes += capacity;
+        return true;
+    }
+    
+    /** Releases all retained buffers to the GC. */
+    public synchronized void clear() {
+        for(int i=0; i<buckets.length; i++) {
+            buckets[i] = null;
+        }
+        pooledBytes = 0;
+    }
+    
+    /** @return the number of currently retained bytes */
+    public synchronized int getPooledBytes() { return pooledBytes; }
+    
+    /** @return the maximum number of retained bytes */
+    public final int getMaxPooledBytes() { return maxPooledBytes; }
+    
+    /** @return number of {@link #acquire(int)} calls served by a retained buffer */
+    public synchronized long getHitCount() { return hitCount; }
+
+    /** @return number of {@link #acquire(int)} calls allocating a new buffer */
+    public synchronized long getMissCount() { return missCount; }
+    
+    public synchronized String toString() {
+        return "DirectBufferPool[pooled "+pooledBytes+" / "+maxPooledBytes+" bytes, hits "+hitCount+", misses "+missCount+"]";
+    }
+    
+    /** @return the index of the smallest bucket holding <code>byteSize</code> bytes */
+    private static int getBucketIndex(int byteSize) {
+        if( byteSize <= MIN_BUCKET_SIZE ) {
+            return 0;
+        }
+        if( byteSize > ( 1 << 30 ) ) {
+            throw new IllegalArgumentException("Buffer size exceeds pool limits: "+byteSize);
+        }
+        // ceil(log2(byteSize)) - MIN_BUCKET_SHIFT
+        return ( 32 - Integer.numberOfLeadingZeros(byteSize - 1) ) - MIN_BUCKET_SHIFT;
+    }
+}
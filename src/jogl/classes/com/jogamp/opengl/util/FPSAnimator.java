@@ -39,18 +39,39 @@
  */
 package com.jogamp.opengl.util;
 
-import java.util.*;
+import java.util.concurrent.locks.LockSupport;
 import javax.media.opengl.*;
 
 /** An Animator subclass which attempts to achieve a target
 frames-per-second rate to avoid using all CPU time. The target FPS
-is only an estimate and is not guaranteed. */
+is only an estimate and is not guaranteed.
+ * <p>
+ * Frames are paced by a dedicated thread against absolute {@link System#nanoTime()} deadlines.
+ * The thread parks until shortly before a deadline and yields for the remaining
+ * {@link #setSpinThreshold(long) spin threshold}, hence the frame period does not suffer
+ * from millisecond timer granularity nor accumulate drift.
+ * </p>
+ * <p>
+ * With fixed-delay scheduling, the default, an overrun frame restarts the schedule from its end.
+ * With fixed-rate scheduling, missed frames are caught up, unless {@link #setFrameSkipping(boolean) frame skipping}
+ * is enabled, which drops them while keeping the phase of the schedule.
+ * </p>
+ */
 public class FPSAnimator extends AnimatorBase {
-    private Timer timer = null;
-    private TimerTask task = null;
+    /** Default {@link #setSpinThreshold(long) spin threshold} in nanoseconds, 1 ms. */
+    public static final long DEFAULT_SPIN_THRESHOLD = 1000000L;
+    /** Max. park duration in nanoseconds while a context is left current, see {@link #setStickyContext(boolean)}. */
+    private static final long STICKY_POLL_PERIOD = 10000000L;
+
+    private Thread thread = null;
     private int fps;
     private boolean scheduleAtFixedRate;
-    private volatile boolean shouldRun;
+    private volatile boolean frameSkipping;
+    private volatile long spinThreshold = DEFAULT_SPIN_THRESHOLD;
+    private volatile boolean pauseIssued;
+    private volatile boolean stopIssued;
+    private boolean isAnimating;
+    private volatile long skippedFrames;
 
     protected String getBaseName(String prefix) {
         return "FPS" + prefix + "Animator" ;
@@ -88,10 +109,32 @@ public class FPSAnimator extends AnimatorBase {
         this.scheduleAtFixedRate = scheduleAtFixedRate;
     }
 
+    /**
+     * Sets whether frames missed with fixed-rate scheduling are dropped instead of
+     * being rendered back to back. Has no effect with fixed-delay scheduling. Defaults to false.
+     */
+    public final void setFrameSkipping(boolean skip) {
+        frameSkipping = skip;
+    }
+
+    /** Returns the number of frames dropped due to {@link #setFrameSkipping(boolean) frame skipping} since start. */
+    public final long getSkippedFrames() {
+        return skippedFrames;
+    }
+
+    /**
+     * Sets the time in nanoseconds before a frame deadline, in which the animation thread
+     * yields instead of parking. A larger value trades CPU time for precision,
+     * 0 disables spinning. Defaults to {@link #DEFAULT_SPIN_THRESHOLD}.
+     */
+    public final void setSpinThreshold(long nanos) {
+        spinThreshold = Math.max(0, nanos);
+    }
+
     public final boolean isStarted() {
         stateSync.lock();
         try {
-            return (timer != null);
+            return (thread != null);
         } finally {
             stateSync.unlock();
         }
@@ -100,7 +143,7 @@ public class FPSAnimator extends AnimatorBase {
     public final boolean isAnimating() {
         stateSync.lock();
         try {
-            return (timer != null) && (task != null);
+            return (thread != null) && isAnimating;
         } finally {
             stateSync.unlock();
         }
@@ -109,110 +152,203 @@ public class FPSAnimator extends AnimatorBase {
     public final boolean isPaused() {
         stateSync.lock();
         try {
-            return (timer != null) && (task == null);
+            return (thread != null) && pauseIssued;
         } finally {
             stateSync.unlock();
         }
     }
 
-    private void startTask() {
-        if(null != task) {
-            return;
+    private void setIsAnimatingSynced(boolean v) {
+        stateSync.lock();
+        try {
+            isAnimating = v;
+        } finally {
+            stateSync.unlock();
         }
-        long delay = (long) (1000.0f / (float) fps);
-        task = new TimerTask() {
-            public void run() {
-                if(FPSAnimator.this.shouldRun) {
-                    FPSAnimator.this.animThread = Thread.currentThread();
-                    // display impl. uses synchronized block on the animator instance
+    }
+
+    class PacingLoop implements Runnable {
+        public void run() {
+            final long period = 1000000000L / Math.max(1, fps);
+            long deadline = System.nanoTime();
+            try {
+                while (true) {
+                    synchronized (FPSAnimator.this) {
+                        if (pauseIssued && !stopIssued) {
+                            releaseStickyContext(false);
+                            setIsAnimatingSynced(false); // barrier
+                            FPSAnimator.this.notifyAll();
+                            while (pauseIssued && !stopIssued) {
+                                try {
+                                    FPSAnimator.this.wait();
+                                } catch (InterruptedException e) { }
+                            }
+                            // resume from pause -> reset counter and schedule
+                            fpsCounter.resetFPSCounter();
+                            deadline = System.nanoTime();
+                        }
+                        if (stopIssued) {
+                            break;
+                        }
+                        if (!isAnimating) {
+                            setIsAnimatingSynced(true);
+                            FPSAnimator.this.notifyAll();
+                        }
+                    }
+                    if (!waitUntil(deadline)) {
+                        continue; // pause or stop issued
+                    }
                     display();
+
+                    if (scheduleAtFixedRate) {
+                        deadline += period;
+                        final long late = System.nanoTime() - deadline;
+                        if (frameSkipping && late >= period) {
+                            final long missed = late / period;
+                            deadline += missed * period;
+                            skippedFrames += missed;
+                        }
+                    } else {
+                        deadline += period;
+                        if (System.nanoTime() - deadline >= period) {
+                            // overrun, restart the schedule instead of bursting
+                            deadline = System.nanoTime();
+                        }
+                    }
+                }
+            } finally {
+                synchronized (FPSAnimator.this) {
+                    stopImpl();
+                    stopIssued = false;
+                    pauseIssued = false;
+                    animThread = null;
+                    stateSync.lock();
+                    try {
+                        thread = null;
+                        isAnimating = false;
+                    } finally {
+                        stateSync.unlock();
+                    }
+                    FPSAnimator.this.notifyAll();
                 }
             }
-        };
+        }
 
-        fpsCounter.resetFPSCounter();
-        shouldRun = true;
+        /**
+         * Parks until shortly before the deadline and yields for the remaining spin threshold.
+         * @return false if interrupted by a pause or stop request
+         */
+        private boolean waitUntil(long deadline) {
+            while (true) {
+                if (pauseIssued || stopIssued) {
+                    return false;
+                }
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return true;
+                }
+                final long spin = spinThreshold;
+                if (stickyContext) {
+                    // serve release requests of other threads while waiting
+                    releaseStickyContext(true);
+                    if (remaining - spin > STICKY_POLL_PERIOD) {
+                        LockSupport.parkNanos(STICKY_POLL_PERIOD);
+                        continue;
+                    }
+                }
+                if (remaining > spin) {
+                    LockSupport.parkNanos(remaining - spin);
+                } else {
+                    Thread.yield();
+                }
+            }
+        }
+    }
 
-        if (scheduleAtFixedRate) {
-            timer.scheduleAtFixedRate(task, 0, delay);
-        } else {
-            timer.schedule(task, 0, delay);
+    /** Waits, unless called on the animation thread, while the condition holds. */
+    private void finishLifecycleAction(Animator.Condition condition) {
+        if (!impl.skipWaitForCompletion(animThread)) {
+            while (condition.result()) {
+                try {
+                    wait();
+                } catch (InterruptedException ie) { }
+            }
         }
     }
 
     public synchronized boolean  start() {
-        if (timer != null) {
+        if (thread != null) {
             return false;
         }
+        fpsCounter.resetFPSCounter();
+        skippedFrames = 0;
+        final Thread t = new Thread(new PacingLoop(), Thread.currentThread().getName()+"-"+baseName);
         stateSync.lock();
         try {
-            timer = new Timer();
-            startTask();
+            stopIssued = false;
+            pauseIssued = false;
+            thread = t;
+            animThread = t;
         } finally {
             stateSync.unlock();
         }
+        t.start();
         return true;
     }
 
-    /** Stops this FPSAnimator. Due to the implementation of the
-    FPSAnimator it is not guaranteed that the FPSAnimator will be
-    completely stopped by the time this method returns. */
+    /** Stops this FPSAnimator. Unless called on the animation thread,
+    it waits until the animation thread has finished. */
     public synchronized boolean stop() {
-        if (timer == null) {
+        if (thread == null) {
             return false;
         }
-        stateSync.lock();
-        try {
-            shouldRun = false;
-            if(null != task) {
-                task.cancel();
-                task = null;
+        final Thread t = thread;
+        stopIssued = true;
+        notifyAll();
+        LockSupport.unpark(t);
+        finishLifecycleAction(new Animator.Condition() {
+            public boolean result() {
+                return thread == t;
             }
-            if(null != timer) {
-                timer.cancel();
-                timer = null;
-            }
-            animThread = null;
-            try {
-                Thread.sleep(20); // ~ 1/60 hz wait, since we can't ctrl stopped threads
-            } catch (InterruptedException e) { }
-        } finally {
-            stateSync.unlock();
-        }
+        });
         return true;
     }
 
     public synchronized boolean pause() {
-        if (timer == null) {
+        if (thread == null || pauseIssued) {
             return false;
         }
         stateSync.lock();
         try {
-            shouldRun = false;
-            if(null != task) {
-                task.cancel();
-                task = null;
-            }
-            animThread = null;
-            try {
-                Thread.sleep(20); // ~ 1/60 hz wait, since we can't ctrl stopped threads
-            } catch (InterruptedException e) { }
+            pauseIssued = true;
         } finally {
             stateSync.unlock();
         }
+        LockSupport.unpark(thread);
+        finishLifecycleAction(new Animator.Condition() {
+            public boolean result() {
+                return isAnimating && thread != null;
+            }
+        });
         return true;
     }
 
     public synchronized boolean resume() {
-        if (timer == null) {
+        if (thread == null || !pauseIssued) {
             return false;
         }
         stateSync.lock();
         try {
-            startTask();
+            pauseIssued = false;
         } finally {
             stateSync.unlock();
         }
+        notifyAll();
+        finishLifecycleAction(new Animator.Condition() {
+            public boolean result() {
+                return !isAnimating && !pauseIssued && thread != null;
+            }
+        });
         return true;
     }
 }
@@ -27,6 +27,11 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
           }
       }) != null;
 
+  /**
+   * Default growth factor of the client buffer, see {@link #setGrowthFactor(float)}.
+   */
+  public static final float DEFAULT_GROWTH_FACTOR = 2.0f;
+
   /**
    * Create a client side buffer object, using a predefined fixed function array index
    * and starting with a new created Buffer object with initialSize size
@@ -149,6 +154,7 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
 
   public void destroy(GL gl) {
     reset(gl);
+    releaseBufferStorage();
     super.destroy(gl);
   }
 
@@ -178,6 +184,44 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
     enableBufferAlways = always;
   }
 
+  /**
+   * Sets the factor the client buffer capacity is multiplied with,
+   * if the buffer needs to grow. 
+   * <p>
+   * The geometric growth results in an amortized constant cost
+   * of the element wise put methods. 
+   * A factor <= 1 grows the buffer linearly by the initial size.
+   * </p>
+   * <p>
+   * The default is {@link #DEFAULT_GROWTH_FACTOR}.
+   * </p>
+   */
+  public final void setGrowthFactor(float factor) {
+    growthFactor = factor;
+  }
+
+  public final float getGrowthFactor() { return growthFactor; }
+
+  /**
+   * Sets an optional {@link DirectBufferPool} used to allocate the client buffer
+   * when it needs to grow. Replaced buffers and the buffer at {@link #destroy(GL)}
+   * are passed back to the pool, hence they are reused by subsequent allocations.
+   * <p>
+   * The pool may be shared by multiple arrays, 
+   * e.g. arrays which are repeatedly destroyed and rebuilt.
+   * </p>
+   * <p>
+   * The default is <code>null</code>, i.e. new direct buffers are allocated.
+   * </p>
+   * 
+   * @param pool the pool or null
+   */
+  public final void setBufferPool(DirectBufferPool pool) {
+    bufferPool = pool;
+  }
+
+  public final DirectBufferPool getBufferPool() { return bufferPool; }
+
   //
   // Data modification ..
   //
@@ -264,6 +308,25 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
     Buffers.putf(buffer, v);
   }
 
+  /**
+   * Bulk relative put method, 
+   * growing the buffer at most once.
+   *
+   * This class buffer Class must be a FloatBuffer.
+   * The length must be a multiple of this arrays element stride.
+   */
+  public void putf(float[] v, int offset, int length) {
+    if ( sealed ) return;
+    if(0!=(length % strideL)) {
+        throw new GLException("Array length ("+length+") is not a multiple of component-stride:\n\t"+this);
+    }
+    if(componentClazz!=FloatBuffer.class) {
+        throw new GLException("Float array not supported by buffer class: "+componentClazz+":\n\t"+this);
+    }
+    growBufferIfNecessary(length);
+    ((FloatBuffer)buffer).put(v, offset, length);
+  }
+
   public String toString() {
     return "GLArrayDataClient["+name+
                        ", index "+index+
@@ -275,6 +338,7 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
                        ", components "+components+ 
                        ", stride "+stride+"u "+strideB+"b "+strideL+"c"+
                        ", initialSize "+initialSize+ 
+                       ", growthFactor "+growthFactor+ 
                        ", sealed "+sealed+ 
                        ", bufferEnabled "+bufferEnabled+ 
                        ", bufferWritten "+bufferWritten+ 
@@ -287,52 +351,64 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
 
   protected final boolean growBufferIfNecessary(int spare) {
     if(buffer==null || buffer.remaining()<spare) { 
-        growBuffer(Math.max(initialSize, spare));
+        growBuffer(spare);
         return true;
     }
     return false;
   }
 
-  protected final void growBuffer(int additional) {     
+  /**
+   * Grows the buffer to hold at least <code>spare</code> more components,
+   * by the {@link #setGrowthFactor(float) growth factor} if possible.
+   */
+  protected final void growBuffer(int spare) {     
     if(!alive || sealed) {
        throw new GLException("Invalid state: "+this); 
     }
+    if(componentClazz!=ByteBuffer.class && componentClazz!=ShortBuffer.class &&
+       componentClazz!=IntBuffer.class && componentClazz!=FloatBuffer.class) {
+        throw new GLException("Given Buffer Class not supported: "+componentClazz+":\n\t"+this);
+    }
 
-    // add the stride delta
-    additional += (additional/components)*(strideL-components);
+    // initial size incl. the stride delta
+    final int initialComponents = ( initialSize + (initialSize/components)*(strideL-components) ) * components;
 
-    int osize = (buffer!=null)?buffer.capacity():0;
-    if(componentClazz==ByteBuffer.class) {
-        ByteBuffer newBBuffer = Buffers.newDirectByteBuffer( (osize+additional) * components );
-        if(buffer!=null) {
-            buffer.flip();
-            newBBuffer.put((ByteBuffer)buffer);
-        }
-        buffer = newBBuffer;
-    } else if(componentClazz==ShortBuffer.class) {
-        ShortBuffer newSBuffer = Buffers.newDirectShortBuffer( (osize+additional) * components );
-        if(buffer!=null) {
-            buffer.flip();
-            newSBuffer.put((ShortBuffer)buffer);
-        }
-        buffer = newSBuffer;
-    } else if(componentClazz==IntBuffer.class) {
-        IntBuffer newIBuffer = Buffers.newDirectIntBuffer( (osize+additional) * components );
-        if(buffer!=null) {
-            buffer.flip();
-            newIBuffer.put((IntBuffer)buffer);
-        }
-        buffer = newIBuffer;
-    } else if(componentClazz==FloatBuffer.class) {
-        FloatBuffer newFBuffer = Buffers.newDirectFloatBuffer( (osize+additional) * components );
-        if(buffer!=null) {
-            buffer.flip();
-            newFBuffer.put((FloatBuffer)buffer);
-        }
-        buffer = newFBuffer;
+    final int osize = (buffer!=null)?buffer.capacity():0;
+    final int opos  = (buffer!=null)?buffer.position():0;
+    int nsize;
+    if( 0 == osize ) {
+        nsize = initialComponents;
+    } else if( growthFactor > 1f ) {
+        nsize = (int) ( osize * growthFactor );
     } else {
-        throw new GLException("Given Buffer Class not supported: "+componentClazz+":\n\t"+this);
+        nsize = osize + initialComponents;
+    }
+    nsize = Math.max(nsize, opos + spare);
+
+    final ByteBuffer newStorage;
+    if( null != bufferPool ) {
+        newStorage = bufferPool.acquire( nsize * componentSize );
+        // use the whole pooled capacity
+        nsize = newStorage.capacity() / componentSize;
+    } else {
+        newStorage = Buffers.newDirectByteBuffer( nsize * componentSize );
     }
+    final Buffer newBuffer = GLBuffers.sliceGLBuffer(newStorage, 0, nsize * componentSize, componentType);
+    if(buffer!=null) {
+        buffer.flip();
+        Buffers.put(newBuffer, buffer);
+    }
+    releaseBufferStorage();
+    buffer = newBuffer;
+    bufferStorage = newStorage;
+  }
+
+  /** Passes the current buffer storage back to the pool, if allocated from it. */ 
+  private final void releaseBufferStorage() {
+    if( null != bufferPool && null != bufferStorage ) {
+        bufferPool.release(bufferStorage);
+    }
+    bufferStorage = null;
   }
 
   protected final void checkSeal(boolean test) throws GLException {
@@ -362,8 +438,10 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
     this.bufferEnabled=false;
     this.enableBufferAlways=false;
     this.bufferWritten=false;
+    this.growthFactor=DEFAULT_GROWTH_FACTOR;
+    this.bufferStorage=null;
     if(null==buffer && initialSize>0) {
-        growBuffer(initialSize);
+        growBuffer(0);
     }
   }
 
@@ -384,6 +462,12 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
   protected boolean enableBufferAlways;
 
   protected int initialSize;
+  protected float growthFactor;
+
+  /** Optional pool of the client buffer storage */
+  protected DirectBufferPool bufferPool;
+  /** The storage of the client buffer if allocated by this instance, otherwise null */
+  protected ByteBuffer bufferStorage;
 
   protected GLArrayHandler glArrayHandler;
 }
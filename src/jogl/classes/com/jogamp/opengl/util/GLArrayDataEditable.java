@@ -103,5 +103,11 @@ public interface GLArrayDataEditable extends GLArrayData {
     public void puti(int v);
     public void putx(int v);
     public void putf(float v);
+
+    /**
+     * Bulk relative put of <code>length</code> floats,
+     * the length must be a multiple of the element stride.
+     */
+    public void putf(float[] v, int offset, int length);
 }
 
@@ -127,6 +127,63 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
     return ads;
   }
 
+  /** Pseudo name of an interleaved GLSL VBO, which itself is not a vertex attribute. */
+  public static final String mgl_InterleaveArray = "mgl_InterleaveArray";
+
+  /**
+   * Create a VBO holding multiple interleaved GLSL vertex attributes,
+   * starting with a new created Buffer object with initialSize size.
+   * <p>
+   * The vertex attributes are added via {@link #addGLSLSubArray(String, int)},
+   * the VBO is written once and all of them are enabled and passed w/ this instance.
+   * </p>
+   * 
+   * @param st The ShaderState managing the state of the used shader program, vertex attributes and uniforms
+   * @param comps The total component number of all interleaved vertex attributes
+   * @param dataType The array index GL data type of all interleaved vertex attributes
+   * @param normalized Whether the data shall be normalized
+   * @param initialSize
+   * @param vboUsage {@link GL2ES2#GL_STREAM_DRAW}, {@link GL#GL_STATIC_DRAW} or {@link GL#GL_DYNAMIC_DRAW}
+   */
+  public static GLArrayDataServer createGLSLInterleaved(ShaderState st, int comps, int dataType, boolean normalized, 
+                                                        int initialSize, int vboUsage) 
+    throws GLException 
+  {
+    GLArrayDataServer ads = new GLArrayDataServer();
+    GLSLArrayHandlerInterleaved glArrayHandler = new GLSLArrayHandlerInterleaved(st, ads);
+    ads.init(mgl_InterleaveArray, -1, comps, dataType, normalized, 0, null, initialSize,
+             true, glArrayHandler, 0, 0, vboUsage, GL.GL_ARRAY_BUFFER);
+    ads.interleavedHandler = glArrayHandler;
+    return ads;
+  }  
+  
+  /**
+   * Adds a GLSL vertex attribute of an interleaved VBO,
+   * following all previously added ones within the interleaved element.
+   * <p>
+   * The returned attribute may be managed via {@link ShaderState#ownAttribute(GLArrayData, boolean)}, 
+   * but is enabled and passed w/ this instance only.
+   * </p>
+   * 
+   * @param name The custom name for the GL attribute
+   * @param comps The attribute's component number
+   * @throws GLException if this instance is not interleaved or the components exceed the interleaved element
+   * @see #createGLSLInterleaved(ShaderState, int, int, boolean, int, int)
+   */
+  public GLArrayData addGLSLSubArray(String name, int comps) throws GLException {
+    if(null == interleavedHandler) {
+        throw new GLException("Not an interleaved GLSL VBO: "+this);
+    }
+    if(interleavedOffset + comps * componentSize > strideB) {
+        throw new GLException("Sub-array "+name+" w/ "+comps+" components exceeds interleaved element of "+strideB+" bytes at offset "+interleavedOffset+": "+this);
+    }
+    GLArrayDataWrapper ad = GLArrayDataWrapper.createGLSL(name, comps, componentType, normalized, strideB, 
+                                                          buffer, vboName, interleavedOffset, vboUsage);
+    interleavedOffset += comps * componentSize;
+    interleavedHandler.addSubArray(ad);
+    return ad;
+  }
+
   /**
    * Create a VBO data object for any target w/o render pipeline association, ie {@link GL#GL_ELEMENT_ARRAY_BUFFER}.
    * 
@@ -192,6 +249,40 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
     }
   }
 
+  /**
+   * Passes a range of elements of the sealed client buffer to the already written VBO
+   * via <code>glBufferSubData</code>, e.g. after modifying the sealed buffer in place
+   * using absolute put methods.
+   * <p>
+   * The VBO keeps its size, hence the number of elements must not have changed
+   * since the buffer has been written by {@link #seal(GL, boolean)} or {@link #enableBuffer(GL, boolean)}.
+   * </p>
+   *
+   * @param elementOffset first element to pass
+   * @param elementCount number of elements to pass
+   * @throws GLException if the buffer is not sealed, not a VBO or the VBO has not been written yet
+   */
+  public void updateVBORange(GL gl, int elementOffset, int elementCount) throws GLException {
+    checkSeal(true);
+    if(!vboEnabled || 0==vboName || !bufferWritten) {
+        throw new GLException("VBO not written yet: "+this);
+    }
+    if(0>elementOffset || elementOffset+elementCount>getElementNumber()) {
+        throw new GLException("Range ["+elementOffset+", +"+elementCount+"] out of bounds: "+this);
+    }
+    if(0>=elementCount) {
+        return;
+    }
+    final int pos = buffer.position();
+    buffer.position(pos + elementOffset*strideL);
+    gl.glBindBuffer(vboTarget, vboName);
+    gl.glBufferSubData(vboTarget, (long)elementOffset*strideB, (long)elementCount*strideB, buffer);
+    if(!bufferEnabled) {
+        gl.glBindBuffer(vboTarget, 0);
+    }
+    buffer.position(pos);
+  }
+
   //
   // data matters 
   //
@@ -246,8 +337,17 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
     vboEnabled=true;
   }
 
+  private GLSLArrayHandlerInterleaved interleavedHandler = null;
+  private int interleavedOffset = 0;
+  private boolean interleavedValidated = false;
+
   protected void init_vbo(GL gl) {
-    super.init_vbo(gl);
+    if(null == interleavedHandler) {
+        super.init_vbo(gl);
+    } else if(!interleavedValidated) {
+        interleavedValidated = true;
+        interleavedHandler.validate(gl.getGLProfile(), true);
+    }
     if(vboEnabled && vboName==0) {
         int[] tmp = new int[1];
         gl.glGenBuffers(1, tmp, 0);
@@ -53,10 +53,146 @@ public class ImmModeSink {
 
   public static void setVBOUsage(boolean v) { vboUsage = v; }
 
+  /** Default byte size of the streaming ring VBO, see {@link #setStreaming(boolean, int)}. */
+  public static final int DEFAULT_STREAM_SIZE = 1024 * 1024;
+
+  /**
+   * Enables or disables the streaming mode for immediate draws, i.e. {@link #glEnd(GL)}.
+   * <p>
+   * In streaming mode each glBegin/glEnd batch is interleaved and appended
+   * to a ring VBO of <code>ringSize</code> bytes via <code>glBufferSubData</code>.
+   * If the ring is exhausted, its storage is orphaned via <code>glBufferData</code> w/o data,
+   * hence the GL never has to wait for pending draws using the previous storage.
+   * </p>
+   * <p>
+   * Consecutive batches using the same mode and attribute layout are merged into one draw call,
+   * if the mode is {@link GL#GL_POINTS}, {@link GL#GL_LINES} or {@link GL#GL_TRIANGLES}.
+   * The merged draw call is issued lazily, i.e. when a batch of another mode is ended,
+   * or at {@link #flush(GL)}, {@link #draw(GL, boolean)}, {@link #reset(GL)} and {@link #destroy(GL)}.
+   * Hence the user shall call {@link #flush(GL)} before changing GL state affecting the draw calls.
+   * </p>
+   * <p>
+   * Non immediate batches, i.e. {@link #glEnd(GL, boolean) glEnd(gl, false)}, 
+   * and indexed batches are not streamed.
+   * </p>
+   * 
+   * @param enable true to enable streaming
+   * @param ringSize the ring VBO size in bytes, will grow if a single batch exceeds it
+   * @throws GLException if batches are still pending, see {@link #flush(GL)}
+   */
+  public void setStreaming(boolean enable, int ringSize) throws GLException {
+    if(0<pendingCount) {
+        throw new GLException("Pending streamed batches, call flush(GL) first: "+this);
+    }
+    if(0>=ringSize) {
+        throw new GLException("Invalid ring size "+ringSize);
+    }
+    streaming = enable;
+    if(streamSize != ringSize) {
+        streamSize = ringSize;
+        streamAllocated = false;
+    }
+  }
+
+  public final boolean isStreaming() { return streaming; }
+
+  /** @return the number of glBegin/glEnd batches since the last {@link #resetStats()} */
+  public final int getBatchCount() { return batchCount; }
+
+  /** @return the number of issued draw calls since the last {@link #resetStats()} */
+  public final int getDrawCount() { return drawCount; }
+
+  /** @return the number of ring VBO orphans since the last {@link #resetStats()} */
+  public final int getOrphanCount() { return orphanCount; }
+
+  /** Resets the batch, draw call and orphan counter, e.g. at the start of each frame. */
+  public final void resetStats() {
+    batchCount = 0;
+    drawCount = 0;
+    orphanCount = 0;
+  }
+
+  /**
+   * Issues the pending merged draw call of the streaming mode, if any.
+   * 
+   * @see #setStreaming(boolean, int)
+   */
+  public void flush(GL gl) {
+    if(0 == pendingCount) {
+        return;
+    }
+    final VBOSet s = vboSet;
+    gl.glBindBuffer(GL.GL_ARRAY_BUFFER, streamVBOName);
+    if(s.useGLSL) {
+        final ShaderState st = ShaderState.getShaderState(gl);
+        if(null==st) {
+            throw new GLException("No ShaderState in "+gl);
+        }      
+        final GL2ES2 glsl = gl.getGL2ES2();
+        for(int i=0; i<streamArrayData.length; i++) {
+            if(null!=streamArrayData[i]) {
+                st.enableVertexAttribArray(glsl, streamArrayData[i]);
+                st.vertexAttribPointer(glsl, streamArrayData[i]);
+            }
+        }
+        glsl.glDrawArrays(pendingMode, pendingFirst, pendingCount);
+        for(int i=0; i<streamArrayData.length; i++) {
+            if(null!=streamArrayData[i]) {
+                st.disableVertexAttribArray(glsl, streamArrayData[i]);
+            }
+        }
+    } else {
+        final GL2ES1 glf = gl.getGL2ES1();
+        if(null!=streamArrayData[VBOSet.VERTEX]) {
+            glf.glEnableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+            glf.glVertexPointer(streamArrayData[VBOSet.VERTEX]);
+        }
+        if(null!=streamArrayData[VBOSet.COLOR]) {
+            glf.glEnableClientState(GLPointerFunc.GL_COLOR_ARRAY);
+            glf.glColorPointer(streamArrayData[VBOSet.COLOR]);
+        }
+        if(null!=streamArrayData[VBOSet.NORMAL]) {
+            glf.glEnableClientState(GLPointerFunc.GL_NORMAL_ARRAY);
+            glf.glNormalPointer(streamArrayData[VBOSet.NORMAL]);
+        }
+        if(null!=streamArrayData[VBOSet.TEXTCOORD]) {
+            glf.glEnableClientState(GLPointerFunc.GL_TEXTURE_COORD_ARRAY);
+            glf.glTexCoordPointer(streamArrayData[VBOSet.TEXTCOORD]);
+        }
+        glf.glDrawArrays(pendingMode, pendingFirst, pendingCount);
+        if(null!=streamArrayData[VBOSet.VERTEX]) {
+            glf.glDisableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+        }
+        if(null!=streamArrayData[VBOSet.COLOR]) {
+            glf.glDisableClientState(GLPointerFunc.GL_COLOR_ARRAY);
+        }
+        if(null!=streamArrayData[VBOSet.NORMAL]) {
+            glf.glDisableClientState(GLPointerFunc.GL_NORMAL_ARRAY);
+        }
+        if(null!=streamArrayData[VBOSet.TEXTCOORD]) {
+            glf.glDisableClientState(GLPointerFunc.GL_TEXTURE_COORD_ARRAY);
+        }
+    }
+    gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+    drawCount++;
+    pendingCount = 0;
+  }
+
   public void destroy(GL gl) {
+    flush(gl);
     destroyList(gl);
 
     vboSet.destroy(gl);
+
+    if(0!=streamVBOName) {
+        gl.glDeleteBuffers(1, new int[] { streamVBOName }, 0);
+        streamVBOName = 0;
+    }
+    streamAllocated = false;
+    if(null!=streamData) {
+        bufferPool.release(streamData);
+        streamData = null;
+    }
   }
 
   public void reset() {
@@ -64,6 +200,11 @@ public class ImmModeSink {
   }
 
   public void reset(GL gl) {
+    if(null!=gl) {
+        flush(gl);
+    } else {
+        pendingCount = 0;
+    }
     destroyList(gl);
     vboSet.reset(gl);
   }
@@ -90,10 +231,12 @@ public class ImmModeSink {
         Exception e = new Exception("Info: ImmModeSink.draw(disableBufferAfterDraw: "+disableBufferAfterDraw+"):\n\t"+this);
         e.printStackTrace();
     }
+    flush(gl);
     int n=0;
     for(Iterator i=vboSetList.iterator(); i.hasNext() ; n++) {
         ((VBOSet)i.next()).draw(gl, null, disableBufferAfterDraw, n);
     }
+    drawCount+=n;
   }
 
   public void draw(GL gl, Buffer indices, boolean disableBufferAfterDraw) {
@@ -101,10 +244,12 @@ public class ImmModeSink {
         Exception e = new Exception("Info: ImmModeSink.draw(disableBufferAfterDraw: "+disableBufferAfterDraw+"):\n\t"+this);
         e.printStackTrace();
     }
+    flush(gl);
     int n=0;
     for(Iterator i=vboSetList.iterator(); i.hasNext() ; n++) {
         ((VBOSet)i.next()).draw(gl, indices, disableBufferAfterDraw, n);
     }
+    drawCount+=n;
   }
 
   public void glBegin(int mode) {
@@ -146,9 +291,14 @@ public class ImmModeSink {
         Exception e = new Exception("Info: ImmModeSink START glEnd(immediate: "+immediateDraw+"):\n\t"+this);
         e.printStackTrace();
     }
-    if(immediateDraw) {
+    batchCount++;
+    if(immediateDraw && streaming && null==indices) {
+        glEndStreaming(gl);
+    } else if(immediateDraw) {
+        flush(gl);
         vboSet.seal(gl, true);
         vboSet.draw(gl, indices, true, -1);
+        drawCount++;
         reset(gl);
     } else {
         vboSet.seal(gl, true);
@@ -158,6 +308,103 @@ public class ImmModeSink {
     }
   }
 
+  private static boolean isMergeable(int mode) {
+    switch(mode) {
+        case GL.GL_POINTS:
+        case GL.GL_LINES:
+        case GL.GL_TRIANGLES:
+            return true;
+    }
+    return false;
+  }
+
+  private void glEndStreaming(GL gl) {
+    final VBOSet s = vboSet;
+    s.seal(true); // client side only
+    final int elements = s.getElementCount();
+    final int mode = s.mode;
+    if(0 < elements) {
+        if( 0 < pendingCount && ( mode != pendingMode || !isMergeable(mode) ) ) {
+            flush(gl);
+        }
+        if(null == streamArrayData) {
+            initStreamArrayData(gl);
+        }
+        final int bytes = elements * streamStride;
+        int pos = streamPos;
+        if(0 == pendingCount) {
+            // a new draw call starts at a whole vertex, hence 'first' addresses it
+            pos = ( ( pos + streamStride - 1 ) / streamStride ) * streamStride;
+        }
+        if( !streamAllocated || pos + bytes > streamSize ) {
+            flush(gl);
+            while( streamSize < bytes ) {
+                streamSize *= 2;
+            }
+            // orphan the storage, pending draw calls keep using the old one
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, streamVBOName);
+            gl.glBufferData(GL.GL_ARRAY_BUFFER, streamSize, null, streamUsage);
+            if(streamAllocated) {
+                orphanCount++;
+            }
+            streamAllocated = true;
+            pos = 0;
+        } else {
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, streamVBOName);
+        }
+        if(null == streamData || streamData.capacity() < bytes) {
+            if(null != streamData) {
+                bufferPool.release(streamData);
+            }
+            streamData = bufferPool.acquire(bytes);
+        }
+        streamData.clear();
+        s.putInterleaved(streamData, elements, streamStride, streamAttrOffsets);
+        streamData.limit(bytes);
+        gl.glBufferSubData(GL.GL_ARRAY_BUFFER, pos, bytes, streamData);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+
+        if(0 == pendingCount) {
+            pendingMode = mode;
+            pendingFirst = pos / streamStride;
+        }
+        pendingCount += elements;
+        streamPos = pos + bytes;
+        if(!isMergeable(mode)) {
+            flush(gl);
+        }
+    }
+    s.reset();
+  }
+
+  private void initStreamArrayData(GL gl) {
+    final VBOSet s = vboSet;
+    final int[] comps = { s.vComps, s.cComps, s.nComps, s.tComps };
+    final int[] types = { s.vDataType, s.cDataType, s.nDataType, s.tDataType };
+    final int[] index = { GLPointerFunc.GL_VERTEX_ARRAY, GLPointerFunc.GL_COLOR_ARRAY, 
+                          GLPointerFunc.GL_NORMAL_ARRAY, GLPointerFunc.GL_TEXTURE_COORD_ARRAY };
+    // 4 byte aligned attributes, hence the stride is a multiple of all component sizes
+    int stride = 0;
+    for(int i=0; i<4; i++) {
+        streamAttrOffsets[i] = stride;
+        stride += ( ( comps[i] * GLBuffers.sizeOfGLType(types[i]) + 3 ) / 4 ) * 4;
+    }
+    streamStride = stride;
+    streamUsage = gl.isGL2ES2() ? GL2ES2.GL_STREAM_DRAW : GL.GL_DYNAMIC_DRAW;
+    if(0 == streamVBOName) {
+        final int[] tmp = new int[1];
+        gl.glGenBuffers(1, tmp, 0);
+        streamVBOName = tmp[0];
+    }
+    streamArrayData = new GLArrayDataWrapper[4];
+    for(int i=0; i<4; i++) {
+        if(comps[i]>0) {
+            streamArrayData[i] = GLArrayDataWrapper.createFixed(index[i], comps[i], types[i], false, streamStride,
+                                                                null, streamVBOName, streamAttrOffsets[i], streamUsage);
+        }
+    }
+  }
+
   public void glVertexv(Buffer v) {
     vboSet.glVertexv(v);
   }
@@ -263,8 +510,11 @@ public class ImmModeSink {
     if(useGLSL && !gl.hasGLSL()) {
         throw new GLException("ImmModeSink GLSL usage not supported: "+gl);
     }
+    // VBOSets are regenerated for each non immediate glEnd and destroyed at reset,
+    // hence their native memory is recycled.
+    bufferPool = new DirectBufferPool();
     vboSet = new  VBOSet(gl, glBufferUsage, initialSize, 
-                         vComps, vDataType, cComps, cDataType, nComps, nDataType, tComps, tDataType, useGLSL);
+                         vComps, vDataType, cComps, cDataType, nComps, nDataType, tComps, tDataType, useGLSL, bufferPool);
     this.vboSetList   = new ArrayList();
   }
 
@@ -277,15 +527,28 @@ public class ImmModeSink {
 
   private VBOSet vboSet;
   private ArrayList vboSetList;
+  private DirectBufferPool bufferPool;
   private static boolean vboUsage = true;
 
+  // streaming mode, ring VBO and the pending merged draw call
+  private boolean streaming = false;
+  private int streamVBOName = 0, streamSize = DEFAULT_STREAM_SIZE, streamPos = 0, streamUsage;
+  private boolean streamAllocated = false;
+  private int streamStride;
+  private final int[] streamAttrOffsets = new int[4];
+  private GLArrayDataWrapper[] streamArrayData;
+  private ByteBuffer streamData;
+  private int pendingMode, pendingFirst, pendingCount = 0;
+  private int batchCount, drawCount, orphanCount;
+
   protected static class VBOSet {
     protected VBOSet (GL gl, int glBufferUsage, int initialSize,
                       int vComps, int vDataType,
                       int cComps, int cDataType, 
                       int nComps, int nDataType, 
-                      int tComps, int tDataType, boolean useGLSL) {
+                      int tComps, int tDataType, boolean useGLSL, DirectBufferPool bufferPool) {
         this.gl=gl;
+        this.bufferPool=bufferPool;
         this.glBufferUsage=glBufferUsage;
         this.initialSize=initialSize;
         this.vDataType=vDataType;
@@ -311,7 +574,7 @@ public class ImmModeSink {
 
     protected final VBOSet regenerate() {
         return new VBOSet(gl, glBufferUsage, initialSize, 
-                          vComps, vDataType, cComps, cDataType, nComps, nDataType, tComps, tDataType, useGLSL);
+                          vComps, vDataType, cComps, cDataType, nComps, nDataType, tComps, tDataType, useGLSL, bufferPool);
     }
 
     protected void checkSeal(boolean test) throws GLException {
@@ -339,7 +602,8 @@ public class ImmModeSink {
             GL2ES1 glf = gl.getGL2ES1();
 
             if(null==indices) {
-                glf.glDrawArrays(mode, 0, count);
+                // only the written elements, count is the capacity
+                glf.glDrawArrays(mode, 0, getElementCount());
             } else {
                 Class clazz = indices.getClass();
                 int type=-1;
@@ -607,6 +871,49 @@ public class ImmModeSink {
         padding(TEXTCOORD, tComps-3);
     }
 
+    /**
+     * @return the number of elements written since the last reset,
+     *         derived from the first enabled attribute array.
+     */
+    protected final int getElementCount() {
+        if(null!=vertexArray) {
+            return vertexArray.position() / vComps;
+        }
+        if(null!=colorArray) {
+            return colorArray.position() / cComps;
+        }
+        if(null!=normalArray) {
+            return normalArray.position() / nComps;
+        }
+        if(null!=textCoordArray) {
+            return textCoordArray.position() / tComps;
+        }
+        return 0;
+    }
+
+    /**
+     * Copies the first <code>elements</code> of the planar attribute blocks
+     * into <code>dest</code>, interleaved with the given vertex stride and attribute offsets
+     * as computed by {@link ImmModeSink#setStreaming(boolean, int)}.
+     */
+    protected final void putInterleaved(ByteBuffer dest, int elements, int stride, int[] attrOffsets) {
+        putInterleaved(dest, elements, stride, attrOffsets[VERTEX],    vOffset, vComps * GLBuffers.sizeOfGLType(vDataType));
+        putInterleaved(dest, elements, stride, attrOffsets[COLOR],     cOffset, cComps * GLBuffers.sizeOfGLType(cDataType));
+        putInterleaved(dest, elements, stride, attrOffsets[NORMAL],    nOffset, nComps * GLBuffers.sizeOfGLType(nDataType));
+        putInterleaved(dest, elements, stride, attrOffsets[TEXTCOORD], tOffset, tComps * GLBuffers.sizeOfGLType(tDataType));
+    }
+
+    private final void putInterleaved(ByteBuffer dest, int elements, int stride, int destOffset, int srcOffset, int width) {
+        if(0>=width) return;
+        for(int i=0; i<elements; i++) {
+            final int s = srcOffset + i * width;
+            final int d = destOffset + i * stride;
+            for(int j=0; j<width; j++) {
+                dest.put(d+j, buffer.get(s+j));
+            }
+        }
+    }
+
     public void rewind() {
         if(null!=vertexArray) {
             vertexArray.rewind();
@@ -627,6 +934,9 @@ public class ImmModeSink {
 
         vertexArray=null; colorArray=null; normalArray=null; textCoordArray=null;
         vArrayData=null; cArrayData=null; nArrayData=null; tArrayData=null;
+        if(null!=buffer && null!=bufferPool) {
+            bufferPool.release(buffer);
+        }
         buffer=null;
         bSize=0; count=0;
     }
@@ -639,6 +949,7 @@ public class ImmModeSink {
     public void reset() {
         if(buffer!=null) {
             buffer.clear();
+            buffer.limit(bSize); // a pooled buffer may exceed bSize
         }
         rewind();
 
@@ -819,7 +1130,11 @@ public class ImmModeSink {
         count  = elements;
         bSize  = count * ( vWidth + cWidth + nWidth + tWidth ) ;
 
-        buffer = GLBuffers.newDirectByteBuffer(bSize);
+        if(null!=bufferPool) {
+            buffer = bufferPool.acquire(bSize);
+        } else {
+            buffer = GLBuffers.newDirectByteBuffer(bSize);
+        }
 
         int pos = 0;
         int size= count * vWidth ;
@@ -889,13 +1204,33 @@ public class ImmModeSink {
     }
 
     protected final boolean growBufferIfNecessary(int type, int spare) {
-        if(buffer==null || count < spare) { 
+        if(buffer==null) {
             growBuffer(type, initialSize);
             return true;
         }
+        final Buffer dest = getArray(type);
+        if(null!=dest && dest.remaining() < spare) { 
+            // geometric growth, i.e. amortized constant cost per element
+            growBuffer(type, Math.max(count, initialSize));
+            return true;
+        }
         return false;
     }
 
+    private final Buffer getArray(int type) {
+        switch (type) {
+            case VERTEX:
+                return vertexArray;
+            case COLOR:
+                return colorArray;
+            case NORMAL:
+                return normalArray;
+            case TEXTCOORD:
+                return textCoordArray;
+        }
+        return null;
+    }
+
     protected final void growBuffer(int type, int additional) {
         if(sealed || 0==additional) return;
 
@@ -921,6 +1256,9 @@ public class ImmModeSink {
             _textCoordArray.flip();
             GLBuffers.put(textCoordArray, _textCoordArray);
         }
+        if(null!=_buffer && null!=bufferPool) {
+            bufferPool.release(_buffer);
+        }
     }
 
     protected void padding(int type, int fill) {
@@ -954,6 +1292,7 @@ public class ImmModeSink {
     protected int glBufferUsage, initialSize;
 
     protected ByteBuffer buffer;
+    protected DirectBufferPool bufferPool;
     protected int bSize, count, vboName;
 
     public static final int VERTEX = 0;
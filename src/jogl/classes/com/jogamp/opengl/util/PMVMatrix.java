@@ -33,32 +33,40 @@
 
 package com.jogamp.opengl.util;
 
-import com.jogamp.common.nio.Buffers;
 import jogamp.opengl.ProjectFloat;
 
 import java.nio.*;
-import java.util.ArrayList;
-import java.util.List;
 
 import javax.media.opengl.*;
 import javax.media.opengl.fixedfunc.GLMatrixFunc;
 
+/**
+ * PMVMatrix implements the GL fixed function matrix stack operations
+ * for the programmable pipeline, i.e. for matrix uniform upload.
+ * <p>
+ * All matrices are kept in one primitive float array,
+ * the FloatBuffer accessors wrap slices of it, hence no copy is required for uniform upload.
+ * The matrix stacks use preallocated float arrays, i.e. {@link #glPushMatrix()}
+ * and {@link #glPopMatrix()} do not allocate memory.
+ * </p>
+ * <p>
+ * The derived matrices Mvi, Mvit, the normal matrix and Pmv 
+ * are only recomputed if the source matrices have been modified and 
+ * they have been requested by one of their accessors, 
+ * see {@link #update()}.
+ * </p>
+ */
 public class PMVMatrix implements GLMatrixFunc {
 
     public PMVMatrix() {
-          projectFloat = new ProjectFloat();
-
-          matrixIdent = Buffers.newDirectFloatBuffer(1*16);
-          projectFloat.gluMakeIdentityf(matrixIdent);
-          matrixIdent.rewind();
-
           // T    Texture
           // P    Projection
           // Mv   ModelView
           // Mvi  Modelview-Inverse
           // Mvit Modelview-Inverse-Transpose
           // Pmv  P * Mv
-          matrixTPMvMvitPmv = Buffers.newDirectFloatBuffer(6*16);     // grouping T + P  + Mv + Mvi + Mvit + Pmv
+          matrixArray = new float[6*16];
+          matrixTPMvMvitPmv = FloatBuffer.wrap(matrixArray);     // grouping T + P  + Mv + Mvi + Mvit + Pmv
           matrixPMvMvitPmv = slice(matrixTPMvMvitPmv, 1*16, 5*16); // grouping     P  + Mv + Mvi + Mvit + Pmv
           matrixT       = slice(matrixTPMvMvitPmv, 0*16, 1*16);    //          T
           matrixPMvMvit = slice(matrixTPMvMvitPmv, 1*16, 4*16);    // grouping     P  + Mv + Mvi + Mvit
@@ -69,33 +77,23 @@ public class PMVMatrix implements GLMatrixFunc {
           matrixMvi     = slice(matrixTPMvMvitPmv, 3*16, 1*16);    //                        Mvi
           matrixMvit    = slice(matrixTPMvMvitPmv, 4*16, 1*16);    //                              Mvit
           matrixPmv     = slice(matrixTPMvMvitPmv, 5*16, 1*16);    //                                     Pmv
-          matrixTPMvMvitPmv.rewind();
-
-          matrixMvit3 = Buffers.newDirectFloatBuffer(3*3);
-
-          localBuf = Buffers.newDirectFloatBuffer(6*16);
-
-          matrixMult=slice(localBuf, 0*16, 16);
-
-          matrixTrans=slice(localBuf, 1*16, 16);
-          projectFloat.gluMakeIdentityf(matrixTrans);
-
-          matrixRot=slice(localBuf, 2*16, 16);
-          projectFloat.gluMakeIdentityf(matrixRot);
-
-          matrixScale=slice(localBuf, 3*16, 16);
-          projectFloat.gluMakeIdentityf(matrixScale);
+          matrixTPMvMvitPmv.clear();
 
-          matrixOrtho=slice(localBuf, 4*16, 16);
-          projectFloat.gluMakeIdentityf(matrixOrtho);
+          matrixMvit3Array = new float[3*3];
+          matrixMvit3 = FloatBuffer.wrap(matrixMvit3Array);
 
-          matrixFrustum=slice(localBuf, 5*16, 16);
-          projectFloat.gluMakeZero(matrixFrustum);
+          localArray = new float[4*16];
+          loadIdentity(localArray, mRot);
+          loadIdentity(localArray, mOrtho);
+          // mFrustum and mMult are completely written on use
 
           vec3f=new float[3];
 
-          matrixPStack = new ArrayList();
-          matrixMvStack= new ArrayList();
+          matrixStack = new float[3][];
+          matrixStack[T_IDX]  = new float[INITIAL_STACK_DEPTH_T*16];
+          matrixStack[P_IDX]  = new float[INITIAL_STACK_DEPTH_P*16];
+          matrixStack[MV_IDX] = new float[INITIAL_STACK_DEPTH_MV*16];
+          matrixStackPos = new int[3];
 
           // default values and mode
           glMatrixMode(GL_PROJECTION);
@@ -108,40 +106,13 @@ public class PMVMatrix implements GLMatrixFunc {
     }
 
     public void destroy() {
-        if(null!=projectFloat) {
-            projectFloat.destroy(); projectFloat=null;
-        }
-
-        if(null!=matrixIdent) {
-            matrixIdent.clear(); matrixIdent=null;
-        }
-        if(null!=matrixTPMvMvitPmv) {
-            matrixTPMvMvitPmv.clear(); matrixTPMvMvitPmv=null;
-        }
-        if(null!=matrixMvit3) {
-            matrixMvit3.clear(); matrixMvit3=null;
-        }
-        if(null!=localBuf) {
-            localBuf.clear(); localBuf=null;
-        }
-
-        if(null!=matrixPStack) {
-            matrixPStack.clear(); matrixPStack=null;
-        }
+        matrixArray=null; matrixMvit3Array=null; localArray=null;
         vec3f=null;
-        if(null!=matrixMvStack) {
-            matrixMvStack.clear(); matrixMvStack=null;
-        }
-        if(null!=matrixPStack) {
-        matrixPStack.clear(); matrixPStack=null;
-        }
-        if(null!=matrixTStack) {
-            matrixTStack.clear(); matrixTStack=null;
-        }
+        matrixStack=null; matrixStackPos=null;
 
         matrixTPMvMvitPmv=null; matrixPMvMvit=null; matrixPMvMvitPmv=null; matrixPMvMvi=null; matrixPMv=null; 
         matrixP=null; matrixT=null; matrixMv=null; matrixMvi=null; matrixMvit=null; matrixPmv=null;
-        matrixMult=null; matrixTrans=null; matrixRot=null; matrixScale=null; matrixOrtho=null; matrixFrustum=null;
+        matrixMvit3=null;
     }
 
     private static FloatBuffer slice(FloatBuffer buf, int pos, int len) {
@@ -199,7 +170,8 @@ public class PMVMatrix implements GLMatrixFunc {
 
     public void setDirty() {
           modified   = DIRTY_MODELVIEW | DIRTY_PROJECTION | DIRTY_TEXTURE ;
-          matrixMode = GL_MODELVIEW;
+          dirtyDerived = DERIVED_ALL;
+          glMatrixMode(GL_MODELVIEW);
     }
 
     public int getDirtyBits() {
@@ -228,19 +200,26 @@ public class PMVMatrix implements GLMatrixFunc {
         return modified!=0;
     }
 
+    /**
+     * Recomputes the derived matrices Mvi, Mvit, the normal matrix and Pmv, 
+     * if their source matrices have been modified and they have been 
+     * requested via one of their accessors, e.g. {@link #glGetPMvMviMatrixf()}.
+     * <p>
+     * Clears the dirty bits, see {@link #getDirtyBits()}.
+     * </p>
+     * <p>
+     * Modifications of the FloatBuffer returned by the accessors are not tracked,
+     * use {@link #setDirty()} in such case.
+     * </p>
+     * 
+     * @return true if any matrix has been modified since the last update, 
+     *         i.e. the uniforms need to be uploaded.
+     */
     public boolean update() {
-        // if(0==modified) return false;
-
-        // int res = modified;
-        int res = DIRTY_MODELVIEW | DIRTY_PROJECTION ;
-        if( (res&DIRTY_MODELVIEW)!=0 ) {
-            setMviMvit();
-        }
-        if( (res&DIRTY_MODELVIEW)!=0 || (res&DIRTY_PROJECTION)!=0 ) {
-            glMultMatrixf(matrixP, matrixMv, matrixPmv);
-        }
+        validateDerived(requestMask);
+        final boolean res = 0 != modified;
         modified=0;
-        return res!=0;
+        return res;
     }
 
     public final int  glGetMatrixMode() {
@@ -260,14 +239,17 @@ public class PMVMatrix implements GLMatrixFunc {
     }
 
     public final FloatBuffer glGetPMvMvitPmvMatrixf() {
+        request(DERIVED_MVI | DERIVED_MVIT | DERIVED_PMV);
         return matrixPMvMvitPmv;
     }
 
     public final FloatBuffer glGetPMvMvitMatrixf() {
+        request(DERIVED_MVI | DERIVED_MVIT);
         return matrixPMvMvit;
     }
 
     public final FloatBuffer glGetPMvMviMatrixf() {
+        request(DERIVED_MVI);
         return matrixPMvMvi;
     }
 
@@ -276,14 +258,17 @@ public class PMVMatrix implements GLMatrixFunc {
     }
 
     public final FloatBuffer glGetMviMatrixf() {
+        request(DERIVED_MVI);
         return matrixMvi;
     }
 
     public final FloatBuffer glGetPmvMatrixf() {
+        request(DERIVED_PMV);
         return matrixPmv;
     }
 
     public final FloatBuffer glGetNormalMatrixf() {
+        request(DERIVED_MVI | DERIVED_MVIT);
         return matrixMvit3;
     }
 
@@ -337,6 +322,109 @@ public class PMVMatrix implements GLMatrixFunc {
        }
     }
 
+    /**
+     * Multiplies the column major 4x4 matrices <code>d = a x b</code>.
+     * <p>
+     * <code>d</code> may be <code>a</code> at the same offset, i.e. in place multiplication, 
+     * but it must not overlap <code>b</code>.
+     * </p>
+     */
+    public static final void multMatrixf(final float[] a, final int a_off, final float[] b, final int b_off, float[] d, int d_off) {
+       final float b00=b[b_off+0+0*4], b10=b[b_off+1+0*4], b20=b[b_off+2+0*4], b30=b[b_off+3+0*4];
+       final float b01=b[b_off+0+1*4], b11=b[b_off+1+1*4], b21=b[b_off+2+1*4], b31=b[b_off+3+1*4];
+       final float b02=b[b_off+0+2*4], b12=b[b_off+1+2*4], b22=b[b_off+2+2*4], b32=b[b_off+3+2*4];
+       final float b03=b[b_off+0+3*4], b13=b[b_off+1+3*4], b23=b[b_off+2+3*4], b33=b[b_off+3+3*4];
+
+       // row 0
+       float ai0=a[a_off+0+0*4], ai1=a[a_off+0+1*4], ai2=a[a_off+0+2*4], ai3=a[a_off+0+3*4];
+       d[d_off+0+0*4] = ai0 * b00 + ai1 * b10 + ai2 * b20 + ai3 * b30;
+       d[d_off+0+1*4] = ai0 * b01 + ai1 * b11 + ai2 * b21 + ai3 * b31;
+       d[d_off+0+2*4] = ai0 * b02 + ai1 * b12 + ai2 * b22 + ai3 * b32;
+       d[d_off+0+3*4] = ai0 * b03 + ai1 * b13 + ai2 * b23 + ai3 * b33;
+
+       // row 1
+       ai0=a[a_off+1+0*4]; ai1=a[a_off+1+1*4]; ai2=a[a_off+1+2*4]; ai3=a[a_off+1+3*4];
+       d[d_off+1+0*4] = ai0 * b00 + ai1 * b10 + ai2 * b20 + ai3 * b30;
+       d[d_off+1+1*4] = ai0 * b01 + ai1 * b11 + ai2 * b21 + ai3 * b31;
+       d[d_off+1+2*4] = ai0 * b02 + ai1 * b12 + ai2 * b22 + ai3 * b32;
+       d[d_off+1+3*4] = ai0 * b03 + ai1 * b13 + ai2 * b23 + ai3 * b33;
+
+       // row 2
+       ai0=a[a_off+2+0*4]; ai1=a[a_off+2+1*4]; ai2=a[a_off+2+2*4]; ai3=a[a_off+2+3*4];
+       d[d_off+2+0*4] = ai0 * b00 + ai1 * b10 + ai2 * b20 + ai3 * b30;
+       d[d_off+2+1*4] = ai0 * b01 + ai1 * b11 + ai2 * b21 + ai3 * b31;
+       d[d_off+2+2*4] = ai0 * b02 + ai1 * b12 + ai2 * b22 + ai3 * b32;
+       d[d_off+2+3*4] = ai0 * b03 + ai1 * b13 + ai2 * b23 + ai3 * b33;
+
+       // row 3
+       ai0=a[a_off+3+0*4]; ai1=a[a_off+3+1*4]; ai2=a[a_off+3+2*4]; ai3=a[a_off+3+3*4];
+       d[d_off+3+0*4] = ai0 * b00 + ai1 * b10 + ai2 * b20 + ai3 * b30;
+       d[d_off+3+1*4] = ai0 * b01 + ai1 * b11 + ai2 * b21 + ai3 * b31;
+       d[d_off+3+2*4] = ai0 * b02 + ai1 * b12 + ai2 * b22 + ai3 * b32;
+       d[d_off+3+3*4] = ai0 * b03 + ai1 * b13 + ai2 * b23 + ai3 * b33;
+    }
+
+    /**
+     * Inverts the 4x4 matrix <code>m</code> into <code>inv</code>
+     * using the cofactors of the 2x2 sub-determinants.
+     * <p>
+     * <code>inv</code> may be <code>m</code> at the same offset.
+     * </p>
+     * 
+     * @return false if the matrix is singular, <code>inv</code> is untouched in such case.
+     */
+    public static final boolean invertMatrixf(final float[] m, final int m_off, float[] inv, int inv_off) {
+        // since inverse(transpose(M)) == transpose(inverse(M)), 
+        // the storage order is irrelevant as long as source and destination use the same one.
+        // Computed in double precision, since the cofactor expansion is prone to cancellation.
+        final double a00=m[m_off+ 0], a01=m[m_off+ 1], a02=m[m_off+ 2], a03=m[m_off+ 3];
+        final double a10=m[m_off+ 4], a11=m[m_off+ 5], a12=m[m_off+ 6], a13=m[m_off+ 7];
+        final double a20=m[m_off+ 8], a21=m[m_off+ 9], a22=m[m_off+10], a23=m[m_off+11];
+        final double a30=m[m_off+12], a31=m[m_off+13], a32=m[m_off+14], a33=m[m_off+15];
+
+        // 2x2 sub-determinants
+        final double s0 = a00*a11 - a10*a01;
+        final double s1 = a00*a12 - a10*a02;
+        final double s2 = a00*a13 - a10*a03;
+        final double s3 = a01*a12 - a11*a02;
+        final double s4 = a01*a13 - a11*a03;
+        final double s5 = a02*a13 - a12*a03;
+
+        final double c5 = a22*a33 - a32*a23;
+        final double c4 = a21*a33 - a31*a23;
+        final double c3 = a21*a32 - a31*a22;
+        final double c2 = a20*a33 - a30*a23;
+        final double c1 = a20*a32 - a30*a22;
+        final double c0 = a20*a31 - a30*a21;
+
+        final double det = s0*c5 - s1*c4 + s2*c3 + s3*c2 - s4*c1 + s5*c0;
+        if( 0.0 == det ) {
+            return false;
+        }
+        final double invdet = 1.0 / det;
+
+        inv[inv_off+ 0] = (float) ( ( a11*c5 - a12*c4 + a13*c3) * invdet );
+        inv[inv_off+ 1] = (float) ( (-a01*c5 + a02*c4 - a03*c3) * invdet );
+        inv[inv_off+ 2] = (float) ( ( a31*s5 - a32*s4 + a33*s3) * invdet );
+        inv[inv_off+ 3] = (float) ( (-a21*s5 + a22*s4 - a23*s3) * invdet );
+
+        inv[inv_off+ 4] = (float) ( (-a10*c5 + a12*c2 - a13*c1) * invdet );
+        inv[inv_off+ 5] = (float) ( ( a00*c5 - a02*c2 + a03*c1) * invdet );
+        inv[inv_off+ 6] = (float) ( (-a30*s5 + a32*s2 - a33*s1) * invdet );
+        inv[inv_off+ 7] = (float) ( ( a20*s5 - a22*s2 + a23*s1) * invdet );
+
+        inv[inv_off+ 8] = (float) ( ( a10*c4 - a11*c2 + a13*c0) * invdet );
+        inv[inv_off+ 9] = (float) ( (-a00*c4 + a01*c2 - a03*c0) * invdet );
+        inv[inv_off+10] = (float) ( ( a30*s4 - a31*s2 + a33*s0) * invdet );
+        inv[inv_off+11] = (float) ( (-a20*s4 + a21*s2 - a23*s0) * invdet );
+
+        inv[inv_off+12] = (float) ( (-a10*c3 + a11*c1 - a12*c0) * invdet );
+        inv[inv_off+13] = (float) ( ( a00*c3 - a01*c1 + a02*c0) * invdet );
+        inv[inv_off+14] = (float) ( (-a30*s3 + a31*s1 - a32*s0) * invdet );
+        inv[inv_off+15] = (float) ( ( a20*s3 - a21*s1 + a22*s0) * invdet );
+        return true;
+    }
+
     // 
     // MatrixIf
     //
@@ -344,13 +432,19 @@ public class PMVMatrix implements GLMatrixFunc {
     public void glMatrixMode(final int matrixName) {
         switch(matrixName) {
             case GL_MODELVIEW:
+                matrixIdx = MV_IDX;
+                break;
             case GL_PROJECTION:
+                matrixIdx = P_IDX;
+                break;
             case GL.GL_TEXTURE:
+                matrixIdx = T_IDX;
                 break;
             default:
               throw new GLException("unsupported matrixName: "+matrixName);
         }
         matrixMode = matrixName;
+        matrixOff = matrixIdx*16;
     }
 
     public void glGetFloatv(int matrixGetName, FloatBuffer params) {
@@ -358,9 +452,7 @@ public class PMVMatrix implements GLMatrixFunc {
         if(matrixGetName==GL_MATRIX_MODE) {
             params.put((float)matrixMode);
         } else {
-            FloatBuffer matrix = glGetMatrixf(matrixGetName2MatrixModeName(matrixGetName));
-            params.put(matrix);
-            matrix.rewind();
+            params.put(matrixArray, getMatrixOffset(matrixGetName2MatrixModeName(matrixGetName)), 16);
         }
         params.position(pos);
     }
@@ -368,9 +460,7 @@ public class PMVMatrix implements GLMatrixFunc {
         if(matrixGetName==GL_MATRIX_MODE) {
             params[params_offset]=(float)matrixMode;
         } else {
-            FloatBuffer matrix = glGetMatrixf(matrixGetName2MatrixModeName(matrixGetName));
-            matrix.get(params, params_offset, 16);
-            matrix.rewind();
+            System.arraycopy(matrixArray, getMatrixOffset(matrixGetName2MatrixModeName(matrixGetName)), params, params_offset, 16);
         }
     }
     public void glGetIntegerv(int pname, IntBuffer params) {
@@ -391,141 +481,66 @@ public class PMVMatrix implements GLMatrixFunc {
     }
 
     public final void glLoadMatrixf(final float[] values, final int offset) {
-        int len = values.length-offset;
-        if(matrixMode==GL_MODELVIEW) {
-            matrixMv.clear();
-            matrixMv.put(values, offset, len);
-            matrixMv.rewind();
-            modified |= DIRTY_MODELVIEW ;
-        } else if(matrixMode==GL_PROJECTION) {
-            matrixP.clear();
-            matrixP.put(values, offset, len);
-            matrixP.rewind();
-            modified |= DIRTY_PROJECTION ;
-        } else if(matrixMode==GL.GL_TEXTURE) {
-            matrixT.clear();
-            matrixT.put(values, offset, len);
-            matrixT.rewind();
-            modified |= DIRTY_TEXTURE ;
-        } 
+        System.arraycopy(values, offset, matrixArray, matrixOff, 16);
+        setModified();
     }
 
     public final void glLoadMatrixf(java.nio.FloatBuffer m) {
         int spos = m.position();
-        if(matrixMode==GL_MODELVIEW) {
-            matrixMv.clear();
-            matrixMv.put(m);
-            matrixMv.rewind();
-            modified |= DIRTY_MODELVIEW ;
-        } else if(matrixMode==GL_PROJECTION) {
-            matrixP.clear();
-            matrixP.put(m);
-            matrixP.rewind();
-            modified |= DIRTY_PROJECTION ;
-        } else if(matrixMode==GL.GL_TEXTURE) {
-            matrixT.clear();
-            matrixT.put(m);
-            matrixT.rewind();
-            modified |= DIRTY_TEXTURE ;
-        } 
+        m.get(matrixArray, matrixOff, 16);
         m.position(spos);
+        setModified();
     }
 
     public final void glPopMatrix() {
-        float[] stackEntry=null;
-        if(matrixMode==GL_MODELVIEW) {
-            stackEntry = (float[])matrixMvStack.remove(0);
-        } else if(matrixMode==GL_PROJECTION) {
-            stackEntry = (float[])matrixPStack.remove(0);
-        } else if(matrixMode==GL.GL_TEXTURE) {
-            stackEntry = (float[])matrixTStack.remove(0);
-        } 
-        glLoadMatrixf(stackEntry, 0);
+        final int pos = matrixStackPos[matrixIdx] - 16;
+        if( 0 > pos ) {
+            throw new GLException("GL_STACK_UNDERFLOW: matrixName "+matrixMode);
+        }
+        System.arraycopy(matrixStack[matrixIdx], pos, matrixArray, matrixOff, 16);
+        matrixStackPos[matrixIdx] = pos;
+        setModified();
     }
 
     public final void glPushMatrix() {
-        float[] stackEntry = new float[1*16];
-        if(matrixMode==GL_MODELVIEW) {
-            matrixMv.get(stackEntry);
-            matrixMv.rewind();
-            matrixMvStack.add(0, stackEntry);
-        } else if(matrixMode==GL_PROJECTION) {
-            matrixP.get(stackEntry);
-            matrixP.rewind();
-            matrixPStack.add(0, stackEntry);
-        } else if(matrixMode==GL.GL_TEXTURE) {
-            matrixT.get(stackEntry);
-            matrixT.rewind();
-            matrixTStack.add(0, stackEntry);
+        final int pos = matrixStackPos[matrixIdx];
+        float[] stack = matrixStack[matrixIdx];
+        if( pos + 16 > stack.length ) {
+            // exceeding the GL minimum stack depth, grow w/o limit
+            final float[] newStack = new float[stack.length * 2];
+            System.arraycopy(stack, 0, newStack, 0, pos);
+            stack = newStack;
+            matrixStack[matrixIdx] = stack;
         }
+        System.arraycopy(matrixArray, matrixOff, stack, pos, 16);
+        matrixStackPos[matrixIdx] = pos + 16;
     }
 
     public final void glLoadIdentity() {
-        if(matrixMode==GL_MODELVIEW) {
-            matrixMv.clear();
-            matrixMv.put(matrixIdent);
-            matrixMv.rewind();
-            matrixIdent.rewind();
-            modified |= DIRTY_MODELVIEW ;
-        } else if(matrixMode==GL_PROJECTION) {
-            matrixP.clear();
-            matrixP.put(matrixIdent);
-            matrixP.rewind();
-            matrixIdent.rewind();
-            modified |= DIRTY_PROJECTION ;
-        } else if(matrixMode==GL.GL_TEXTURE) {
-            matrixT.clear();
-            matrixT.put(matrixIdent);
-            matrixT.rewind();
-            matrixIdent.rewind();
-            modified |= DIRTY_TEXTURE ;
-        } 
+        loadIdentity(matrixArray, matrixOff);
+        setModified();
     }
 
     public final void glMultMatrixf(final FloatBuffer m) {
-        if(matrixMode==GL_MODELVIEW) {
-            glMultMatrixf(matrixMv, m, matrixMult);
-            matrixMv.clear();
-            matrixMv.put(matrixMult);
-            matrixMv.rewind();
-            modified |= DIRTY_MODELVIEW ;
-        } else if(matrixMode==GL_PROJECTION) {
-            glMultMatrixf(matrixP, m, matrixMult);
-            matrixP.clear();
-            matrixP.put(matrixMult);
-            matrixP.rewind();
-            modified |= DIRTY_PROJECTION ;
-        } else if(matrixMode==GL.GL_TEXTURE) {
-            glMultMatrixf(matrixT, m, matrixMult);
-            matrixT.clear();
-            matrixT.put(matrixMult);
-            matrixT.rewind();
-            modified |= DIRTY_TEXTURE ;
-        } 
-        matrixMult.rewind();
+        if( m.hasArray() ) {
+            multMatrixf(matrixArray, matrixOff, m.array(), m.arrayOffset()+m.position(), matrixArray, matrixOff);
+        } else {
+            final int spos = m.position();
+            m.get(localArray, mMult, 16);
+            m.position(spos);
+            multMatrixf(matrixArray, matrixOff, localArray, mMult, matrixArray, matrixOff);
+        }
+        setModified();
     }
 
     public void glMultMatrixf(float[] m, int m_offset) {
-        if(matrixMode==GL_MODELVIEW) {
-            glMultMatrixf(matrixMv, m, m_offset, matrixMult);
-            matrixMv.clear();
-            matrixMv.put(matrixMult);
-            matrixMv.rewind();
-            modified |= DIRTY_MODELVIEW ;
-        } else if(matrixMode==GL_PROJECTION) {
-            glMultMatrixf(matrixP, m, m_offset, matrixMult);
-            matrixP.clear();
-            matrixP.put(matrixMult);
-            matrixP.rewind();
-            modified |= DIRTY_PROJECTION ;
-        } else if(matrixMode==GL.GL_TEXTURE) {
-            glMultMatrixf(matrixT, m, m_offset, matrixMult);
-            matrixT.clear();
-            matrixT.put(matrixMult);
-            matrixT.rewind();
-            modified |= DIRTY_TEXTURE ;
-        } 
-        matrixMult.rewind();
+        if( m == matrixArray ) {
+            System.arraycopy(m, m_offset, localArray, mMult, 16);
+            multMatrixf(matrixArray, matrixOff, localArray, mMult, matrixArray, matrixOff);
+        } else {
+            multMatrixf(matrixArray, matrixOff, m, m_offset, matrixArray, matrixOff);
+        }
+        setModified();
     }
 
     public final void glTranslatef(final float x, final float y, final float z) {
@@ -534,10 +549,14 @@ public class PMVMatrix implements GLMatrixFunc {
         //  0 1 0 y
         //  0 0 1 z
         //  0 0 0 1
-        matrixTrans.put(0+4*3, x);
-        matrixTrans.put(1+4*3, y);
-        matrixTrans.put(2+4*3, z);
-        glMultMatrixf(matrixTrans);
+        // only the last column changes: c3 = c0*x + c1*y + c2*z + c3
+        final float[] m = matrixArray;
+        final int o = matrixOff;
+        m[o+0+4*3] += m[o+0+4*0]*x + m[o+0+4*1]*y + m[o+0+4*2]*z;
+        m[o+1+4*3] += m[o+1+4*0]*x + m[o+1+4*1]*y + m[o+1+4*2]*z;
+        m[o+2+4*3] += m[o+2+4*0]*x + m[o+2+4*1]*y + m[o+2+4*2]*z;
+        m[o+3+4*3] += m[o+3+4*0]*x + m[o+3+4*1]*y + m[o+3+4*2]*z;
+        setModified();
     }
 
     public final void glRotatef(final float angdeg, float x, float y, float z) {
@@ -547,7 +566,7 @@ public class PMVMatrix implements GLMatrixFunc {
         float s = (float)Math.sin(angrad);
 
         vec3f[0]=x; vec3f[1]=y; vec3f[2]=z;
-        projectFloat.normalize(vec3f);
+        ProjectFloat.normalize(vec3f);
         x = vec3f[0]; y = vec3f[1]; z = vec3f[2];
 
         // Rotation matrix:
@@ -561,19 +580,21 @@ public class PMVMatrix implements GLMatrixFunc {
         float ys = y*s;
         float yz = y*z;
         float zs = z*s;
-        matrixRot.put(0*4+0, x*x*ic+c);
-        matrixRot.put(0*4+1, xy*ic+zs);
-        matrixRot.put(0*4+2, xz*ic-ys);
+        final float[] r = localArray;
+        r[mRot+0*4+0] = x*x*ic+c;
+        r[mRot+0*4+1] = xy*ic+zs;
+        r[mRot+0*4+2] = xz*ic-ys;
 
-        matrixRot.put(1*4+0, xy*ic-zs);
-        matrixRot.put(1*4+1, y*y*ic+c);
-        matrixRot.put(1*4+2, yz*ic+xs);
+        r[mRot+1*4+0] = xy*ic-zs;
+        r[mRot+1*4+1] = y*y*ic+c;
+        r[mRot+1*4+2] = yz*ic+xs;
 
-        matrixRot.put(2*4+0, xz*ic+ys);
-        matrixRot.put(2*4+1, yz*ic-xs);
-        matrixRot.put(2*4+2, z*z*ic+c);
+        r[mRot+2*4+0] = xz*ic+ys;
+        r[mRot+2*4+1] = yz*ic-xs;
+        r[mRot+2*4+2] = z*z*ic+c;
 
-        glMultMatrixf(matrixRot);
+        multMatrixf(matrixArray, matrixOff, localArray, mRot, matrixArray, matrixOff);
+        setModified();
     }
 
     public final void glScalef(final float x, final float y, final float z) {
@@ -582,11 +603,13 @@ public class PMVMatrix implements GLMatrixFunc {
         //  0 y 0 0
         //  0 0 z 0
         //  0 0 0 1
-        matrixScale.put(0+4*0, x);
-        matrixScale.put(1+4*1, y);
-        matrixScale.put(2+4*2, z);
-
-        glMultMatrixf(matrixScale);
+        // scales the first three columns
+        final float[] m = matrixArray;
+        final int o = matrixOff;
+        m[o+0+4*0] *= x; m[o+1+4*0] *= x; m[o+2+4*0] *= x; m[o+3+4*0] *= x;
+        m[o+0+4*1] *= y; m[o+1+4*1] *= y; m[o+2+4*1] *= y; m[o+3+4*1] *= y;
+        m[o+0+4*2] *= z; m[o+1+4*2] *= z; m[o+2+4*2] *= z; m[o+3+4*2] *= z;
+        setModified();
     }
 
     public final void glOrthof(final float left, final float right, final float bottom, final float top, final float zNear, final float zFar) {
@@ -602,14 +625,16 @@ public class PMVMatrix implements GLMatrixFunc {
         float ty=-1.0f*(top+bottom)/dy;
         float tz=-1.0f*(zFar+zNear)/dz;
 
-        matrixOrtho.put(0+4*0, 2.0f/dx);
-        matrixOrtho.put(1+4*1, 2.0f/dy);
-        matrixOrtho.put(2+4*2, -2.0f/dz);
-        matrixOrtho.put(0+4*3, tx);
-        matrixOrtho.put(1+4*3, ty);
-        matrixOrtho.put(2+4*3, tz);
+        final float[] o = localArray;
+        o[mOrtho+0+4*0] = 2.0f/dx;
+        o[mOrtho+1+4*1] = 2.0f/dy;
+        o[mOrtho+2+4*2] = -2.0f/dz;
+        o[mOrtho+0+4*3] = tx;
+        o[mOrtho+1+4*3] = ty;
+        o[mOrtho+2+4*3] = tz;
 
-        glMultMatrixf(matrixOrtho);
+        multMatrixf(matrixArray, matrixOff, localArray, mOrtho, matrixArray, matrixOff);
+        setModified();
     }
 
     public final void glFrustumf(final float left, final float right, final float bottom, final float top, final float zNear, final float zFar) {
@@ -633,52 +658,162 @@ public class PMVMatrix implements GLMatrixFunc {
         float C=-1.0f*(zFar+zNear)/dz;
         float D=-2.0f*(zFar*zNear)/dz;
 
-        matrixFrustum.put(0+4*0, zNear2/dx);
-        matrixFrustum.put(1+4*1, zNear2/dy);
-        matrixFrustum.put(2+4*2, C);
+        final float[] f = localArray;
+        f[mFrustum+0+4*0] = zNear2/dx;
+        f[mFrustum+1+4*0] = 0f;
+        f[mFrustum+2+4*0] = 0f;
+        f[mFrustum+3+4*0] = 0f;
+
+        f[mFrustum+0+4*1] = 0f;
+        f[mFrustum+1+4*1] = zNear2/dy;
+        f[mFrustum+2+4*1] = 0f;
+        f[mFrustum+3+4*1] = 0f;
 
-        matrixFrustum.put(0+4*2, A);
-        matrixFrustum.put(1+4*2, B);
+        f[mFrustum+0+4*2] = A;
+        f[mFrustum+1+4*2] = B;
+        f[mFrustum+2+4*2] = C;
+        f[mFrustum+3+4*2] = -1.0f;
 
-        matrixFrustum.put(2+4*3, D);
-        matrixFrustum.put(3+4*2, -1.0f);
+        f[mFrustum+0+4*3] = 0f;
+        f[mFrustum+1+4*3] = 0f;
+        f[mFrustum+2+4*3] = D;
+        f[mFrustum+3+4*3] = 0f;
 
-        glMultMatrixf(matrixFrustum);
+        multMatrixf(matrixArray, matrixOff, localArray, mFrustum, matrixArray, matrixOff);
+        setModified();
     }
 
     //
     // private 
     //
 
-    private final void setMviMvit() {
-        if(!projectFloat.gluInvertMatrixf(matrixMv, matrixMvi)) {
-            throw new GLException("Invalid source Mv matrix, can't compute inverse");
+    private static final void loadIdentity(final float[] m, final int off) {
+        for (int i = 0; i < 16; i++) {
+            m[off+i] = 0f;
+        }
+        m[off+0+4*0] = 1f;
+        m[off+1+4*1] = 1f;
+        m[off+2+4*2] = 1f;
+        m[off+3+4*3] = 1f;
+    }
+
+    private final int getMatrixOffset(final int matrixName) {
+        if(matrixName==GL_MODELVIEW) {
+            return MV_IDX*16;
+        } else if(matrixName==GL_PROJECTION) {
+            return P_IDX*16;
+        } else if(matrixName==GL.GL_TEXTURE) {
+            return T_IDX*16;
+        } else {
+            throw new GLException("unsupported matrixName: "+matrixName);
+        }
+    }
+
+    /** Marks the current matrix and its derived matrices modified */
+    private final void setModified() {
+        switch(matrixIdx) {
+            case MV_IDX:
+                modified |= DIRTY_MODELVIEW ;
+                dirtyDerived |= DERIVED_ALL ;
+                break;
+            case P_IDX:
+                modified |= DIRTY_PROJECTION ;
+                dirtyDerived |= DERIVED_PMV ;
+                break;
+            default:
+                modified |= DIRTY_TEXTURE ;
+        }
+    }
+
+    /** Marks the derived matrices requested, i.e. to be maintained by {@link #update()}, and validates them */
+    private final void request(final int derived) {
+        requestMask |= derived;
+        validateDerived(derived);
+    }
+
+    private final void validateDerived(final int derived) {
+        final int dirty = dirtyDerived & derived;
+        if( 0 == dirty ) {
+            return;
+        }
+        if( 0 != ( dirty & ( DERIVED_MVI | DERIVED_MVIT ) ) ) {
+            setMviMvit( 0 != ( derived & DERIVED_MVIT ) );
+        }
+        if( 0 != ( dirty & DERIVED_PMV ) ) {
+            multMatrixf(matrixArray, P_IDX*16, matrixArray, MV_IDX*16, matrixArray, PMV_IDX*16);
+            dirtyDerived &= ~DERIVED_PMV;
+        }
+    }
+
+    private final void setMviMvit(final boolean mvit) {
+        final float[] m = matrixArray;
+        if( 0 != ( dirtyDerived & DERIVED_MVI ) ) {
+            if(!invertMatrixf(m, MV_IDX*16, m, MVI_IDX*16)) {
+                throw new GLException("Invalid source Mv matrix, can't compute inverse");
+            }
+            dirtyDerived &= ~DERIVED_MVI;
+        }
+        if( !mvit ) {
+            return;
         }
 
         // transpose matrix 
+        final int mviOff = MVI_IDX*16;
+        final int mvitOff = MVIT_IDX*16;
         for (int i = 0; i < 4; i++) {
             for (int j = 0; j < 4; j++) {
-                matrixMvit.put(j+i*4, matrixMvi.get(i+j*4));
+                m[mvitOff+j+i*4] = m[mviOff+i+j*4];
             }
         }
 
         // fetch 3x3
         for (int i = 0; i < 3; i++) {
             for (int j = 0; j < 3; j++) {
-                matrixMvit3.put(i+j*3, matrixMvit.get(i+j*4));
+                matrixMvit3Array[i+j*3] = m[mvitOff+i+j*4];
             }
         }
+        dirtyDerived &= ~DERIVED_MVIT;
     }
 
-    protected FloatBuffer matrixIdent;
+    /** Backing array of T, P, Mv, Mvi, Mvit and Pmv, see {@link #matrixTPMvMvitPmv} */
+    protected float[] matrixArray;
     protected FloatBuffer matrixTPMvMvitPmv, matrixPMvMvit, matrixPMvMvitPmv, matrixPMvMvi, matrixPMv, matrixP, matrixT, matrixMv, matrixMvi, matrixMvit, matrixPmv;
+    protected float[] matrixMvit3Array;
     protected FloatBuffer matrixMvit3;
-    protected FloatBuffer localBuf, matrixMult, matrixTrans, matrixRot, matrixScale, matrixOrtho, matrixFrustum;
+    /** Temporary matrices for glMultMatrixf(FloatBuffer), glRotatef, glOrthof and glFrustumf */ 
+    protected float[] localArray;
     protected float[] vec3f;
-    protected List/*FloatBuffer*/ matrixTStack, matrixPStack, matrixMvStack;
+    /** Preallocated matrix stacks, indexed by T_IDX, P_IDX and MV_IDX */
+    protected float[][] matrixStack;
+    protected int[] matrixStackPos;
     protected int matrixMode = GL_MODELVIEW;
+    protected int matrixIdx = MV_IDX;
+    protected int matrixOff = MV_IDX*16;
     protected int modified = 0;
-    protected ProjectFloat projectFloat;
+    protected int dirtyDerived = 0;
+    protected int requestMask = 0;
+
+    private static final int T_IDX    = 0;
+    private static final int P_IDX    = 1;
+    private static final int MV_IDX   = 2;
+    private static final int MVI_IDX  = 3;
+    private static final int MVIT_IDX = 4;
+    private static final int PMV_IDX  = 5;
+
+    private static final int mMult    = 0*16;
+    private static final int mRot     = 1*16;
+    private static final int mOrtho   = 2*16;
+    private static final int mFrustum = 3*16;
+
+    /** GL minimum stack depths, the stacks grow if exceeded */
+    private static final int INITIAL_STACK_DEPTH_T  = 2;
+    private static final int INITIAL_STACK_DEPTH_P  = 2;
+    private static final int INITIAL_STACK_DEPTH_MV = 32;
+
+    private static final int DERIVED_MVI  = 1 << 0;
+    private static final int DERIVED_MVIT = 1 << 1;
+    private static final int DERIVED_PMV  = 1 << 2;
+    private static final int DERIVED_ALL  = DERIVED_MVI | DERIVED_MVIT | DERIVED_PMV;
 
     public static final int DIRTY_MODELVIEW  = 1 << 0;
     public static final int DIRTY_PROJECTION = 1 << 1;
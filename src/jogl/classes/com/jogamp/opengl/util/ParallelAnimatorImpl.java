@@ -0,0 +1,341 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.GLContext;
+
+import jogamp.opengl.GLContextShareSet;
+
+/**
+ * Renders each drawable on its own worker thread, while the animation thread
+ * waits until all of them have finished their frame.
+ * <p>
+ * Drawables whose contexts share objects are rendered by the same worker, one after another.
+ * The duration of a frame is therefore bound by the slowest drawable (group),
+ * instead of the sum of all of them as with the serial implementations.
+ * Since {@link #display(ArrayList, boolean, boolean)} only returns once all
+ * drawables are done, the lifecycle semantics of the animator are unchanged.
+ * </p>
+ * <p>
+ * If the frame barrier is enabled, automatic buffer swapping is suspended while rendering
+ * and all drawables swap only after every drawable has rendered its frame.
+ * </p>
+ */
+class ParallelAnimatorImpl implements AnimatorBase.AnimatorImpl {
+    private final AnimatorBase.AnimatorImpl serialImpl;
+    private final boolean frameBarrier;
+    private final String threadName;
+
+    /** Lock and condition of the frame state below and of each worker's pending flag */
+    private final Object sync = new Object();
+    private final ArrayList/*<Worker>*/ workers = new ArrayList();
+    private final ArrayList/*<ArrayList<GLAutoDrawable>>*/ groups = new ArrayList();
+    private int pendingRender;
+    private int pendingDone;
+    /** First failure of the current frame, a RuntimeException or an Error */
+    private Throwable frameError;
+
+    /** Last display duration in nanoseconds per drawable, guarded by itself */
+    private final Map/*<GLAutoDrawable, long[]>*/ frameDurations = new IdentityHashMap();
+
+    ParallelAnimatorImpl(AnimatorBase.AnimatorImpl serialImpl, boolean frameBarrier, String threadName) {
+        this.serialImpl = serialImpl;
+        this.frameBarrier = frameBarrier;
+        this.threadName = threadName;
+    }
+
+    AnimatorBase.AnimatorImpl getSerialImpl() { return serialImpl; }
+
+    boolean hasFrameBarrier() { return frameBarrier; }
+
+    public void display(ArrayList drawables,
+                        boolean ignoreExceptions,
+                        boolean printExceptions) {
+        final int n = buildGroups(drawables);
+        if (0 == n) {
+            return;
+        }
+        final Throwable error;
+        synchronized (sync) {
+            while (workers.size() < n) {
+                final Worker w = new Worker(threadName+"-Worker-"+workers.size());
+                workers.add(w);
+                w.start();
+            }
+            pendingRender = n;
+            pendingDone = n;
+            frameError = null;
+            for (int i = 0; i < n; i++) {
+                final Worker w = (Worker) workers.get(i);
+                w.group = (ArrayList) groups.get(i);
+                w.ignoreExceptions = ignoreExceptions;
+                w.printExceptions = printExceptions;
+                w.pending = true;
+            }
+            sync.notifyAll();
+            while (pendingDone > 0) {
+                try {
+                    sync.wait();
+                } catch (InterruptedException ie) { }
+            }
+            for (int i = 0; i < workers.size(); i++) {
+                ((Worker) workers.get(i)).group = null;
+            }
+            error = frameError;
+            frameError = null;
+        }
+        synchronized (frameDurations) {
+            if (frameDurations.size() > drawables.size()) {
+                // drop removed drawables
+                frameDurations.keySet().retainAll(drawables);
+            }
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        } else if (null != error) {
+            throw (RuntimeException) error;
+        }
+    }
+
+    public boolean skipWaitForCompletion(Thread thread) {
+        if (serialImpl.skipWaitForCompletion(thread)) {
+            return true;
+        }
+        // lifecycle changes from within display() on a worker thread
+        final Thread ct = Thread.currentThread();
+        synchronized (sync) {
+            for (int i = 0; i < workers.size(); i++) {
+                if (workers.get(i) == ct) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the duration of the last {@link GLAutoDrawable#display()} call of the given drawable
+     * in nanoseconds, excluding the frame barrier and buffer swap, or -1 if not yet rendered.
+     */
+    long getLastFrameDuration(GLAutoDrawable drawable) {
+        synchronized (frameDurations) {
+            final long[] d = (long[]) frameDurations.get(drawable);
+            return null != d ? d[0] : -1;
+        }
+    }
+
+    /** Terminates all worker threads, new ones are created on demand. */
+    void shutdown() {
+        synchronized (sync) {
+            for (int i = 0; i < workers.size(); i++) {
+                ((Worker) workers.get(i)).shouldStop = true;
+            }
+            workers.clear();
+            // release a display() call still waiting for its frame,
+            // stopped workers don't count down anymore
+            pendingRender = 0;
+            pendingDone = 0;
+            sync.notifyAll();
+        }
+        synchronized (frameDurations) {
+            frameDurations.clear();
+        }
+    }
+
+    /**
+     * Partitions the drawables into groups of shared contexts, preserving their order.
+     * Drawables w/o a context yet are rendered on their own.
+     * @return the number of groups
+     */
+    private int buildGroups(ArrayList drawables) {
+        int n = 0;
+        for (int i = 0; i < drawables.size(); i++) {
+            final GLAutoDrawable drawable = (GLAutoDrawable) drawables.get(i);
+            final GLContext context = drawable.getContext();
+            ArrayList group = null;
+            if (null != context) {
+                for (int j = 0; j < n && null == group; j++) {
+                    final ArrayList g = (ArrayList) groups.get(j);
+                    final GLContext c = ((GLAutoDrawable) g.get(0)).getContext();
+                    if (null != c && GLContextShareSet.areShared(context, c)) {
+                        group = g;
+                    }
+                }
+            }
+            if (null == group) {
+                if (n < groups.size()) {
+                    group = (ArrayList) groups.get(n);
+                    group.clear();
+                } else {
+                    group = new ArrayList();
+                    groups.add(group);
+                }
+                n++;
+            }
+            group.add(drawable);
+        }
+        for (int i = n; i < groups.size(); i++) {
+            ((ArrayList) groups.get(i)).clear();
+        }
+        return n;
+    }
+
+    class Worker extends Thread {
+        boolean pending;
+        boolean shouldStop;
+        ArrayList group;
+        boolean ignoreExceptions;
+        boolean printExceptions;
+        private final ArrayList/*<GLAutoDrawable>*/ swapList = new ArrayList();
+
+        Worker(String name) {
+            super(name);
+            setDaemon(true);
+        }
+
+        public void run() {
+            while (true) {
+                final ArrayList g;
+                synchronized (sync) {
+                    while (!pending && !shouldStop) {
+                        try {
+                            sync.wait();
+                        } catch (InterruptedException ie) { }
+                    }
+                    if (shouldStop) {
+                        return;
+                    }
+                    g = group;
+                }
+                Throwable error = null;
+                try {
+                    try {
+                        renderGroup(g);
+                    } catch (Throwable t) {
+                        error = t;
+                    }
+                    if (frameBarrier) {
+                        synchronized (sync) {
+                            if (!shouldStop && --pendingRender == 0) {
+                                sync.notifyAll();
+                            }
+                            while (pendingRender > 0 && !shouldStop) {
+                                try {
+                                    sync.wait();
+                                } catch (InterruptedException ie) { }
+                            }
+                        }
+                        if (null == error) {
+                            try {
+                                swapGroup();
+                            } catch (Throwable t) {
+                                error = t;
+                            }
+                        }
+                    }
+                } finally {
+                    swapList.clear();
+                    // always count down, otherwise the animation thread waits forever
+                    synchronized (sync) {
+                        if (!shouldStop) {
+                            if (null != error && null == frameError) {
+                                frameError = error;
+                            }
+                            pending = false;
+                            if (--pendingDone == 0) {
+                                sync.notifyAll();
+                            }
+                        }
+                    }
+                }
+                synchronized (sync) {
+                    if (shouldStop) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void renderGroup(ArrayList g) {
+            for (int i = 0; i < g.size(); i++) {
+                final GLAutoDrawable drawable = (GLAutoDrawable) g.get(i);
+                final boolean autoSwap = frameBarrier && drawable.getAutoSwapBufferMode();
+                try {
+                    if (autoSwap) {
+                        drawable.setAutoSwapBufferMode(false);
+                        swapList.add(drawable);
+                    }
+                    final long t0 = System.nanoTime();
+                    try {
+                        drawable.display();
+                    } finally {
+                        if (autoSwap) {
+                            drawable.setAutoSwapBufferMode(true);
+                        }
+                    }
+                    final long dt = System.nanoTime() - t0;
+                    synchronized (frameDurations) {
+                        long[] d = (long[]) frameDurations.get(drawable);
+                        if (null == d) {
+                            d = new long[1];
+                            frameDurations.put(drawable, d);
+                        }
+                        d[0] = dt;
+                    }
+                } catch (RuntimeException e) {
+                    handle(e);
+                }
+            }
+        }
+
+        private void swapGroup() {
+            for (int i = 0; i < swapList.size(); i++) {
+                try {
+                    ((GLAutoDrawable) swapList.get(i)).swapBuffers();
+                } catch (RuntimeException e) {
+                    handle(e);
+                }
+            }
+        }
+
+        private void handle(RuntimeException e) {
+            if (ignoreExceptions) {
+                if (printExceptions) {
+                    e.printStackTrace();
+                }
+            } else {
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.util.glsl;
+
+import java.nio.Buffer;
+import java.util.ArrayList;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2ES2;
+import javax.media.opengl.GLException;
+import javax.media.opengl.GLProfile;
+
+import com.jogamp.opengl.util.GLArrayDataEditable;
+import com.jogamp.opengl.util.GLArrayDataWrapper;
+import com.jogamp.opengl.util.GLArrayHandler;
+
+/**
+ * Handles one VBO holding multiple interleaved GLSL vertex attributes,
+ * see {@link com.jogamp.opengl.util.GLArrayDataServer#createGLSLInterleaved(ShaderState, int, int, boolean, int, int)}.
+ * <p>
+ * The VBO is bound and written once, all sub-arrays are enabled
+ * and passed w/ their offset within the interleaved element.
+ * </p>
+ */
+public class GLSLArrayHandlerInterleaved implements GLArrayHandler {
+  private static final boolean DEBUG = ShaderState.DEBUG;
+  private GLArrayDataEditable ad;
+  private ShaderState st;
+  private final ArrayList<GLArrayDataWrapper> subArrays = new ArrayList<GLArrayDataWrapper>();
+
+  public GLSLArrayHandlerInterleaved(ShaderState st, GLArrayDataEditable ad) {
+    this.st = st;
+    this.ad = ad;
+  }
+
+  public final void addSubArray(GLArrayDataWrapper subArray) {
+    subArrays.add(subArray);
+  }
+
+  /** Validates all sub-arrays, the interleaved array itself may exceed the vertex attribute component limit. */
+  public final boolean validate(GLProfile glp, boolean throwException) {
+    for(int i=0; i<subArrays.size(); i++) {
+        if(!subArrays.get(i).validate(glp, throwException)) {
+            return false;
+        }
+    }
+    return true;
+  }
+
+  public void enableBuffer(GL gl, boolean enable) {
+    if(!gl.isGL2ES2()) {
+        throw new GLException("GLSLArrayHandlerInterleaved expects a GL2ES2 implementation");
+    }
+    GL2ES2 glsl = gl.getGL2ES2();
+
+    if(enable) {
+        glsl.glBindBuffer(ad.getVBOTarget(), ad.getVBOName());
+        if(!ad.isVBOWritten()) {
+            if(DEBUG) {
+                System.err.println("XXX VA "+ad.getName()+" VBO write: "+ad.getVBOName());
+            }
+            final Buffer buffer = ad.getBuffer();
+            if(null!=buffer) {
+                glsl.glBufferData(ad.getVBOTarget(), ad.getByteSize(), buffer, ad.getVBOUsage());
+            }
+            ad.setVBOWritten(true);
+        }
+        for(int i=0; i<subArrays.size(); i++) {
+            final GLArrayDataWrapper sub = subArrays.get(i);
+            sub.setVBOName(ad.getVBOName());
+            st.enableVertexAttribArray(glsl, sub);
+            // the VBO is shared, hence always pass the pointer incl. offset
+            st.vertexAttribPointer(glsl, sub);
+        }
+    } else {
+        for(int i=0; i<subArrays.size(); i++) {
+            st.disableVertexAttribArray(glsl, subArrays.get(i));
+        }
+        glsl.glBindBuffer(ad.getVBOTarget(), 0);
+    }
+  }
+
+}
@@ -0,0 +1,325 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.glsl;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.security.AccessController;
+import java.util.ArrayList;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2GL3;
+import javax.media.opengl.GLContext;
+import javax.media.opengl.GLException;
+import javax.media.opengl.GLUniformData;
+
+import jogamp.opengl.Debug;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * A named uniform block, whose members are shared by all programs declaring it.
+ * <p>
+ * The members are {@link GLUniformData} instances in the order of their declaration in the block,
+ * e.g. for
+ * <pre>
+ *   layout(std140) uniform gcb_PMVMatrix { mat4 gcu_PMVMatrix[2]; };
+ * </pre>
+ * a block named <code>gcb_PMVMatrix</code> with the member
+ * <code>new GLUniformData("gcu_PMVMatrix", 4, 4, pmvMatrix.glGetPMvMatrixf())</code>.
+ * </p>
+ * <p>
+ * If uniform buffer objects are {@link #isSupported(GL) supported}, the members are written in
+ * <code>std140</code> layout into a uniform buffer object, which is bound to a binding point
+ * of the context. Passing the block via {@link ShaderState#uniformBlock(javax.media.opengl.GL2ES2, GLUniformBlock)}
+ * uploads the buffer only if the members content changed, i.e. once per frame for a
+ * {@link com.jogamp.opengl.util.PMVMatrix} shared by many programs,
+ * and binds the program's block to the binding point once.
+ * </p>
+ * <p>
+ * Otherwise, or if a program declares the members as plain uniforms,
+ * the members are passed as uniforms to the program.
+ * Since the members of a declared block can't be passed as plain uniforms,
+ * programs declaring the block require uniform buffer objects, see {@link #ENABLED}.
+ * </p>
+ * <p>
+ * The uniform buffer object and the binding point belong to one context.
+ * </p>
+ */
+public class GLUniformBlock {
+    /**
+     * Property <code>jogl.glsl.ubo</code>, default <code>true</code>, allows disabling the use of uniform buffer objects.
+     * <p>
+     * Disabling is only valid for shaders declaring the members as plain uniforms,
+     * passing a block to a program declaring it throws a {@link GLException}.
+     * </p>
+     */
+    public static final boolean ENABLED;
+
+    static {
+        ENABLED = !"false".equalsIgnoreCase(Debug.getProperty("jogl.glsl.ubo", true, AccessController.getContext()));
+    }
+
+    /**
+     * @return true if the given GL supports uniform buffer objects,
+     *         i.e. is a GL3 or has <code>GL_ARB_uniform_buffer_object</code> available.
+     */
+    public static boolean isSupported(GL gl) {
+        return ENABLED && isAvailable(gl);
+    }
+
+    /** @return true if the given GL implements uniform buffer objects, regardless of {@link #ENABLED} */
+    static boolean isAvailable(GL gl) {
+        return gl.isGL2GL3() && ( gl.isGL3() || gl.isExtensionAvailable("GL_ARB_uniform_buffer_object") );
+    }
+
+    public GLUniformBlock(String name) {
+        this.name = name;
+    }
+
+    public final String getName() { return name; }
+
+    /**
+     * Appends a member, which must be declared in the block in the order of adding.
+     * @throws GLException if the block's uniform buffer object has already been created
+     */
+    public final GLUniformBlock add(GLUniformData member) throws GLException {
+        if(0 != bufferName) {
+            throw new GLException("Block "+name+" already in use, can't add "+member.getName());
+        }
+        final int components = member.components();
+        final int count = member.count();
+        final int align;
+        final int stride;
+        final int bytes;
+        if( !member.isMatrix() && 1 == count ) {
+            // scalar and vec2 aligned to their size, vec3 and vec4 aligned to vec4
+            align = 3 > components ? 4 * components : 16;
+            stride = align;
+            bytes = 4 * components;
+        } else {
+            // arrays and matrices: each element, resp. column, aligned to vec4
+            align = 16;
+            stride = 16;
+            bytes = 16 * ( member.isMatrix() ? count * member.columns() : count );
+        }
+        size = ( size + align - 1 ) & ~( align - 1 );
+        members.add(member);
+        offsets.add(new int[] { size, stride, member.isMatrix() ? member.rows() : components });
+        size += bytes;
+        return this;
+    }
+
+    public final int getMemberCount() { return members.size(); }
+
+    public final GLUniformData getMember(int i) { return members.get(i); }
+
+    /** @return the <code>std140</code> byte offset of the i-th member */
+    public final int getOffset(int i) { return offsets.get(i)[0]; }
+
+    /** @return the <code>std140</code> size of the block in bytes */
+    public final int getSize() { return ( size + 15 ) & ~15; }
+
+    /** @return the binding point, -1 if not yet bound */
+    public final int getBinding() { return binding; }
+
+    /** @return the name of the uniform buffer object, 0 if not yet created */
+    public final int getBufferName() { return bufferName; }
+
+    /** @return the number of uploads of the uniform buffer object */
+    public final int getUploadCount() { return uploads; }
+
+    /**
+     * Writes the members to the uniform buffer object, if their content changed,
+     * and binds the buffer to the block's binding point.
+     * <p>
+     * Creates the buffer object and allocates a binding point at first call.
+     * </p>
+     *
+     * @return true if the buffer has been uploaded
+     * @throws GLException if no binding point is available
+     */
+    public boolean update(GL2GL3 gl) throws GLException {
+        boolean upload = false;
+        if(0 == bufferName) {
+            binding = BindingPoints.get(gl).alloc(gl);
+            data = Buffers.newDirectByteBuffer(getSize());
+            final int[] tmp = new int[1];
+            gl.glGenBuffers(1, tmp, 0);
+            bufferName = tmp[0];
+            write();
+            gl.glBindBuffer(GL2GL3.GL_UNIFORM_BUFFER, bufferName);
+            gl.glBufferData(GL2GL3.GL_UNIFORM_BUFFER, data.capacity(), data, GL.GL_DYNAMIC_DRAW);
+            upload = true;
+        } else if( write() ) {
+            gl.glBindBuffer(GL2GL3.GL_UNIFORM_BUFFER, bufferName);
+            gl.glBufferSubData(GL2GL3.GL_UNIFORM_BUFFER, 0, data.capacity(), data);
+            upload = true;
+        }
+        if(upload) {
+            gl.glBindBuffer(GL2GL3.GL_UNIFORM_BUFFER, 0);
+            uploads++;
+        }
+        BindingPoints.get(gl).bind(gl, binding, bufferName);
+        return upload;
+    }
+
+    /**
+     * Deletes the uniform buffer object and releases the binding point.
+     */
+    public void destroy(GL gl) {
+        if(0 != bufferName) {
+            gl.glDeleteBuffers(1, new int[] { bufferName }, 0);
+            bufferName = 0;
+            BindingPoints.get(gl).free(binding);
+            binding = -1;
+            data = null;
+        }
+    }
+
+    /**
+     * Writes the members in <code>std140</code> layout to the data buffer.
+     * @return true if the content changed
+     */
+    private boolean write() {
+        boolean changed = false;
+        for(int i=0; i<members.size(); i++) {
+            final GLUniformData m = members.get(i);
+            final int[] layout = offsets.get(i);
+            final int stride = layout[1];
+            final int n = layout[2];
+            final Object o = m.getObject();
+            int off = layout[0];
+            if(o instanceof FloatBuffer) {
+                final FloatBuffer b = (FloatBuffer) o;
+                final int total = m.count() * m.components();
+                int p = b.position();
+                for(int j=0; j<total; j+=n, off+=stride) {
+                    for(int k=0; k<n; k++) {
+                        final int v = Float.floatToRawIntBits(b.get(p++));
+                        if(data.getInt(off+4*k) != v) {
+                            data.putInt(off+4*k, v);
+                            changed = true;
+                        }
+                    }
+                }
+            } else if(o instanceof IntBuffer) {
+                final IntBuffer b = (IntBuffer) o;
+                final int total = m.count() * m.components();
+                int p = b.position();
+                for(int j=0; j<total; j+=n, off+=stride) {
+                    for(int k=0; k<n; k++) {
+                        final int v = b.get(p++);
+                        if(data.getInt(off+4*k) != v) {
+                            data.putInt(off+4*k, v);
+                            changed = true;
+                        }
+                    }
+                }
+            } else {
+                final int v = ( o instanceof Float ) ? Float.floatToRawIntBits(m.floatValue()) : m.intValue();
+                if(data.getInt(off) != v) {
+                    data.putInt(off, v);
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    public String toString() {
+        return "GLUniformBlock["+name+", members "+members.size()+", size "+getSize()+", binding "+binding+
+               ", buffer "+bufferName+", uploads "+uploads+"]";
+    }
+
+    /**
+     * Binding point manager of one context,
+     * attached to the context via {@link GLContext#attachObject(String, Object)}.
+     * <p>
+     * Tracks the buffer bound to each allocated binding point,
+     * hence allocated binding points shall not be rebound by other means.
+     * </p>
+     */
+    static class BindingPoints {
+        private static final String KEY = BindingPoints.class.getName();
+
+        static BindingPoints get(GL gl) {
+            final GLContext context = gl.getContext();
+            BindingPoints bp = (BindingPoints) context.getAttachedObject(KEY);
+            if(null == bp) {
+                bp = new BindingPoints();
+                context.attachObject(KEY, bp);
+            }
+            return bp;
+        }
+
+        private boolean[] used = null;
+        private int[] buffers = null;
+
+        int alloc(GL gl) throws GLException {
+            if(null == used) {
+                final int[] tmp = new int[1];
+                gl.glGetIntegerv(GL2GL3.GL_MAX_UNIFORM_BUFFER_BINDINGS, tmp, 0);
+                used = new boolean[Math.max(0, tmp[0])];
+                buffers = new int[used.length];
+            }
+            for(int i=0; i<used.length; i++) {
+                if(!used[i]) {
+                    used[i] = true;
+                    return i;
+                }
+            }
+            throw new GLException("No uniform buffer binding point left of "+used.length);
+        }
+
+        void free(int binding) {
+            if(null != used && 0 <= binding && binding < used.length) {
+                used[binding] = false;
+                buffers[binding] = 0;
+            }
+        }
+
+        void bind(GL gl, int binding, int bufferName) {
+            if(buffers[binding] != bufferName) {
+                gl.getGL2GL3().glBindBufferBase(GL2GL3.GL_UNIFORM_BUFFER, binding, bufferName);
+                buffers[binding] = bufferName;
+            }
+        }
+    }
+
+    private final String name;
+    private final ArrayList<GLUniformData> members = new ArrayList<GLUniformData>();
+    /** per member: offset, stride and components per element */
+    private final ArrayList<int[]> offsets = new ArrayList<int[]>();
+    private int size = 0;
+    private int binding = -1;
+    private int bufferName = 0;
+    private ByteBuffer data = null;
+    private int uploads = 0;
+}
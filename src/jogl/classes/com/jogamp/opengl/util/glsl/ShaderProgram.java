@@ -50,6 +50,9 @@ public class ShaderProgram {
 
     public int program() { return shaderProgram; }
 
+    /** Number of link operations, allowing to detect changed attribute and uniform locations. */
+    final int linkCount() { return linkCount; }
+
     /**
      * returns the uniq shader id as an integer
      */
@@ -203,13 +206,15 @@ public class ShaderProgram {
         }
         
         add(newShader);
-        if(attachedShaderCode.add(newShader)) {
-            ShaderUtil.attachShader(gl, shaderProgram, newShader.shader());
+        // also attaches the other shaders, if the program has been loaded from a binary
+        if(!compileAndAttach(gl, verboseOut)) {
+            return false;
         }
         
         gl.glLinkProgram(shaderProgram);
         
         programLinked = ShaderUtil.isProgramValid(gl, shaderProgram, System.err);
+        linkCount++;
         if ( programLinked && shaderWasInUse )  {
             useProgram(gl, true);
         }
@@ -223,6 +228,10 @@ public class ShaderProgram {
      * 
      * <p>Within this process, all GL resources (shader and program objects) are created if necessary.</p>
      *  
+     * <p>If a {@link ShaderProgramCache#getDefault() program cache} is set, the program binary
+     * is loaded from the cache if available, skipping compilation and linking,
+     * otherwise the binary of the newly linked program is stored.</p>
+     * 
      * @param gl
      * @param verboseOut
      * @return
@@ -232,24 +241,49 @@ public class ShaderProgram {
     public synchronized boolean link(GL2ES2 gl, PrintStream verboseOut) {
         init(gl);
 
-        for(Iterator<ShaderCode> iter=allShaderCode.iterator(); iter.hasNext(); ) {
-            final ShaderCode shaderCode = iter.next();
-            if(!shaderCode.compile(gl, verboseOut)) {
-                return false;
-            }
-            if(attachedShaderCode.add(shaderCode)) {
-                ShaderUtil.attachShader(gl, shaderProgram, shaderCode.shader());
+        final ShaderProgramCache cache = ShaderProgramCache.getDefault();
+        String cacheKey = null;
+        if(null != cache && attachedShaderCode.isEmpty() && ShaderProgramCache.isAvailable(gl)) {
+            cacheKey = cache.getKey(gl, allShaderCode);
+            if(null != cacheKey) {
+                if(cache.load(gl, shaderProgram, cacheKey, verboseOut)) {
+                    programLinked = true;
+                    linkCount++;
+                    return true;
+                }
+                cache.prepareLink(gl, shaderProgram);
             }
         }
 
+        if(!compileAndAttach(gl, verboseOut)) {
+            return false;
+        }
+
         // Link the program
         gl.glLinkProgram(shaderProgram);
 
         programLinked = ShaderUtil.isProgramValid(gl, shaderProgram, System.err);
+        linkCount++;
 
+        if(programLinked && null != cacheKey) {
+            cache.store(gl, shaderProgram, cacheKey);
+        }
         return programLinked;
     }
 
+    private boolean compileAndAttach(GL2ES2 gl, PrintStream verboseOut) {
+        for(Iterator<ShaderCode> iter=allShaderCode.iterator(); iter.hasNext(); ) {
+            final ShaderCode shaderCode = iter.next();
+            if(!shaderCode.compile(gl, verboseOut)) {
+                return false;
+            }
+            if(attachedShaderCode.add(shaderCode)) {
+                ShaderUtil.attachShader(gl, shaderProgram, shaderCode.shader());
+            }
+        }
+        return true;
+    }
+
     public boolean equals(Object obj) {
         if(this == obj)  { return true; }
         if(obj instanceof ShaderProgram) {
@@ -287,6 +321,7 @@ public class ShaderProgram {
     protected HashSet<ShaderCode> allShaderCode = new HashSet<ShaderCode>();
     protected HashSet<ShaderCode> attachedShaderCode = new HashSet<ShaderCode>();
     protected int id = -1;
+    private int linkCount = 0;
 
     private static synchronized int getNextID() {
         return nextID++;
@@ -0,0 +1,357 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.glsl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.security.AccessController;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2ES2;
+import javax.media.opengl.GL3;
+
+import jogamp.opengl.Debug;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * Persistent cache of linked program binaries, see <code>ARB_get_program_binary</code>
+ * and <code>OES_get_program_binary</code>.
+ * <p>
+ * If a {@link #setDefault(ShaderProgramCache) default cache} is set,
+ * {@link ShaderProgram#link(GL2ES2, PrintStream)} loads the program binary via <code>glProgramBinary</code>
+ * instead of compiling and linking the sources, and stores the binary of newly linked programs.
+ * A binary rejected by the driver, e.g. due to a driver update, is deleted and the program
+ * is built from source as usual.
+ * </p>
+ * <p>
+ * Binaries are keyed by a digest of the sources of all shaders of a program and the
+ * GL vendor, renderer and version strings. Programs w/ binary shader code are not cached.
+ * Since the attribute locations are part of the binary, they shall be bound
+ * the same way the program has been linked before.
+ * </p>
+ * <p>
+ * The default cache may be enabled via the property <code>jogl.glsl.programcache</code>,
+ * denoting the cache directory.
+ * </p>
+ */
+public class ShaderProgramCache {
+    public static final boolean DEBUG = Debug.debug("GLSLCode");
+
+    private static final int MAGIC = 0x4A50424E; // 'JPBN'
+    private static final int FILE_VERSION = 1;
+    private static final String SUFFIX = ".bin";
+
+    private static ShaderProgramCache defaultCache;
+
+    static {
+        final String dir = Debug.getProperty("jogl.glsl.programcache", true, AccessController.getContext());
+        if(null != dir && dir.length() > 0) {
+            defaultCache = new ShaderProgramCache(new File(dir));
+        }
+    }
+
+    /** Returns the default cache used by {@link ShaderProgram#link(GL2ES2, PrintStream)}, or null if disabled. */
+    public static synchronized ShaderProgramCache getDefault() {
+        return defaultCache;
+    }
+
+    /** Sets the default cache used by {@link ShaderProgram#link(GL2ES2, PrintStream)}, null disables caching. */
+    public static synchronized void setDefault(ShaderProgramCache cache) {
+        defaultCache = cache;
+    }
+
+    private final File dir;
+    private int hits, misses, rejects, stores;
+
+    /**
+     * @param dir the cache directory, created if not existing
+     */
+    public ShaderProgramCache(File dir) {
+        if(null == dir) {
+            throw new IllegalArgumentException("Cache directory is null");
+        }
+        this.dir = dir;
+    }
+
+    public final File getDirectory() { return dir; }
+
+    /** Number of programs loaded from the cache */
+    public synchronized int getHitCount() { return hits; }
+    /** Number of cacheable programs not found in the cache */
+    public synchronized int getMissCount() { return misses; }
+    /** Number of cached binaries rejected by the driver */
+    public synchronized int getRejectCount() { return rejects; }
+    /** Number of binaries written to the cache */
+    public synchronized int getStoreCount() { return stores; }
+
+    public synchronized void resetStats() {
+        hits = 0; misses = 0; rejects = 0; stores = 0;
+    }
+
+    /** Deletes all cached binaries. */
+    public synchronized void clear() {
+        final File[] files = dir.listFiles();
+        if(null != files) {
+            for(int i=0; i<files.length; i++) {
+                if(files[i].getName().endsWith(SUFFIX)) {
+                    files[i].delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if the current context is able to retrieve and load program binaries.
+     */
+    public static boolean isAvailable(GL2ES2 gl) {
+        if( !gl.isFunctionAvailable("glGetProgramBinary") || !gl.isFunctionAvailable("glProgramBinary") ) {
+            return false;
+        }
+        final int[] num = new int[] { 0 };
+        gl.glGetIntegerv(GL2ES2.GL_NUM_PROGRAM_BINARY_FORMATS, num, 0);
+        return num[0] > 0;
+    }
+
+    /**
+     * Returns the cache key of a program consisting of the given shaders for the current context,
+     * or null if a shader has no source code.
+     */
+    public String getKey(GL2ES2 gl, Collection<ShaderCode> shaders) {
+        if(shaders.isEmpty()) {
+            return null;
+        }
+        try {
+            // order independent, since the program's shader set is unordered
+            final byte[][] shaderDigests = new byte[shaders.size()][];
+            int i = 0;
+            for(Iterator<ShaderCode> iter=shaders.iterator(); iter.hasNext(); i++) {
+                final ShaderCode sc = iter.next();
+                final String[][] source = sc.shaderSource();
+                if(null == source) {
+                    return null;
+                }
+                final MessageDigest md = MessageDigest.getInstance("SHA-1");
+                md.update(intBytes(sc.shaderType()));
+                for(int j=0; j<source.length; j++) {
+                    md.update(intBytes(source[j].length));
+                    for(int k=0; k<source[j].length; k++) {
+                        md.update(source[j][k].getBytes("UTF-8"));
+                        md.update((byte)0);
+                    }
+                }
+                shaderDigests[i] = md.digest();
+            }
+            Arrays.sort(shaderDigests, new java.util.Comparator<byte[]>() {
+                public int compare(byte[] a, byte[] b) {
+                    for(int j=0; j<a.length; j++) {
+                        if(a[j] != b[j]) {
+                            return a[j] < b[j] ? -1 : 1;
+                        }
+                    }
+                    return 0;
+                }
+            });
+            final MessageDigest md = MessageDigest.getInstance("SHA-1");
+            md.update(String.valueOf(gl.glGetString(GL.GL_VENDOR)).getBytes("UTF-8"));
+            md.update((byte)0);
+            md.update(String.valueOf(gl.glGetString(GL.GL_RENDERER)).getBytes("UTF-8"));
+            md.update((byte)0);
+            md.update(String.valueOf(gl.glGetString(GL.GL_VERSION)).getBytes("UTF-8"));
+            md.update((byte)0);
+            for(i=0; i<shaderDigests.length; i++) {
+                md.update(shaderDigests[i]);
+            }
+            return toHex(md.digest());
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        } catch (UnsupportedEncodingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Hints the implementation that the binary of the program will be retrieved,
+     * to be called before linking.
+     */
+    public void prepareLink(GL2ES2 gl, int program) {
+        if( gl.isGL3() && gl.isFunctionAvailable("glProgramParameteri") ) {
+            gl.getGL3().glProgramParameteri(program, GL3.GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL.GL_TRUE);
+        }
+    }
+
+    /**
+     * Loads the cached binary of the given key into the program.
+     *
+     * @return true if the binary has been loaded and the program is linked, otherwise false,
+     *         in which case the program shall be built from source.
+     */
+    public boolean load(GL2ES2 gl, int program, String key, PrintStream verboseOut) {
+        final File file = getFile(key);
+        if(!file.isFile()) {
+            synchronized(this) { misses++; }
+            return false;
+        }
+        int format;
+        ByteBuffer binary;
+        try {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                if(MAGIC != in.readInt() || FILE_VERSION != in.readInt()) {
+                    throw new IOException("Not a program binary: "+file);
+                }
+                format = in.readInt();
+                final int length = in.readInt();
+                if(0 >= length) {
+                    throw new IOException("Invalid length "+length+": "+file);
+                }
+                final byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                binary = Buffers.newDirectByteBuffer(length);
+                binary.put(bytes);
+                binary.flip();
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            if(DEBUG) {
+                e.printStackTrace();
+            }
+            file.delete();
+            synchronized(this) { misses++; }
+            return false;
+        }
+        gl.glProgramBinary(program, format, binary, binary.remaining());
+        final int[] status = new int[] { 0 };
+        gl.glGetProgramiv(program, GL2ES2.GL_LINK_STATUS, status, 0);
+        if(GL.GL_TRUE != status[0]) {
+            gl.glGetError(); // clear an invalid format error
+            if(null != verboseOut) {
+                verboseOut.println("ShaderProgramCache: binary rejected, rebuilding program: "+file);
+            }
+            file.delete();
+            synchronized(this) { rejects++; }
+            return false;
+        }
+        synchronized(this) { hits++; }
+        return true;
+    }
+
+    /**
+     * Stores the binary of the linked program under the given key.
+     * Failures are not fatal, the program will be built from source next time.
+     *
+     * @return true if the binary has been stored
+     */
+    public boolean store(GL2ES2 gl, int program, String key) {
+        final int[] length = new int[] { 0 };
+        gl.glGetProgramiv(program, GL2ES2.GL_PROGRAM_BINARY_LENGTH, length, 0);
+        if(0 >= length[0]) {
+            return false;
+        }
+        final ByteBuffer binary = Buffers.newDirectByteBuffer(length[0]);
+        final int[] format = new int[] { 0 };
+        gl.glGetProgramBinary(program, length[0], length, 0, format, 0, binary);
+        if(0 >= length[0]) {
+            return false;
+        }
+        final byte[] bytes = new byte[length[0]];
+        binary.get(bytes);
+
+        final File file = getFile(key);
+        final File tmp = new File(dir, key + ".tmp" + Thread.currentThread().getId());
+        try {
+            if(!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+                throw new IOException("Cannot create cache directory: "+dir);
+            }
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(FILE_VERSION);
+                out.writeInt(format[0]);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            } finally {
+                out.close();
+            }
+            // replace atomically, readers never see a partial binary
+            if(!tmp.renameTo(file)) {
+                file.delete();
+                if(!tmp.renameTo(file)) {
+                    throw new IOException("Cannot rename "+tmp+" to "+file);
+                }
+            }
+        } catch (IOException e) {
+            if(DEBUG) {
+                e.printStackTrace();
+            }
+            tmp.delete();
+            return false;
+        }
+        synchronized(this) { stores++; }
+        return true;
+    }
+
+    private File getFile(String key) {
+        return new File(dir, key + SUFFIX);
+    }
+
+    private static byte[] intBytes(int v) {
+        return new byte[] { (byte)(v >>> 24), (byte)(v >>> 16), (byte)(v >>> 8), (byte)v };
+    }
+
+    private static String toHex(byte[] b) {
+        final StringBuilder sb = new StringBuilder(b.length*2);
+        for(int i=0; i<b.length; i++) {
+            final int v = b[i] & 0xff;
+            if(v < 0x10) {
+                sb.append('0');
+            }
+            sb.append(Integer.toHexString(v));
+        }
+        return sb.toString();
+    }
+
+    public synchronized String toString() {
+        return "ShaderProgramCache["+dir+", hits "+hits+", misses "+misses+", rejects "+rejects+", stores "+stores+"]";
+    }
+}
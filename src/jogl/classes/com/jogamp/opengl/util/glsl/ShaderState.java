@@ -28,6 +28,8 @@
 
 package com.jogamp.opengl.util.glsl;
 
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.security.AccessController;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -36,6 +38,7 @@ import java.util.Iterator;
 
 import javax.media.opengl.GL;
 import javax.media.opengl.GL2ES2;
+import javax.media.opengl.GL2GL3;
 import javax.media.opengl.GLArrayData;
 import javax.media.opengl.GLContext;
 import javax.media.opengl.GLException;
@@ -141,6 +144,7 @@ public class ShaderState {
         if(on) {
             // update the current ShaderState to the TLS ..
             gl.getContext().attachObject(ShaderState.class.getName(), this);
+            validateProgramState();
             if(shaderProgram.linked()) {
                 shaderProgram.useProgram(gl, true);
                 if(resetAllShaderData) {
@@ -208,6 +212,7 @@ public class ShaderState {
 
         // register new one
         shaderProgram = prog;
+        setProgramState(prog);
 
         if(null!=shaderProgram) {
             // [re]set all data and use program if switching program, 
@@ -237,6 +242,7 @@ public class ShaderState {
         release(gl, true, true, true);
         attachedObjectsByString.clear();        
         attachedObjectsByInt.clear();
+        programStates.clear();
     }
 
     /**
@@ -263,12 +269,16 @@ public class ShaderState {
             for(Iterator<GLArrayData> iter = managedAttributes.iterator(); iter.hasNext(); ) {
                 iter.next().destroy(gl);
             }            
+            for(Iterator<GLUniformBlock> iter = managedUniformBlocks.iterator(); iter.hasNext(); ) {
+                iter.next().destroy(gl);
+            }
         }
         releaseAllAttributes(gl);
         releaseAllUniforms(gl);
         if(null!=shaderProgram) {
             if(releaseProgramToo) {
                 shaderProgram.release(gl, releaseShaderToo);
+                programStates.remove(shaderProgram);
             } 
         }
     }
@@ -745,13 +755,22 @@ public class ShaderState {
      */
     private final void resetAllAttributes(GL2ES2 gl) {
         if(!shaderProgram.linked()) throw new GLException("Program is not linked");
-        activeAttribLocationMap.clear();
         
         for(Iterator<GLArrayData> iter = managedAttributes.iterator(); iter.hasNext(); ) {
-            iter.next().setLocation(-1);
+            final GLArrayData attribute = iter.next();
+            if(activeAttribDataMap.get(attribute.getName()) != attribute) {
+                attribute.setLocation(-1);
+            }
         }
         for(Iterator<GLArrayData> iter = activeAttribDataMap.values().iterator(); iter.hasNext(); ) {
-            relocateAttribute(gl, iter.next());
+            final GLArrayData attribute = iter.next();
+            final int oldLoc = attribute.getLocation();
+            if( 0 <= oldLoc && oldLoc == getAttribLocation(gl, attribute.getName()) ) {
+                // vertex attribute state is not affected by switching programs
+                redundantAttributes++;
+            } else {
+                relocateAttribute(gl, attribute);
+            }
         }
     }
 
@@ -878,13 +897,21 @@ public class ShaderState {
             location = getUniformLocation(gl, data.getName());
             data.setLocation(location);
         }
-        activeUniformDataMap.put(data.getName(), data);
+        if(activeUniformDataMap.get(data.getName()) != data) {
+            activeUniformDataMap.put(data.getName(), data);
+        }
         if(0<=location) {
             // only pass the data, if the uniform exists in the current shader
+            // and differs from the value last passed to it
+            if(!programState.updateUniform(location, data)) {
+                redundantUniforms++;
+                return true;
+            }
             if(DEBUG) {
                 System.err.println("Info: glUniform: "+data);
             }
             gl.glUniform(data);
+            uniformUploads++;
         }
         return true;
     }
@@ -905,7 +932,10 @@ public class ShaderState {
     public void releaseAllUniforms(GL2ES2 gl) {
         activeUniformDataMap.clear();
         activeUniformLocationMap.clear();
+        programState.uniformValues.clear();
         managedUniforms.clear();
+        activeUniformBlocks.clear();
+        managedUniformBlocks.clear();
     }
         
     /**
@@ -920,7 +950,6 @@ public class ShaderState {
      */
     private final void resetAllUniforms(GL2ES2 gl) {
         if(!shaderProgram.inUse()) throw new GLException("Program is not in use");        
-        activeUniformLocationMap.clear();
         for(Iterator<GLUniformData> iter = managedUniforms.iterator(); iter.hasNext(); ) {
             iter.next().setLocation(-1);
         }        
@@ -929,6 +958,283 @@ public class ShaderState {
             uniform.setLocation(-1);
             uniform(gl, uniform);
         }
+        for(Iterator<GLUniformBlock> iter = activeUniformBlocks.iterator(); iter.hasNext(); ) {
+            uniformBlock(gl, iter.next());
+        }
+    }
+
+    //
+    // Shader uniform block handling
+    //
+
+    /**
+     * Bind the given uniform block to this state.
+     * <p>
+     * The block is passed to the program at program switch
+     * and its uniform buffer object is destroyed via
+     * {@link #release(GL2ES2, boolean, boolean, boolean) release(gl, true, ..)}.
+     * </p>
+     * <p>The data will not be transfered to the GPU, use {@link #uniformBlock(GL2ES2, GLUniformBlock)} additionally.</p>
+     */
+    public void ownUniformBlock(GLUniformBlock block) {
+        if(!managedUniformBlocks.contains(block)) {
+            managedUniformBlocks.add(block);
+        }
+        if(!activeUniformBlocks.contains(block)) {
+            activeUniformBlocks.add(block);
+        }
+    }
+
+    public boolean ownsUniformBlock(GLUniformBlock block) {
+        return managedUniformBlocks.contains(block);
+    }
+
+    /**
+     * Gets the index of a uniform block of the current program.
+     * This must be done when the program is in use !
+     *
+     * @return -1 if uniform buffer objects are not supported or the program doesn't declare the block,
+     *         otherwise >= 0
+     * @throws GLException is the program is not in use,
+     *         or if the program declares the block but uniform buffer objects are disabled,
+     *         see {@link GLUniformBlock#ENABLED}
+     */
+    public int getUniformBlockIndex(GL2ES2 gl, GLUniformBlock block) {
+        if(!shaderProgram.inUse()) throw new GLException("Program is not in use");
+        int[] state = programState.uniformBlocks.get(block);
+        if(null == state) {
+            int index = -1;
+            if(GLUniformBlock.isAvailable(gl)) {
+                index = gl.getGL2GL3().glGetUniformBlockIndex(shaderProgram.program(), block.getName());
+                if(GL2GL3.GL_INVALID_INDEX == index) {
+                    index = -1;
+                } else if(!GLUniformBlock.ENABLED) {
+                    throw new GLException("Program "+shaderProgram.program()+" declares uniform block "+block.getName()+
+                                          ", but uniform buffer objects are disabled via jogl.glsl.ubo");
+                }
+            }
+            state = new int[] { index, -1 }; // index, binding
+            programState.uniformBlocks.put(block, state);
+        }
+        return state[0];
+    }
+
+    /**
+     * Set the uniform block data.
+     * <p>
+     * If the current program declares the block and uniform buffer objects are supported,
+     * the block's uniform buffer object is updated if the members content changed,
+     * and the program's block is bound to the block's binding point.
+     * </p>
+     * <p>
+     * Otherwise the members are passed as plain uniforms, see {@link #uniform(GL2ES2, GLUniformData)},
+     * which requires the program to declare them outside of a block.
+     * </p>
+     *
+     * @return true if the block has been passed via its uniform buffer object,
+     *         false if the members have been passed as uniforms
+     *
+     * @throws GLException if the program is not in use,
+     *         or if the program declares the block but uniform buffer objects are disabled
+     */
+    public boolean uniformBlock(GL2ES2 gl, GLUniformBlock block) {
+        final int index = getUniformBlockIndex(gl, block);
+        if(!activeUniformBlocks.contains(block)) {
+            activeUniformBlocks.add(block);
+        }
+        if(0<=index) {
+            final GL2GL3 gl23 = gl.getGL2GL3();
+            if(!block.update(gl23)) {
+                redundantUniforms++;
+            } else {
+                uniformUploads++;
+            }
+            final int[] state = programState.uniformBlocks.get(block);
+            if(state[1] != block.getBinding()) {
+                gl23.glUniformBlockBinding(shaderProgram.program(), index, block.getBinding());
+                state[1] = block.getBinding();
+            }
+            return true;
+        }
+        for(int i=0; i<block.getMemberCount(); i++) {
+            uniform(gl, block.getMember(i));
+        }
+        return false;
+    }
+
+    //
+    // Redundant state change statistics
+    //
+
+    /** Number of uniform values passed to GL */
+    public final int getUniformUploadCount() { return uniformUploads; }
+
+    /** Number of uniform values not passed to GL, since the program already holds them */
+    public final int getRedundantUniformCount() { return redundantUniforms; }
+
+    /** Number of attributes not re-pointed at a program switch, since their location is unchanged */
+    public final int getRedundantAttributeCount() { return redundantAttributes; }
+
+    public final void resetStats() {
+        uniformUploads = 0;
+        redundantUniforms = 0;
+        redundantAttributes = 0;
+    }
+
+    /**
+     * State of one attached program, kept across program switches:
+     * the resolved attribute and uniform locations and the uniform values last passed to GL,
+     * which are part of the program object's state.
+     */
+    private static class ProgramState {
+        final HashMap<String, Integer> attribLocations = new HashMap<String, Integer>();
+        final HashMap<String, Integer> uniformLocations = new HashMap<String, Integer>();
+        /** location -> UniformValue */
+        final IntObjectHashMap uniformValues = new IntObjectHashMap();
+        /** block -> { index, binding } */
+        final HashMap<GLUniformBlock, int[]> uniformBlocks = new HashMap<GLUniformBlock, int[]>();
+        int program = -1;
+        int linkCount = -1;
+
+        boolean isValid(ShaderProgram prog) {
+            return program == prog.program() && linkCount == prog.linkCount();
+        }
+
+        /** Drops all state, if the program has been [re]linked since. */
+        void validate(ShaderProgram prog) {
+            if( !isValid(prog) ) {
+                attribLocations.clear();
+                uniformLocations.clear();
+                uniformValues.clear();
+                uniformBlocks.clear();
+                program = prog.program();
+                linkCount = prog.linkCount();
+            }
+        }
+
+        /**
+         * Records the value of the given uniform data passed to the location.
+         * @return true if the value differs from the last passed one, i.e. needs to be passed to GL
+         */
+        boolean updateUniform(int location, GLUniformData data) {
+            UniformValue v = (UniformValue) uniformValues.get(location);
+            if(null == v) {
+                v = new UniformValue();
+                uniformValues.put(location, v);
+            } else if( v.data == data && v.version == data.getVersion() && !data.isBuffer() ) {
+                return false;
+            } else if( v.equals(data) ) {
+                v.data = data;
+                v.version = data.getVersion();
+                return false;
+            }
+            v.set(data);
+            return true;
+        }
+    }
+
+    /** Copy of a uniform value passed to GL */
+    private static class UniformValue {
+        GLUniformData data;
+        int version;
+        Object atom;
+        float[] floats;
+        int[] ints;
+
+        void set(GLUniformData d) {
+            data = d;
+            version = d.getVersion();
+            final Object o = d.getObject();
+            atom = null;
+            if(o instanceof FloatBuffer) {
+                final FloatBuffer b = (FloatBuffer) o;
+                final int n = d.count() * d.components();
+                if(null == floats || floats.length != n) {
+                    floats = new float[n];
+                }
+                final int p = b.position();
+                for(int i=0; i<n; i++) {
+                    floats[i] = b.get(p+i);
+                }
+                ints = null;
+            } else if(o instanceof IntBuffer) {
+                final IntBuffer b = (IntBuffer) o;
+                final int n = d.count() * d.components();
+                if(null == ints || ints.length != n) {
+                    ints = new int[n];
+                }
+                final int p = b.position();
+                for(int i=0; i<n; i++) {
+                    ints[i] = b.get(p+i);
+                }
+                floats = null;
+            } else {
+                atom = o;
+                floats = null;
+                ints = null;
+            }
+        }
+
+        boolean equals(GLUniformData d) {
+            final Object o = d.getObject();
+            if(o instanceof FloatBuffer) {
+                final FloatBuffer b = (FloatBuffer) o;
+                final int n = d.count() * d.components();
+                if(null == floats || floats.length != n) {
+                    return false;
+                }
+                final int p = b.position();
+                for(int i=0; i<n; i++) {
+                    // bitwise, hence NaN and -0 are handled
+                    if( Float.floatToRawIntBits(floats[i]) != Float.floatToRawIntBits(b.get(p+i)) ) {
+                        return false;
+                    }
+                }
+                return true;
+            } else if(o instanceof IntBuffer) {
+                final IntBuffer b = (IntBuffer) o;
+                final int n = d.count() * d.components();
+                if(null == ints || ints.length != n) {
+                    return false;
+                }
+                final int p = b.position();
+                for(int i=0; i<n; i++) {
+                    if(ints[i] != b.get(p+i)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return null != atom && atom.equals(o);
+        }
+    }
+
+    private void setProgramState(ShaderProgram prog) {
+        if(null != prog) {
+            programState = programStates.get(prog);
+            if(null == programState) {
+                programState = new ProgramState();
+                programStates.put(prog, programState);
+            }
+            programState.validate(prog);
+        } else {
+            programState = new ProgramState();
+        }
+        activeAttribLocationMap = programState.attribLocations;
+        activeUniformLocationMap = programState.uniformLocations;
+    }
+
+    /** Drops the state of the current program if it has been [re]linked, e.g. via {@link ShaderProgram#replaceShader(GL2ES2, ShaderCode, ShaderCode, java.io.PrintStream)} */
+    private void validateProgramState() {
+        if( !programState.isValid(shaderProgram) ) {
+            programState.validate(shaderProgram);
+            for(Iterator<GLArrayData> iter = activeAttribDataMap.values().iterator(); iter.hasNext(); ) {
+                iter.next().setLocation(-1);
+            }
+            for(Iterator<GLUniformData> iter = activeUniformDataMap.values().iterator(); iter.hasNext(); ) {
+                iter.next().setLocation(-1);
+            }
+        }
     }
 
     public StringBuilder toString(StringBuilder sb) {
@@ -938,6 +1244,8 @@ public class ShaderState {
         
         sb.append("ShaderState[");
         sb.append(shaderProgram.toString());
+        sb.append(", uniforms passed ").append(uniformUploads).append(", redundant ").append(redundantUniforms)
+          .append(", redundant attributes ").append(redundantAttributes);
         sb.append(", enabledAttributes: [");
         for(Iterator<String> iter = enabledAttributes.iterator(); iter.hasNext(); ) {
             sb.append("\n  ");
@@ -976,16 +1284,21 @@ public class ShaderState {
     private ShaderProgram shaderProgram=null;
     
     private HashSet<String> enabledAttributes = new HashSet<String>();
-    private HashMap<String, Integer> activeAttribLocationMap = new HashMap<String, Integer>();
+    private ProgramState programState = new ProgramState();
+    private HashMap<ShaderProgram, ProgramState> programStates = new HashMap<ShaderProgram, ProgramState>();
+    private HashMap<String, Integer> activeAttribLocationMap = programState.attribLocations;
     private HashMap<String, GLArrayData> activeAttribDataMap = new HashMap<String, GLArrayData>();
     private ArrayList<GLArrayData> managedAttributes = new ArrayList<GLArrayData>();
     
-    private HashMap<String, Integer> activeUniformLocationMap = new HashMap<String, Integer>();
+    private HashMap<String, Integer> activeUniformLocationMap = programState.uniformLocations;
     private HashMap<String, GLUniformData> activeUniformDataMap = new HashMap<String, GLUniformData>();
     private ArrayList<GLUniformData> managedUniforms = new ArrayList<GLUniformData>();
+    private ArrayList<GLUniformBlock> activeUniformBlocks = new ArrayList<GLUniformBlock>();
+    private ArrayList<GLUniformBlock> managedUniformBlocks = new ArrayList<GLUniformBlock>();
     
     private HashMap<String, Object> attachedObjectsByString = new HashMap<String, Object>();    
     private IntObjectHashMap attachedObjectsByInt = new IntObjectHashMap();   
     private boolean resetAllShaderData = false;
+    private int uniformUploads, redundantUniforms, redundantAttributes;
 }
 
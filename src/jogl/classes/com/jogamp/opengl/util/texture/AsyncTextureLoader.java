@@ -0,0 +1,453 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GLProfile;
+
+import jogamp.opengl.Debug;
+
+/**
+ * Asynchronous {@link Texture} loading, 
+ * decoupling the decoding of {@link TextureData} from the upload to the GL.
+ * <p>
+ * The {@link TextureData} is decoded on a bounded pool of worker threads
+ * via the registered {@link com.jogamp.opengl.util.texture.spi.TextureProvider TextureProvider}s,
+ * see {@link TextureIO#newTextureData(GLProfile, URL, boolean, String)}.
+ * The upload is performed on the GL thread by calling {@link #processUploads(GL)} once per frame,
+ * e.g. within {@link javax.media.opengl.GLEventListener#display(javax.media.opengl.GLAutoDrawable) display(..)}.
+ * {@link #processUploads(GL)} stops uploading as soon as the byte or time budget of the frame is exhausted, 
+ * see {@link #setUploadBudget(int, long)}, hence streaming in textures does not stall the rendering.
+ * </p>
+ * <p>
+ * The returned {@link Future} completes on the GL thread with the uploaded {@link Texture}, 
+ * or with an {@link ExecutionException} wrapping the decoding or upload failure.
+ * A <code>null</code> result denotes that none of the registered providers could read the source.
+ * </p>
+ * <pre>
+ *   AsyncTextureLoader loader = new AsyncTextureLoader(glp);
+ *   Future&lt;Texture&gt; tex = loader.load(url, true, TextureIO.PNG);
+ *   ..
+ *   public void display(GLAutoDrawable drawable) {
+ *      loader.processUploads(drawable.getGL());
+ *      if(tex.isDone()) { .. }
+ *   }
+ * </pre>
+ */
+public class AsyncTextureLoader {
+    private static final boolean DEBUG = Debug.debug("TextureIO");
+
+    /** Default per frame upload budget in bytes, {@value} */
+    public static final int DEFAULT_UPLOAD_BYTES = 4 * 1024 * 1024;
+    /** Default per frame upload budget in nanoseconds, {@value} */
+    public static final long DEFAULT_UPLOAD_NANOS = 2 * 1000 * 1000;
+
+    private static final int STATE_DECODING  = 0;
+    private static final int STATE_UPLOADING = 1;
+    private static final int STATE_DONE      = 2;
+    private static final int STATE_FAILED    = 3;
+    private static final int STATE_CANCELLED = 4;
+
+    private final GLProfile glp;
+    private final ThreadPoolExecutor decoder;
+    private final ConcurrentLinkedQueue<LoadTask> uploads = new ConcurrentLinkedQueue<LoadTask>();
+
+    private volatile int uploadBytes = DEFAULT_UPLOAD_BYTES;
+    private volatile long uploadNanos = DEFAULT_UPLOAD_NANOS;
+
+    private final AtomicInteger submittedCount = new AtomicInteger();
+    private final AtomicInteger decodingCount = new AtomicInteger();
+    private final AtomicInteger uploadQueueCount = new AtomicInteger();
+    private final AtomicInteger loadedCount = new AtomicInteger();
+    private final AtomicInteger failedCount = new AtomicInteger();
+    private final AtomicLong decodedBytes = new AtomicLong();
+    private long uploadedBytes = 0;
+    private long lastUploadNanos = 0;
+
+    /**
+     * Creates a loader w/ one decoding thread per available processor.
+     * @param glp the profile the texture data is decoded for
+     */
+    public AsyncTextureLoader(GLProfile glp) {
+        this(glp, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param glp the profile the texture data is decoded for
+     * @param decodeThreads maximum number of concurrently decoding threads
+     */
+    public AsyncTextureLoader(GLProfile glp, int decodeThreads) {
+        if(null == glp) {
+            throw new IllegalArgumentException("GLProfile is null");
+        }
+        if(0 >= decodeThreads) {
+            throw new IllegalArgumentException("decodeThreads must be > 0, is "+decodeThreads);
+        }
+        this.glp = glp;
+        decoder = new ThreadPoolExecutor(decodeThreads, decodeThreads, 
+                                         1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), 
+                                         new ThreadFactory() {
+                                            private final AtomicInteger num = new AtomicInteger();
+                                            public Thread newThread(Runnable r) {
+                                                final Thread t = new Thread(r, "TextureDecoder-"+num.getAndIncrement());
+                                                t.setDaemon(true);
+                                                t.setPriority(Thread.NORM_PRIORITY - 1);
+                                                return t;
+                                            }
+                                         });
+    }
+
+    /**
+     * Sets the per frame budget of {@link #processUploads(GL)}.
+     * At least one texture is uploaded per frame, regardless of its size.
+     * @param bytes maximum number of bytes uploaded per frame, see {@link TextureData#getEstimatedMemorySize()}
+     * @param nanos maximum time spent uploading per frame
+     */
+    public void setUploadBudget(int bytes, long nanos) {
+        if(0 >= bytes || 0 >= nanos) {
+            throw new IllegalArgumentException("Invalid budget: bytes "+bytes+", nanos "+nanos);
+        }
+        uploadBytes = bytes;
+        uploadNanos = nanos;
+    }
+
+    public int getUploadBudgetBytes() { return uploadBytes; }
+    public long getUploadBudgetNanos() { return uploadNanos; }
+
+    /** Loads the texture from <code>file</code>, see {@link TextureIO#newTextureData(GLProfile, File, boolean, String)}. */
+    public Future<Texture> load(File file, boolean mipmap, String fileSuffix) {
+        return submit(new LoadTask(file, mipmap, fileSuffix));
+    }
+
+    /** Loads the texture from <code>url</code>, see {@link TextureIO#newTextureData(GLProfile, URL, boolean, String)}. */
+    public Future<Texture> load(URL url, boolean mipmap, String fileSuffix) {
+        return submit(new LoadTask(url, mipmap, fileSuffix));
+    }
+
+    /** 
+     * Loads the texture from <code>stream</code>, see {@link TextureIO#newTextureData(GLProfile, InputStream, boolean, String)}.
+     * The stream is read and closed by a decoding thread.
+     */
+    public Future<Texture> load(InputStream stream, boolean mipmap, String fileSuffix) {
+        return submit(new LoadTask(stream, mipmap, fileSuffix));
+    }
+
+    private Future<Texture> submit(LoadTask task) {
+        submittedCount.incrementAndGet();
+        decodingCount.incrementAndGet();
+        decoder.execute(task);
+        return task;
+    }
+
+    /**
+     * Uploads decoded textures within the per frame budget, completing their futures.
+     * <p>
+     * Must be called on the GL thread w/ the target context being current.
+     * </p>
+     * @return the number of textures uploaded
+     */
+    public int processUploads(GL gl) {
+        final long t0 = System.nanoTime();
+        final int maxBytes = uploadBytes;
+        final long maxNanos = uploadNanos;
+        int bytes = 0;
+        int count = 0;
+        LoadTask task;
+        while( null != ( task = uploads.peek() ) ) {
+            final int size = task.getDataSize();
+            if( 0 < count && ( bytes + size > maxBytes || System.nanoTime() - t0 > maxNanos ) ) {
+                break; // next frame
+            }
+            uploads.poll();
+            uploadQueueCount.decrementAndGet();
+            if( task.upload(gl) ) {
+                bytes += size;
+                count++;
+            }
+        }
+        lastUploadNanos = System.nanoTime() - t0;
+        uploadedBytes += bytes;
+        if( DEBUG && 0 < count ) {
+            System.err.println("AsyncTextureLoader: uploaded "+count+" textures, "+bytes+" bytes in "+
+                               lastUploadNanos/1000+" us, pending "+getPendingCount());
+        }
+        return count;
+    }
+
+    /**
+     * Stops the decoding threads and cancels all pending loads.
+     * Already uploaded textures are not affected.
+     */
+    public void shutdown() {
+        final List<Runnable> notDecoded = decoder.shutdownNow();
+        for(int i=0; i<notDecoded.size(); i++) {
+            decodingCount.decrementAndGet();
+            ((LoadTask)notDecoded.get(i)).cancel(false);
+        }
+        LoadTask task;
+        while( null != ( task = uploads.poll() ) ) {
+            uploadQueueCount.decrementAndGet();
+            task.cancel(false);
+        }
+    }
+
+    //
+    // Metrics
+    //
+
+    /** @return number of loads submitted */
+    public int getSubmittedCount() { return submittedCount.get(); }
+    /** @return number of loads queued or being decoded */
+    public int getDecodeQueueDepth() { return decodingCount.get(); }
+    /** @return number of decoded textures waiting for {@link #processUploads(GL)} */
+    public int getUploadQueueDepth() { return uploadQueueCount.get(); }
+    /** @return number of pending loads, i.e. {@link #getDecodeQueueDepth()} + {@link #getUploadQueueDepth()} */
+    public int getPendingCount() { return decodingCount.get() + uploadQueueCount.get(); }
+    /** @return number of successfully uploaded textures */
+    public int getLoadedCount() { return loadedCount.get(); }
+    /** @return number of failed or unreadable loads */
+    public int getFailedCount() { return failedCount.get(); }
+    /** @return total estimated size of the decoded texture data in bytes */
+    public long getDecodedBytes() { return decodedBytes.get(); }
+    /** @return total estimated size of the uploaded texture data in bytes, GL thread only */
+    public long getUploadedBytes() { return uploadedBytes; }
+    /** @return time spent in the last {@link #processUploads(GL)} call, GL thread only */
+    public long getLastUploadNanos() { return lastUploadNanos; }
+
+    /** @return fraction of finished loads, w/ 1 if nothing is pending */
+    public float getProgress() {
+        final int submitted = submittedCount.get();
+        return 0 < submitted ? 1f - (float)getPendingCount() / (float)submitted : 1f;
+    }
+
+    public String toString() {
+        return "AsyncTextureLoader[submitted "+getSubmittedCount()+", decoding "+getDecodeQueueDepth()+
+               ", uploading "+getUploadQueueDepth()+", loaded "+getLoadedCount()+", failed "+getFailedCount()+
+               ", decoded "+getDecodedBytes()+" bytes]";
+    }
+
+    private class LoadTask implements Runnable, Future<Texture> {
+        private final Object source;
+        private final boolean mipmap;
+        private final String fileSuffix;
+        private int state = STATE_DECODING;
+        private boolean uploading = false;
+        private TextureData data;
+        private Texture texture;
+        private Throwable failure;
+
+        LoadTask(Object source, boolean mipmap, String fileSuffix) {
+            this.source = source;
+            this.mipmap = mipmap;
+            this.fileSuffix = fileSuffix;
+        }
+
+        /** Decoding thread */
+        public void run() {
+            try {
+                synchronized(this) {
+                    if( STATE_DECODING != state ) {
+                        return; // cancelled
+                    }
+                }
+                TextureData d = null;
+                Throwable t = null;
+                try {
+                    d = decode();
+                } catch (Throwable e) {
+                    t = e;
+                }
+                synchronized(this) {
+                    if( STATE_DECODING != state ) {
+                        if( null != d ) {
+                            d.flush();
+                        }
+                        return; // cancelled
+                    }
+                    if( null != t ) {
+                        failImpl(t);
+                        return;
+                    }
+                    if( null == d ) {
+                        // unreadable by all providers
+                        state = STATE_DONE;
+                        failedCount.incrementAndGet();
+                        notifyAll();
+                        return;
+                    }
+                    data = d;
+                    state = STATE_UPLOADING;
+                }
+                decodedBytes.addAndGet(d.getEstimatedMemorySize());
+                uploadQueueCount.incrementAndGet();
+                uploads.add(this);
+            } finally {
+                decodingCount.decrementAndGet();
+            }
+        }
+
+        private TextureData decode() throws IOException {
+            if( source instanceof File ) {
+                return TextureIO.newTextureData(glp, (File)source, mipmap, fileSuffix);
+            } else if( source instanceof URL ) {
+                return TextureIO.newTextureData(glp, (URL)source, mipmap, fileSuffix);
+            } else {
+                final InputStream stream = (InputStream)source;
+                try {
+                    return TextureIO.newTextureData(glp, stream, mipmap, fileSuffix);
+                } finally {
+                    stream.close();
+                }
+            }
+        }
+
+        synchronized int getDataSize() {
+            return null != data ? data.getEstimatedMemorySize() : 0;
+        }
+
+        /** GL thread, returns true if uploaded */
+        boolean upload(GL gl) {
+            final TextureData d;
+            synchronized(this) {
+                if( STATE_UPLOADING != state ) {
+                    return false; // cancelled
+                }
+                d = data;
+                uploading = true;
+            }
+            Texture t = null;
+            Throwable e = null;
+            try {
+                t = TextureIO.newTexture(gl, d);
+            } catch (Throwable ex) {
+                e = ex;
+            }
+            d.flush();
+            synchronized(this) {
+                data = null;
+                uploading = false;
+                if( STATE_UPLOADING != state ) {
+                    // cancelled while uploading
+                    if( null != t ) {
+                        t.destroy(gl);
+                    }
+                    return false;
+                }
+                if( null != e ) {
+                    failImpl(e);
+                    return false;
+                }
+                texture = t;
+                state = STATE_DONE;
+                loadedCount.incrementAndGet();
+                notifyAll();
+            }
+            return true;
+        }
+
+        private void failImpl(Throwable t) {
+            if( DEBUG ) {
+                System.err.println("AsyncTextureLoader: failed to load "+source);
+                t.printStackTrace();
+            }
+            failure = t;
+            state = STATE_FAILED;
+            failedCount.incrementAndGet();
+            notifyAll();
+        }
+
+        public synchronized boolean cancel(boolean mayInterruptIfRunning) {
+            if( STATE_DECODING != state && STATE_UPLOADING != state ) {
+                return false;
+            }
+            if( null != data && !uploading ) {
+                // otherwise flushed by upload() once the GL thread is done reading it
+                data.flush();
+                data = null;
+            }
+            state = STATE_CANCELLED;
+            notifyAll();
+            return true;
+        }
+
+        public synchronized boolean isCancelled() {
+            return STATE_CANCELLED == state;
+        }
+
+        public synchronized boolean isDone() {
+            return STATE_DONE <= state;
+        }
+
+        public synchronized Texture get() throws InterruptedException, ExecutionException {
+            while( STATE_DONE > state ) {
+                wait();
+            }
+            return result();
+        }
+
+        public synchronized Texture get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            final long t1 = System.nanoTime() + unit.toNanos(timeout);
+            while( STATE_DONE > state ) {
+                final long left = t1 - System.nanoTime();
+                if( 0 >= left ) {
+                    throw new TimeoutException("Texture "+source+" not loaded within "+timeout+" "+unit);
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, left);
+            }
+            return result();
+        }
+
+        private Texture result() throws ExecutionException {
+            switch( state ) {
+                case STATE_FAILED:
+                    throw new ExecutionException(failure);
+                case STATE_CANCELLED:
+                    throw new CancellationException("Texture "+source+" cancelled");
+                default:
+                    return texture;
+            }
+        }
+    }
+}
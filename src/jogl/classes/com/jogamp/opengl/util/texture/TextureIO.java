@@ -135,6 +135,10 @@ public class TextureIO {
         file. */
     public static final String TIFF    = "tiff";
 
+    /** Constant which can be used as a file suffix to indicate a Khronos
+        KTX texture container file. */
+    public static final String KTX     = "ktx";
+
     private static final boolean DEBUG = Debug.debug("TextureIO");
 
     // For manually disabling the use of the texture rectangle
@@ -757,6 +761,7 @@ public class TextureIO {
 
         // Other special-case providers
         addTextureProvider(new DDSTextureProvider());
+        addTextureProvider(new KTXTextureProvider());
         addTextureProvider(new SGITextureProvider());
         addTextureProvider(new TGATextureProvider());
 
@@ -869,6 +874,20 @@ public class TextureIO {
         throw new IOException("No suitable reader for given URL "+url);
     }
 
+    /** Returns the local file denoted by the given <code>file:</code> URL, or null. */
+    private static File toFile(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            File file = new File(url.toURI());
+            return file.isFile() ? file : null;
+        } catch (Exception e) {
+            // e.g. URL with authority component or not URI compliant
+            return null;
+        }
+    }
+
     //----------------------------------------------------------------------
     // DDS provider -- supports files only for now
     static class DDSTextureProvider implements TextureProvider {
@@ -907,6 +926,14 @@ public class TextureIO {
                                           int pixelFormat,
                                           boolean mipmap,
                                           String fileSuffix) throws IOException {
+            final File file = toFile(url);
+            if (null != file) {
+                // map local files directly instead of copying the stream
+                TextureData data = newTextureData(glp, file, internalFormat, pixelFormat, mipmap, fileSuffix);
+                if (null != data) {
+                    return data;
+                }
+            }
             InputStream stream = new BufferedInputStream(url.openStream());
             try {
                 return newTextureData(glp, stream, internalFormat, pixelFormat, mipmap, fileSuffix);
@@ -997,6 +1024,125 @@ public class TextureIO {
         }
     }
 
+    //----------------------------------------------------------------------
+    // KTX provider, maps files and hands level slices to GL without copying
+    static class KTXTextureProvider implements TextureProvider {
+        public TextureData newTextureData(GLProfile glp, File file,
+                                          int internalFormat,
+                                          int pixelFormat,
+                                          boolean mipmap,
+                                          String fileSuffix) throws IOException {
+            if (KTX.equals(fileSuffix) ||
+                KTX.equals(FileUtil.getFileSuffix(file))) {
+                KTXImage image = KTXImage.read(file);
+                return newTextureData(glp, image, internalFormat, pixelFormat, mipmap);
+            }
+
+            return null;
+        }
+
+        public TextureData newTextureData(GLProfile glp, InputStream stream,
+                                          int internalFormat,
+                                          int pixelFormat,
+                                          boolean mipmap,
+                                          String fileSuffix) throws IOException {
+            if (KTX.equals(fileSuffix) ||
+                KTXImage.isKTXImage(stream)) {
+                KTXImage image = KTXImage.read(StreamUtil.readAll2Buffer(stream));
+                return newTextureData(glp, image, internalFormat, pixelFormat, mipmap);
+            }
+
+            return null;
+        }
+
+        public TextureData newTextureData(GLProfile glp, URL url,
+                                          int internalFormat,
+                                          int pixelFormat,
+                                          boolean mipmap,
+                                          String fileSuffix) throws IOException {
+            final File file = toFile(url);
+            if (null != file) {
+                // map local files directly instead of copying the stream
+                TextureData data = newTextureData(glp, file, internalFormat, pixelFormat, mipmap, fileSuffix);
+                if (null != data) {
+                    return data;
+                }
+            }
+            InputStream stream = new BufferedInputStream(url.openStream());
+            try {
+                return newTextureData(glp, stream, internalFormat, pixelFormat, mipmap, fileSuffix);
+            } finally {
+                stream.close();
+            }
+        }
+
+        private TextureData newTextureData(GLProfile glp, final KTXImage image,
+                                           int internalFormat,
+                                           int pixelFormat,
+                                           boolean mipmap) {
+            final boolean compressed = image.isCompressed();
+            final int pixelType;
+            if (compressed) {
+                // glFormat is 0 for compressed data
+                internalFormat = image.getGLInternalFormat();
+                if (pixelFormat == 0) {
+                    pixelFormat = image.getGLBaseInternalFormat();
+                }
+                pixelType = GL.GL_UNSIGNED_BYTE;
+            } else {
+                if (internalFormat == 0) {
+                    internalFormat = image.getGLInternalFormat();
+                }
+                if (pixelFormat == 0) {
+                    pixelFormat = image.getGLFormat();
+                }
+                pixelType = image.getGLType();
+            }
+            TextureData.Flusher flusher = new TextureData.Flusher() {
+                    public void flush() {
+                        image.close();
+                    }
+                };
+            TextureData data;
+            // KTX stores the first row at the bottom by default, as GL does
+            if (mipmap && image.getNumMipMaps() > 1) {
+                Buffer[] mipmapData = new Buffer[image.getNumMipMaps()];
+                for (int i = 0; i < mipmapData.length; i++) {
+                    mipmapData[i] = image.getMipMap(i);
+                }
+                data = new TextureData(glp, internalFormat,
+                                       image.getWidth(),
+                                       image.getHeight(),
+                                       0,
+                                       pixelFormat,
+                                       pixelType,
+                                       compressed,
+                                       false,
+                                       mipmapData,
+                                       flusher);
+            } else {
+                // We can't generate mipmaps for compressed textures
+                if (compressed) {
+                    mipmap = false;
+                }
+                data = new TextureData(glp, internalFormat,
+                                       image.getWidth(),
+                                       image.getHeight(),
+                                       0,
+                                       pixelFormat,
+                                       pixelType,
+                                       mipmap,
+                                       compressed,
+                                       false,
+                                       image.getMipMap(0),
+                                       flusher);
+            }
+            // KTX rows are padded to 4 bytes (GL_UNPACK_ALIGNMENT default)
+            data.setAlignment(4);
+            return data;
+        }
+    }
+
     //----------------------------------------------------------------------
     // Base class for SGI RGB and TGA image providers
     static abstract class StreamBasedTextureProvider implements TextureProvider {
@@ -1078,16 +1224,20 @@ public class TextureIO {
                                           boolean mipmap,
                                           String fileSuffix) throws IOException {
             if (TGA.equals(fileSuffix)) {
-                TGAImage image = TGAImage.read(stream);
+                TGAImage image = TGAImage.read(glp, stream);
                 if (pixelFormat == 0) {
                     pixelFormat = image.getGLFormat();
                 }
                 if (internalFormat == 0) {
-                    GL gl = GLContext.getCurrentGL();
-                    if(gl.isGL2()) {
+                    if(glp.isGL2()) {
                         internalFormat = GL.GL_RGBA8;
                     } else {
-                        internalFormat = (image.getBytesPerPixel()==4)?GL.GL_RGBA:GL.GL_RGB;
+                        switch(image.getBytesPerPixel()) {
+                        case 1:  internalFormat = GL.GL_LUMINANCE; break;
+                        case 2:  internalFormat = GL.GL_LUMINANCE_ALPHA; break;
+                        case 3:  internalFormat = GL.GL_RGB; break;
+                        default: internalFormat = GL.GL_RGBA; break;
+                        }
                     }
                 }
                 return new TextureData(glp, internalFormat,
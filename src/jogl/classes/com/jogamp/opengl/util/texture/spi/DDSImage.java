@@ -715,10 +715,20 @@ public class DDSImage {
     }
 
     private void readFromFile(File file) throws IOException {
+        final long length = file.length();
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("DDS file too large to map: "+file+", "+length+" bytes");
+        }
         fis = new FileInputStream(file);
         chan = fis.getChannel();
         ByteBuffer buf = chan.map(FileChannel.MapMode.READ_ONLY,
-                                  0, (int) file.length());
+                                  0, (int) length);
+        // The mapping stays valid after the channel is closed,
+        // release the file handle right away.
+        chan.close();
+        chan = null;
+        fis.close();
+        fis = null;
         readFromBuffer(buf);
     }
 
@@ -0,0 +1,275 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture.spi;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+/**
+ * A reader for Khronos texture container (.ktx, version 1.1) files.
+ * <p>
+ * Files are memory-mapped and every mipmap level is exposed as a
+ * slice of the mapping, so that level data can be passed to
+ * <code>glTexImage2D</code> or <code>glCompressedTexImage2D</code> without an
+ * intermediate copy.
+ * </p>
+ * <p>
+ * Only single-face, non-array 2D textures are currently supported.
+ * Files written with the opposite endianness are accepted only if
+ * their data does not need to be swapped, i.e. <code>glTypeSize</code> is 1.
+ * </p>
+ */
+public class KTXImage {
+    /** The 12 byte KTX 1.1 file identifier */
+    private static final byte[] IDENTIFIER = new byte[] {
+        (byte)0xAB, (byte)0x4B, (byte)0x54, (byte)0x58, (byte)0x20, (byte)0x31,
+        (byte)0x31, (byte)0xBB, (byte)0x0D, (byte)0x0A, (byte)0x1A, (byte)0x0A };
+    private static final int ENDIANNESS = 0x04030201;
+    /** Size of the fixed header, identifier included */
+    public static final int HEADER_SIZE = 64;
+
+    private ByteBuffer buf;
+
+    private int glType;
+    private int glTypeSize;
+    private int glFormat;
+    private int glInternalFormat;
+    private int glBaseInternalFormat;
+    private int pixelWidth;
+    private int pixelHeight;
+    private int numberOfMipmapLevels;
+    private int bytesOfKeyValueData;
+
+    private int[] levelOffset;
+    private int[] levelSize;
+
+    private KTXImage() {}
+
+    /** Reads a KTX image from the specified file name, returning
+        the resulting KTXImage.
+
+        @param filename File name
+        @return KTX image object
+        @throws java.io.IOException if an I/O exception occurred
+    */
+    public static KTXImage read(String filename) throws IOException {
+        return read(new File(filename));
+    }
+
+    /** Reads a KTX image from the specified file by memory-mapping it,
+        returning the resulting KTXImage.
+
+        @param file File object
+        @return KTX image object
+        @throws java.io.IOException if an I/O exception occurred
+    */
+    public static KTXImage read(File file) throws IOException {
+        final long length = file.length();
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("KTX file too large to map: "+file+", "+length+" bytes");
+        }
+        final FileInputStream fis = new FileInputStream(file);
+        final ByteBuffer buf;
+        try {
+            // The mapping stays valid after the channel is closed
+            buf = fis.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, (int) length);
+        } finally {
+            fis.close();
+        }
+        return read(buf);
+    }
+
+    /** Reads a KTX image from the specified ByteBuffer, returning
+        the resulting KTXImage. The mipmap levels returned by {@link #getMipMap(int)}
+        share the content of the given buffer.
+
+        @param buf Input data, starting at its current position
+        @return KTX image object
+        @throws java.io.IOException if the data is not a supported KTX image
+    */
+    public static KTXImage read(ByteBuffer buf) throws IOException {
+        KTXImage image = new KTXImage();
+        image.readFromBuffer(buf.slice());
+        return image;
+    }
+
+    /** Closes the resources associated with this KTXImage.
+        No other methods may be called on this object once this is called. */
+    public void close() {
+        buf = null;
+        levelOffset = null;
+        levelSize = null;
+    }
+
+    /** Determines from the magic number whether the given InputStream
+        points to a KTX image. The given InputStream must return true
+        from markSupported() and support a minimum of twelve bytes of
+        read-ahead.
+
+        @param in Stream to check
+        @return true if input stream is KTX image or false otherwise
+        @throws java.io.IOException if an I/O exception occurred
+    */
+    public static boolean isKTXImage(InputStream in) throws IOException {
+        if (!in.markSupported()) {
+            throw new IOException("Can not test non-destructively whether given InputStream is a KTX image");
+        }
+        in.mark(IDENTIFIER.length);
+        try {
+            for (int i = 0; i < IDENTIFIER.length; i++) {
+                if (in.read() != (IDENTIFIER[i] & 0xFF)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            in.reset();
+        }
+    }
+
+    /** Returns the GL data type of the pixels, 0 for compressed images */
+    public int getGLType() { return glType; }
+    /** Returns the size in bytes of the GL data type, used for endianness conversion */
+    public int getGLTypeSize() { return glTypeSize; }
+    /** Returns the GL pixel format, 0 for compressed images */
+    public int getGLFormat() { return glFormat; }
+    /** Returns the GL internal format, a compressed format for compressed images */
+    public int getGLInternalFormat() { return glInternalFormat; }
+    /** Returns the GL base internal format */
+    public int getGLBaseInternalFormat() { return glBaseInternalFormat; }
+    /** Returns whether the image data is compressed, i.e. <code>glType</code> is 0 */
+    public boolean isCompressed() { return 0 == glType; }
+    /** Width of the topmost mipmap level in pixels */
+    public int getWidth() { return pixelWidth; }
+    /** Height of the topmost mipmap level in pixels */
+    public int getHeight() { return pixelHeight; }
+
+    /** Returns the number of mipmap levels stored in the file, at least 1. */
+    public int getNumMipMaps() { return levelOffset.length; }
+
+    /** Returns the width of the given mipmap level */
+    public int getWidth(int level) { return Math.max(1, pixelWidth >> level); }
+    /** Returns the height of the given mipmap level */
+    public int getHeight(int level) { return Math.max(1, pixelHeight >> level); }
+
+    /** Returns the data of the given mipmap level as a read-only slice
+        of the underlying (possibly memory-mapped) buffer.
+
+        @param level Mipmap index, 0..getNumMipMaps() - 1
+        @return level data, position 0 and limit the level size
+    */
+    public ByteBuffer getMipMap(int level) {
+        if (level < 0 || level >= levelOffset.length) {
+            throw new RuntimeException("Illegal mipmap number " + level + " (0.." + (levelOffset.length - 1) + ")");
+        }
+        final ByteBuffer dup = buf.duplicate();
+        dup.position(levelOffset[level]);
+        dup.limit(levelOffset[level] + levelSize[level]);
+        return dup.slice().order(ByteOrder.nativeOrder());
+    }
+
+    public String toString() {
+        return "KTXImage["+pixelWidth+"x"+pixelHeight+", levels "+getNumMipMaps()+
+               ", type 0x"+Integer.toHexString(glType)+", format 0x"+Integer.toHexString(glFormat)+
+               ", internalFormat 0x"+Integer.toHexString(glInternalFormat)+
+               ", baseInternalFormat 0x"+Integer.toHexString(glBaseInternalFormat)+"]";
+    }
+
+    //----------------------------------------------------------------------
+    // Internals only below this point
+    //
+
+    private void readFromBuffer(ByteBuffer buf) throws IOException {
+        if (buf.remaining() < HEADER_SIZE) {
+            throw new IOException("Not a KTX image, only "+buf.remaining()+" bytes");
+        }
+        for (int i = 0; i < IDENTIFIER.length; i++) {
+            if (buf.get(i) != IDENTIFIER[i]) {
+                throw new IOException("Not a KTX image, bad identifier");
+            }
+        }
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        boolean swapped = false;
+        int endianness = buf.getInt(12);
+        if (endianness != ENDIANNESS) {
+            buf.order(ByteOrder.BIG_ENDIAN);
+            if (buf.getInt(12) != ENDIANNESS) {
+                throw new IOException("Bad KTX endianness tag 0x"+Integer.toHexString(endianness));
+            }
+            swapped = true;
+        }
+        buf.position(16);
+        glType               = buf.getInt();
+        glTypeSize           = buf.getInt();
+        glFormat             = buf.getInt();
+        glInternalFormat     = buf.getInt();
+        glBaseInternalFormat = buf.getInt();
+        pixelWidth           = buf.getInt();
+        pixelHeight          = buf.getInt();
+        final int pixelDepth            = buf.getInt();
+        final int numberOfArrayElements = buf.getInt();
+        final int numberOfFaces         = buf.getInt();
+        numberOfMipmapLevels = buf.getInt();
+        bytesOfKeyValueData  = buf.getInt();
+
+        if (swapped && glTypeSize > 1) {
+            throw new IOException("KTX data with foreign endianness and glTypeSize "+glTypeSize+" not supported");
+        }
+        if (pixelWidth <= 0 || pixelHeight <= 0 || pixelDepth != 0 ||
+            numberOfArrayElements != 0 || numberOfFaces != 1) {
+            throw new IOException("Only 2D KTX textures supported: "+pixelWidth+"x"+pixelHeight+"x"+pixelDepth+
+                                  ", arrayElements "+numberOfArrayElements+", faces "+numberOfFaces);
+        }
+        if (bytesOfKeyValueData < 0 || bytesOfKeyValueData > buf.limit() - HEADER_SIZE || numberOfMipmapLevels < 0) {
+            throw new IOException("Corrupt KTX header");
+        }
+        // 0 levels requests mipmap generation, but one level is stored
+        final int levels = Math.max(1, numberOfMipmapLevels);
+        levelOffset = new int[levels];
+        levelSize = new int[levels];
+
+        int pos = HEADER_SIZE + bytesOfKeyValueData;
+        for (int i = 0; i < levels; i++) {
+            // written as differences, so large sizes can't overflow
+            if (4 > buf.limit() - pos) {
+                throw new IOException("Truncated KTX image at mipmap level "+i);
+            }
+            final int imageSize = buf.getInt(pos);
+            pos += 4;
+            if (imageSize < 0 || imageSize > buf.limit() - pos) {
+                throw new IOException("Truncated KTX image at mipmap level "+i+", size "+imageSize);
+            }
+            levelOffset[i] = pos;
+            levelSize[i] = imageSize;
+            pos += (imageSize + 3) & ~3; // mipPadding
+        }
+        buf.position(0);
+        this.buf = buf;
+    }
+}
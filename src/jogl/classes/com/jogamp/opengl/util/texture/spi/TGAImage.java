@@ -43,6 +43,7 @@ import java.io.*;
 import java.nio.*;
 import java.nio.channels.*;
 import javax.media.opengl.*;
+import com.jogamp.common.nio.Buffers;
 import com.jogamp.opengl.util.*;
 import com.jogamp.opengl.util.texture.spi.*;
 import com.jogamp.opengl.util.texture.*;
@@ -222,7 +223,7 @@ public class TGAImage {
         public int size() { return 18 + idLength; }
 
         // buf must be in little-endian byte order
-        private void write(ByteBuffer buf) {
+        private void write(ByteBuffer buf, int imageType) {
             buf.put((byte) idLength);
             buf.put((byte) colorMapType);
             buf.put((byte) imageType);
@@ -252,95 +253,254 @@ public class TGAImage {
      * it into the JimiImage structure. This was taken from the
      * prototype and modified for the new Jimi structure
      */
-    private void decodeImage(LEDataInputStream dIn) throws IOException {
+    private void decodeImage(GLProfile glp, LEDataInputStream dIn) throws IOException {
+        final byte[] colorMap = readColorMap(dIn);
+
         switch (header.imageType()) {
         case Header.UCOLORMAPPED:
-            throw new IOException("TGADecoder Uncompressed Colormapped images not supported");
+        case Header.COLORMAPPED:
+            if (null == colorMap) {
+                throw new IOException("TGADecoder Colormapped image w/o color map");
+            }
+            if (header.pixelDepth() != 8 && header.pixelDepth() != 16) {
+                throw new IOException("TGADecoder Colormapped images w/ "+header.pixelDepth()+" bit indices not supported");
+            }
+            break;
 
-        case Header.UTRUECOLOR:    // pixelDepth 15, 16, 24 and 32
-            switch (header.pixelDepth) {
+        case Header.UTRUECOLOR:
+        case Header.TRUECOLOR:    // pixelDepth 15, 16, 24 and 32
+            switch (header.pixelDepth()) {
+            case 15:
             case 16:
-                throw new IOException("TGADecoder Compressed 16-bit True Color images not supported");
-
             case 24:
             case 32:
-                decodeRGBImageU24_32(dIn);
                 break;
+            default:
+                throw new IOException("TGADecoder True Color images w/ "+header.pixelDepth()+" bits per pixel not supported");
             }
             break;
 
         case Header.UBLACKWHITE:
-            throw new IOException("TGADecoder Uncompressed Grayscale images not supported");
+        case Header.BLACKWHITE:   // pixelDepth 8, or 16 w/ alpha
+            if (header.pixelDepth() != 8 && header.pixelDepth() != 16) {
+                throw new IOException("TGADecoder Grayscale images w/ "+header.pixelDepth()+" bits per pixel not supported");
+            }
+            break;
 
-        case Header.COLORMAPPED:
-            throw new IOException("TGADecoder Compressed Colormapped images not supported");
+        case Header.NO_IMAGE:
+            throw new IOException("TGADecoder TGA file w/o image data");
 
-        case Header.TRUECOLOR:
-            throw new IOException("TGADecoder Compressed True Color images not supported");
+        default:
+            throw new IOException("TGADecoder Unknown image type "+header.imageType());
+        }
 
+        // Read the whole payload in file order, then convert and orient it
+        final int srcBpp = (header.pixelDepth() + 7) / 8;
+        final byte[] raw = new byte[header.width() * header.height() * srcBpp];
+        if (header.imageType() >= Header.COLORMAPPED) {
+            decodeRLE(dIn, raw, srcBpp);
+        } else {
+            dIn.readFully(raw);
+        }
+
+        // w/o a profile the native BGR(A) order is kept
+        final boolean bgr = null == glp || glp.isGL2GL3();
+
+        final byte[] pixels;
+        switch (header.imageType()) {
+        case Header.UBLACKWHITE:
         case Header.BLACKWHITE:
-            throw new IOException("TGADecoder Compressed Grayscale images not supported");
+            bpp = srcBpp;
+            format = ( 1 == bpp ) ? GL.GL_LUMINANCE : GL.GL_LUMINANCE_ALPHA;
+            pixels = raw;
+            break;
+
+        case Header.UCOLORMAPPED:
+        case Header.COLORMAPPED: {
+            bpp = colorBytes(header.colorMapEntrySize());
+            final byte[] palette = convertColors(colorMap, header.colorMapLength(), header.colorMapEntrySize(), bpp, bgr);
+            pixels = lookupColors(raw, srcBpp, palette, header.firstEntryIndex(), header.colorMapLength(), bpp);
+            format = rgbFormat(bpp, bgr);
+          } break;
+
+        default: // true color
+            bpp = colorBytes(header.pixelDepth());
+            if (bpp == srcBpp) {
+                pixels = raw;
+                if (!bgr) {
+                    swapBGR(pixels, bpp);
+                }
+            } else {
+                pixels = convertColors(raw, raw.length / srcBpp, header.pixelDepth(), bpp, bgr);
+            }
+            format = rgbFormat(bpp, bgr);
+            break;
         }
+
+        if (header.rightToLeft()) {
+            mirrorRows(pixels, header.width(), header.height(), bpp);
+        }
+
+        // Store bottom-to-top in a direct buffer, as expected by glTexImage2D
+        final int rowBytes = header.width() * bpp;
+        final int height = header.height();
+        data = Buffers.newDirectByteBuffer(rowBytes * height);
+        if (header.topToBottom()) {
+            for (int i = 0; i < height; ++i) {
+                data.position((height - i - 1) * rowBytes);
+                data.put(pixels, i * rowBytes, rowBytes);
+            }
+        } else {
+            data.put(pixels, 0, rowBytes * height);
+        }
+        data.rewind();
+
+        // The header now describes the decoded data, see write(File, boolean)
+        header.colorMapType = 0;
+        header.firstEntryIndex = 0;
+        header.colorMapLength = 0;
+        header.colorMapEntrySize = 0;
+        header.imageType = ( GL.GL_LUMINANCE == format || GL.GL_LUMINANCE_ALPHA == format ) ? Header.UBLACKWHITE : Header.UTRUECOLOR;
+        header.pixelDepth = (byte) ( bpp * 8 );
+        header.imageDescriptor = (byte) ( ( 2 == bpp || 4 == bpp ) ? 8 : 0 ); // bottom-to-top, left-to-right
+    }
+
+    /** Reads the color map, or skips it if the image isn't colormapped. Returns null if there is none. */
+    private byte[] readColorMap(LEDataInputStream dIn) throws IOException {
+        if (header.colorMapType() != 1) {
+            return null;
+        }
+        final int entrySize = header.colorMapEntrySize();
+        final int bytes = header.colorMapLength() * ( ( entrySize + 7 ) / 8 );
+        if (header.imageType() != Header.UCOLORMAPPED && header.imageType() != Header.COLORMAPPED) {
+            dIn.readFully(new byte[bytes]);
+            return null;
+        }
+        if (entrySize != 15 && entrySize != 16 && entrySize != 24 && entrySize != 32) {
+            throw new IOException("TGADecoder Color map entries w/ "+entrySize+" bits not supported");
+        }
+        final byte[] colorMap = new byte[bytes];
+        dIn.readFully(colorMap);
+        return colorMap;
     }
-  
+
     /**
-     * This assumes that the body is for a 24 bit or 32 bit for a
-     * RGB or ARGB image respectively.
+     * Decodes run-length encoded packets into <code>raw</code>, which is filled completely.
+     * Packets are allowed to cross scanlines.
      */
-    private void decodeRGBImageU24_32(LEDataInputStream dIn) throws IOException {
-        int i;    // row index
-        int j;    // column index
-        int y;    // output row index
-        int raw;  // index through the raw input buffer
-        int rawWidth = header.width() * (header.pixelDepth() / 8);
-        byte[] rawBuf = new byte[rawWidth];
-        byte[] tmpData = new byte[rawWidth * header.height()];
-
-        for (i = 0; i < header.height(); ++i) {
-            dIn.readFully(rawBuf, 0, rawWidth);
-
-            if (header.topToBottom())
-                y = header.height - i - 1; // range 0 to (header.height - 1)
-            else
-                y = i;
-
-            System.arraycopy(rawBuf, 0, tmpData, y * rawWidth, rawBuf.length);
+    private static void decodeRLE(LEDataInputStream dIn, byte[] raw, int pixelBytes) throws IOException {
+        int pos = 0;
+        while (pos < raw.length) {
+            final int packet = dIn.readUnsignedByte();
+            final int bytes = ( ( packet & 0x7F ) + 1 ) * pixelBytes;
+            if (pos + bytes > raw.length) {
+                throw new IOException("TGADecoder RLE packet exceeds image size");
+            }
+            if ((packet & 0x80) != 0) {
+                // run-length packet: one pixel value, replicated by doubling
+                dIn.readFully(raw, pos, pixelBytes);
+                int filled = pixelBytes;
+                while (filled < bytes) {
+                    final int n = Math.min(filled, bytes - filled);
+                    System.arraycopy(raw, pos, raw, pos + filled, n);
+                    filled += n;
+                }
+            } else {
+                // raw packet
+                dIn.readFully(raw, pos, bytes);
+            }
+            pos += bytes;
         }
+    }
 
-        GL gl = GLContext.getCurrentGL();
-        if (header.pixelDepth() == 24) {
-            bpp=3;
-            if(gl.isGL2GL3()) {
-                format = GL2GL3.GL_BGR;
-            } else {
-                format = GL.GL_RGB;
-                swapBGR(tmpData, rawWidth, header.height(), bpp);
+    /** Number of bytes per decoded pixel for the given true color or color map entry size. */
+    private int colorBytes(int bits) {
+        switch (bits) {
+        case 15: return 3;
+        case 16: return (header.attribPerPixel() > 0) ? 4 : 3; // A1R5G5B5 or X1R5G5B5
+        case 24: return 3;
+        default: return 4;
+        }
+    }
+
+    private static int rgbFormat(int bpp, boolean bgr) {
+        if (3 == bpp) {
+            return bgr ? GL2GL3.GL_BGR : GL.GL_RGB;
+        }
+        return bgr ? GL2GL3.GL_BGRA : GL.GL_RGBA;
+    }
+
+    /**
+     * Converts <code>count</code> little endian BGR(A) colors of <code>bits</code> size
+     * to <code>dstBpp</code> bytes each, in BGR(A) or RGB(A) order.
+     */
+    private static byte[] convertColors(byte[] src, int count, int bits, int dstBpp, boolean bgr) {
+        final byte[] dst = new byte[count * dstBpp];
+        final int r = bgr ? 2 : 0;
+        final int b = bgr ? 0 : 2;
+        if (bits <= 16) {
+            for (int i = 0, s = 0, d = 0; i < count; i++, s += 2, d += dstBpp) {
+                final int v = ( src[s] & 0xFF ) | ( ( src[s+1] & 0xFF ) << 8 );
+                dst[d+r] = expand5(v >> 10);
+                dst[d+1] = expand5(v >> 5);
+                dst[d+b] = expand5(v);
+                if (4 == dstBpp) {
+                    dst[d+3] = (byte) ( ( 0 != ( v & 0x8000 ) ) ? 0xFF : 0 );
+                }
             }
         } else {
-            assert header.pixelDepth() == 32;
-            bpp=4;
+            final int srcBpp = bits / 8;
+            for (int i = 0, s = 0, d = 0; i < count; i++, s += srcBpp, d += dstBpp) {
+                dst[d+r] = src[s+2];
+                dst[d+1] = src[s+1];
+                dst[d+b] = src[s];
+                if (4 == dstBpp) {
+                    dst[d+3] = src[s+3];
+                }
+            }
+        }
+        return dst;
+    }
 
-            if(gl.isGL2GL3()) {
-                format = GL2GL3.GL_BGRA;
-            } else {
-                format = GL.GL_RGBA;
-                swapBGR(tmpData, rawWidth, header.height(), bpp);
+    private static byte expand5(int v) {
+        v &= 0x1F;
+        return (byte) ( ( v << 3 ) | ( v >> 2 ) );
+    }
+
+    /** Resolves 8 or 16 bit color indices via the converted palette. */
+    private static byte[] lookupColors(byte[] indices, int indexBytes, byte[] palette, int firstEntry, int entries, int bpp) throws IOException {
+        final int count = indices.length / indexBytes;
+        final byte[] dst = new byte[count * bpp];
+        for (int i = 0, s = 0, d = 0; i < count; i++, s += indexBytes, d += bpp) {
+            int idx = indices[s] & 0xFF;
+            if (2 == indexBytes) {
+                idx |= ( indices[s+1] & 0xFF ) << 8;
+            }
+            idx -= firstEntry;
+            if (idx < 0 || idx >= entries) {
+                throw new IOException("TGADecoder Color index out of range: "+(idx+firstEntry));
             }
+            System.arraycopy(palette, idx * bpp, dst, d, bpp);
         }
+        return dst;
+    }
 
-        data = ByteBuffer.wrap(tmpData);
+    private static void swapBGR(byte[] data, int bpp) {
+        for (int k = 0; k < data.length; k += bpp) {
+            final byte b = data[k];
+            data[k] = data[k+2];
+            data[k+2] = b;
+        }
     }
 
-    private static void swapBGR(byte[] data, int bWidth, int height, int bpp) {
-        byte r,b;
-        int k;
-        for(int i=0; i<height; ++i) {
-            for(int j=0; j<bWidth; j+=bpp) {
-                k=i*bWidth+j;
-                b=data[k+0];
-                r=data[k+2];
-                data[k+0]=r;
-                data[k+2]=b;
+    private static void mirrorRows(byte[] data, int width, int height, int bpp) {
+        final byte[] tmp = new byte[bpp];
+        final int rowBytes = width * bpp;
+        for (int y = 0; y < height; ++y) {
+            for (int l = y * rowBytes, r = l + rowBytes - bpp; l < r; l += bpp, r -= bpp) {
+                System.arraycopy(data, l, tmp, 0, bpp);
+                System.arraycopy(data, r, data, l, bpp);
+                System.arraycopy(tmp, 0, data, r, bpp);
             }
         }
     }
@@ -351,7 +511,8 @@ public class TGAImage {
     /** Returns the height of the image. */
     public int getHeight()   { return header.height(); }
 
-    /** Returns the OpenGL format for this texture; e.g. GL.GL_BGR or GL.GL_BGRA. */
+    /** Returns the OpenGL format for this texture; e.g. GL.GL_BGR, GL.GL_BGRA or GL.GL_LUMINANCE.
+        Colormapped images are expanded to true color. */
     public int getGLFormat() { return format; }
 
     /** Returns the bytes per pixel */
@@ -361,18 +522,35 @@ public class TGAImage {
         (bottom-to-top) order for calls to glTexImage2D. */
     public ByteBuffer getData()  { return data; }
 
-    /** Reads a Targa image from the specified file. */
+    /** Reads a Targa image from the specified file, see {@link #read(InputStream)}. */
     public static TGAImage read(String filename) throws IOException {
         return read(new FileInputStream(filename));
     }
 
-    /** Reads a Targa image from the specified InputStream. */
+    /**
+     * Reads a Targa image from the specified InputStream
+     * for the profile of the current context, if any.
+     * See {@link #read(GLProfile, InputStream)}.
+     */
     public static TGAImage read(InputStream in) throws IOException {
+        final GLContext ctx = GLContext.getCurrent();
+        return read(null != ctx ? ctx.getGL().getGLProfile() : null, in);
+    }
+
+    /**
+     * Reads a Targa image from the specified InputStream.
+     *
+     * @param glp the profile the image will be used with. If it doesn't support
+     *        BGR(A) pixel formats, i.e. it is not {@link GLProfile#isGL2GL3() GL2GL3},
+     *        the colors are stored in RGB(A) order. If <code>null</code>,
+     *        the native BGR(A) order is kept.
+     */
+    public static TGAImage read(GLProfile glp, InputStream in) throws IOException {
         LEDataInputStream dIn = new LEDataInputStream(new BufferedInputStream(in));
 
         Header header = new Header(dIn);
         TGAImage res = new TGAImage(header);
-        res.decodeImage(dIn);
+        res.decodeImage(glp, dIn);
         return res;
     }
 
@@ -381,20 +559,104 @@ public class TGAImage {
         write(new File(filename));
     }
 
-    /** Writes the image in Targa format to the specified file. */
+    /** Writes the image in uncompressed Targa format to the specified file. */
     public void write(File file) throws IOException {
+        write(file, false);
+    }
+
+    /** Writes the image in Targa format to the specified file,
+        run-length encoded if <code>rle</code> is true. */
+    public void write(File file, boolean rle) throws IOException {
         FileOutputStream stream = new FileOutputStream(file);
         FileChannel chan = stream.getChannel();
-        ByteBuffer buf = ByteBuffer.allocate(header.size());
-        buf.order(ByteOrder.LITTLE_ENDIAN);
-        header.write(buf);
-        buf.rewind();
-        chan.write(buf);
-        chan.write(data);
+        try {
+            final int pixelBytes = header.pixelDepth() / 8;
+            final int imageType = rle ? header.imageType() | 8 : header.imageType() & ~8;
+            ByteBuffer buf = ByteBuffer.allocate(header.size());
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            header.write(buf, imageType);
+            buf.rewind();
+            chan.write(buf);
+            final ByteBuffer pixels = getBGRData();
+            if (rle) {
+                final ByteBuffer enc = encodeRLE(pixels, header.width(), header.height(), pixelBytes);
+                while (enc.hasRemaining()) {
+                    chan.write(enc);
+                }
+            } else {
+                chan.write(pixels);
+                pixels.rewind();
+            }
+            chan.force(true);
+        } finally {
+            chan.close();
+            stream.close();
+        }
+    }
+
+    /** Returns the data in the BGR(A) order of the file format, i.e. a swapped copy if decoded as RGB(A). */
+    private ByteBuffer getBGRData() {
+        if (GL.GL_RGB != format && GL.GL_RGBA != format) {
+            return data;
+        }
+        final byte[] pixels = new byte[data.remaining()];
+        data.get(pixels);
         data.rewind();
-        chan.force(true);
-        chan.close();
-        stream.close();
+        swapBGR(pixels, bpp);
+        return ByteBuffer.wrap(pixels);
+    }
+
+    /**
+     * Run-length encodes the given pixels scanline by scanline,
+     * i.e. packets never cross scanlines as recommended by the TGA 2.0 specification.
+     */
+    private static ByteBuffer encodeRLE(ByteBuffer src, int width, int height, int pixelBytes) {
+        final int rowBytes = width * pixelBytes;
+        final byte[] row = new byte[rowBytes];
+        // worst case: one packet header per pixel, e.g. 'x yy z ww ..' costs 4 bytes per 3 1-byte pixels
+        final byte[] out = new byte[height * ( rowBytes + width )];
+        final int base = src.position();
+        int o = 0;
+        for (int y = 0; y < height; ++y) {
+            src.position(base + y * rowBytes);
+            src.get(row, 0, rowBytes);
+            int x = 0;
+            while (x < width) {
+                int run = 1;
+                while (x + run < width && run < 128 && samePixel(row, x * pixelBytes, ( x + run ) * pixelBytes, pixelBytes)) {
+                    run++;
+                }
+                if (run > 1) {
+                    out[o++] = (byte) ( 0x80 | ( run - 1 ) );
+                    System.arraycopy(row, x * pixelBytes, out, o, pixelBytes);
+                    o += pixelBytes;
+                    x += run;
+                } else {
+                    // raw packet, until the next run of at least two pixels starts
+                    int count = 1;
+                    while (x + count < width && count < 128 &&
+                           ( x + count + 1 >= width ||
+                             !samePixel(row, ( x + count ) * pixelBytes, ( x + count + 1 ) * pixelBytes, pixelBytes) )) {
+                        count++;
+                    }
+                    out[o++] = (byte) ( count - 1 );
+                    System.arraycopy(row, x * pixelBytes, out, o, count * pixelBytes);
+                    o += count * pixelBytes;
+                    x += count;
+                }
+            }
+        }
+        src.position(base);
+        return ByteBuffer.wrap(out, 0, o);
+    }
+
+    private static boolean samePixel(byte[] row, int a, int b, int pixelBytes) {
+        for (int i = 0; i < pixelBytes; i++) {
+            if (row[a+i] != row[b+i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /** Creates a TGAImage from data supplied by the end user. Shares
@@ -414,6 +676,8 @@ public class TGAImage {
         header.imageDescriptor = (byte) (topToBottom ? Header.ID_TOPTOBOTTOM : 0);
         // Note ID not supported
         TGAImage ret = new TGAImage(header);
+        ret.format = hasAlpha ? GL2GL3.GL_BGRA : GL2GL3.GL_BGR;
+        ret.bpp = hasAlpha ? 4 : 3;
         ret.data = data;
         return ret;
     }
@@ -89,6 +89,13 @@ public abstract class GLContext {
   protected static final int CTX_OPTION_ANY     = 1 << 5;
   /** <code>ARB_create_context</code> related: flag debug */
   public static final int CTX_OPTION_DEBUG   = 1 << 6;
+  /** 
+   * JOGL implementation related: flag trusted, i.e. skip the buffer object validity checks
+   * of the GL implementation, e.g. whether a VBO is bound when calling glVertexPointer with an offset.
+   * Only recommended for production use of well tested code, since invalid calls may crash the JVM.
+   * Not passed to the native context creation.
+   */
+  public static final int CTX_OPTION_TRUSTED = 1 << 7;
 
   /** GLContext {@link com.jogamp.gluegen.runtime.ProcAddressTable} caching related: GL software implementation */
   protected static final int CTX_IMPL_ACCEL_SOFT = 1 << 0;
@@ -421,12 +428,12 @@ public abstract class GLContext {
   public final boolean isCreatedWithARBMethod()   { return ( 0 != ( CTX_IS_ARB_CREATED & ctxOptions ) ); }
 
   /**
-   * @return Additional context creation flags, supported: {@link GLContext#CTX_OPTION_DEBUG}.
+   * @return Additional context creation flags, supported: {@link GLContext#CTX_OPTION_DEBUG}, {@link GLContext#CTX_OPTION_TRUSTED}.
    */
   public abstract int getContextCreationFlags();
 
   /**
-   * @param flags Additional context creation flags, supported: {@link GLContext#CTX_OPTION_DEBUG}.
+   * @param flags Additional context creation flags, supported: {@link GLContext#CTX_OPTION_DEBUG}, {@link GLContext#CTX_OPTION_TRUSTED}.
    *              Unsupported flags are masked out.
    *              Only affects this context state if not created yet via {@link #makeCurrent()}.
    * @see #enableGLDebugMessage(boolean)
@@ -118,10 +118,19 @@ public class GLUniformData {
             this.count=1;
         }
         this.data=data;
+        this.version++;
     }
 
     public String getName() { return name; }
 
+    /**
+     * Returns the modification counter, incremented by each <code>setData(..)</code> call.
+     * <p>
+     * Modifications of a data buffer's content are not tracked.
+     * </p>
+     */
+    public int getVersion() { return version; }
+
     public int getLocation() { return location; }
 
     /**
@@ -151,4 +160,5 @@ public class GLUniformData {
     private int    count;
     private Object data;
     private boolean isMatrix;
+    private int    version;
 }
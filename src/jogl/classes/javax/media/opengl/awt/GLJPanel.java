@@ -41,6 +41,7 @@
 package javax.media.opengl.awt;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.IntBuffer;
 import java.beans.Beans;
 import java.security.AccessControlContext;
@@ -163,6 +164,13 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
   private static boolean softwareRenderingDisabled =
     Debug.isPropertyDefined("jogl.gljpanel.nosw", true, localACC);
 
+  // Number of pixel buffer objects used for the readback of the
+  // pbuffer and software backends, see setReadbackPBOCount(int)
+  private static final int defaultReadbackPBOCount =
+    Debug.isPropertyDefined("jogl.gljpanel.pbocount", true, localACC) ?
+    Debug.getIntProperty("jogl.gljpanel.pbocount", true, localACC) : 1;
+  private volatile int readbackPBOCount = defaultReadbackPBOCount;
+
   // Indicates whether the Java 2D OpenGL pipeline is enabled
   private boolean oglPipelineEnabled =
     Java2D.isOGLPipelineActive() &&
@@ -552,6 +560,34 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
   public int getContextCreationFlags() {
     return additionalCtxCreationFlags;                
   }
+
+  /** Sets the number of pixel buffer objects (PBO) used to read back
+      the offscreen framebuffer of the pbuffer and software backends,
+      if <code>GL_ARB_pixel_buffer_object</code> is available.
+      <ul>
+        <li><code>0</code>: No PBO, pixels are read into a temporary
+            buffer and copied into the image.</li>
+        <li><code>1</code>: Pixels are read into a PBO, which is mapped
+            and copied into the image raster directly. This is the default,
+            which may be overridden by the property <code>jogl.gljpanel.pbocount</code>.</li>
+        <li><code>n &gt; 1</code>: Ring of <code>n</code> PBOs, i.e. the
+            readback is asynchronous and the GPU is not stalled. The
+            image shows the frame rendered <code>n-1</code> {@link #display()}
+            calls ago, hence this is suited for animated content only.</li>
+      </ul>
+      Has no effect if the Java 2D / OpenGL pipeline is in use. */
+  public void setReadbackPBOCount(int count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("Invalid PBO count " + count);
+    }
+    readbackPBOCount = count;
+  }
+
+  /** Returns the number of pixel buffer objects used for readback.
+      @see #setReadbackPBOCount(int) */
+  public int getReadbackPBOCount() {
+    return readbackPBOCount;
+  }
             
   /** For a translucent GLJPanel (one for which {@link #setOpaque
       setOpaque}(false) has been called), indicates whether the
@@ -861,6 +897,12 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
     private int glFormat;
     private int glType;
 
+    // Ring of pixel pack buffers, valid for pboContext only
+    private int[]     pbos;
+    private int       pboBytes;
+    private int       pboFrame;
+    private GLContext pboContext;
+
     // For saving/restoring of OpenGL state during ReadPixels
     private int[] swapbytes    = new int[1];
     private int[] rowlength    = new int[1];
@@ -948,10 +990,17 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
 
           // Actually read the pixels.
           gl.glReadBuffer(GL2.GL_FRONT);
-          if (readBackBytes != null) {
-            gl.glReadPixels(0, 0, readBackWidthInPixels, readBackHeightInPixels, glFormat, glType, readBackBytes);
-          } else if (readBackInts != null) {
-            gl.glReadPixels(0, 0, readBackWidthInPixels, readBackHeightInPixels, glFormat, glType, readBackInts);
+          final boolean usePBO = readBackInts != null && readbackPBOCount > 0 &&
+                                 gl.isExtensionAvailable("GL_ARB_pixel_buffer_object");
+          if (usePBO) {
+            readPixelsPBO(gl);
+          } else {
+            destroyPBOs(gl);
+            if (readBackBytes != null) {
+              gl.glReadPixels(0, 0, readBackWidthInPixels, readBackHeightInPixels, glFormat, glType, readBackBytes);
+            } else if (readBackInts != null) {
+              gl.glReadPixels(0, 0, readBackWidthInPixels, readBackHeightInPixels, glFormat, glType, readBackInts);
+            }
           }
 
           // Restore saved modes.
@@ -961,7 +1010,7 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
           gl.glPixelStorei(GL2.GL_PACK_SKIP_PIXELS, skippixels[0]);
           gl.glPixelStorei(GL2.GL_PACK_ALIGNMENT,   alignment[0]);
 
-          if (readBackBytes != null || readBackInts != null) {
+          if (!usePBO && (readBackBytes != null || readBackInts != null)) {
             // Copy temporary data into raster of BufferedImage for faster
             // blitting Note that we could avoid this copy in the cases
             // where !offscreenContext.offscreenImageNeedsVerticalFlip(),
@@ -1005,6 +1054,64 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
       }
     }
 
+    // Reads the pixels into the current PBO of the ring and copies the
+    // oldest one into the raster of the BufferedImage, flipping it
+    // while copying. Until the ring is filled, the current PBO is
+    // used, i.e. the first frames are read synchronously.
+    private void readPixelsPBO(GL2 gl) {
+      final int bytes = readBackWidthInPixels * readBackHeightInPixels * 4;
+      if (pbos == null || pbos.length != readbackPBOCount ||
+          pboBytes != bytes || pboContext != GLContext.getCurrent()) {
+        destroyPBOs(gl);
+        pbos = new int[readbackPBOCount];
+        gl.glGenBuffers(pbos.length, pbos, 0);
+        for (int i = 0; i < pbos.length; i++) {
+          gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, pbos[i]);
+          gl.glBufferData(GL2.GL_PIXEL_PACK_BUFFER, bytes, null, GL2.GL_STREAM_READ);
+        }
+        pboBytes = bytes;
+        pboFrame = 0;
+        pboContext = GLContext.getCurrent();
+      }
+      final int n = pbos.length;
+      final int slot = pboFrame % n;
+      gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, pbos[slot]);
+      gl.glReadPixels(0, 0, readBackWidthInPixels, readBackHeightInPixels, glFormat, glType, 0L);
+      pboFrame++;
+      final int readSlot = ( pboFrame < n ) ? slot : ( pboFrame % n );
+      if (readSlot != slot) {
+        gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, pbos[readSlot]);
+      }
+      final ByteBuffer mapped = gl.glMapBuffer(GL2.GL_PIXEL_PACK_BUFFER, GL2.GL_READ_ONLY);
+      if (mapped != null) {
+        final IntBuffer src = mapped.order(ByteOrder.nativeOrder()).asIntBuffer();
+        final int[] dest = ((DataBufferInt) offscreenImage.getRaster().getDataBuffer()).getData();
+        final int srcIncr = readBackWidthInPixels;
+        final int destIncr = offscreenImage.getWidth();
+        final int height = offscreenImage.getHeight();
+        final boolean flip = flipVertically();
+        for (int row = 0; row < height; row++) {
+          src.position(row * srcIncr);
+          src.get(dest, ( flip ? height - 1 - row : row ) * destIncr, destIncr);
+        }
+        gl.glUnmapBuffer(GL2.GL_PIXEL_PACK_BUFFER);
+      } else if (DEBUG) {
+        System.err.println("Info: GLJPanel: glMapBuffer of PBO failed, skipping frame");
+      }
+      gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, 0);
+    }
+
+    private void destroyPBOs(GL gl) {
+      if (pbos != null) {
+        // The PBOs are gone w/ a destroyed context, e.g. after a resize
+        if (pboContext == GLContext.getCurrent()) {
+          gl.glDeleteBuffers(pbos.length, pbos, 0);
+        }
+        pbos = null;
+        pboContext = null;
+      }
+    }
+
     public void doPaintComponent(Graphics g) {
       doPaintComponentImpl();
       if (offscreenImage != null) {
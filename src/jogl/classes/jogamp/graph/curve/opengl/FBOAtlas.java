@@ -0,0 +1,316 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.graph.curve.opengl;
+
+import java.util.ArrayList;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2ES2;
+
+import com.jogamp.graph.curve.Region;
+import com.jogamp.graph.curve.opengl.RenderState;
+import com.jogamp.opengl.util.FBObject;
+import com.jogamp.opengl.util.packrect.BackingStoreManager;
+import com.jogamp.opengl.util.packrect.Rect;
+import com.jogamp.opengl.util.packrect.RectVisitor;
+import com.jogamp.opengl.util.packrect.RectanglePacker;
+
+/**
+ * Shared render target of all {@link VBORegion2PES2} instances of one {@link RenderState}.
+ * <p>
+ * Each two-pass region reserves a sub-rectangle of one FBO texture,
+ * packed via {@link RectanglePacker}, instead of allocating a private FBO
+ * incl. depth renderbuffer.
+ * </p>
+ * <p>
+ * Regions requiring a new rendering, i.e. new, resized, updated or relocated ones,
+ * are collected and rendered into the atlas within one FBO bind at the next {@link #flush(GL2ES2, RenderState)}.
+ * </p>
+ * <p>
+ * If the backing store grows or is compacted, the content of relocated regions
+ * is not copied but rendered again, since the region geometry is available anyways.
+ * </p>
+ */
+public class FBOAtlas implements BackingStoreManager {
+    /** Transparent border around each sub-rectangle in pixels, covering the fragment shader's blur kernel */
+    public static final int PADDING = 4;
+
+    private static final int INITIAL_SIZE = 512;
+    private static final int MAX_SIZE = 4096;
+
+    private final RectanglePacker packer;
+    private final ArrayList<VBORegion2PES2> dirtyRegions = new ArrayList<VBORegion2PES2>();
+    private final ArrayList<FBObject> deadFBOs = new ArrayList<FBObject>();
+    private Surface surface = null;
+    private int maxSize = 0;
+    private int entryCount = 0;
+
+    private int flushCount = 0;
+    private int renderCount = 0;
+    private int failedCount = 0;
+
+    /** Lazily created FBO backing store, allocated w/o a current GL context by {@link RectanglePacker}. */
+    static class Surface {
+        final int width;
+        final int height;
+        FBObject fbo = null;
+
+        Surface(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    public FBOAtlas() {
+        packer = new RectanglePacker(this, INITIAL_SIZE, INITIAL_SIZE);
+    }
+
+    /**
+     * Reserves a sub-rectangle of the given texture size for the region
+     * and schedules the region for rendering into the atlas.
+     * <p>
+     * The previous reservation is kept if its size matches, otherwise released.
+     * </p>
+     * @param old the previous reservation of the region, maybe null
+     * @return the reservation, or null if the atlas is exhausted
+     */
+    public Rect reserve(GL2ES2 gl, VBORegion2PES2 region, Rect old, int width, int height) {
+        final int w = width + 2*PADDING;
+        final int h = height + 2*PADDING;
+        if(null != old) {
+            if(old.w() == w && old.h() == h) {
+                markDirty(region);
+                return old;
+            }
+            release(old);
+        }
+        if(0 == maxSize) {
+            final int[] maxTexSize = new int[1];
+            gl.glGetIntegerv(GL.GL_MAX_TEXTURE_SIZE, maxTexSize, 0);
+            maxSize = 0 < maxTexSize[0] ? Math.min(maxTexSize[0], MAX_SIZE) : INITIAL_SIZE;
+        }
+        final Rect rect = new Rect(0, 0, w, h, region);
+        try {
+            // The packer's own maximum size is not used, since it retries a failed layout endlessly.
+            // Instead allocateBackingStore(..) rejects an oversized layout, leaving the packer untouched.
+            if(w > maxSize || h > maxSize) {
+                throw new RuntimeException("Exceeds maximum size "+maxSize);
+            }
+            packer.add(rect);
+        } catch (RuntimeException re) {
+            failedCount++;
+            if(Region.DEBUG) {
+                System.err.println("FBOAtlas: Couldn't reserve "+width+"x"+height+": "+re.getMessage()+", "+this);
+            }
+            return null;
+        }
+        entryCount++;
+        markDirty(region);
+        return rect;
+    }
+
+    /** Releases the reservation of a region. */
+    public void release(Rect rect) {
+        if(null != rect) {
+            packer.remove(rect);
+            dirtyRegions.remove(rect.getUserData());
+            entryCount--;
+        }
+    }
+
+    /** Schedules the region for rendering into the atlas at the next {@link #flush(GL2ES2, RenderState)}. */
+    public void markDirty(VBORegion2PES2 region) {
+        if(!dirtyRegions.contains(region)) {
+            dirtyRegions.add(region);
+        }
+    }
+
+    public final boolean isDirty(VBORegion2PES2 region) {
+        return dirtyRegions.contains(region);
+    }
+
+    /**
+     * Renders all scheduled regions into the atlas within one FBO bind
+     * and restores the {@link RenderState#getPMVMatrix() PMV matrix} uniform.
+     * <p>
+     * The viewport is left to the caller.
+     * </p>
+     */
+    public void flush(GL2ES2 gl, RenderState rs) {
+        destroyDeadFBOs(gl);
+        if(dirtyRegions.isEmpty()) {
+            return;
+        }
+        final Surface s = (Surface) packer.getBackingStore();
+        if(null == s.fbo) {
+            s.fbo = new FBObject(s.width, s.height);
+            // FIXME: shall not use bilinear, due to own AA ? However, w/o bilinear result is not smooth
+            s.fbo.init(gl, GL2ES2.GL_LINEAR, GL2ES2.GL_LINEAR, GL2ES2.GL_CLAMP_TO_EDGE, GL2ES2.GL_CLAMP_TO_EDGE);
+            s.fbo.attachDepthBuffer(gl, GL.GL_DEPTH_COMPONENT16); // FIXME: or shall we use 24 or 32 bit depth ?
+            // new content, render all regions
+            packer.visit(new RectVisitor() {
+                public void visit(Rect rect) {
+                    markDirty((VBORegion2PES2) rect.getUserData());
+                }
+            });
+        } else {
+            s.fbo.bind(gl);
+        }
+        gl.glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
+        gl.glEnable(GL.GL_SCISSOR_TEST);
+        for(int i=0; i<dirtyRegions.size(); i++) {
+            dirtyRegions.get(i).renderRegion2Atlas(gl, rs);
+        }
+        gl.glDisable(GL.GL_SCISSOR_TEST);
+        s.fbo.unbind(gl);
+        rs.getShaderState().uniform(gl, rs.getPMVMatrix()); // switch back to real PMV matrix
+
+        renderCount += dirtyRegions.size();
+        flushCount++;
+        dirtyRegions.clear();
+    }
+
+    /** Binds the atlas texture to the active texture unit. */
+    public void use(GL gl) {
+        ((Surface) packer.getBackingStore()).fbo.use(gl);
+    }
+
+    public void unuse(GL gl) {
+        ((Surface) packer.getBackingStore()).fbo.unuse(gl);
+    }
+
+    public final int getWidth() {
+        return ((Surface) packer.getBackingStore()).width;
+    }
+
+    public final int getHeight() {
+        return ((Surface) packer.getBackingStore()).height;
+    }
+
+    /** @return number of reserved sub-rectangles */
+    public final int getEntryCount() { return entryCount; }
+
+    /** @return ratio of reserved texels incl. padding to all texels of the atlas */
+    public final float getOccupancy() {
+        final long[] area = { 0 };
+        packer.visit(new RectVisitor() {
+            public void visit(Rect rect) {
+                area[0] += rect.w() * rect.h();
+            }
+        });
+        return (float) area[0] / ( (float) getWidth() * (float) getHeight() );
+    }
+
+    /** @return the vertical fragmentation ratio, see {@link RectanglePacker#verticalFragmentationRatio()} */
+    public final float getFragmentation() {
+        return packer.verticalFragmentationRatio();
+    }
+
+    /** @return number of {@link #flush(GL2ES2, RenderState)} calls which actually bound the FBO */
+    public final int getFlushCount() { return flushCount; }
+
+    /** @return number of region renderings into the atlas */
+    public final int getRenderCount() { return renderCount; }
+
+    /** @return number of reservations failed due to an exhausted atlas */
+    public final int getFailedCount() { return failedCount; }
+
+    public final void resetCounter() {
+        flushCount = 0;
+        renderCount = 0;
+        failedCount = 0;
+    }
+
+    public void destroy(GL gl) {
+        packer.dispose();
+        destroyDeadFBOs(gl);
+        dirtyRegions.clear();
+        entryCount = 0;
+    }
+
+    private void destroyDeadFBOs(GL gl) {
+        for(int i=0; i<deadFBOs.size(); i++) {
+            deadFBOs.get(i).destroy(gl);
+        }
+        deadFBOs.clear();
+    }
+
+    //
+    // BackingStoreManager
+    //
+
+    public Object allocateBackingStore(int w, int h) {
+        if(0 < maxSize && ( w > maxSize || h > maxSize ) ) {
+            throw new RuntimeException("Backing store "+w+"x"+h+" exceeds maximum size "+maxSize);
+        }
+        if(Region.DEBUG) {
+            System.err.println("FBOAtlas: allocating backing store "+w+"x"+h);
+        }
+        return new Surface(w, h);
+    }
+
+    public void deleteBackingStore(Object backingStore) {
+        final Surface s = (Surface) backingStore;
+        if(null != s.fbo) {
+            // destroyed w/ the next current GL context
+            deadFBOs.add(s.fbo);
+            s.fbo = null;
+        }
+    }
+
+    public boolean canCompact() {
+        return true;
+    }
+
+    public boolean preExpand(Rect cause, int attemptNumber) {
+        return false;
+    }
+
+    public boolean additionFailed(Rect cause, int attemptNumber) {
+        return false;
+    }
+
+    public void beginMovement(Object oldBackingStore, Object newBackingStore) {
+    }
+
+    public void move(Object oldBackingStore, Rect oldLocation, Object newBackingStore, Rect newLocation) {
+        final VBORegion2PES2 region = (VBORegion2PES2) oldLocation.getUserData();
+        if(null != region) {
+            markDirty(region);
+        }
+    }
+
+    public void endMovement(Object oldBackingStore, Object newBackingStore) {
+    }
+
+    public String toString() {
+        return "FBOAtlas["+getWidth()+"x"+getHeight()+", entries "+entryCount+
+               ", occupancy "+getOccupancy()+", fragmentation "+getFragmentation()+
+               ", flushes "+flushCount+", renders "+renderCount+", failed "+failedCount+"]";
+    }
+}
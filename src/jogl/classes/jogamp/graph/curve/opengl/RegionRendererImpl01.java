@@ -87,14 +87,11 @@ public class RegionRendererImpl01 extends RegionRenderer {
         if(!isInitialized()){
             throw new GLException("RegionRendererImpl01: not initialized!");
         }
-        int hashCode = getHashCode(outlineShape);
-        Region region = regions.get(hashCode);
-        
-        if(null == region) {
-            region = createRegion(gl, outlineShape);
-            regions.put(hashCode, region);
-        }        
+        final Region region = getCachedRegion(gl, outlineShape);
         region.render(gl, rs, vp_width, vp_height, texSize);
+        if(0 == getCacheLimit()) {
+            region.destroy(gl, rs);
+        }
     }
     
     @Override
@@ -102,14 +99,10 @@ public class RegionRendererImpl01 extends RegionRenderer {
         if(!isInitialized()){
             throw new GLException("RegionRendererImpl01: not initialized!");
         }
-        
-        int hashCode = getHashCode(outlineShapes);
-        Region region = regions.get(hashCode);
-        
-        if(null == region) {
-            region = createRegion(gl, outlineShapes);
-            regions.put(hashCode, region);
-        }        
+        final Region region = getCachedRegion(gl, outlineShapes);
         region.render(gl, rs, vp_width, vp_height, texSize);
+        if(0 == getCacheLimit()) {
+            region.destroy(gl, rs);
+        }
     }    
 }
@@ -57,6 +57,7 @@ public class RenderStateImpl implements RenderState {
     private final GLUniformData gcu_Alpha;
     private final GLUniformData gcu_ColorStatic;
     private final GLUniformData gcu_Strength;
+    private FBOAtlas fboAtlas = null;
 
     public static final RenderState getRenderState(GL2ES2 gl) {
         return (RenderState) gl.getContext().getAttachedObject(RenderState.class.getName());
@@ -99,7 +100,19 @@ public class RenderStateImpl implements RenderState {
     public final GLUniformData getColorStatic() { return gcu_ColorStatic; }
     public final GLUniformData getStrength() { return gcu_Strength; }
     
+    /** Returns the FBO atlas shared by all two-pass regions of this render state, created lazily. */
+    public final FBOAtlas getFBOAtlas() {
+        if(null == fboAtlas) {
+            fboAtlas = new FBOAtlas();
+        }
+        return fboAtlas;
+    }
+    
     public void destroy(GL2ES2 gl) {
+        if(null != fboAtlas) {
+            fboAtlas.destroy(gl);
+            fboAtlas = null;
+        }
         st.destroy(gl);
     }
     
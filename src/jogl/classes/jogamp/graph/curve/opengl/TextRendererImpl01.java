@@ -31,7 +31,9 @@ import javax.media.opengl.GL2ES2;
 import javax.media.opengl.GLException;
 
 import jogamp.graph.curve.opengl.shader.AttributeNames;
+import jogamp.graph.curve.text.GlyphMesh;
 import jogamp.graph.curve.text.GlyphString;
+import jogamp.graph.font.FontInt;
 
 import com.jogamp.graph.curve.opengl.RenderState;
 import com.jogamp.graph.curve.opengl.TextRenderer;
@@ -41,6 +43,8 @@ import com.jogamp.opengl.util.glsl.ShaderProgram;
 import com.jogamp.opengl.util.glsl.ShaderState;
 
 public class TextRendererImpl01 extends TextRenderer {    
+    private VBOTextBatchSPES2 batch = null;
+    
     public TextRendererImpl01(RenderState rs, int type) {
         super(rs, type);
         // rs.getSharpness().setData(0.5f);
@@ -80,6 +84,10 @@ public class TextRendererImpl01 extends TextRenderer {
     
     @Override
     protected void disposeImpl(GL2ES2 gl) {
+        if(null != batch) {
+            batch.destroy(gl, rs);
+            batch = null;
+        }
         super.disposeImpl(gl);
     }
     
@@ -88,13 +96,51 @@ public class TextRendererImpl01 extends TextRenderer {
         if(!isInitialized()){
             throw new GLException("TextRendererImpl01: not initialized!");
         }
-        GlyphString glyphString = getCachedGlyphString(font, str, fontSize);
-        if(null == glyphString) {
-            glyphString = createString(gl, font, fontSize, str);
-            addCachedGlyphString(gl, font, str, fontSize, glyphString);
+        if(isBatchMode()) {
+            addString(gl, font, str, position, fontSize);
+            return;
         }
-        
+        final GlyphString glyphString = getGlyphString(gl, font, str, fontSize);
         glyphString.renderString3D(gl, rs, vp_width, vp_height, texSize);
     }
     
+    /**
+     * Appends the string's cached glyph meshes to the batch,
+     * using the same layout as {@link FontInt#getOutline(String, float, jogamp.graph.geom.plane.AffineTransform, jogamp.graph.geom.plane.Path2D[])}. 
+     */
+    private void addString(GL2ES2 gl, Font font, String str, float[] position, int fontSize) {
+        if(null == batch) {
+            batch = new VBOTextBatchSPES2(rs);
+        }
+        final Font.Metrics metrics = font.getMetrics();
+        final float advanceY = metrics.getLineGap(fontSize) - metrics.getDescent(fontSize) + metrics.getAscent(fontSize);
+        final float scale = metrics.getScale(fontSize);
+        final float x0 = null != position ? position[0] : 0f;
+        final float y0 = null != position ? position[1] : 0f;
+        final float z0 = null != position ? position[2] : 0f;
+        float advanceTotal = 0;
+        float y = 0;
+        for(int i=0; i<str.length(); i++) {
+            final char character = str.charAt(i);
+            if (character == '\n') {
+                y -= advanceY;
+                advanceTotal = 0;
+                continue;
+            }
+            final Font.Glyph glyph = font.getGlyph(character);
+            if (character != ' ') {
+                final GlyphMesh mesh = getCachedGlyphMesh(glyph);
+                // flipped y, see GlyphString.generateRegion(..)
+                batch.add(gl, mesh, x0 + advanceTotal, y0 - y, z0, scale);
+            }
+            advanceTotal += glyph.getAdvance(fontSize, true);
+        }
+    }
+    
+    @Override
+    public void flushBatch(GL2ES2 gl) {
+        if(null != batch) {
+            batch.flush(gl);
+        }
+    }
 }
@@ -44,19 +44,17 @@ import com.jogamp.graph.geom.Vertex;
 
 import com.jogamp.graph.curve.Region;
 import com.jogamp.graph.curve.opengl.RenderState;
-import com.jogamp.opengl.util.FBObject;
 import com.jogamp.opengl.util.GLArrayDataServer;
 import com.jogamp.opengl.util.PMVMatrix;
 import com.jogamp.opengl.util.glsl.ShaderState;
+import com.jogamp.opengl.util.packrect.Rect;
 
 public class VBORegion2PES2  implements Region {
     private int numVertices = 0;
     
     private ArrayList<Triangle> triangles = new ArrayList<Triangle>();
     private ArrayList<Vertex> vertices = new ArrayList<Vertex>();
-    private GLArrayDataServer verticeTxtAttr;
-    private GLArrayDataServer texCoordTxtAttr;
-    private GLArrayDataServer indicesTxt;
+    private VBORegionBuffers buffersTxt;
     private GLArrayDataServer verticeFboAttr;
     private GLArrayDataServer texCoordFboAttr;
     private GLArrayDataServer indicesFbo;
@@ -66,7 +64,9 @@ public class VBORegion2PES2  implements Region {
     private boolean dirty = true;
     
     private AABBox box;
-    private FBObject fbo;
+    private final FBOAtlas atlas;
+    private Rect atlasRect = null;
+    private int atlasRectX = -1, atlasRectY = -1, atlasWidth = 0, atlasHeight = 0;
 
     private PMVMatrix fboPMVMatrix;
     GLUniformData mgl_fboPMVMatrix;
@@ -77,6 +77,8 @@ public class VBORegion2PES2  implements Region {
     int activeTexture; // texture engine 0 == GL.GL_TEXTURE0
     
     public VBORegion2PES2(RenderState rs, int textureEngine) {
+        atlas = ((RenderStateImpl) rs).getFBOAtlas();
+        
         fboPMVMatrix = new PMVMatrix();
         mgl_fboPMVMatrix = new GLUniformData(UniformNames.gcu_PMVMatrix, 4, 4, fboPMVMatrix.glGetPMvMatrixf());
         
@@ -91,14 +93,10 @@ public class VBORegion2PES2  implements Region {
         indicesFbo.puts((short) 1); indicesFbo.puts((short) 2); indicesFbo.puts((short) 3);
         indicesFbo.seal(true);
         
+        // filled w/ the atlas sub-rectangle, see updateAtlasTexCoords(..)
         texCoordFboAttr = GLArrayDataServer.createGLSL(st, AttributeNames.TEXCOORD_ATTR_NAME, 2, 
                                                        GL2ES2.GL_FLOAT, false, initialSize, GL.GL_STATIC_DRAW);
         st.ownAttribute(texCoordFboAttr, true);
-        texCoordFboAttr.putf(5); texCoordFboAttr.putf(5);        
-        texCoordFboAttr.putf(5); texCoordFboAttr.putf(6);        
-        texCoordFboAttr.putf(6); texCoordFboAttr.putf(6);        
-        texCoordFboAttr.putf(6); texCoordFboAttr.putf(5);        
-        texCoordFboAttr.seal(true);
         
         verticeFboAttr = GLArrayDataServer.createGLSL(st, AttributeNames.VERTEX_ATTR_NAME, 3, 
                                                       GL2ES2.GL_FLOAT, false, initialSize, GL.GL_STATIC_DRAW); 
@@ -107,15 +105,7 @@ public class VBORegion2PES2  implements Region {
         
         box = new AABBox();
         
-        indicesTxt = GLArrayDataServer.createData(3, GL2ES2.GL_SHORT, initialSize, GL.GL_STATIC_DRAW, GL.GL_ELEMENT_ARRAY_BUFFER);                
-        
-        verticeTxtAttr = GLArrayDataServer.createGLSL(st, AttributeNames.VERTEX_ATTR_NAME, 3, 
-                                                      GL2ES2.GL_FLOAT, false, initialSize, GL.GL_STATIC_DRAW);
-        st.ownAttribute(verticeTxtAttr, true);
-        
-        texCoordTxtAttr = GLArrayDataServer.createGLSL(st, AttributeNames.TEXCOORD_ATTR_NAME, 2, 
-                                                       GL2ES2.GL_FLOAT, false, initialSize, GL.GL_STATIC_DRAW);
-        st.ownAttribute(texCoordTxtAttr, true);
+        buffersTxt = new VBORegionBuffers(st, initialSize);
         
         if(DEBUG_INSTANCE) {
             System.err.println("VBORegion2PES2 Create: " + this);
@@ -127,64 +117,9 @@ public class VBORegion2PES2  implements Region {
             return; 
         }
         
-        // process triangles
-        indicesTxt.seal(gl, false);
-        indicesTxt.rewind();        
-        for(Triangle t:triangles){
-            if(t.getVertices()[0].getId() == Integer.MAX_VALUE){
-                t.getVertices()[0].setId(numVertices++);
-                t.getVertices()[1].setId(numVertices++);
-                t.getVertices()[2].setId(numVertices++);
-                
-                vertices.add(t.getVertices()[0]);
-                vertices.add(t.getVertices()[1]);
-                vertices.add(t.getVertices()[2]);
-                
-                indicesTxt.puts((short) t.getVertices()[0].getId());
-                indicesTxt.puts((short) t.getVertices()[1].getId());
-                indicesTxt.puts((short) t.getVertices()[2].getId());
-            }
-            else{
-                Vertex v1 = t.getVertices()[0];
-                Vertex v2 = t.getVertices()[1];
-                Vertex v3 = t.getVertices()[2];
-                
-                indicesTxt.puts((short) v1.getId());
-                indicesTxt.puts((short) v2.getId());
-                indicesTxt.puts((short) v3.getId());
-            }
-        }
-        indicesTxt.seal(gl, true);
-        indicesTxt.enableBuffer(gl, false);
-
-        // process vertices and update bbox
-        box.reset();
-        verticeTxtAttr.seal(gl, false);
-        verticeTxtAttr.rewind();
-        texCoordTxtAttr.seal(gl, false);
-        texCoordTxtAttr.rewind();
-        for(Vertex v:vertices){
-            verticeTxtAttr.putf(v.getX());
-            if(flipped){
-                verticeTxtAttr.putf(-1*v.getY());
-            } else {
-                verticeTxtAttr.putf(v.getY());
-            }
-            verticeTxtAttr.putf(v.getZ());
-            if(flipped){
-                box.resize(v.getX(), -1*v.getY(), v.getZ());
-            } else {
-                box.resize(v.getX(), v.getY(), v.getZ());
-            }
-            
-            final float[] tex = v.getTexCoord();
-            texCoordTxtAttr.putf(tex[0]);
-            texCoordTxtAttr.putf(tex[1]);            
-        }
-        texCoordTxtAttr.seal(gl, true);
-        texCoordTxtAttr.enableBuffer(gl, false);
-        verticeTxtAttr.seal(gl, true);     
-        verticeTxtAttr.enableBuffer(gl, false);
+        // process triangles and vertices, update bbox
+        numVertices = VBORegionBuffers.addTriangleVertices(triangles, vertices, numVertices);
+        buffersTxt.update(gl, triangles, vertices, flipped, box);
         
         // update all bbox related data
         verticeFboAttr.seal(gl, false);
@@ -204,23 +139,76 @@ public class VBORegion2PES2  implements Region {
         indicesFbo.seal(gl, true);
         indicesFbo.enableBuffer(gl, false);
         
+        // atlas content is stale, render again w/ the current texture width if reserved already
+        if(null != atlasRect) {
+            reserveAtlas(gl, tex_width_c);
+        } else {
+            tex_width_c = 0;
+        }
+        
         dirty = false;
         
         // the buffers were disabled, since due to real/fbo switching and other vbo usage
     }
     
+    public void prepare(GL2ES2 gl, RenderState rs, int vp_width, int vp_height, int width) {
+        if(vp_width > 0 && vp_height > 0 && width > 0 && width != tex_width_c){
+            reserveAtlas(gl, width);
+        }
+    }
+    
     public void render(GL2ES2 gl, RenderState rs, int vp_width, int vp_height, int width) {
         if(vp_width <=0 || vp_height <= 0 || width <= 0){
             renderRegion(gl);
         } else {
-            if(width != tex_width_c){
-                renderRegion2FBO(gl, rs, width);                
+            prepare(gl, rs, vp_width, vp_height, width);
+            if(null == atlasRect) {
+                // atlas exhausted, render w/o 2nd pass
+                renderRegion(gl);
+                return;
             }
+            // renders all pending regions incl. this one w/ one FBO bind, 
+            // i.e. all regions prepared for this frame
+            atlas.flush(gl, rs);
+            updateAtlasTexCoords(gl);
             // System.out.println("Scale: " + matrix.glGetMatrixf().get(1+4*3) +" " + matrix.glGetMatrixf().get(2+4*3));
             renderFBO(gl, rs, vp_width, vp_height);
         }
     }
     
+    private void reserveAtlas(GL2ES2 gl, int tex_width) {
+        tex_width_c = tex_width;        
+        atlasRectX = -1; // force texture coordinate update
+        tex_height_c = Math.max(1, (int)(tex_width_c*box.getHeight()/box.getWidth()));
+        atlasRect = atlas.reserve(gl, this, atlasRect, tex_width_c, tex_height_c);
+    }
+    
+    /** Passes the texture coordinates of the reserved sub-rectangle, if it or the atlas has been relocated or resized. */
+    private void updateAtlasTexCoords(GL2ES2 gl) {
+        final int aw = atlas.getWidth();
+        final int ah = atlas.getHeight();
+        final int x = atlasRect.x() + FBOAtlas.PADDING;
+        final int y = atlasRect.y() + FBOAtlas.PADDING;
+        if( x == atlasRectX && y == atlasRectY && aw == atlasWidth && ah == atlasHeight ) {
+            return;
+        }
+        atlasRectX = x; atlasRectY = y; atlasWidth = aw; atlasHeight = ah;
+        
+        // texture coordinates >= 5 denote the 2nd pass within the fragment shader
+        final float u0 = 5f + (float) x / (float) aw;
+        final float v0 = 5f + (float) y / (float) ah;
+        final float u1 = 5f + (float) ( x + tex_width_c ) / (float) aw;
+        final float v1 = 5f + (float) ( y + tex_height_c ) / (float) ah;
+        texCoordFboAttr.seal(gl, false);
+        texCoordFboAttr.rewind();
+        texCoordFboAttr.putf(u0); texCoordFboAttr.putf(v0);
+        texCoordFboAttr.putf(u0); texCoordFboAttr.putf(v1);
+        texCoordFboAttr.putf(u1); texCoordFboAttr.putf(v1);
+        texCoordFboAttr.putf(u1); texCoordFboAttr.putf(v0);
+        texCoordFboAttr.seal(gl, true);
+        texCoordFboAttr.enableBuffer(gl, false);
+    }
+    
     private void renderFBO(GL2ES2 gl, RenderState rs, int width, int hight) {
         final ShaderState st = rs.getShaderState();
         
@@ -234,7 +222,7 @@ public class VBORegion2PES2  implements Region {
         gl.glActiveTexture(activeTexture);
         st.uniform(gl, mgl_ActiveTexture);
         
-        fbo.use(gl);                        
+        atlas.use(gl);                        
         verticeFboAttr.enableBuffer(gl, true);       
         texCoordFboAttr.enableBuffer(gl, true);
         indicesFbo.enableBuffer(gl, true);
@@ -244,57 +232,33 @@ public class VBORegion2PES2  implements Region {
         verticeFboAttr.enableBuffer(gl, false);       
         texCoordFboAttr.enableBuffer(gl, false);
         indicesFbo.enableBuffer(gl, false);        
-        fbo.unuse(gl);
+        atlas.unuse(gl);
         
         // setback: gl.glActiveTexture(currentActiveTextureEngine[0]);
     }
     
-    private void renderRegion2FBO(GL2ES2 gl, RenderState rs, int tex_width) {
+    /** 
+     * Renders this region into its atlas sub-rectangle while the atlas FBO is bound, 
+     * see {@link FBOAtlas#flush(GL2ES2, RenderState)}. 
+     */
+    void renderRegion2Atlas(GL2ES2 gl, RenderState rs) {
         final ShaderState st = rs.getShaderState();
         
-        tex_width_c = tex_width;        
-        tex_height_c = (int)(tex_width_c*box.getHeight()/box.getWidth());
-        
         // System.out.println("FBO Size: "+tex_width+" -> "+tex_height_c+"x"+tex_width_c);
         // System.out.println("FBO Scale: " + m.glGetMatrixf().get(0) +" " + m.glGetMatrixf().get(5));
-
-        if(null != fbo && fbo.getWidth() != tex_width_c && fbo.getHeight() != tex_height_c ) {
-            fbo.destroy(gl);
-            fbo = null;
-        }
         
-        if(null == fbo) {        
-            fbo = new FBObject(tex_width_c, tex_height_c);
-            // FIXME: shall not use bilinear, due to own AA ? However, w/o bilinear result is not smooth
-            fbo.init(gl, GL2ES2.GL_LINEAR, GL2ES2.GL_LINEAR, GL2ES2.GL_CLAMP_TO_EDGE, GL2ES2.GL_CLAMP_TO_EDGE); 
-            // fbo.init(gl, GL2ES2.GL_NEAREST, GL2ES2.GL_NEAREST, GL2ES2.GL_CLAMP_TO_EDGE, GL2ES2.GL_CLAMP_TO_EDGE);
-            fbo.attachDepthBuffer(gl, GL.GL_DEPTH_COMPONENT16); // FIXME: or shall we use 24 or 32 bit depth ?
-        } else {
-            fbo.bind(gl);
-        }
+        // clear the sub-rectangle incl. padding
+        gl.glScissor(atlasRect.x(), atlasRect.y(), atlasRect.w(), atlasRect.h());
+        gl.glClear(GL2ES2.GL_COLOR_BUFFER_BIT | GL2ES2.GL_DEPTH_BUFFER_BIT);
         
         //render texture
-        gl.glViewport(0, 0, tex_width_c, tex_height_c);
+        gl.glViewport(atlasRect.x() + FBOAtlas.PADDING, atlasRect.y() + FBOAtlas.PADDING, tex_width_c, tex_height_c);
         st.uniform(gl, mgl_fboPMVMatrix); // use orthogonal matrix
-        
-        gl.glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
-        gl.glClear(GL2ES2.GL_COLOR_BUFFER_BIT | GL2ES2.GL_DEPTH_BUFFER_BIT);
         renderRegion(gl);
-        fbo.unbind(gl);
-        
-        st.uniform(gl, rs.getPMVMatrix()); // switch back to real PMV matrix
     }
     
     private void renderRegion(GL2ES2 gl) {
-        verticeTxtAttr.enableBuffer(gl, true);       
-        texCoordTxtAttr.enableBuffer(gl, true);
-        indicesTxt.enableBuffer(gl, true);        
-        
-        gl.glDrawElements(GL2ES2.GL_TRIANGLES, indicesTxt.getElementNumber() * indicesTxt.getComponentNumber(), GL2ES2.GL_UNSIGNED_SHORT, 0);        
-        
-        verticeTxtAttr.enableBuffer(gl, false);       
-        texCoordTxtAttr.enableBuffer(gl, false);
-        indicesTxt.enableBuffer(gl, false);        
+        buffersTxt.draw(gl);
     }
     
     public void addTriangles(ArrayList<Triangle> tris) {
@@ -312,32 +276,34 @@ public class VBORegion2PES2  implements Region {
         dirty = true;
     }
     
+    public int getByteSize() {
+        // bounding box quad: 4 vertices, 4 texture coordinates and 6 short indices
+        return null != buffersTxt ? buffersTxt.getByteSize() + 4 * 3 * 4 + 4 * 2 * 4 + 6 * 2 : 0;
+    }
+    
     public boolean isDirty(){
         return dirty;
     }
     
+    public void clear() {
+        triangles.clear();
+        vertices.clear();
+        numVertices = 0;
+        dirty = true;
+    }
+    
     public void destroy(GL2ES2 gl, RenderState rs) {
         if(DEBUG_INSTANCE) {
             System.err.println("VBORegion2PES2 Destroy: " + this);
         }
         final ShaderState st = rs.getShaderState();
-        if(null != fbo) {
-            fbo.destroy(gl);
-            fbo = null;
+        if(null != atlasRect) {
+            atlas.release(atlasRect);
+            atlasRect = null;
         }        
-        if(null != verticeTxtAttr) {
-            st.ownAttribute(verticeTxtAttr, false);
-            verticeTxtAttr.destroy(gl);
-            verticeTxtAttr = null;
-        }
-        if(null != texCoordTxtAttr) {
-            st.ownAttribute(texCoordTxtAttr, false);
-            texCoordTxtAttr.destroy(gl);
-            texCoordTxtAttr = null;
-        }
-        if(null != indicesTxt) {
-            indicesTxt.destroy(gl);
-            indicesTxt = null;
+        if(null != buffersTxt) {
+            buffersTxt.destroy(gl, st);
+            buffersTxt = null;
         }
         if(null != verticeFboAttr) {
             st.ownAttribute(verticeFboAttr, false);
@@ -0,0 +1,410 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.graph.curve.opengl;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2ES2;
+import javax.media.opengl.GLArrayData;
+
+import jogamp.graph.curve.opengl.shader.AttributeNames;
+
+import com.jogamp.graph.geom.AABBox;
+import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.Vertex;
+import com.jogamp.opengl.util.GLArrayDataServer;
+import com.jogamp.opengl.util.glsl.ShaderState;
+
+/**
+ * VBOs of a Region's triangles, i.e. one interleaved VBO of vertex and texture coordinates 
+ * and one index VBO.
+ * <p>
+ * The triangles are laid out in Java arrays first, see {@link #fill(ArrayList, ArrayList, boolean, AABBox, int)},
+ * and passed to the client buffers via bulk copy.
+ * If the number of elements did not change since the last update, e.g. a shape's vertices have been moved,
+ * the client buffers are modified in place and only the range of changed elements 
+ * is passed to the VBO via {@link GLArrayDataServer#updateVBORange(GL, int, int)}.
+ * </p>
+ * <p>
+ * 32-bit indices are used on desktop GL. Otherwise 16-bit indices are used and
+ * a region exceeding {@link #MAX_SHORT_VERTICES} vertices is split into batches,
+ * each drawn w/ the vertex attribute offset of its first vertex.
+ * </p>
+ */
+public final class VBORegionBuffers {
+    /** Maximum number of vertices addressable by 16-bit indices */
+    public static final int MAX_SHORT_VERTICES = 1 << 16;
+    
+    /** Interleaved components per vertex, i.e. x, y, z, s, t */
+    public static final int COMPONENTS = 5;
+    /** Interleaved bytes per vertex */
+    public static final int STRIDE_B = COMPONENTS * 4;
+    private static final int TEXCOORD_OFFSET_B = 3 * 4;
+    
+    private final int initialSize;
+    private GLArrayDataServer interleaved;
+    private GLArrayData verticeAttr;
+    private GLArrayData texCoordAttr;
+    private GLArrayDataServer indices = null;
+    private boolean intIndices = false;
+    
+    private float[] vertexData = new float[0];
+    private int vertexCount = 0;
+    private int[] indexData = new int[0];
+    private int indexCount = 0;
+    private short[] shortData = new short[0];
+    /** batch triplets: first vertex, first index and index count */
+    private int[] batches = new int[3];
+    private int batchCount = 0;
+    private int[] remap = new int[0];
+    private int[] remapBatch = new int[0];
+    
+    public VBORegionBuffers(ShaderState st, int initialSize) {
+        this.initialSize = initialSize;
+        interleaved = GLArrayDataServer.createGLSLInterleaved(st, COMPONENTS, GL.GL_FLOAT, false, initialSize, GL.GL_STATIC_DRAW);
+        verticeAttr = interleaved.addGLSLSubArray(AttributeNames.VERTEX_ATTR_NAME, 3);
+        texCoordAttr = interleaved.addGLSLSubArray(AttributeNames.TEXCOORD_ATTR_NAME, 2);
+        st.ownAttribute(verticeAttr, true);
+        st.ownAttribute(texCoordAttr, true);
+    }
+    
+    /**
+     * Assigns an id to each triangle vertex without one, i.e. not part of the vertices list,
+     * and appends it to the vertices list.
+     * @return the new number of vertices
+     */
+    static int addTriangleVertices(ArrayList<Triangle> triangles, ArrayList<Vertex> vertices, int numVertices) {
+        for(int i=0; i<triangles.size(); i++) {
+            final Vertex[] t_vertices = triangles.get(i).getVertices();
+            if(t_vertices[0].getId() == Integer.MAX_VALUE){
+                t_vertices[0].setId(numVertices++);
+                t_vertices[1].setId(numVertices++);
+                t_vertices[2].setId(numVertices++);
+                
+                vertices.add(t_vertices[0]);
+                vertices.add(t_vertices[1]);
+                vertices.add(t_vertices[2]);
+            }
+        }
+        return numVertices;
+    }
+    
+    /**
+     * Lays out the vertices and triangles, selects the index type on first call,
+     * passes the data to GL and resizes the box accordingly.
+     * <p>
+     * Leaves the buffers disabled.
+     * </p>
+     * @return true if data has been passed to GL, i.e. modified
+     */
+    public boolean update(GL2ES2 gl, ArrayList<Triangle> triangles, ArrayList<Vertex> vertices, boolean flipped, AABBox box) {
+        if(null == indices) {
+            intIndices = gl.isGL2GL3();
+            indices = GLArrayDataServer.createData(3, intIndices ? GL2ES2.GL_UNSIGNED_INT : GL.GL_SHORT, initialSize, 
+                                                   GL.GL_STATIC_DRAW, GL.GL_ELEMENT_ARRAY_BUFFER);
+        }
+        fill(triangles, vertices, flipped, box, intIndices ? Integer.MAX_VALUE : MAX_SHORT_VERTICES);
+        
+        boolean modified = putFloats(gl, interleaved, vertexData, vertexCount*COMPONENTS);
+        if(intIndices) {
+            modified |= putInts(gl, indices, indexData, indexCount);
+        } else {
+            modified |= putShorts(gl, indices, indexData, indexCount);
+        }
+        interleaved.enableBuffer(gl, false);
+        indices.enableBuffer(gl, false);
+        return modified;
+    }
+    
+    /**
+     * Lays out the vertices in the interleaved vertex array and the triangles in the index array
+     * and resizes the box accordingly.
+     * <p>
+     * If the vertices exceed <code>maxBatchVertices</code>, the triangles are split into batches,
+     * duplicating vertices referenced by multiple batches.
+     * </p>
+     * <p>
+     * No GL context is required.
+     * </p>
+     */
+    public void fill(ArrayList<Triangle> triangles, ArrayList<Vertex> vertices, boolean flipped, AABBox box, int maxBatchVertices) {
+        final int numVertices = vertices.size();
+        final int numTriangles = triangles.size();
+        final float ySign = flipped ? -1f : 1f;
+        
+        box.reset();
+        indexCount = 3*numTriangles;
+        if(indexData.length < indexCount) {
+            indexData = new int[indexCount];
+        }
+        batchCount = 0;
+        
+        if( numVertices <= maxBatchVertices ) {
+            ensureVertexCapacity(numVertices);
+            for(int i=0; i<numVertices; i++) {
+                putVertex(vertices.get(i), i, ySign, box);
+            }
+            for(int i=0; i<numTriangles; i++) {
+                final Vertex[] t_vertices = triangles.get(i).getVertices();
+                indexData[3*i  ] = t_vertices[0].getId();
+                indexData[3*i+1] = t_vertices[1].getId();
+                indexData[3*i+2] = t_vertices[2].getId();
+            }
+            vertexCount = numVertices;
+            addBatch(0, 0, indexCount);
+            return;
+        }
+        
+        // split into batches, remap[id] is the batch relative index of vertex id if remapBatch[id] is the current batch
+        if(remap.length < numVertices) {
+            remap = new int[numVertices];
+            remapBatch = new int[numVertices];
+        }
+        Arrays.fill(remapBatch, 0, numVertices, -1);
+        ensureVertexCapacity(numVertices);
+        int count = 0;
+        int batchFirstVertex = 0;
+        int batchFirstIndex = 0;
+        for(int i=0; i<numTriangles; i++) {
+            final Vertex[] t_vertices = triangles.get(i).getVertices();
+            int newVertices = 0;
+            for(int j=0; j<3; j++) {
+                if( remapBatch[t_vertices[j].getId()] != batchCount ) {
+                    newVertices++;
+                }
+            }
+            if( count - batchFirstVertex + newVertices > maxBatchVertices ) {
+                addBatch(batchFirstVertex, batchFirstIndex, 3*i - batchFirstIndex);
+                batchFirstVertex = count;
+                batchFirstIndex = 3*i;
+            }
+            for(int j=0; j<3; j++) {
+                final Vertex v = t_vertices[j];
+                final int id = v.getId();
+                if( remapBatch[id] != batchCount ) {
+                    remapBatch[id] = batchCount;
+                    remap[id] = count - batchFirstVertex;
+                    ensureVertexCapacity(count+1);
+                    putVertex(v, count++, ySign, box);
+                }
+                indexData[3*i+j] = remap[id];
+            }
+        }
+        addBatch(batchFirstVertex, batchFirstIndex, indexCount - batchFirstIndex);
+        vertexCount = count;
+    }
+    
+    private void ensureVertexCapacity(int count) {
+        if(vertexData.length < count*COMPONENTS) {
+            vertexData = Arrays.copyOf(vertexData, Math.max(count, vertexData.length/COMPONENTS*3/2)*COMPONENTS);
+        }
+    }
+    
+    private void putVertex(Vertex v, int i, float ySign, AABBox box) {
+        final float x = v.getX(), y = ySign*v.getY(), z = v.getZ();
+        final float[] tex = v.getTexCoord();
+        final int o = i*COMPONENTS;
+        vertexData[o  ] = x;
+        vertexData[o+1] = y;
+        vertexData[o+2] = z;
+        vertexData[o+3] = tex[0];
+        vertexData[o+4] = tex[1];
+        box.resize(x, y, z);
+    }
+    
+    private void addBatch(int firstVertex, int firstIndex, int count) {
+        if(batches.length < 3*(batchCount+1)) {
+            batches = Arrays.copyOf(batches, 2*batches.length);
+        }
+        batches[3*batchCount  ] = firstVertex;
+        batches[3*batchCount+1] = firstIndex;
+        batches[3*batchCount+2] = count;
+        batchCount++;
+    }
+    
+    private static boolean isWritten(GLArrayDataServer data, int components) {
+        return data.sealed() && data.isVBOWritten() && data.getElementNumber()*data.getComponentNumber() == components;
+    }
+    
+    private static boolean putFloats(GL2ES2 gl, GLArrayDataServer data, float[] src, int n) {
+        final int c = data.getComponentNumber();
+        if( isWritten(data, n) ) {
+            final FloatBuffer b = (FloatBuffer) data.getBuffer();
+            int lo = n, hi = -1;
+            for(int i=0; i<n; i++) {
+                if( b.get(i) != src[i] ) {
+                    lo = Math.min(lo, i);
+                    hi = i;
+                }
+            }
+            if( lo > hi ) {
+                return false;
+            }
+            lo /= c; hi /= c;
+            final FloatBuffer d = b.duplicate();
+            d.position(lo*c);
+            d.put(src, lo*c, (hi-lo+1)*c);
+            data.updateVBORange(gl, lo, hi-lo+1);
+        } else {
+            data.seal(gl, false);
+            data.rewind();
+            data.putf(src, 0, n);
+            data.seal(gl, true);
+        }
+        return true;
+    }
+    
+    private static boolean putInts(GL2ES2 gl, GLArrayDataServer data, int[] src, int n) {
+        final int c = data.getComponentNumber();
+        if( isWritten(data, n) ) {
+            final IntBuffer b = (IntBuffer) data.getBuffer();
+            int lo = n, hi = -1;
+            for(int i=0; i<n; i++) {
+                if( b.get(i) != src[i] ) {
+                    lo = Math.min(lo, i);
+                    hi = i;
+                }
+            }
+            if( lo > hi ) {
+                return false;
+            }
+            lo /= c; hi /= c;
+            final IntBuffer d = b.duplicate();
+            d.position(lo*c);
+            d.put(src, lo*c, (hi-lo+1)*c);
+            data.updateVBORange(gl, lo, hi-lo+1);
+        } else {
+            data.seal(gl, false);
+            data.rewind();
+            data.put(IntBuffer.wrap(src, 0, n));
+            data.seal(gl, true);
+        }
+        return true;
+    }
+    
+    private boolean putShorts(GL2ES2 gl, GLArrayDataServer data, int[] src, int n) {
+        final int c = data.getComponentNumber();
+        if( isWritten(data, n) ) {
+            final ShortBuffer b = (ShortBuffer) data.getBuffer();
+            int lo = n, hi = -1;
+            for(int i=0; i<n; i++) {
+                if( b.get(i) != (short) src[i] ) {
+                    lo = Math.min(lo, i);
+                    hi = i;
+                }
+            }
+            if( lo > hi ) {
+                return false;
+            }
+            lo /= c; hi /= c;
+            for(int i=lo*c; i<(hi+1)*c; i++) {
+                b.put(i, (short) src[i]);
+            }
+            data.updateVBORange(gl, lo, hi-lo+1);
+        } else {
+            if(shortData.length < n) {
+                shortData = new short[n];
+            }
+            for(int i=0; i<n; i++) {
+                shortData[i] = (short) src[i];
+            }
+            data.seal(gl, false);
+            data.rewind();
+            data.put(ShortBuffer.wrap(shortData, 0, n));
+            data.seal(gl, true);
+        }
+        return true;
+    }
+    
+    /** Draws all triangles, one draw call per batch. */
+    public void draw(GL2ES2 gl) {
+        if(null == indices) {
+            return;
+        }
+        interleaved.enableBuffer(gl, true);
+        indices.enableBuffer(gl, true);
+        
+        final int type = intIndices ? GL2ES2.GL_UNSIGNED_INT : GL2ES2.GL_UNSIGNED_SHORT;
+        if( 1 == batchCount ) {
+            gl.glDrawElements(GL2ES2.GL_TRIANGLES, indexCount, type, 0);
+        } else {
+            final int indexSize = intIndices ? 4 : 2;
+            final int vLoc = verticeAttr.getLocation();
+            final int tLoc = texCoordAttr.getLocation();
+            for(int i=0; i<batchCount; i++) {
+                final long offset = (long) batches[3*i] * STRIDE_B;
+                if(0 <= vLoc) {
+                    gl.glVertexAttribPointer(vLoc, 3, GL.GL_FLOAT, false, STRIDE_B, offset);
+                }
+                if(0 <= tLoc) {
+                    gl.glVertexAttribPointer(tLoc, 2, GL.GL_FLOAT, false, STRIDE_B, offset + TEXCOORD_OFFSET_B);
+                }
+                gl.glDrawElements(GL2ES2.GL_TRIANGLES, batches[3*i+2], type, (long) batches[3*i+1] * indexSize);
+            }
+        }
+        
+        interleaved.enableBuffer(gl, false);
+        indices.enableBuffer(gl, false);
+    }
+    
+    public final int getVertexCount() { return vertexCount; }
+    public final int getIndexCount() { return indexCount; }
+    public final int getBatchCount() { return batchCount; }
+    /** @return the first vertex of batch <code>i</code>, the base of its relative indices */
+    public final int getBatchFirstVertex(int i) { return batches[3*i]; }
+    public final int getBatchFirstIndex(int i) { return batches[3*i+1]; }
+    public final int getBatchIndexCount(int i) { return batches[3*i+2]; }
+    public final boolean isIntIndices() { return intIndices; }
+    /** @return the bytes per index */
+    public final int getIndexSize() { return intIndices ? 4 : 2; }
+    /** 
+     * @return the size of the passed vertex and index data in bytes, 
+     *         including the vertices duplicated by batch splitting 
+     */
+    public final int getByteSize() { return vertexCount * STRIDE_B + indexCount * getIndexSize(); }
+    public final float[] getVertexData() { return vertexData; }
+    public final int[] getIndexData() { return indexData; }
+    
+    public void destroy(GL2ES2 gl, ShaderState st) {
+        if(null != interleaved) {
+            st.ownAttribute(verticeAttr, false);
+            st.ownAttribute(texCoordAttr, false);
+            interleaved.destroy(gl);
+            interleaved = null;
+        }
+        if(null != indices) {
+            indices.destroy(gl);
+            indices = null;
+        }
+    }
+}
@@ -29,17 +29,13 @@ package jogamp.graph.curve.opengl;
 
 import java.util.ArrayList;
 
-import javax.media.opengl.GL;
 import javax.media.opengl.GL2ES2;
 
-import jogamp.graph.curve.opengl.shader.AttributeNames;
-
 import com.jogamp.graph.curve.Region;
 import com.jogamp.graph.curve.opengl.RenderState;
 import com.jogamp.graph.geom.AABBox;
 import com.jogamp.graph.geom.Vertex;
 import com.jogamp.graph.geom.Triangle;
-import com.jogamp.opengl.util.GLArrayDataServer;
 import com.jogamp.opengl.util.glsl.ShaderState;
 
 public class VBORegionSPES2  implements Region {
@@ -47,9 +43,7 @@ public class VBORegionSPES2  implements Region {
     
     private ArrayList<Triangle> triangles = new ArrayList<Triangle>();
     private ArrayList<Vertex> vertices = new ArrayList<Vertex>();
-    private GLArrayDataServer verticeAttr = null;
-    private GLArrayDataServer texCoordAttr = null;
-    private GLArrayDataServer indices = null;
+    private VBORegionBuffers buffers = null;
     
     private boolean flipped = false;
     private boolean dirty = true;
@@ -60,17 +54,8 @@ public class VBORegionSPES2  implements Region {
         box = new AABBox();
         
         final int initialSize = 256;
-        final ShaderState st = rs.getShaderState();
-        
-        indices = GLArrayDataServer.createData(3, GL2ES2.GL_SHORT, initialSize, GL.GL_STATIC_DRAW, GL.GL_ELEMENT_ARRAY_BUFFER);
-        
-        verticeAttr = GLArrayDataServer.createGLSL(st, AttributeNames.VERTEX_ATTR_NAME, 3, 
-                                                   GL2ES2.GL_FLOAT, false, initialSize, GL.GL_STATIC_DRAW);         
-        st.ownAttribute(verticeAttr, true);
         
-        texCoordAttr = GLArrayDataServer.createGLSL(st, AttributeNames.TEXCOORD_ATTR_NAME, 2, 
-                                                    GL2ES2.GL_FLOAT, false, initialSize, GL.GL_STATIC_DRAW);
-        st.ownAttribute(texCoordAttr, true);
+        buffers = new VBORegionBuffers(rs.getShaderState(), initialSize);
         
         if(DEBUG_INSTANCE) {
             System.err.println("VBORegionSPES2 Create: " + this);
@@ -82,68 +67,9 @@ public class VBORegionSPES2  implements Region {
             return; 
         }
         
-        // process triangles
-        indices.seal(gl, false);
-        indices.rewind();        
-        for(Triangle t:triangles){
-            final Vertex[] t_vertices = t.getVertices();
-            
-            if(t_vertices[0].getId() == Integer.MAX_VALUE){
-                t_vertices[0].setId(numVertices++);
-                t_vertices[1].setId(numVertices++);
-                t_vertices[2].setId(numVertices++);
-                                
-                vertices.add(t.getVertices()[0]);
-                vertices.add(t.getVertices()[1]);
-                vertices.add(t.getVertices()[2]);
-
-                indices.puts((short) t.getVertices()[0].getId());
-                indices.puts((short) t.getVertices()[1].getId());
-                indices.puts((short) t.getVertices()[2].getId());
-            }
-            else{
-                Vertex v1 = t_vertices[0];
-                Vertex v2 = t_vertices[1];
-                Vertex v3 = t_vertices[2];
-                
-                indices.puts((short) v1.getId());
-                indices.puts((short) v2.getId());
-                indices.puts((short) v3.getId());
-            }
-        }
-        indices.seal(gl, true);
-        indices.enableBuffer(gl, false);
-        
-        // process vertices and update bbox
-        box.reset();
-        verticeAttr.seal(gl, false); 
-        verticeAttr.rewind();
-        texCoordAttr.seal(gl, false);
-        texCoordAttr.rewind();
-        for(Vertex v:vertices){            
-            if(flipped){
-                verticeAttr.putf(v.getX());
-                verticeAttr.putf(-1*v.getY());
-                verticeAttr.putf(v.getZ());
-                
-                box.resize(v.getX(),-1*v.getY(),v.getZ());
-            }
-            else{
-                verticeAttr.putf(v.getX());
-                verticeAttr.putf(v.getY());
-                verticeAttr.putf(v.getZ());
-                
-                box.resize(v.getX(),v.getY(),v.getZ());
-            }
-            
-            final float[] tex = v.getTexCoord();
-            texCoordAttr.putf(tex[0]);
-            texCoordAttr.putf(tex[1]);
-        }
-        verticeAttr.seal(gl, true);        
-        verticeAttr.enableBuffer(gl, false);
-        texCoordAttr.seal(gl, true);
-        texCoordAttr.enableBuffer(gl, false);
+        // process triangles and vertices, update bbox
+        numVertices = VBORegionBuffers.addTriangleVertices(triangles, vertices, numVertices);
+        buffers.update(gl, triangles, vertices, flipped, box);
         
         // update all bbox related data: nope
         
@@ -153,21 +79,16 @@ public class VBORegionSPES2  implements Region {
     }
     
     private void render(GL2ES2 gl) {
-        verticeAttr.enableBuffer(gl, true);       
-        texCoordAttr.enableBuffer(gl, true);
-        indices.enableBuffer(gl, true);
-        
-        gl.glDrawElements(GL2ES2.GL_TRIANGLES, indices.getElementNumber() * indices.getComponentNumber(), GL2ES2.GL_UNSIGNED_SHORT, 0);         
-        
-        verticeAttr.enableBuffer(gl, false);       
-        texCoordAttr.enableBuffer(gl, false);
-        indices.enableBuffer(gl, false);
+        buffers.draw(gl);
     }
     
     public void render(GL2ES2 gl, RenderState rs, int vp_width, int vp_height, int width) {
         render(gl);
     }
     
+    public void prepare(GL2ES2 gl, RenderState rs, int vp_width, int vp_height, int width) {
+    }
+    
     public void addTriangles(ArrayList<Triangle> tris) {
         triangles.addAll(tris);
         dirty = true;
@@ -183,28 +104,28 @@ public class VBORegionSPES2  implements Region {
         dirty = true;
     }
     
+    public int getByteSize() {
+        return null != buffers ? buffers.getByteSize() : 0;
+    }
+    
     public boolean isDirty(){
         return dirty;
     }
     
+    public void clear() {
+        triangles.clear();
+        vertices.clear();
+        numVertices = 0;
+        dirty = true;
+    }
+    
     public final void destroy(GL2ES2 gl, RenderState rs) {
         if(DEBUG_INSTANCE) {
             System.err.println("VBORegionSPES2 Destroy: " + this);
         }        
-        final ShaderState st = rs.getShaderState();
-        if(null != verticeAttr) {
-            st.ownAttribute(verticeAttr, false);
-            verticeAttr.destroy(gl);
-            verticeAttr = null;
-        }
-        if(null != texCoordAttr) {
-            st.ownAttribute(texCoordAttr, false);
-            texCoordAttr.destroy(gl);
-            texCoordAttr = null;
-        }
-        if(null != indices) {
-            indices.destroy(gl);
-            indices = null;
+        if(null != buffers) {
+            buffers.destroy(gl, rs.getShaderState());
+            buffers = null;
         }
     }
     
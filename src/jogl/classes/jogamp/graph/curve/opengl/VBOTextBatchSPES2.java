@@ -0,0 +1,186 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.graph.curve.opengl;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2ES2;
+
+import jogamp.graph.curve.opengl.shader.AttributeNames;
+import jogamp.graph.curve.text.GlyphMesh;
+
+import com.jogamp.graph.curve.Region;
+import com.jogamp.graph.curve.opengl.RenderState;
+import com.jogamp.opengl.util.GLArrayDataServer;
+import com.jogamp.opengl.util.glsl.ShaderState;
+
+/**
+ * Single pass batch of {@link GlyphMesh}es, rendered w/ one shared set of growable VBOs.
+ * <p>
+ * Glyph meshes are scaled, translated and flipped while being copied into the batch,
+ * see {@link #add(GL2ES2, GlyphMesh, float, float, float, float)}.
+ * All added glyphs are rendered with one draw call by {@link #flush(GL2ES2)}.
+ * Since the indices are unsigned shorts, a batch exceeding {@link #MAX_VERTICES} is flushed implicitly.
+ * </p>
+ */
+public class VBOTextBatchSPES2 {
+    /** Maximum number of vertices drawn at once, limited by the unsigned short indices */
+    public static final int MAX_VERTICES = 1 << 16;
+    
+    private GLArrayDataServer verticeAttr = null;
+    private GLArrayDataServer texCoordAttr = null;
+    private GLArrayDataServer indices = null;
+    
+    private int numVertices = 0;
+    private int numIndices = 0;
+    private int drawCount = 0;
+    private boolean editing = false;
+    
+    public VBOTextBatchSPES2(RenderState rs) {
+        final int initialSize = 1024;
+        final ShaderState st = rs.getShaderState();
+        
+        indices = GLArrayDataServer.createData(3, GL2ES2.GL_SHORT, initialSize, GL.GL_STREAM_DRAW, GL.GL_ELEMENT_ARRAY_BUFFER);
+        
+        verticeAttr = GLArrayDataServer.createGLSL(st, AttributeNames.VERTEX_ATTR_NAME, 3, 
+                                                   GL2ES2.GL_FLOAT, false, initialSize, GL.GL_STREAM_DRAW);         
+        st.ownAttribute(verticeAttr, true);
+        
+        texCoordAttr = GLArrayDataServer.createGLSL(st, AttributeNames.TEXCOORD_ATTR_NAME, 2, 
+                                                    GL2ES2.GL_FLOAT, false, initialSize, GL.GL_STREAM_DRAW);
+        st.ownAttribute(texCoordAttr, true);
+        
+        if(Region.DEBUG_INSTANCE) {
+            System.err.println("VBOTextBatchSPES2 Create: " + this);
+        }        
+    }
+    
+    private void beginEdit(GL2ES2 gl) {
+        indices.seal(gl, false);
+        indices.rewind();
+        verticeAttr.seal(gl, false);
+        verticeAttr.rewind();
+        texCoordAttr.seal(gl, false);
+        texCoordAttr.rewind();
+        editing = true;
+    }
+    
+    /**
+     * Appends the given glyph mesh.
+     * 
+     * @param mesh the unscaled glyph mesh
+     * @param x x-coordinate of the glyph origin
+     * @param y y-coordinate of the glyph origin, the mesh's y-coordinates are flipped, i.e. {@code y=-y}
+     * @param z z-coordinate of the glyph origin
+     * @param scale the glyph's scale for the font size
+     */
+    public void add(GL2ES2 gl, GlyphMesh mesh, float x, float y, float z, float scale) {
+        final int meshVertices = mesh.getVertexCount();
+        if( 0 == meshVertices ) {
+            return;
+        }
+        if( numVertices + meshVertices > MAX_VERTICES ) {
+            flush(gl);
+        }
+        if( !editing ) {
+            beginEdit(gl);
+        }
+        final float[] vertices = mesh.getVertices();
+        final float[] texCoords = mesh.getTexCoords();
+        for(int i=0; i<meshVertices; i++) {
+            verticeAttr.putf(x + vertices[i*3+0]*scale);
+            verticeAttr.putf(y - vertices[i*3+1]*scale);
+            verticeAttr.putf(z + vertices[i*3+2]*scale);
+            texCoordAttr.putf(texCoords[i*2+0]);
+            texCoordAttr.putf(texCoords[i*2+1]);
+        }
+        final short[] meshIndices = mesh.getIndices();
+        for(int i=0; i<meshIndices.length; i++) {
+            indices.puts((short) ( numVertices + ( meshIndices[i] & 0xFFFF ) ));
+        }
+        numVertices += meshVertices;
+        numIndices += meshIndices.length;
+    }
+    
+    /**
+     * Renders all added glyphs with one draw call and clears the batch.
+     */
+    public void flush(GL2ES2 gl) {
+        if( !editing ) {
+            return;
+        }
+        editing = false;
+        if( 0 < numIndices ) {
+            indices.seal(gl, true);
+            verticeAttr.seal(gl, true);
+            texCoordAttr.seal(gl, true);
+            
+            verticeAttr.enableBuffer(gl, true);       
+            texCoordAttr.enableBuffer(gl, true);
+            indices.enableBuffer(gl, true);
+            
+            gl.glDrawElements(GL2ES2.GL_TRIANGLES, numIndices, GL2ES2.GL_UNSIGNED_SHORT, 0);         
+            
+            verticeAttr.enableBuffer(gl, false);       
+            texCoordAttr.enableBuffer(gl, false);
+            indices.enableBuffer(gl, false);
+            drawCount++;
+        }
+        numVertices = 0;
+        numIndices = 0;
+    }
+    
+    /** @return number of pending vertices */
+    public final int getVertexCount() { return numVertices; }
+    
+    /** @return number of draw calls issued since creation */
+    public final int getDrawCount() { return drawCount; }
+    
+    public final void destroy(GL2ES2 gl, RenderState rs) {
+        if(Region.DEBUG_INSTANCE) {
+            System.err.println("VBOTextBatchSPES2 Destroy: " + this);
+        }        
+        final ShaderState st = rs.getShaderState();
+        if(null != verticeAttr) {
+            st.ownAttribute(verticeAttr, false);
+            verticeAttr.destroy(gl);
+            verticeAttr = null;
+        }
+        if(null != texCoordAttr) {
+            st.ownAttribute(texCoordAttr, false);
+            texCoordAttr.destroy(gl);
+            texCoordAttr = null;
+        }
+        if(null != indices) {
+            indices.destroy(gl);
+            indices = null;
+        }
+        editing = false;
+        numVertices = 0;
+        numIndices = 0;
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.graph.curve.text;
+
+import java.util.ArrayList;
+
+import jogamp.graph.font.FontInt;
+
+import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.Vertex;
+
+/**
+ * Triangulated geometry of a single glyph in unscaled font units,
+ * i.e. independent of the font size.
+ * <p>
+ * The vertices are stored as plain arrays, ready to be scaled, translated
+ * and copied into a shared VBO, see {@link GlyphMeshCache}.
+ * </p>
+ */
+public class GlyphMesh {
+    /** Mesh w/o geometry, e.g. for glyphs w/o outline */
+    public static final GlyphMesh EMPTY = new GlyphMesh(new float[0], new float[0], new short[0]);
+    
+    private final float[] vertices;
+    private final float[] texCoords;
+    private final short[] indices;
+    
+    private GlyphMesh(float[] vertices, float[] texCoords, short[] indices) {
+        this.vertices = vertices;
+        this.texCoords = texCoords;
+        this.indices = indices;
+    }
+    
+    /**
+     * Triangulates the unscaled outline of the given glyph.
+     * 
+     * @param pointFactory the vertex factory used for triangulation 
+     * @param glyph the glyph
+     * @param sharpness the curvature sharpness of the triangulation
+     * @return the glyph mesh, {@link #EMPTY} if the glyph has no outline
+     */
+    public static GlyphMesh create(Vertex.Factory<? extends Vertex> pointFactory, FontInt.Glyph glyph, float sharpness) {
+        if(null == glyph.getPath()) {
+            return EMPTY;
+        }
+        final GlyphShape glyphShape = new GlyphShape(pointFactory, glyph.getPath().iterator(null));
+        if(glyphShape.getNumVertices() < 3) {
+            return EMPTY;
+        }
+        final ArrayList<Triangle> triangles = glyphShape.triangulate(sharpness);
+        
+        // outline vertices first, then the ones created by the triangulation,
+        // see VBORegionSPES2.update(..)
+        final ArrayList<Vertex> vertices = new ArrayList<Vertex>(glyphShape.getVertices());
+        int numVertices = 0;
+        for(Vertex v:vertices) {
+            v.setId(numVertices++);
+        }
+        final short[] indices = new short[triangles.size()*3];
+        int idx = 0;
+        for(Triangle t:triangles) {
+            final Vertex[] t_vertices = t.getVertices();
+            if(t_vertices[0].getId() == Integer.MAX_VALUE) {
+                for(int i=0; i<3; i++) {
+                    t_vertices[i].setId(numVertices++);
+                    vertices.add(t_vertices[i]);
+                }
+            }
+            indices[idx++] = (short) t_vertices[0].getId();
+            indices[idx++] = (short) t_vertices[1].getId();
+            indices[idx++] = (short) t_vertices[2].getId();
+        }
+        
+        final float[] coords = new float[numVertices*3];
+        final float[] texCoords = new float[numVertices*2];
+        for(int i=0; i<numVertices; i++) {
+            final Vertex v = vertices.get(i);
+            coords[i*3+0] = v.getX();
+            coords[i*3+1] = v.getY();
+            coords[i*3+2] = v.getZ();
+            final float[] tex = v.getTexCoord();
+            texCoords[i*2+0] = tex[0];
+            texCoords[i*2+1] = tex[1];
+        }
+        return new GlyphMesh(coords, texCoords, indices);
+    }
+    
+    /** @return number of vertices */
+    public final int getVertexCount() { return vertices.length / 3; }
+    
+    /** @return number of indices, i.e. 3 per triangle */
+    public final int getIndexCount() { return indices.length; }
+    
+    /** @return the unscaled vertices, 3 components each */
+    public final float[] getVertices() { return vertices; }
+    
+    /** @return the texture coordinates, 2 components each */
+    public final float[] getTexCoords() { return texCoords; }
+    
+    /** @return the triangle indices, relative to this mesh */
+    public final short[] getIndices() { return indices; }
+    
+    /** @return the approximate size in bytes of this mesh's geometry */
+    public final int getByteSize() { 
+        return vertices.length * 4 + texCoords.length * 4 + indices.length * 2;
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.graph.curve.text;
+
+import java.util.HashMap;
+
+import jogamp.graph.font.FontInt;
+
+import com.jogamp.common.util.IntObjectHashMap;
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.geom.Vertex;
+
+/**
+ * Cache of {@link GlyphMesh}es per {@link Font} and glyph ID.
+ * <p>
+ * Since the meshes are font size independent, each glyph is triangulated only once
+ * for a given sharpness. Changing the sharpness clears the cache.
+ * </p>
+ */
+public class GlyphMeshCache {
+    private final HashMap<Font, IntObjectHashMap> fontMeshes = new HashMap<Font, IntObjectHashMap>();
+    private float sharpness = Float.NaN;
+    private int size = 0;
+    private long byteSize = 0;
+    
+    /**
+     * Returns the cached mesh of the given glyph, triangulates the glyph if not yet cached.
+     */
+    public final GlyphMesh get(Vertex.Factory<? extends Vertex> pointFactory, FontInt.Glyph glyph, float sharpness) {
+        if( this.sharpness != sharpness ) {
+            clear();
+            this.sharpness = sharpness;
+        }
+        final Font font = glyph.getFont();
+        IntObjectHashMap meshes = fontMeshes.get(font);
+        if( null == meshes ) {
+            meshes = new IntObjectHashMap();
+            fontMeshes.put(font, meshes);
+        }
+        final int id = glyph.getID() & 0xFFFF;
+        GlyphMesh mesh = (GlyphMesh) meshes.get(id);
+        if( null == mesh ) {
+            mesh = GlyphMesh.create(pointFactory, glyph, sharpness);
+            meshes.put(id, mesh);
+            size++;
+            byteSize += mesh.getByteSize();
+        }
+        return mesh;
+    }
+    
+    /** Removes all meshes */
+    public final void clear() {
+        fontMeshes.clear();
+        size = 0;
+        byteSize = 0;
+    }
+    
+    /** @return number of cached glyph meshes */
+    public final int getSize() { return size; }
+    
+    /** @return approximate size in bytes of all cached glyph meshes */
+    public final long getByteSize() { return byteSize; }
+}
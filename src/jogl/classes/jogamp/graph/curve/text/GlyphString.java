@@ -52,6 +52,7 @@ public class GlyphString {
     private String str = "";
     private String fontname = "";
     private Region region;
+    private int byteSize = 0;
     
     private SVertex origin = new SVertex();
 
@@ -125,6 +126,17 @@ public class GlyphString {
         
         /** initialize the region */
         region.update(gl);
+        
+        // incl. the triangle vertices added by the region and its actual index size
+        byteSize = region.getByteSize();
+    }
+    
+    /** 
+     * @return the size of the GPU buffers of the generated Region in bytes,
+     *         0 if not generated yet.
+     */
+    public int getByteSize() {
+        return byteSize;
     }
     
     /** Generate a Hashcode for this object 
@@ -147,6 +159,13 @@ public class GlyphString {
         region.render(gl, rs, vp_width, vp_height, size);
     }
     
+    /** Prepares the multi pass rendering of the associated Region, 
+     *  see {@link Region#prepare(GL2ES2, RenderState, int, int, int)}.
+     */
+    public void prepareString3D(GL2ES2 gl, RenderState rs, int vp_width, int vp_height, int size) {
+        region.prepare(gl, rs, vp_width, vp_height, size);
+    }
+    
     /** Get the Origin of this GlyphString
      * @return 
      */
@@ -41,6 +41,7 @@ public interface FontInt extends Font {
         public static final int ID_CR = 2;
         public static final int ID_SPACE = 3;
                 
+        public short getID();
         public Path2D getPath();  // unscaled path
         public Path2D getPath(float pixelSize);         
     }
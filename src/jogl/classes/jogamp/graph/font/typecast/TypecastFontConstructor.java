@@ -30,11 +30,13 @@ package jogamp.graph.font.typecast;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.security.AccessController;
 
 import javax.media.opengl.GLException;
 
 import jogamp.graph.font.FontConstructor;
 import jogamp.graph.font.typecast.ot.OTFontCollection;
+import jogamp.opengl.Debug;
 
 
 import com.jogamp.common.util.IOUtil;
@@ -43,10 +45,21 @@ import com.jogamp.graph.font.Font;
 
 public class TypecastFontConstructor implements FontConstructor  {
 
+    /**
+     * If true, font files are memory mapped and their glyphs are parsed on first use,
+     * see {@link OTFontCollection#create(File, boolean)}.
+     * Fonts loaded from an URL are always read eagerly, since their temporary file is deleted.
+     */
+    static final boolean LAZY = Debug.isPropertyDefined("jogl.font.lazy", true, AccessController.getContext());
+
     public Font create(File ffile) throws IOException {
+        return create(ffile, LAZY);
+    }
+
+    private Font create(File ffile, boolean lazy) throws IOException {
         OTFontCollection fontset;        
         try {
-            fontset = OTFontCollection.create(ffile);
+            fontset = OTFontCollection.create(ffile, lazy);
             return new TypecastFont(fontset);
         } catch (IOException e) {
             e.printStackTrace();
@@ -61,7 +74,7 @@ public class TypecastFontConstructor implements FontConstructor  {
             tf.delete();
             throw new GLException("Font of stream "+furl+" was zero bytes");
         }
-        final Font f = create(tf);
+        final Font f = create(tf, false);
         tf.delete();
         return f;
     }
@@ -52,6 +52,7 @@ package jogamp.graph.font.typecast.ot;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import jogamp.graph.font.typecast.ot.table.CmapTable;
 import jogamp.graph.font.typecast.ot.table.DirectoryEntry;
@@ -196,21 +197,34 @@ public class OTFont {
         return _tableDirectory;
     }
     
+    /**
+     * @return a slice of the given font data covering the table of the given entry
+     */
+    private static ByteBuffer getTableData(
+            ByteBuffer data,
+            int tablesOrigin,
+            DirectoryEntry entry) {
+        final ByteBuffer tableData = data.duplicate();
+        final int offset = tablesOrigin + entry.getOffset();
+        tableData.position(offset);
+        tableData.limit(offset + entry.getLength());
+        return tableData.slice();
+    }
+
     private Table readTable(
-            DataInputStream dis,
+            ByteBuffer data,
             int tablesOrigin,
             int tag) throws IOException {
-        dis.reset();
         DirectoryEntry entry = _tableDirectory.getEntryByTag(tag);
         if (entry == null) {
             return null;
         }
-        dis.skip(tablesOrigin + entry.getOffset());
-        return TableFactory.create(_fc, this, entry, dis);
+        return TableFactory.create(_fc, this, entry, getTableData(data, tablesOrigin, entry));
     }
 
     /**
-     * @param dis OpenType/TrueType font file data.
+     * @param data OpenType/TrueType font file data.  The 'glyf' and 'CFF' tables
+     * keep a reference to their slice of it for parsing glyphs on demand.
      * @param directoryOffset The Table Directory offset within the file.  For a
      * regular TTF/OTF file this will be zero, but for a TTC (Font Collection)
      * the offset is retrieved from the TTC header.  For a Mac font resource,
@@ -221,22 +235,22 @@ public class OTFont {
      * individual font resource data.
      */
     protected void read(
-            DataInputStream dis,
+            ByteBuffer data,
             int directoryOffset,
             int tablesOrigin) throws IOException {
         
         // Load the table directory
-        dis.reset();
-        dis.skip(directoryOffset);
-        _tableDirectory = new TableDirectory(dis);
+        final ByteBuffer directoryData = data.duplicate();
+        directoryData.position(directoryOffset);
+        _tableDirectory = new TableDirectory(new DataInputStream(new ByteBufferInputStream(directoryData)));
         _tables = new Table[_tableDirectory.getNumTables()];
         
         // Load some prerequisite tables
-        _head = (HeadTable) readTable(dis, tablesOrigin, Table.head);
-        _hhea = (HheaTable) readTable(dis, tablesOrigin, Table.hhea);
-        _maxp = (MaxpTable) readTable(dis, tablesOrigin, Table.maxp);
-        _loca = (LocaTable) readTable(dis, tablesOrigin, Table.loca);
-        _vhea = (VheaTable) readTable(dis, tablesOrigin, Table.vhea);
+        _head = (HeadTable) readTable(data, tablesOrigin, Table.head);
+        _hhea = (HheaTable) readTable(data, tablesOrigin, Table.hhea);
+        _maxp = (MaxpTable) readTable(data, tablesOrigin, Table.maxp);
+        _loca = (LocaTable) readTable(data, tablesOrigin, Table.loca);
+        _vhea = (VheaTable) readTable(data, tablesOrigin, Table.vhea);
 
         int index = 0;
         _tables[index++] = _head;
@@ -259,9 +273,7 @@ public class OTFont {
                     || entry.getTag() == Table.vhea) {
                 continue;
             }
-            dis.reset();
-            dis.skip(tablesOrigin + entry.getOffset());
-            _tables[index] = TableFactory.create(_fc, this, entry, dis);
+            _tables[index] = TableFactory.create(_fc, this, entry, getTableData(data, tablesOrigin, entry));
             ++index;
         }
 
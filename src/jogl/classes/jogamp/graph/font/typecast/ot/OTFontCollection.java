@@ -21,10 +21,11 @@
 package jogamp.graph.font.typecast.ot;
 
 import java.io.File;
-import java.io.BufferedInputStream;
 import java.io.DataInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import java.util.ArrayList;
 
@@ -50,6 +51,8 @@ public class OTFontCollection {
     private OTFont[] _fonts;
     private ArrayList<Table> _tables = new ArrayList<Table>();
     private boolean _resourceFork = false;
+    private ByteBuffer _data;
+    private boolean _lazy = false;
 
     /** Creates new FontCollection */
     protected OTFontCollection() {
@@ -59,7 +62,19 @@ public class OTFontCollection {
      * @param file The OpenType font file
      */
     public static OTFontCollection create(File file) throws IOException {
+        return create(file, false);
+    }
+
+    /**
+     * @param file The OpenType font file
+     * @param lazy if true, the file is memory mapped and the glyph outlines are
+     *        parsed on first access. The file must not be deleted or modified
+     *        while the fonts are in use.
+     *        Otherwise the file is read into memory and all tables are parsed right away.
+     */
+    public static OTFontCollection create(File file, boolean lazy) throws IOException {
         OTFontCollection fc = new OTFontCollection();
+        fc._lazy = lazy;
         fc.read(file);
         return fc;
     }
@@ -80,6 +95,22 @@ public class OTFontCollection {
         return _fonts.length;
     }
     
+    /**
+     * @return the font file's data, shared by all fonts.
+     *         In {@link #isLazy() lazy} mode it is the read-only memory mapped file.
+     */
+    public ByteBuffer getData() {
+        return _data;
+    }
+
+    /**
+     * @return true if the glyph outlines are parsed on first access,
+     *         see {@link #create(File, boolean)}
+     */
+    public boolean isLazy() {
+        return _lazy;
+    }
+
     public TTCHeader getTtcHeader() {
         return _ttcHeader;
     }
@@ -100,6 +131,10 @@ public class OTFontCollection {
     }
 
     /**
+     * Reads the given file into memory and parses its tables.
+     * In {@link #isLazy() lazy} mode the file is mapped read-only instead
+     * and the glyph outlines ('glyf' or 'CFF') are parsed on demand from the mapping.
+     *
      * @param file The OpenType font file
      */
     protected void read(File file) throws IOException {
@@ -120,9 +155,21 @@ public class OTFontCollection {
             _resourceFork = true;
         }
 
-        DataInputStream dis = new DataInputStream(
-            new BufferedInputStream(
-                new FileInputStream(file), (int) file.length()));
+        final FileInputStream fis = new FileInputStream(file);
+        try {
+            final FileChannel fc = fis.getChannel();
+            if (_lazy) {
+                // The mapping stays valid after closing the channel
+                _data = fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size());
+            } else {
+                final byte[] buf = new byte[(int) fc.size()];
+                new DataInputStream(fis).readFully(buf);
+                _data = ByteBuffer.wrap(buf);
+            }
+        } finally {
+            fis.close();
+        }
+        DataInputStream dis = new DataInputStream(new ByteBufferInputStream(_data));
         dis.mark((int) file.length());
 
         if (_resourceFork || _pathName.endsWith(".dfont")) {
@@ -145,7 +192,7 @@ public class OTFontCollection {
                 _fonts[i] = new OTFont(this);
                 int offset = resourceHeader.getDataOffset() +
                         resourceReference.getDataOffset() + 4;
-                _fonts[i].read(dis, offset, offset);
+                _fonts[i].read(_data, offset, offset);
             }
 
         } else if (TTCHeader.isTTC(dis)) {
@@ -156,14 +203,14 @@ public class OTFontCollection {
             _fonts = new OTFont[_ttcHeader.getDirectoryCount()];
             for (int i = 0; i < _ttcHeader.getDirectoryCount(); i++) {
                 _fonts[i] = new OTFont(this);
-                _fonts[i].read(dis, _ttcHeader.getTableDirectory(i), 0);
+                _fonts[i].read(_data, _ttcHeader.getTableDirectory(i), 0);
             }
         } else {
 
             // This is a standalone font file
             _fonts = new OTFont[1];
             _fonts[0] = new OTFont(this);
-            _fonts[0].read(dis, 0, 0);
+            _fonts[0].read(_data, 0, 0);
         }
         dis.close();
     }
@@ -20,16 +20,18 @@
 
 package jogamp.graph.font.typecast.ot.table;
 
-import java.io.ByteArrayInputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.Enumeration;
 import java.util.Hashtable;
 
+import jogamp.graph.font.typecast.ot.ByteBufferInputStream;
+
 /**
  * Compact Font Format Table
  * @version $Id: CffTable.java,v 1.4 2007-07-26 11:15:06 davidsch Exp $
@@ -186,8 +188,18 @@ public class CffTable implements Table {
         private int _offSize;
         private int[] _offset;
         private int[] _data;
+        private int _dataOffset;
         
         protected Index(DataInput di) throws IOException {
+            this(di, -1);
+        }
+
+        /**
+         * @param indexOffset if &ge; 0, the INDEX's offset within the table.
+         *        The object data is not read but fetched from the table's data on demand,
+         *        see {@link #getData(int)}.
+         */
+        protected Index(DataInput di, int indexOffset) throws IOException {
             _count = di.readUnsignedShort();
             _offset = new int[_count + 1];
             _offSize = di.readUnsignedByte();
@@ -198,9 +210,15 @@ public class CffTable implements Table {
                 }
                 _offset[i] = thisOffset;
             }
-            _data = new int[getDataLength()];
-            for (int i = 0; i < getDataLength(); ++i) {
-                _data[i] = di.readUnsignedByte();
+            if (indexOffset >= 0) {
+                // count, offSize and offset array, object data offsets are 1-based
+                _dataOffset = indexOffset + 3 + (_count + 1) * _offSize - 1;
+                _data = null;
+            } else {
+                _data = new int[getDataLength()];
+                for (int i = 0; i < getDataLength(); ++i) {
+                    _data[i] = di.readUnsignedByte();
+                }
             }
         }
         
@@ -217,9 +235,26 @@ public class CffTable implements Table {
         }
         
         public int[] getData() {
+            if (null == _data) {
+                _data = readData(_dataOffset + 1, getDataLength());
+            }
             return _data;
         }
 
+        /**
+         * @return the data of the given object, w/o reading the whole INDEX
+         */
+        public int[] getData(int index) {
+            final int offset = _offset[index];
+            final int len = _offset[index + 1] - offset;
+            if (null != _data) {
+                final int[] res = new int[len];
+                System.arraycopy(_data, offset - 1, res, 0, len);
+                return res;
+            }
+            return readData(_dataOffset + offset, len);
+        }
+
         public String toString() {
             StringBuffer sb = new StringBuffer();
             sb.append("DICT\n");
@@ -229,13 +264,14 @@ public class CffTable implements Table {
                 sb.append("offset[").append(i).append("]: ").append(_offset[i]).append("\n");
             }
             sb.append("data:");
-            for (int i = 0; i < _data.length; ++i) {
+            final int[] data = getData();
+            for (int i = 0; i < data.length; ++i) {
                 if (i % 8 == 0) {
                     sb.append("\n");
                 } else {
                     sb.append(" ");
                 }
-                sb.append(_data[i]);
+                sb.append(data[i]);
             }
             sb.append("\n");
             return sb.toString();
@@ -483,15 +519,20 @@ public class CffTable implements Table {
     private Charset[] _charsets;
     private Charstring[][] _charstringsArray;
 
-    private byte[] _buf;
+    private ByteBuffer _buf;
 
-    /** Creates a new instance of CffTable */
-    protected CffTable(DirectoryEntry de, DataInput di) throws IOException {
+    /**
+     * Creates a new instance of CffTable.
+     * <p>
+     * In lazy mode only the header, the dictionaries and the charsets are read,
+     * the charstrings are parsed on demand, see {@link #getCharstring(int, int)}.
+     * </p>
+     */
+    protected CffTable(DirectoryEntry de, ByteBuffer data, boolean lazy) throws IOException {
         _de = (DirectoryEntry) de.clone();
 
-        // Load entire table into a buffer, and create another input stream
-        _buf = new byte[de.getLength()];
-        di.readFully(_buf);
+        // Keep the table's data for random access
+        _buf = data;
         DataInput di2 = getDataInputForOffset(0);
 
         // Header
@@ -528,7 +569,7 @@ public class CffTable implements Table {
             // of glyphs
             Integer charStringsOffset = (Integer) _topDictIndex.getTopDict(i).getValue(17);
             di2 = getDataInputForOffset(charStringsOffset);
-            _charStringsIndexArray[i] = new Index(di2);
+            _charStringsIndexArray[i] = new Index(di2, lazy ? charStringsOffset : -1);
             int glyphCount = _charStringsIndexArray[i].getCount();
         
             // Charsets
@@ -547,27 +588,37 @@ public class CffTable implements Table {
                     break;
             }
 
-            // Create the charstrings
+            // Create the charstrings, in lazy mode on demand
             _charstringsArray[i] = new Charstring[glyphCount];
-            for (int j = 0; j < glyphCount; ++j) {
-                int offset = _charStringsIndexArray[i].getOffset(j) - 1;
-                int len = _charStringsIndexArray[i].getOffset(j + 1) - offset - 1;
-                _charstringsArray[i][j] = new CharstringType2(
-                        i,
-                        _stringIndex.getString(_charsets[i].getSID(j)),
-                        _charStringsIndexArray[i].getData(),
-                        offset,
-                        len,
-                        null,
-                        null);
+            if (!lazy) {
+                for (int j = 0; j < glyphCount; ++j) {
+                    int offset = _charStringsIndexArray[i].getOffset(j) - 1;
+                    int len = _charStringsIndexArray[i].getOffset(j + 1) - offset - 1;
+                    _charstringsArray[i][j] = new CharstringType2(
+                            i,
+                            _stringIndex.getString(_charsets[i].getSID(j)),
+                            _charStringsIndexArray[i].getData(),
+                            offset,
+                            len,
+                            null,
+                            null);
+                }
             }
         }
     }
     
     private DataInput getDataInputForOffset(int offset) {
-        return new DataInputStream(new ByteArrayInputStream(
-                _buf, offset,
-                _de.getLength() - offset));
+        final ByteBuffer buf = _buf.duplicate();
+        buf.position(offset);
+        return new DataInputStream(new ByteBufferInputStream(buf));
+    }
+
+    private int[] readData(int offset, int len) {
+        final int[] data = new int[len];
+        for (int i = 0; i < len; ++i) {
+            data[i] = _buf.get(offset + i) & 0xFF;
+        }
+        return data;
     }
 
     public NameIndex getNameIndex() {
@@ -578,8 +629,24 @@ public class CffTable implements Table {
         return _charsets[fontIndex];
     }
 
-    public Charstring getCharstring(int fontIndex, int gid) {
-        return _charstringsArray[fontIndex][gid];
+    /**
+     * Returns the charstring, which is created at first access in lazy mode.
+     */
+    public synchronized Charstring getCharstring(int fontIndex, int gid) {
+        Charstring cs = _charstringsArray[fontIndex][gid];
+        if (null == cs) {
+            final int[] data = _charStringsIndexArray[fontIndex].getData(gid);
+            cs = new CharstringType2(
+                    fontIndex,
+                    _stringIndex.getString(_charsets[fontIndex].getSID(gid)),
+                    data,
+                    0,
+                    data.length,
+                    null,
+                    null);
+            _charstringsArray[fontIndex][gid] = cs;
+        }
+        return cs;
     }
     
     public int getCharstringCount(int fontIndex) {
@@ -50,12 +50,17 @@
 
 package jogamp.graph.font.typecast.ot.table;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
+import jogamp.graph.font.typecast.ot.ByteBufferInputStream;
 
 /**
+ * The glyph descriptions are parsed when the table is created, or
+ * in lazy mode on demand from the table's data, see {@link #getDescription(int)}.
+ *
  * @version $Id: GlyfTable.java,v 1.6 2010-08-10 11:46:30 davidsch Exp $
  * @author <a href="mailto:davidsch@dev.java.net">David Schweinsberg</a>
  */
@@ -63,57 +68,89 @@ public class GlyfTable implements Table {
 
     private DirectoryEntry _de;
     private GlyfDescript[] _descript;
+    private ByteBuffer _data;
+    private LocaTable _loca;
+    private BitSet _reading = new BitSet();
 
+    /**
+     * @param lazy if true, the glyph descriptions are parsed on first access,
+     *        otherwise all of them are parsed here.
+     */
     protected GlyfTable(
             DirectoryEntry de,
-            DataInput di,
+            ByteBuffer data,
             MaxpTable maxp,
-            LocaTable loca) throws IOException {
+            LocaTable loca,
+            boolean lazy) throws IOException {
         _de = (DirectoryEntry) de.clone();
         _descript = new GlyfDescript[maxp.getNumGlyphs()];
-        
-        // Buffer the whole table so we can randomly access it
-        byte[] buf = new byte[de.getLength()];
-        di.readFully(buf);
-        ByteArrayInputStream bais = new ByteArrayInputStream(buf);
-        
-        // Process all the simple glyphs
-        for (int i = 0; i < maxp.getNumGlyphs(); i++) {
-            int len = loca.getOffset(i + 1) - loca.getOffset(i);
-            if (len > 0) {
-                bais.reset();
-                bais.skip(loca.getOffset(i));
-                DataInputStream dis = new DataInputStream(bais);
-                short numberOfContours = dis.readShort();
-                if (numberOfContours >= 0) {
-                    _descript[i] = new GlyfSimpleDescript(this, i, numberOfContours, dis);
+        _data = data;
+        _loca = loca;
+        if (!lazy) {
+            for (int i = 0; i < _descript.length; i++) {
+                try {
+                    getDescriptionImpl(i);
+                } catch (RuntimeException e) {
+                    // thrown by a composite's component, see getDescription(int)
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw e;
                 }
-            } else {
-                _descript[i] = null;
             }
         }
+    }
 
-        // Now do all the composite glyphs
-        for (int i = 0; i < maxp.getNumGlyphs(); i++) {
-            int len = loca.getOffset(i + 1) - loca.getOffset(i);
-            if (len > 0) {
-                bais.reset();
-                bais.skip(loca.getOffset(i));
-                DataInputStream dis = new DataInputStream(bais);
-                short numberOfContours = dis.readShort();
-                if (numberOfContours < 0) {
-                    _descript[i] = new GlyfCompositeDescript(this, i, dis);
-                }
+    /**
+     * Returns the glyph description, which is parsed and cached at first access
+     * in lazy mode. Composite glyphs resolve their components recursively.
+     *
+     * @return the glyph description or null if the glyph has no outline
+     * @throws RuntimeException wrapping the IOException of a malformed glyph,
+     *         e.g. a composite glyph referencing itself
+     */
+    public synchronized GlyfDescript getDescription(int i) {
+        try {
+            return getDescriptionImpl(i);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading glyph "+i+", "+_de, e);
+        }
+    }
+
+    private GlyfDescript getDescriptionImpl(int i) throws IOException {
+        if (i >= _descript.length) {
+            return null;
+        }
+        GlyfDescript descript = _descript[i];
+        if (null == descript) {
+            if (_reading.get(i)) {
+                throw new IOException("Cyclic composite glyph "+i);
             }
+            _reading.set(i);
+            try {
+                descript = readDescription(i);
+            } finally {
+                _reading.clear(i);
+            }
+            _descript[i] = descript;
         }
+        return descript;
     }
 
-    public GlyfDescript getDescription(int i) {
-        if (i < _descript.length) {
-            return _descript[i];
-        } else {
+    private GlyfDescript readDescription(int i) throws IOException {
+        int len = _loca.getOffset(i + 1) - _loca.getOffset(i);
+        if (len <= 0) {
             return null;
         }
+        final ByteBuffer glyphData = _data.duplicate();
+        glyphData.position(_loca.getOffset(i));
+        DataInputStream dis = new DataInputStream(new ByteBufferInputStream(glyphData));
+        short numberOfContours = dis.readShort();
+        if (numberOfContours >= 0) {
+            return new GlyfSimpleDescript(this, i, numberOfContours, dis);
+        } else {
+            return new GlyfCompositeDescript(this, i, dis);
+        }
     }
 
     public int getType() {
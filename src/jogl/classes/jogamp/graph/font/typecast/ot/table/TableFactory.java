@@ -52,7 +52,9 @@ package jogamp.graph.font.typecast.ot.table;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
+import jogamp.graph.font.typecast.ot.ByteBufferInputStream;
 import jogamp.graph.font.typecast.ot.OTFont;
 import jogamp.graph.font.typecast.ot.OTFontCollection;
 
@@ -63,11 +65,16 @@ import jogamp.graph.font.typecast.ot.OTFontCollection;
  */
 public class TableFactory {
 
+    /**
+     * @param data the table's data, i.e. a slice of the font file.
+     *        If the font collection is {@link OTFontCollection#isLazy() lazy},
+     *        the 'glyf' and 'CFF' tables keep a reference to parse their glyphs on demand.
+     */
     public static Table create(
             OTFontCollection fc,
             OTFont font,
             DirectoryEntry de,
-            DataInputStream dis) throws IOException {
+            ByteBuffer data) throws IOException {
         Table t = null;
         
         // First, if we have a font collection, look for the table there
@@ -79,12 +86,13 @@ public class TableFactory {
         }
         
         // Create the table
+        final DataInputStream dis = new DataInputStream(new ByteBufferInputStream(data));
         switch (de.getTag()) {
         case Table.BASE:
             t = new BaseTable(de, dis);
             break;
         case Table.CFF:
-            t = new CffTable(de, dis);
+            t = new CffTable(de, data, fc != null && fc.isLazy());
             break;
         case Table.DSIG:
             t = new DsigTable(de, dis);
@@ -136,7 +144,7 @@ public class TableFactory {
             t = new GaspTable(de, dis);
             break;
         case Table.glyf:
-            t = new GlyfTable(de, dis, font.getMaxpTable(), font.getLocaTable());
+            t = new GlyfTable(de, data, font.getMaxpTable(), font.getLocaTable(), fc != null && fc.isLazy());
             break;
         case Table.hdmx:
             t = new HdmxTable(de, dis, font.getMaxpTable());
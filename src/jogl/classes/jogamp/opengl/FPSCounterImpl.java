@@ -28,47 +28,80 @@
 package jogamp.opengl;
 
 import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
 import javax.media.opengl.FPSCounter;
 
 /**
  * Default implementation of FPSCounter to be used for FPSCounter implementing renderer.
+ * <p>
+ * Besides the interval based FPS values, the durations between the last {@link #FRAME_TIME_SAMPLES}
+ * ticks are recorded in nanoseconds, see {@link #getFrameTimePercentile(float)}.
+ * </p>
+ * <p>
+ * {@link #tickFPS()} is lock-free, the interval values are updated by the ticking thread
+ * reaching the update interval and published via volatile fields.
+ * </p>
  */
 public class FPSCounterImpl implements FPSCounter {
-    private int fpsUpdateFramesInterval;
-    private PrintStream fpsOutputStream ;
-    private long fpsStartTime, fpsLastUpdateTime, fpsLastPeriod, fpsTotalDuration;
-    private int  fpsTotalFrames;
-    private float fpsLast, fpsTotal;
-    
+    /** Number of recorded frame times, a power of two */
+    public static final int FRAME_TIME_SAMPLES = 1024;
+    private static final int FRAME_TIME_MASK = FRAME_TIME_SAMPLES - 1;
+
+    private volatile int fpsUpdateFramesInterval;
+    private volatile PrintStream fpsOutputStream ;
+    private volatile long fpsStartTime, fpsLastUpdateTime, fpsLastPeriod, fpsTotalDuration;
+    private volatile long fpsStartNanos, fpsLastUpdateNanos;
+    private final AtomicInteger fpsTotalFrames = new AtomicInteger();
+    private volatile float fpsLast, fpsTotal;
+
+    /** Time of the last tick, 0 if none since reset */
+    private final AtomicLong lastTickNanos = new AtomicLong();
+    private final AtomicLong frameTimeCount = new AtomicLong();
+    private final AtomicLongArray frameTimes = new AtomicLongArray(FRAME_TIME_SAMPLES);
+
     /** Creates a disabled instance */
     public FPSCounterImpl() {
         setUpdateFPSFrames(0, null);
     }
     
     /**
-     * Increases total frame count and updates values if feature is enabled and
+     * Increases total frame count, records the frame time and updates values if feature is enabled and
      * update interval is reached.<br>
      * 
      * Shall be called by actual FPSCounter implementing renderer, after display a new frame.
      *  
      */
-    public final synchronized void tickFPS() {
-        fpsTotalFrames++;
-        if(fpsUpdateFramesInterval>0 && fpsTotalFrames%fpsUpdateFramesInterval == 0) {
-            final long now = System.currentTimeMillis();
-            fpsLastPeriod = now - fpsLastUpdateTime;
-            fpsLastPeriod = Math.max(fpsLastPeriod, 1); // div 0 
-            fpsLast = ( (float)fpsUpdateFramesInterval * 1000f ) / ( (float) fpsLastPeriod ) ; 
+    public final void tickFPS() {
+        final long nowNanos = System.nanoTime();
+        final long lastNanos = lastTickNanos.getAndSet(nowNanos);
+        if(0 != lastNanos) {
+            final long i = frameTimeCount.getAndIncrement();
+            frameTimes.set((int) ( i & FRAME_TIME_MASK ), nowNanos - lastNanos);
+        }
+        final int totalFrames = fpsTotalFrames.incrementAndGet();
+        final int updateFramesInterval = fpsUpdateFramesInterval;
+        if(updateFramesInterval>0 && totalFrames%updateFramesInterval == 0) {
+            long lastPeriod = ( nowNanos - fpsLastUpdateNanos ) / 1000000;
+            lastPeriod = Math.max(lastPeriod, 1); // div 0 
+            fpsLast = ( (float)updateFramesInterval * 1000f ) / ( (float) lastPeriod ) ; 
+            fpsLastPeriod = lastPeriod;
             
-            fpsTotalDuration = now - fpsStartTime;
-            fpsTotalDuration = Math.max(fpsTotalDuration, 1); // div 0
-            fpsTotal= ( (float)fpsTotalFrames * 1000f ) / ( (float) fpsTotalDuration ) ;
+            long totalDuration = ( nowNanos - fpsStartNanos ) / 1000000;
+            totalDuration = Math.max(totalDuration, 1); // div 0
+            fpsTotal= ( (float)totalFrames * 1000f ) / ( (float) totalDuration ) ;
+            fpsTotalDuration = totalDuration;
             
-            if(null != fpsOutputStream) {
-                fpsOutputStream.println(toString());
+            fpsLastUpdateNanos = nowNanos;
+            fpsLastUpdateTime = fpsStartTime + ( nowNanos - fpsStartNanos ) / 1000000;
+
+            final PrintStream out = fpsOutputStream;
+            if(null != out) {
+                out.println(toString());
             }
-            
-            fpsLastUpdateTime = now;
         }
     }
     
@@ -76,12 +109,14 @@ public class FPSCounterImpl implements FPSCounter {
         if(null==sb) {
             sb = new StringBuilder();
         }
+        final int updateFramesInterval = Math.max(1, fpsUpdateFramesInterval);
+        final int totalFrames = Math.max(1, fpsTotalFrames.get());
         String fpsLastS = String.valueOf(fpsLast);
         fpsLastS = fpsLastS.substring(0, fpsLastS.indexOf('.') + 2);
         String fpsTotalS = String.valueOf(fpsTotal);
         fpsTotalS = fpsTotalS.substring(0, fpsTotalS.indexOf('.') + 2);                
-        sb.append(fpsTotalDuration/1000 +" s: "+ fpsUpdateFramesInterval+" f / "+ fpsLastPeriod+" ms, " + fpsLastS+" fps, "+ fpsLastPeriod/fpsUpdateFramesInterval+" ms/f; "+
-                  "total: "+ fpsTotalFrames+" f, "+ fpsTotalS+ " fps, "+ fpsTotalDuration/fpsTotalFrames+" ms/f");
+        sb.append(fpsTotalDuration/1000 +" s: "+ fpsUpdateFramesInterval+" f / "+ fpsLastPeriod+" ms, " + fpsLastS+" fps, "+ fpsLastPeriod/updateFramesInterval+" ms/f; "+
+                  "total: "+ fpsTotalFrames.get()+" f, "+ fpsTotalS+ " fps, "+ fpsTotalDuration/totalFrames+" ms/f");
         return sb;
     }
     
@@ -96,42 +131,112 @@ public class FPSCounterImpl implements FPSCounter {
     }
     
     public final synchronized void resetFPSCounter() {
+        fpsStartNanos = System.nanoTime();
+        fpsLastUpdateNanos = fpsStartNanos;
         fpsStartTime = System.currentTimeMillis(); // overwrite startTime to real init one
         fpsLastUpdateTime   = fpsStartTime;
         fpsLastPeriod = 0;
-        fpsTotalFrames = 0;
+        fpsTotalDuration = 0;
+        fpsTotalFrames.set(0);
         fpsLast = 0f; fpsTotal = 0f;
+        lastTickNanos.set(0);
+        frameTimeCount.set(0);
     }
 
-    public final synchronized int getUpdateFPSFrames() {
+    public final int getUpdateFPSFrames() {
         return fpsUpdateFramesInterval;
     }
     
-    public final synchronized long getFPSStartTime()   { 
+    public final long getFPSStartTime()   { 
         return fpsStartTime; 
     }
 
-    public final synchronized long getLastFPSUpdateTime() {
+    public final long getLastFPSUpdateTime() {
         return fpsLastUpdateTime;
     }
 
-    public final synchronized long getLastFPSPeriod() {
+    public final long getLastFPSPeriod() {
         return fpsLastPeriod;
     }
     
-    public final synchronized float getLastFPS() {
+    public final float getLastFPS() {
         return fpsLast;
     }
     
-    public final synchronized int getTotalFPSFrames() { 
-        return fpsTotalFrames; 
+    public final int getTotalFPSFrames() { 
+        return fpsTotalFrames.get(); 
     }
 
-    public final synchronized long getTotalFPSDuration() { 
+    public final long getTotalFPSDuration() { 
         return fpsTotalDuration; 
     }
     
-    public final synchronized float getTotalFPS() {
+    public final float getTotalFPS() {
         return fpsTotal;
     }        
+
+    /**
+     * Returns a sorted snapshot of the recorded frame times in nanoseconds,
+     * i.e. of up to {@link #FRAME_TIME_SAMPLES} most recent durations between two ticks since the last reset.
+     */
+    public final long[] getFrameTimes() {
+        final int n = (int) Math.min(frameTimeCount.get(), FRAME_TIME_SAMPLES);
+        final long[] res = new long[n];
+        for(int i=0; i<n; i++) {
+            res[i] = frameTimes.get(i);
+        }
+        Arrays.sort(res);
+        return res;
+    }
+
+    /**
+     * Returns the given percentile of the recorded frame times in nanoseconds,
+     * e.g. 0.5f for the median or 0.99f for the 99th percentile, or 0 if no frame time has been recorded yet.
+     * @param p percentile within [0..1]
+     */
+    public final long getFrameTimePercentile(float p) {
+        return percentile(getFrameTimes(), p);
+    }
+
+    /** Returns the longest recorded frame time in nanoseconds, or 0 if none has been recorded yet. */
+    public final long getMaxFrameTime() {
+        final long[] t = getFrameTimes();
+        return t.length > 0 ? t[t.length-1] : 0;
+    }
+
+    /**
+     * Returns the frame time jitter in nanoseconds, i.e. the standard deviation of the
+     * recorded frame times, or 0 if less than two have been recorded.
+     */
+    public final long getFrameTimeJitter() {
+        return jitter(getFrameTimes());
+    }
+
+    /** Returns the <code>p</code> percentile of the given sorted frame times, using the nearest rank. */
+    public static long percentile(long[] sorted, float p) {
+        if(0 == sorted.length) {
+            return 0;
+        }
+        final int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.min(sorted.length - 1, Math.max(0, rank - 1))];
+    }
+
+    /** Returns the standard deviation of the given frame times. */
+    public static long jitter(long[] times) {
+        final int n = times.length;
+        if(n < 2) {
+            return 0;
+        }
+        double sum = 0;
+        for(int i=0; i<n; i++) {
+            sum += times[i];
+        }
+        final double mean = sum / n;
+        double var = 0;
+        for(int i=0; i<n; i++) {
+            final double d = times[i] - mean;
+            var += d * d;
+        }
+        return (long) Math.sqrt(var / ( n - 1 ));
+    }
 }
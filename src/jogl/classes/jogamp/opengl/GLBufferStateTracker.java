@@ -37,7 +37,6 @@
  * Sun gratefully acknowledges that this software was originally authored
  * and developed by Kenneth Bradley Russell and Christopher John Kline.
  */
-
 package jogamp.opengl;
 
 import javax.media.opengl.*;
@@ -68,82 +67,181 @@ import com.jogamp.common.util.IntIntHashMap;
  * getBoundBufferObject(), we need a second query, which is to ask
  * whether we know the state of the binding for a given target. For
  * "unknown" targets such as GL_TRANSFORM_FEEDBACK_BUFFER_NV we return
- * false from this, but we also clear the valid bit and later refresh
- * the binding state if glPushClientAttrib / glPopClientAttrib are
- * called, since we don't want the complexity of tracking stacks of
- * these attributes.
+ * 0 from this. <P>
  *
+ * The bindings of the known targets GL_ARRAY_BUFFER, GL_ELEMENT_ARRAY_BUFFER,
+ * GL_PIXEL_PACK_BUFFER and GL_PIXEL_UNPACK_BUFFER are held in a small 
+ * fixed slot array, since they are queried by every buffer object check
+ * of the GL implementation, i.e. on every gl*Pointer, glDraw*, glReadPixels, etc. 
+ * Their state is saved and restored along with glPushClientAttrib / glPopClientAttrib
+ * according to the attribute groups of the OpenGL specification:
+ * <ul>
+ *   <li>GL_CLIENT_VERTEX_ARRAY_BIT: GL_ARRAY_BUFFER_BINDING, GL_ELEMENT_ARRAY_BUFFER_BINDING</li>
+ *   <li>GL_CLIENT_PIXEL_STORE_BIT: GL_PIXEL_PACK_BUFFER_BINDING, GL_PIXEL_UNPACK_BUFFER_BINDING</li>
+ * </ul>
+ * hence no glGetIntegerv round-trip is required after glPopClientAttrib.
+ * The bindings of all other targets are cleared on glPushClientAttrib / glPopClientAttrib,
+ * since we don't want the complexity of tracking stacks of these attributes.
  */
 
 public class GLBufferStateTracker {
   protected static final boolean DEBUG = GLBufferSizeTracker.DEBUG;
 
-  // Maps binding targets to buffer objects. A null value indicates
-  // that the binding is unknown. A zero value indicates that it is
-  // known that no buffer is bound to the target, according to the 
-  // OpenGL specifications. 
+  /** Value of an unknown binding, either never set or invalidated */
+  private static final int UNKNOWN = -1;
+
+  private static final int SLOT_ARRAY         = 0;
+  private static final int SLOT_ELEMENT_ARRAY = 1;
+  private static final int SLOT_PIXEL_PACK    = 2;
+  private static final int SLOT_PIXEL_UNPACK  = 3;
+  private static final int SLOT_COUNT         = 4;
+
+  /** stack frame: push mask + saved slots */
+  private static final int FRAME_SIZE = 1 + SLOT_COUNT;
+
+  // Binding of the known targets, indexed by slot. 
+  // A negative value indicates that the binding is unknown. 
+  // A zero value indicates that it is known that no buffer is bound 
+  // to the target, according to the OpenGL specifications. 
   // http://www.opengl.org/sdk/docs/man/xhtml/glBindBuffer.xml
-  private IntIntHashMap bindingMap;
+  private final int[] bindingSlots = new int[SLOT_COUNT];
+
+  // Maps other binding targets to buffer objects, lazily created.
+  private IntIntHashMap bindingMap = null;
+
+  // glPushClientAttrib stack of FRAME_SIZE frames
+  private int[] stack = new int[GLStateTracker.MIN_CLIENT_ATTRIB_STACK_DEPTH * FRAME_SIZE];
+  private int stackSize = 0;
 
   private int[] bufTmp = new int[1];
 
   public GLBufferStateTracker() {
-    bindingMap = new IntIntHashMap();
-    bindingMap.setKeyNotFoundValue(-1);
-
     // Start with known unbound targets for known keys
-    bindingMap.put(GL.GL_ARRAY_BUFFER,         0);
-    bindingMap.put(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
-    bindingMap.put(GL2.GL_PIXEL_PACK_BUFFER,   0);
-    bindingMap.put(GL2.GL_PIXEL_UNPACK_BUFFER, 0);
+    for(int i=0; i<SLOT_COUNT; i++) {
+      bindingSlots[i] = 0;
+    }
   }
 
-  public void setBoundBufferObject(int target, int buffer) {
-    bindingMap.put(target, buffer);
+  private static final int getSlot(int target) {
+    switch (target) {
+      case GL.GL_ARRAY_BUFFER:          return SLOT_ARRAY;
+      case GL.GL_ELEMENT_ARRAY_BUFFER:  return SLOT_ELEMENT_ARRAY;
+      case GL2.GL_PIXEL_PACK_BUFFER:    return SLOT_PIXEL_PACK;
+      case GL2.GL_PIXEL_UNPACK_BUFFER:  return SLOT_PIXEL_UNPACK;
+      default:                          return -1;
+    }
+  }
+
+  public final void setBoundBufferObject(int target, int buffer) {
+    final int slot = getSlot(target);
+    if(0 <= slot) {
+      bindingSlots[slot] = buffer;
+    } else {
+      if(null == bindingMap) {
+        bindingMap = new IntIntHashMap();
+        bindingMap.setKeyNotFoundValue(UNKNOWN);
+      }
+      bindingMap.put(target, buffer);
+    }
   }
 
   /** Note: returns an unspecified value if the binding for the
       specified target (e.g. GL_ARRAY_BUFFER) is currently unknown.
       You must use isBoundBufferObjectKnown() to see whether the
       return value is valid. */
-  public int getBoundBufferObject(int target, GL caller) {
-    int value = bindingMap.get(target);
-    if (0 > value) {
-      // User probably either called glPushClientAttrib /
-      // glPopClientAttrib or is querying an unknown target. See
-      // whether we know how to fetch this state.
-      boolean gotQueryTarget = true;
-      int queryTarget = 0;
-      switch (target) {
-        case GL.GL_ARRAY_BUFFER:          queryTarget = GL.GL_ARRAY_BUFFER_BINDING;         break;
-        case GL.GL_ELEMENT_ARRAY_BUFFER:  queryTarget = GL.GL_ELEMENT_ARRAY_BUFFER_BINDING; break;
-        case GL2.GL_PIXEL_PACK_BUFFER:    queryTarget = GL2.GL_PIXEL_PACK_BUFFER_BINDING;    break;
-        case GL2.GL_PIXEL_UNPACK_BUFFER:  queryTarget = GL2.GL_PIXEL_UNPACK_BUFFER_BINDING;  break;
-        default:                          gotQueryTarget = false; break;
+  public final int getBoundBufferObject(int target, GL caller) {
+    final int slot = getSlot(target);
+    if(0 <= slot) {
+      final int value = bindingSlots[slot];
+      if(0 <= value) {
+        return value;
+      }
+      // Binding has been invalidated via clearBufferObjectState(),
+      // fetch the state once.
+      final int queryTarget;
+      switch (slot) {
+        case SLOT_ARRAY:          queryTarget = GL.GL_ARRAY_BUFFER_BINDING;         break;
+        case SLOT_ELEMENT_ARRAY:  queryTarget = GL.GL_ELEMENT_ARRAY_BUFFER_BINDING; break;
+        case SLOT_PIXEL_PACK:     queryTarget = GL2.GL_PIXEL_PACK_BUFFER_BINDING;   break;
+        default:                  queryTarget = GL2.GL_PIXEL_UNPACK_BUFFER_BINDING; break;
       }
-      if (gotQueryTarget) {
-        caller.glGetIntegerv(queryTarget, bufTmp, 0);
-        if (DEBUG) {
-          System.err.println("GLBufferStateTracker.getBoundBufferObject(): queried bound buffer " +
-                             bufTmp[0] +
-                             " for query target 0x" + Integer.toHexString(queryTarget));
-        }
-        setBoundBufferObject(target, bufTmp[0]);
-        return bufTmp[0];
+      caller.glGetIntegerv(queryTarget, bufTmp, 0);
+      if (DEBUG) {
+        System.err.println("GLBufferStateTracker.getBoundBufferObject(): queried bound buffer " +
+                           bufTmp[0] +
+                           " for query target 0x" + Integer.toHexString(queryTarget));
       }
-      return 0;
+      bindingSlots[slot] = bufTmp[0];
+      return bufTmp[0];
+    }
+    if(null != bindingMap) {
+      final int value = bindingMap.get(target);
+      if(0 <= value) {
+        return value;
+      }
+    }
+    // User probably either called glPushClientAttrib /
+    // glPopClientAttrib or is querying an unknown target,
+    // which we don't know how to fetch.
+    return 0;
+  }
+
+  /** 
+   * Saves the bindings of the known targets covered by the <code>mask</code>
+   * attribute groups, called by the implementation of glPushClientAttrib.
+   */
+  public final void pushBufferObjectState(int mask) {
+    if(stack.length < (stackSize+1)*FRAME_SIZE) {
+      final int[] newStack = new int[stack.length*2];
+      System.arraycopy(stack, 0, newStack, 0, stackSize*FRAME_SIZE);
+      stack = newStack;
+    }
+    final int o = stackSize*FRAME_SIZE;
+    stack[o] = mask;
+    System.arraycopy(bindingSlots, 0, stack, o+1, SLOT_COUNT);
+    stackSize++;
+    clearOtherBufferObjectState();
+  }
+
+  /** 
+   * Restores the bindings of the known targets saved by the matching
+   * {@link #pushBufferObjectState(int)}, called by the implementation of glPopClientAttrib.
+   * A stack underflow leaves the state untouched, as the GL does.
+   */
+  public final void popBufferObjectState() {
+    if(0 < stackSize) {
+      stackSize--;
+      final int o = stackSize*FRAME_SIZE;
+      final int mask = stack[o];
+      if( 0 != ( mask & GL2.GL_CLIENT_VERTEX_ARRAY_BIT ) ) {
+        bindingSlots[SLOT_ARRAY]         = stack[o+1+SLOT_ARRAY];
+        bindingSlots[SLOT_ELEMENT_ARRAY] = stack[o+1+SLOT_ELEMENT_ARRAY];
+      }
+      if( 0 != ( mask & GL2.GL_CLIENT_PIXEL_STORE_BIT ) ) {
+        bindingSlots[SLOT_PIXEL_PACK]    = stack[o+1+SLOT_PIXEL_PACK];
+        bindingSlots[SLOT_PIXEL_UNPACK]  = stack[o+1+SLOT_PIXEL_UNPACK];
+      }
+    }
+    clearOtherBufferObjectState();
+  }
+
+  private final void clearOtherBufferObjectState() {
+    if(null != bindingMap) {
+      bindingMap.clear();
     }
-    return value;
   }
 
   /** Clears out the known/unknown state of the various buffer object
       binding states. These will be refreshed later on an as-needed
-      basis. This is called by the implementations of
-      glPushClientAttrib / glPopClientAttrib. Might want to call this
+      basis. Might want to call this
       from GLContext.makeCurrent() in the future to possibly increase
       the robustness of these caches in the face of external native
       code manipulating OpenGL state. */
-  public void clearBufferObjectState() {
-    bindingMap.clear();
+  public final void clearBufferObjectState() {
+    for(int i=0; i<SLOT_COUNT; i++) {
+      bindingSlots[i] = UNKNOWN;
+    }
+    stackSize = 0;
+    clearOtherBufferObjectState();
   }
 }
@@ -249,6 +249,13 @@ public abstract class GLContextImpl extends GLContext {
         release();
     }
 
+    // The native context must not be left current on any thread
+    if ( Thread.currentThread() == stickyThread ) {
+        releaseStickyNative();
+    } else {
+        awaitStickyRelease();
+    }
+
     // Must hold the lock around the destroy operation to make sure we
     // don't destroy the context out from under another thread rendering to it
     lockConsiderFailFast();
@@ -288,6 +295,7 @@ public abstract class GLContextImpl extends GLContext {
     } finally {
       lock.unlock();
     }
+    stickyReleaseRequester = null;
 
     resetStates();
   }
@@ -381,6 +389,12 @@ public abstract class GLContextImpl extends GLContext {
     }
 
     lockConsiderFailFast();
+    while ( null != stickyThread && Thread.currentThread() != stickyThread ) {
+      // still current on another thread, see releaseSticky()
+      lock.unlock();
+      awaitStickyRelease();
+      lockConsiderFailFast();
+    }
     int res = 0;
     try {
       res = makeCurrentLocking();
@@ -400,6 +414,9 @@ public abstract class GLContextImpl extends GLContext {
       lock.unlock();
     } else {
       setCurrent(this);
+      if ( Thread.currentThread() == stickyReleaseRequester ) {
+        stickyReleaseRequester = null;
+      }
       if(res == CONTEXT_CURRENT_NEW) {
         // check if the drawable's and the GL's GLProfile are equal
         // throws an GLException if not 
@@ -459,7 +476,20 @@ public abstract class GLContextImpl extends GLContext {
             }
             GLContextShareSet.contextCreated(this);
           }
-          makeCurrentImpl(newCreated);
+          final GLContextImpl sticky = (GLContextImpl) stickyContext.get();
+          if ( this == sticky && !newCreated &&
+               NativeSurface.LOCK_SURFACE_CHANGED != lockRes && stickyDrawableRead == drawableRead &&
+               stickyDrawableHandle == drawable.getHandle() && stickyDrawableReadHandle == drawableRead.getHandle() ) {
+              // still natively current on this thread, see releaseSticky()
+              update();
+          } else {
+              makeCurrentImpl(newCreated);
+          }
+          if ( null != sticky ) {
+              // either resumed or natively replaced by this context
+              stickyContext.set(null);
+              sticky.stickyReleased();
+          }
           return newCreated ? CONTEXT_CURRENT_NEW : CONTEXT_CURRENT ;
       } catch (RuntimeException e) {
         exceptionOccurred = true;
@@ -570,7 +600,7 @@ public abstract class GLContextImpl extends GLContext {
 
     if( GLContext.getAvailableGLVersion(device, reqMajor, compat?CTX_PROFILE_COMPAT:CTX_PROFILE_CORE,
                                         _major, _minor, _ctp)) {
-        _ctp[0] |= additionalCtxCreationFlags;
+        _ctp[0] |= additionalCtxCreationFlags & GLContext.CTX_OPTION_DEBUG;
         _ctx = createContextARBImpl(share, direct, _ctp[0], _major[0], _minor[0]);
         if(0!=_ctx) {
             setGLFunctionAvailability(true, _major[0], _minor[0], _ctp[0]);
@@ -1075,6 +1105,14 @@ public abstract class GLContextImpl extends GLContext {
     return glStateTracker;
   }
 
+  /** 
+   * @return true if created w/ {@link GLContext#CTX_OPTION_TRUSTED}, 
+   *         i.e. the GL implementation shall skip its buffer object validity checks.
+   */
+  public final boolean isTrusted() {
+    return 0 != ( additionalCtxCreationFlags & GLContext.CTX_OPTION_TRUSTED );
+  }
+
   //---------------------------------------------------------------------------
   // Helpers for context optimization where the last context is left
   // current on the OpenGL worker thread
@@ -1083,6 +1121,150 @@ public abstract class GLContextImpl extends GLContext {
   public boolean hasWaiters() {
     return lock.getWaitingThreadQueueSize()>0;
   }
+
+  //---------------------------------------------------------------------------
+  // Sticky contexts, left natively current on their thread between frames
+  // to avoid a makeCurrent/release pair per frame.
+  // The lock and the surface are released as usual, so only the owning thread
+  // is able to reuse the native binding. Other threads request its release,
+  // which the owning thread performs at its next makeCurrent, release or
+  // at an explicit releaseStickyCurrent(..) call, e.g. by its animator.
+  // Only surfaces w/ a handle valid while unlocked qualify, see GLDrawableImpl.isSurfaceHandleStable().
+  //
+
+  /** Interval in milliseconds to re-check whether the thread owning a sticky context is still alive */
+  public static final long STICKY_RELEASE_RETRY = 1000;
+
+  /** The context left natively current on this thread, if any */
+  private static final ThreadLocal stickyContext = new ThreadLocal();
+  private final Object stickySync = new Object();
+  private volatile Thread stickyThread;
+  private volatile Thread stickyReleaseRequester;
+  private GLDrawableImpl stickyDrawableRead;
+  private long stickyDrawableHandle;
+  private long stickyDrawableReadHandle;
+
+  /**
+   * Releases this context like {@link #release()}, but leaves the native context current on this thread,
+   * hence a subsequent {@link #makeCurrent()} on this thread doesn't need to issue native calls.
+   * <p>
+   * Falls back to {@link #release()} if another thread is waiting for or requested this context,
+   * or if a drawable's surface handle is not valid while unlocked, see {@link GLDrawableImpl#isSurfaceHandleStable()}.
+   * </p>
+   */
+  public final void releaseSticky() throws GLException {
+    if ( !lock.isOwner() ) {
+      throw new GLException("Context not current on current thread");
+    }
+    if ( null != stickyReleaseRequester || hasWaiters() ||
+         !drawable.isSurfaceHandleStable() || !drawableRead.isSurfaceHandleStable() ) {
+      release();
+      return;
+    }
+    setCurrent(null);
+    stickyDrawableRead = drawableRead;
+    stickyDrawableHandle = drawable.getHandle();
+    stickyDrawableReadHandle = drawableRead.getHandle();
+    stickyThread = Thread.currentThread();
+    stickyContext.set(this);
+    if (drawable.isSurfaceLocked()) {
+      drawable.unlockSurface();
+    }
+    lock.unlock();
+  }
+
+  /** Returns the thread this context has been left current on via {@link #releaseSticky()}, or null. */
+  public final Thread getStickyThread() {
+    return stickyThread;
+  }
+
+  /**
+   * Releases the native context left current on this thread via {@link #releaseSticky()}, if any.
+   * @param onlyIfRequested if true, only release it if another thread requested it
+   */
+  public static void releaseStickyCurrent(boolean onlyIfRequested) {
+    final GLContextImpl sticky = (GLContextImpl) stickyContext.get();
+    if ( null != sticky && ( !onlyIfRequested || null != sticky.stickyReleaseRequester ) ) {
+      sticky.releaseStickyNative();
+    }
+  }
+
+  /** Releases the native context w/ the context lock and the surface lock held, as {@link #release()} */
+  private final void releaseStickyNative() {
+    stickyContext.set(null);
+    lock.lock();
+    try {
+      final int lockRes = drawable.lockSurface();
+      try {
+        if ( NativeSurface.LOCK_SURFACE_NOT_READY != lockRes ) {
+          releaseImpl();
+        }
+      } finally {
+        if ( NativeSurface.LOCK_SURFACE_NOT_READY != lockRes ) {
+          drawable.unlockSurface();
+        }
+      }
+    } catch (GLException gle) {
+      if (DEBUG) {
+        gle.printStackTrace();
+      }
+    } finally {
+      lock.unlock();
+      stickyReleased();
+    }
+  }
+
+  private final void stickyReleased() {
+    synchronized (stickySync) {
+      stickyThread = null;
+      stickyDrawableRead = null;
+      stickyDrawableHandle = 0;
+      stickyDrawableReadHandle = 0;
+      stickySync.notifyAll();
+    }
+  }
+
+  /**
+   * Requests the release of this context, if it has been left current on another thread via {@link #releaseSticky()},
+   * and waits until the owning thread released it.
+   * <p>
+   * Shall be called w/o holding the surface lock, since the owning thread may need it to make progress.
+   * Until this thread made the context current, the owning thread won't leave it current again.
+   * </p>
+   * <p>
+   * Waits as long as the owning thread is alive, it releases the context at its next frame
+   * or when its animation pauses or stops. A context left current by a terminated thread is considered released.
+   * </p>
+   */
+  public final void awaitStickyRelease() {
+    final Thread ct = Thread.currentThread();
+    if ( ct == stickyThread ) {
+      return;
+    }
+    stickyReleaseRequester = ct;
+    if ( null == stickyThread ) {
+      return;
+    }
+    synchronized (stickySync) {
+      Thread t;
+      while ( null != ( t = stickyThread ) && ct != t ) {
+        if ( !t.isAlive() ) {
+          if (DEBUG) {
+            System.err.println(getThreadName()+": Context left current by terminated thread "+t.getName()+": "+this);
+          }
+          stickyThread = null;
+          stickyDrawableRead = null;
+          stickyDrawableHandle = 0;
+          stickyDrawableReadHandle = 0;
+          break;
+        }
+        stickyReleaseRequester = ct;
+        try {
+          stickySync.wait(STICKY_RELEASE_RETRY);
+        } catch (InterruptedException ie) { }
+      }
+    }
+  }
   
   //---------------------------------------------------------------------------
   // GL_ARB_debug_output, GL_AMD_debug_output helpers
@@ -1102,7 +1284,7 @@ public abstract class GLContextImpl extends GLContext {
 
   public void setContextCreationFlags(int flags) {
       if(!isCreated()) {
-          additionalCtxCreationFlags = flags & GLContext.CTX_OPTION_DEBUG;
+          additionalCtxCreationFlags = flags & ( GLContext.CTX_OPTION_DEBUG | GLContext.CTX_OPTION_TRUSTED );
       }
   }
   
@@ -136,6 +136,16 @@ public class GLContextShareSet {
     return share.getCreatedShare(contextToCreate);
   }
 
+  /** Returns true if both contexts are the same or have been registered
+      for sharing with each other, directly or indirectly. */
+  public static synchronized boolean areShared(GLContext share1, GLContext share2) {
+    if (share1 == share2) {
+      return true;
+    }
+    ShareSet share = entryFor(share1);
+    return share != null && share == entryFor(share2);
+  }
+
   public static synchronized void contextCreated(GLContext context) {
     ShareSet share = entryFor(context);
     if (share != null) {
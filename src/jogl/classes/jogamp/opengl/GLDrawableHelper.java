@@ -43,6 +43,8 @@ package jogamp.opengl;
 import java.util.*;
 import javax.media.opengl.*;
 
+import com.jogamp.opengl.GLFrameProfiler;
+
 /** Encapsulates the implementation of most of the GLAutoDrawable's
     methods to be able to share it between GLCanvas and GLJPanel. */
 
@@ -56,6 +58,9 @@ public class GLDrawableHelper {
   private Object glRunnablesLock = new Object();
   private ArrayList<GLRunnable> glRunnables;
   private GLAnimatorControl animatorCtrl;
+  private GLFrameProfilerImpl profiler;
+  private boolean profiling;
+  private boolean profiledDisplay;
 
   public GLDrawableHelper() {
     reset();
@@ -156,6 +161,10 @@ public class GLDrawableHelper {
   }
 
   public final void display(GLAutoDrawable drawable) {
+    if(profiling) {
+        displayProfiled(drawable);
+        return;
+    }
     synchronized(listenersLock) {
         for (int i=0; i < listeners.size(); i++) {
           final GLEventListener listener = listeners.get(i) ;
@@ -168,6 +177,33 @@ public class GLDrawableHelper {
     execGLRunnables(drawable);
   }
 
+  private void displayProfiled(GLAutoDrawable drawable) {
+    if(null == profiler) {
+        profiler = GLFrameProfilerImpl.register(drawable, new GLFrameProfilerImpl(drawable));
+    }
+    final GL gl = drawable.getGL();
+    final long t0 = System.nanoTime();
+    profiler.beginGPUTiming(gl);
+    try {
+        synchronized(listenersLock) {
+            for (int i=0; i < listeners.size(); i++) {
+              final GLEventListener listener = listeners.get(i) ;
+              final long tl = System.nanoTime();
+              init( listener, drawable, true ) ; 
+              listener.display(drawable);
+              profiler.recordListener(listener, System.nanoTime() - tl);
+            }
+        }
+    } finally {
+        profiler.endGPUTiming(gl);
+    }
+    final long t1 = System.nanoTime();
+    profiler.record(GLFrameProfiler.DISPLAY, t1 - t0);
+    execGLRunnables(drawable);
+    profiler.record(GLFrameProfiler.GL_RUNNABLES, System.nanoTime() - t1);
+    profiledDisplay = true;
+  }
+
   private void reshape(GLEventListener listener, GLAutoDrawable drawable,
                              int x, int y, int width, int height, boolean setViewport) {
     if(setViewport) {
@@ -271,6 +307,54 @@ public class GLDrawableHelper {
   }
 
   private static final ThreadLocal perThreadInitAction = new ThreadLocal();
+  private static final ThreadLocal perThreadStickyContext = new ThreadLocal();
+
+  /**
+   * Enables or disables sticky contexts for the current thread.
+   * <p>
+   * If enabled, {@link #invokeGL(GLDrawable, GLContext, Runnable, Runnable) invokeGL(..)} leaves the context
+   * natively current after rendering on this thread via {@link GLContextImpl#releaseSticky()},
+   * saving the native makeCurrent/release calls of subsequent frames of the same drawable.
+   * The context is released once another drawable is rendered on this thread,
+   * another thread requests it or this thread calls {@link #releaseStickyContext(boolean)}.
+   * </p>
+   * <p>
+   * Intended for dedicated rendering threads, e.g. an animator thread,
+   * which shall call {@link #releaseStickyContext(boolean)} regularly and before waiting or terminating.
+   * Disabling releases the sticky context.
+   * </p>
+   */
+  public static final void setStickyContextThread(boolean enable) {
+    if(enable) {
+        perThreadStickyContext.set(Boolean.TRUE);
+    } else {
+        perThreadStickyContext.set(null);
+        GLContextImpl.releaseStickyCurrent(false);
+    }
+  }
+
+  /** Returns true if sticky contexts are enabled for the current thread, see {@link #setStickyContextThread(boolean)}. */
+  public static final boolean isStickyContextThread() {
+    return null != perThreadStickyContext.get();
+  }
+
+  /**
+   * Releases the context left current on this thread, see {@link #setStickyContextThread(boolean)}.
+   * @param onlyIfRequested if true, only release it if another thread requested it
+   */
+  public static final void releaseStickyContext(boolean onlyIfRequested) {
+    GLContextImpl.releaseStickyCurrent(onlyIfRequested);
+  }
+
+  /**
+   * Waits until the given context is no longer left current on another thread,
+   * see {@link GLContextImpl#awaitStickyRelease()}. Shall be called w/o holding the surface lock.
+   */
+  public static final void awaitStickyRelease(GLContext context) {
+    if(context instanceof GLContextImpl) {
+        ((GLContextImpl)context).awaitStickyRelease();
+    }
+  }
 
   /** Principal helper method which runs a Runnable with the context
       made current. This could have been made part of GLContext, but a
@@ -315,13 +399,29 @@ public class GLDrawableHelper {
       lastContext.release();
     }
   
+    // Contexts of frames rendered directly, i.e. not recursively, may be left current
+    final boolean sticky = null != runnable && null != initAction && null == lastContext &&
+                           context instanceof GLContextImpl && isStickyContextThread();
+
+    // only display frames are profiled, see displayProfiled(..)
+    profiling = null != runnable && null != initAction && GLFrameProfilerImpl.isEnabled();
+    profiledDisplay = false;
+    long tMakeCurrent = 0;
+
     int res = 0;
     try {
+      final long t0 = profiling ? System.nanoTime() : 0;
       res = context.makeCurrent();
+      if(profiling) {
+          tMakeCurrent = System.nanoTime() - t0;
+      }
       if (res != GLContext.CONTEXT_NOT_CURRENT) {
         if(null!=initAction) {
             perThreadInitAction.set(initAction);
             if (res == GLContext.CONTEXT_CURRENT_NEW) {
+              if(null != profiler) {
+                  profiler.contextCreated();
+              }
               if (DEBUG) {
                 System.err.println("GLDrawableHelper " + this + ".invokeGL(): Running initAction");
               }
@@ -333,17 +433,27 @@ public class GLDrawableHelper {
               System.err.println("GLDrawableHelper " + this + ".invokeGL(): Running runnable");
             }
             runnable.run();
+            final long t1 = profiledDisplay ? System.nanoTime() : 0;
             if (autoSwapBufferMode && null != initAction) {
               if (drawable != null) {
                 drawable.swapBuffers();
               }
             }
+            if(profiledDisplay) {
+              profiler.record(GLFrameProfiler.SWAP_BUFFERS, System.nanoTime() - t1);
+              profiler.record(GLFrameProfiler.MAKE_CURRENT, tMakeCurrent);
+              profiler.endFrame();
+            }
         }
       }
     } finally {
       try {
         if (res != GLContext.CONTEXT_NOT_CURRENT) {
-          context.release();
+          if (sticky) {
+            ((GLContextImpl)context).releaseSticky();
+          } else {
+            context.release();
+          }
         }
       } catch (Exception e) {
       }
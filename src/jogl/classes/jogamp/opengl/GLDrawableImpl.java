@@ -133,6 +133,17 @@ public abstract class GLDrawableImpl implements GLDrawable {
     return surface.getSurfaceHandle();
   }
 
+  /**
+   * Returns true if the surface handle stays valid while the surface is unlocked,
+   * hence a context may be left natively current on it, see {@link GLContextImpl#releaseSticky()}.
+   * <p>
+   * Surfaces whose handle is acquired at lock and released at unlock shall return false.
+   * </p>
+   */
+  public boolean isSurfaceHandleStable() {
+    return true;
+  }
+
   public GLDrawableFactory getFactory() {
     return factory;
   }
@@ -0,0 +1,285 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl;
+
+import java.io.PrintStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.media.opengl.FPSCounter;
+import javax.media.opengl.GL;
+import javax.media.opengl.GL3;
+import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.GLEventListener;
+
+import com.jogamp.opengl.GLFrameProfiler;
+
+/**
+ * Records the frame profile of one {@link GLAutoDrawable}, owned by its {@link GLDrawableHelper},
+ * and holds the global {@link GLFrameProfiler} state.
+ * <p>
+ * Recording happens on the rendering thread, reading may happen on any thread,
+ * hence all statistics are guarded by this instance.
+ * </p>
+ */
+public class GLFrameProfilerImpl implements GLFrameProfiler.Profile {
+    private static final int QUERY_COUNT = 4;
+
+    private static volatile boolean enabled;
+    private static volatile boolean gpuTimingEnabled;
+    private static volatile int updateFrames;
+    private static volatile PrintStream updateOut;
+    private static final List<GLFrameProfiler.Listener> listeners = new CopyOnWriteArrayList<GLFrameProfiler.Listener>();
+    private static final Map<GLAutoDrawable, GLFrameProfilerImpl> profiles = new WeakHashMap<GLAutoDrawable, GLFrameProfilerImpl>();
+
+    static {
+        if(Debug.debug("FrameProfiler")) {
+            updateFrames = FPSCounter.DEFAULT_FRAMES_PER_INTERVAL;
+            updateOut = System.err;
+            enabled = true;
+        }
+    }
+
+    public static void setEnabled(boolean enable) { enabled = enable; }
+    public static boolean isEnabled() { return enabled; }
+    public static void setGPUTimingEnabled(boolean enable) { gpuTimingEnabled = enable; }
+    public static boolean isGPUTimingEnabled() { return gpuTimingEnabled; }
+
+    public static void setUpdateFrames(int frames, PrintStream out) {
+        updateOut = out;
+        updateFrames = frames;
+    }
+
+    public static void addListener(GLFrameProfiler.Listener l) {
+        if(null == l) {
+            throw new IllegalArgumentException("Listener is null");
+        }
+        listeners.add(l);
+    }
+
+    public static void removeListener(GLFrameProfiler.Listener l) {
+        listeners.remove(l);
+    }
+
+    public static GLFrameProfiler.Profile getProfile(GLAutoDrawable drawable) {
+        synchronized(profiles) {
+            return profiles.get(drawable);
+        }
+    }
+
+    public static List<GLFrameProfiler.Profile> getProfiles() {
+        synchronized(profiles) {
+            return new ArrayList<GLFrameProfiler.Profile>(profiles.values());
+        }
+    }
+
+    /** Returns the profile of the given drawable, registering <code>candidate</code> if none exists yet. */
+    static GLFrameProfilerImpl register(GLAutoDrawable drawable, GLFrameProfilerImpl candidate) {
+        synchronized(profiles) {
+            final GLFrameProfilerImpl p = profiles.get(drawable);
+            if(null != p) {
+                return p;
+            }
+            profiles.put(drawable, candidate);
+            return candidate;
+        }
+    }
+
+    //
+    // Per drawable profile
+    //
+
+    private final WeakReference<GLAutoDrawable> drawableRef;
+    private final long[][] phases = new long[GLFrameProfiler.PHASE_COUNT][];
+    private final WeakHashMap<GLEventListener, long[]> listenerStats = new WeakHashMap<GLEventListener, long[]>();
+    private long frames;
+
+    // rendering thread only
+    private int[] queries;
+    private boolean[] queryPending;
+    private int queryIdx;
+    private boolean queryActive;
+    private final int[] queryAvailable = new int[1];
+    private final long[] queryResult = new long[1];
+
+    GLFrameProfilerImpl(GLAutoDrawable drawable) {
+        drawableRef = new WeakReference<GLAutoDrawable>(drawable);
+        for(int i=0; i<phases.length; i++) {
+            phases[i] = newStats();
+        }
+    }
+
+    // stats layout: count, total, min, max, last
+    private static long[] newStats() {
+        return new long[] { 0, 0, Long.MAX_VALUE, 0, 0 };
+    }
+
+    private static void add(long[] s, long nanos) {
+        s[0]++;
+        s[1] += nanos;
+        if(nanos < s[2]) { s[2] = nanos; }
+        if(nanos > s[3]) { s[3] = nanos; }
+        s[4] = nanos;
+    }
+
+    private static GLFrameProfiler.Stats toStats(long[] s) {
+        return new GLFrameProfiler.Stats(s[0], s[1], s[0] > 0 ? s[2] : 0, s[3], s[4]);
+    }
+
+    public GLAutoDrawable getDrawable() {
+        return drawableRef.get();
+    }
+
+    public synchronized long getFrames() {
+        return frames;
+    }
+
+    public synchronized GLFrameProfiler.Stats getPhaseStats(int phase) {
+        return toStats(phases[phase]);
+    }
+
+    public synchronized Map<GLEventListener, GLFrameProfiler.Stats> getListenerStats() {
+        final Map<GLEventListener, GLFrameProfiler.Stats> res = new WeakHashMap<GLEventListener, GLFrameProfiler.Stats>();
+        for(Iterator<Map.Entry<GLEventListener, long[]>> iter = listenerStats.entrySet().iterator(); iter.hasNext(); ) {
+            final Map.Entry<GLEventListener, long[]> e = iter.next();
+            res.put(e.getKey(), toStats(e.getValue()));
+        }
+        return res;
+    }
+
+    public synchronized void reset() {
+        for(int i=0; i<phases.length; i++) {
+            phases[i] = newStats();
+        }
+        listenerStats.clear();
+        frames = 0;
+    }
+
+    final synchronized void record(int phase, long nanos) {
+        add(phases[phase], nanos);
+    }
+
+    final synchronized void recordListener(GLEventListener l, long nanos) {
+        long[] s = listenerStats.get(l);
+        if(null == s) {
+            s = newStats();
+            listenerStats.put(l, s);
+        }
+        add(s, nanos);
+    }
+
+    /** Commits the frame, notifies the listeners and prints the summary if due. */
+    final void endFrame() {
+        final long f;
+        synchronized(this) {
+            f = ++frames;
+        }
+        for(int i=0; i<listeners.size(); i++) {
+            listeners.get(i).frameProfiled(this);
+        }
+        final int uf = updateFrames;
+        final PrintStream out = updateOut;
+        if(uf > 0 && null != out && 0 == f % uf) {
+            out.println(toString());
+        }
+    }
+
+    /** The context has been (re)created, previous query objects are gone. */
+    final void contextCreated() {
+        queries = null;
+        queryActive = false;
+    }
+
+    /**
+     * Collects finished timer queries and begins a new one, if GPU timing is enabled and supported.
+     * Never waits for a query result.
+     */
+    final void beginGPUTiming(GL gl) {
+        queryActive = false;
+        if(!gpuTimingEnabled || !gl.isGL3() || !gl.isFunctionAvailable("glGetQueryObjectui64v")) {
+            return;
+        }
+        final GL3 gl3 = gl.getGL3();
+        if(null == queries) {
+            queries = new int[QUERY_COUNT];
+            queryPending = new boolean[QUERY_COUNT];
+            queryIdx = 0;
+            gl3.glGenQueries(QUERY_COUNT, queries, 0);
+        }
+        // oldest first
+        for(int i=1; i<=QUERY_COUNT; i++) {
+            final int j = ( queryIdx + i ) % QUERY_COUNT;
+            if(queryPending[j]) {
+                gl3.glGetQueryObjectiv(queries[j], GL3.GL_QUERY_RESULT_AVAILABLE, queryAvailable, 0);
+                if(0 == queryAvailable[0]) {
+                    break; // later ones aren't available either
+                }
+                gl3.glGetQueryObjectui64v(queries[j], GL3.GL_QUERY_RESULT, queryResult, 0);
+                queryPending[j] = false;
+                record(GLFrameProfiler.GPU_DISPLAY, queryResult[0]);
+            }
+        }
+        if(!queryPending[queryIdx]) {
+            gl3.glBeginQuery(GL3.GL_TIME_ELAPSED, queries[queryIdx]);
+            queryActive = true;
+        } // else: all queries in flight, skip this frame
+    }
+
+    final void endGPUTiming(GL gl) {
+        if(queryActive) {
+            gl.getGL3().glEndQuery(GL3.GL_TIME_ELAPSED);
+            queryPending[queryIdx] = true;
+            queryIdx = ( queryIdx + 1 ) % QUERY_COUNT;
+            queryActive = false;
+        }
+    }
+
+    public synchronized String toString() {
+        final StringBuilder sb = new StringBuilder();
+        final GLAutoDrawable d = drawableRef.get();
+        sb.append("GLFrameProfile[").append(null != d ? d.getClass().getSimpleName()+"@"+Integer.toHexString(d.hashCode()) : "n/a")
+          .append(", frames ").append(frames);
+        for(int i=0; i<phases.length; i++) {
+            if(phases[i][0] > 0) {
+                sb.append("\n").append("  ").append(GLFrameProfiler.getPhaseName(i)).append(": ");
+                toStats(phases[i]).toString(sb);
+            }
+        }
+        for(Iterator<Map.Entry<GLEventListener, long[]>> iter = listenerStats.entrySet().iterator(); iter.hasNext(); ) {
+            final Map.Entry<GLEventListener, long[]> e = iter.next();
+            sb.append("\n").append("  listener ").append(e.getKey().getClass().getName()).append(": ");
+            toStats(e.getValue()).toString(sb);
+        }
+        return sb.append("]").toString();
+    }
+}
@@ -313,9 +313,15 @@ public class BuildMipmap {
     gl.glPixelStorei( GL2.GL_UNPACK_SKIP_ROWS, 0 );
     gl.glPixelStorei( GL2.GL_UNPACK_SKIP_PIXELS, 0 );
     gl.glPixelStorei( GL2.GL_UNPACK_ROW_LENGTH, 0 );
-    
+
+    if( ParallelMipmap.isSupported( format, type ) ) {
+      return( ParallelMipmap.build2DMipmapLevels( gl, psm, target, internalFormat, width, height,
+              newwidth, newheight, format, cmpts, userLevel, baseLevel, maxLevel, levels,
+              data, mark, rowsize ) );
+    }
+
     level = userLevel;
-    
+
     // already power of two square
     if( width == newwidth && height == newheight ) {
       // use usersImage for level userLevel
@@ -0,0 +1,402 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl.glu.mipmap;
+
+import java.nio.ByteBuffer;
+import java.security.AccessControlContext;
+import java.security.AccessController;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+import javax.media.opengl.GLException;
+import javax.media.opengl.glu.GLU;
+
+import jogamp.opengl.Debug;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * Mipmap chain generation for <code>GL_UNSIGNED_BYTE</code> images w/ 1-4 components,
+ * i.e. the common GL_RGBA, GL_RGB, GL_LUMINANCE_ALPHA, .. texture data.
+ * <p>
+ * Results are identical to {@link HalveImage#halveImage_ubyte(int, int, int, ByteBuffer, ByteBuffer, int, int, int)},
+ * however:
+ * <ul>
+ *   <li>the 2:1 box filter uses specialized kernels for 4 and 3 components,
+ *       operating w/ absolute buffer access, i.e. w/o per element repositioning</li>
+ *   <li>large levels are split into bands of rows, which are processed concurrently</li>
+ *   <li>all levels of a chain are written into one packed scratch buffer, 
+ *       see {@link #getLevelOffset(int, int, int, int)}</li>
+ * </ul>
+ * </p>
+ * <p>
+ * The CPU part {@link #generateChain(int, int, int, ByteBuffer, int, int, ByteBuffer, int) generateChain(..)}
+ * does not require a GL context.
+ * </p>
+ * <p>
+ * The number of threads defaults to the number of available processors
+ * and can be set via the property <code>jogl.glu.mipmap.threads</code>,
+ * where <code>1</code> disables concurrent processing.
+ * </p>
+ */
+public class ParallelMipmap {
+  private static final boolean DEBUG = Debug.debug("BuildMipmap");
+
+  /** Minimum level size in bytes to be processed concurrently */
+  public static final int PARALLEL_THRESHOLD = 64 * 1024;
+
+  private static final int MASK = 0x00FF00FF;
+  private static final int ROUND = 0x00020002;
+
+  private static final int threadCount;
+  private static ExecutorService pool = null;
+
+  static {
+    final AccessControlContext localACC = AccessController.getContext();
+    final int n = Debug.getIntProperty("jogl.glu.mipmap.threads", true, localACC);
+    threadCount = 0 < n ? n : Runtime.getRuntime().availableProcessors();
+    if(DEBUG) {
+      System.err.println("ParallelMipmap: threads "+threadCount);
+    }
+  }
+
+  private static synchronized ExecutorService getPool() {
+    if(null == pool) {
+      // the calling thread processes one band itself
+      pool = Executors.newFixedThreadPool(threadCount - 1, new ThreadFactory() {
+          private int num = 0;
+          public Thread newThread(Runnable r) {
+            final Thread t = new Thread(r, "GLU-Mipmap-"+(num++));
+            t.setDaemon(true);
+            return t;
+          }
+        });
+    }
+    return pool;
+  }
+
+  /** @return the number of threads used for large levels */
+  public static int getThreadCount() { return threadCount; }
+
+  /** @return true if the format and type can be processed by this implementation */
+  public static boolean isSupported( int format, int type ) {
+    if( GL.GL_UNSIGNED_BYTE != type ) {
+      return false;
+    }
+    final int cmpts = Mipmap.elements_per_group( format, type );
+    return 1 <= cmpts && cmpts <= 4;
+  }
+
+  /** @return the number of levels of the complete chain, including level 0 of size <code>width</code> x <code>height</code> */
+  public static int getLevelCount( int width, int height ) {
+    int levels = 1;
+    while( width > 1 || height > 1 ) {
+      width = Math.max( 1, width / 2 );
+      height = Math.max( 1, height / 2 );
+      levels++;
+    }
+    return levels;
+  }
+
+  /** @return the width of <code>level</code> */
+  public static int getLevelSize( int size, int level ) {
+    return Math.max( 1, size >> level );
+  }
+
+  /** 
+   * @return the byte offset of <code>level</code> within the packed chain, where level 1 starts at offset 0.
+   *         For <code>level</code> == {@link #getLevelCount(int, int)} this is the size of the whole chain. 
+   */
+  public static int getLevelOffset( int components, int width, int height, int level ) {
+    int offset = 0;
+    for( int i = 1; i < level; i++ ) {
+      offset += getLevelSize( width, i ) * getLevelSize( height, i ) * components;
+    }
+    return offset;
+  }
+
+  /**
+   * Generates <code>levels</code> levels following the level 0 image <code>src</code>
+   * into the packed <code>chain</code> buffer, starting at its absolute index 0.
+   * <p>
+   * The position and limit of the buffers are not modified.
+   * </p>
+   * @param components number of bytes per pixel, 1-4
+   * @param width width of the level 0 image
+   * @param height height of the level 0 image
+   * @param src the level 0 image
+   * @param srcOffset absolute byte index of the level 0 image within <code>src</code>
+   * @param srcRowStride bytes per row of the level 0 image, including padding
+   * @param chain destination w/ at least {@link #getLevelOffset(int, int, int, int) getLevelOffset(components, width, height, levels+1)} bytes
+   * @param levels number of levels to generate, clamped to the available levels
+   * @return the number of generated levels
+   */
+  public static int generateChain( int components, int width, int height, 
+                                   ByteBuffer src, int srcOffset, int srcRowStride,
+                                   ByteBuffer chain, int levels ) {
+    levels = Math.min( levels, getLevelCount( width, height ) - 1 );
+    int w = width, h = height;
+    ByteBuffer in = src;
+    int inOffset = srcOffset;
+    int inStride = srcRowStride;
+    int outOffset = 0;
+    for( int i = 0; i < levels; i++ ) {
+      halveImage( components, w, h, in, inOffset, inStride, chain, outOffset );
+      w = Math.max( 1, w / 2 );
+      h = Math.max( 1, h / 2 );
+      in = chain;
+      inOffset = outOffset;
+      inStride = w * components;
+      outOffset += w * h * components;
+    }
+    return levels;
+  }
+
+  /**
+   * Halves the image <code>src</code> into the packed <code>dst</code> image
+   * of size <code>max(1, width/2)</code> x <code>max(1, height/2)</code>.
+   * <p>
+   * The position and limit of the buffers are not modified.
+   * </p>
+   */
+  public static void halveImage( final int components, final int width, final int height,
+                                 final ByteBuffer src, final int srcOffset, final int srcRowStride,
+                                 final ByteBuffer dst, final int dstOffset ) {
+    if( 1 > components || components > 4 ) {
+      throw new IllegalArgumentException("Unsupported components: "+components);
+    }
+    if( width == 1 && height == 1 ) {
+      throw new IllegalArgumentException("Cannot halve a 1x1 image");
+    }
+    // 4 byte pixels are read and written as int, hence both buffers must use the same byte order
+    final ByteBuffer in = src.order() == dst.order() ? src : src.duplicate().order( dst.order() );
+    final int newwidth = Math.max( 1, width / 2 );
+    final int newheight = Math.max( 1, height / 2 );
+    final int dstRowStride = newwidth * components;
+    final int bands = Math.min( newheight, 
+                                Math.min( threadCount, ( dstRowStride * newheight ) / ( PARALLEL_THRESHOLD / 2 ) ) );
+    if( 1 >= bands ) {
+      halveRows( components, width, height, in, srcOffset, srcRowStride, dst, dstOffset, 0, newheight );
+      return;
+    }
+    final int rowsPerBand = ( newheight + bands - 1 ) / bands;
+    final Future<?>[] futures = new Future<?>[bands - 1];
+    final ExecutorService p = getPool();
+    for( int i = 0; i < bands - 1; i++ ) {
+      final int y0 = i * rowsPerBand;
+      final int y1 = Math.min( newheight, y0 + rowsPerBand );
+      futures[i] = p.submit( new Runnable() {
+          public void run() {
+            halveRows( components, width, height, in, srcOffset, srcRowStride, dst, dstOffset, y0, y1 );
+          } } );
+    }
+    halveRows( components, width, height, in, srcOffset, srcRowStride, dst, dstOffset, 
+               ( bands - 1 ) * rowsPerBand, newheight );
+    for( int i = 0; i < futures.length; i++ ) {
+      try {
+        futures[i].get();
+      } catch (InterruptedException e) {
+        throw new GLException("Interrupted while halving image", e);
+      } catch (ExecutionException e) {
+        throw new GLException("Failed to halve image", e.getCause());
+      }
+    }
+  }
+
+  /** Writes the destination rows [<code>y0</code>..<code>y1</code>[ */
+  private static void halveRows( int components, int width, int height,
+                                 ByteBuffer src, int srcOffset, int srcRowStride,
+                                 ByteBuffer dst, int dstOffset, int y0, int y1 ) {
+    if( width == 1 || height == 1 ) {
+      halve1DRows( components, width, height, src, srcOffset, srcRowStride, dst, dstOffset, y0, y1 );
+      return;
+    }
+    final int newwidth = width / 2;
+    final int dstRowStride = newwidth * components;
+    for( int y = y0; y < y1; y++ ) {
+      int s0 = srcOffset + 2 * y * srcRowStride;
+      int s1 = s0 + srcRowStride;
+      int d = dstOffset + y * dstRowStride;
+      switch( components ) {
+        case 4:
+          // two byte lanes per 16bit half, max sum 4*255+2 fits
+          for( int x = 0; x < newwidth; x++ ) {
+            final int a = src.getInt( s0 );
+            final int b = src.getInt( s0 + 4 );
+            final int c = src.getInt( s1 );
+            final int e = src.getInt( s1 + 4 );
+            final int lo = ( ( ( a & MASK ) + ( b & MASK ) + ( c & MASK ) + ( e & MASK ) + ROUND ) >>> 2 ) & MASK;
+            final int hi = ( ( ( ( a >>> 8 ) & MASK ) + ( ( b >>> 8 ) & MASK ) + 
+                               ( ( c >>> 8 ) & MASK ) + ( ( e >>> 8 ) & MASK ) + ROUND ) >>> 2 ) & MASK;
+            dst.putInt( d, lo | ( hi << 8 ) );
+            s0 += 8; s1 += 8; d += 4;
+          }
+          break;
+        case 3:
+          for( int x = 0; x < newwidth; x++ ) {
+            dst.put( d    , (byte) ( ( ( src.get( s0     ) & 0xFF ) + ( src.get( s0 + 3 ) & 0xFF ) + 
+                                       ( src.get( s1     ) & 0xFF ) + ( src.get( s1 + 3 ) & 0xFF ) + 2 ) >>> 2 ) );
+            dst.put( d + 1, (byte) ( ( ( src.get( s0 + 1 ) & 0xFF ) + ( src.get( s0 + 4 ) & 0xFF ) + 
+                                       ( src.get( s1 + 1 ) & 0xFF ) + ( src.get( s1 + 4 ) & 0xFF ) + 2 ) >>> 2 ) );
+            dst.put( d + 2, (byte) ( ( ( src.get( s0 + 2 ) & 0xFF ) + ( src.get( s0 + 5 ) & 0xFF ) + 
+                                       ( src.get( s1 + 2 ) & 0xFF ) + ( src.get( s1 + 5 ) & 0xFF ) + 2 ) >>> 2 ) );
+            s0 += 6; s1 += 6; d += 3;
+          }
+          break;
+        default:
+          for( int x = 0; x < newwidth; x++ ) {
+            for( int k = 0; k < components; k++ ) {
+              dst.put( d++, (byte) ( ( ( src.get( s0 ) & 0xFF ) + ( src.get( s0 + components ) & 0xFF ) + 
+                                       ( src.get( s1 ) & 0xFF ) + ( src.get( s1 + components ) & 0xFF ) + 2 ) >>> 2 ) );
+              s0++; s1++;
+            }
+            s0 += components; s1 += components;
+          }
+          break;
+      }
+    }
+  }
+
+  /** Single row or column, average of two w/o rounding as {@link HalveImage#halve1Dimage_ubyte(int, int, int, ByteBuffer, ByteBuffer, int, int, int)} */
+  private static void halve1DRows( int components, int width, int height,
+                                   ByteBuffer src, int srcOffset, int srcRowStride,
+                                   ByteBuffer dst, int dstOffset, int y0, int y1 ) {
+    if( height == 1 ) {
+      // y0 == 0, y1 == 1
+      final int newwidth = width / 2;
+      int s = srcOffset;
+      int d = dstOffset;
+      for( int x = 0; x < newwidth; x++ ) {
+        for( int k = 0; k < components; k++ ) {
+          dst.put( d++, (byte) ( ( ( src.get( s ) & 0xFF ) + ( src.get( s + components ) & 0xFF ) ) >>> 1 ) );
+          s++;
+        }
+        s += components;
+      }
+    } else {
+      for( int y = y0; y < y1; y++ ) {
+        final int s = srcOffset + 2 * y * srcRowStride;
+        final int d = dstOffset + y * components;
+        for( int k = 0; k < components; k++ ) {
+          dst.put( d + k, (byte) ( ( ( src.get( s + k ) & 0xFF ) + ( src.get( s + srcRowStride + k ) & 0xFF ) ) >>> 1 ) );
+        }
+      }
+    }
+  }
+
+  /**
+   * {@link BuildMipmap#gluBuild2DMipmapLevelsCore(GL, int, int, int, int, int, int, int, int, int, int, int, ByteBuffer)}
+   * implementation for {@link #isSupported(int, int) supported} formats.
+   * <p>
+   * Expects the unpack skip and row length modes to be zero'ed, 
+   * restores all unpack modes from <code>psm</code> when done.
+   * </p>
+   */
+  static int build2DMipmapLevels( GL gl, PixelStorageModes psm, int target, int internalFormat,
+                                  int width, int height, int widthPowerOf2, int heightPowerOf2,
+                                  int format, int cmpts, int userLevel, int baseLevel, int maxLevel, int levels,
+                                  ByteBuffer data, int mark, int rowsize ) {
+    final int dataPos = data.position();
+    try {
+      final ByteBuffer base;
+      final int baseOffset, baseStride;
+      int level = userLevel;
+      if( width == widthPowerOf2 && height == heightPowerOf2 ) {
+        base = data;
+        baseOffset = mark;
+        baseStride = rowsize;
+        if( baseLevel <= level && level <= maxLevel ) {
+          // user image w/ its own unpack modes
+          data.position( mark );
+          gl.glPixelStorei( GL2.GL_UNPACK_ROW_LENGTH, psm.getUnpackRowLength() );
+          gl.glTexImage2D( target, level, internalFormat, width, height, 0, format, GL.GL_UNSIGNED_BYTE, data );
+        }
+      } else {
+        try {
+          base = Buffers.newDirectByteBuffer( widthPowerOf2 * heightPowerOf2 * cmpts );
+        } catch( OutOfMemoryError ome ) {
+          restoreStoreModes( gl, psm );
+          return( GLU.GLU_OUT_OF_MEMORY );
+        }
+        baseOffset = 0;
+        baseStride = widthPowerOf2 * cmpts;
+        data.position( mark );
+        ScaleInternal.scale_internal_ubyte( cmpts, width, height, data, widthPowerOf2, heightPowerOf2,
+                                            base, 1, rowsize, cmpts );
+        if( baseLevel <= level && level <= maxLevel ) {
+          gl.glPixelStorei( GL2.GL_UNPACK_ALIGNMENT, 1 );
+          base.rewind();
+          gl.glTexImage2D( target, level, internalFormat, widthPowerOf2, heightPowerOf2, 0, format, GL.GL_UNSIGNED_BYTE, base );
+        }
+      }
+      // levels above maxLevel are not required
+      final int chainLevels = Math.min( levels, maxLevel ) - userLevel;
+      if( 0 < chainLevels ) {
+        final ByteBuffer chain;
+        try {
+          chain = Buffers.newDirectByteBuffer( getLevelOffset( cmpts, widthPowerOf2, heightPowerOf2, chainLevels + 1 ) );
+        } catch( OutOfMemoryError ome ) {
+          restoreStoreModes( gl, psm );
+          return( GLU.GLU_OUT_OF_MEMORY );
+        }
+        final int n = generateChain( cmpts, widthPowerOf2, heightPowerOf2, base, baseOffset, baseStride, chain, chainLevels );
+
+        // packed rows
+        gl.glPixelStorei( GL2.GL_UNPACK_ROW_LENGTH, 0 );
+        gl.glPixelStorei( GL2.GL_UNPACK_ALIGNMENT, 1 );
+        gl.glPixelStorei( GL2.GL_UNPACK_SWAP_BYTES, GL.GL_FALSE );
+        for( int i = 1; i <= n; i++ ) {
+          level = userLevel + i;
+          if( baseLevel <= level ) {
+            chain.position( getLevelOffset( cmpts, widthPowerOf2, heightPowerOf2, i ) );
+            gl.glTexImage2D( target, level, internalFormat, 
+                             getLevelSize( widthPowerOf2, i ), getLevelSize( heightPowerOf2, i ), 0, 
+                             format, GL.GL_UNSIGNED_BYTE, chain );
+          }
+        }
+      }
+      restoreStoreModes( gl, psm );
+      return( 0 );
+    } finally {
+      data.position( dataPos );
+    }
+  }
+
+  private static void restoreStoreModes( GL gl, PixelStorageModes psm ) {
+    gl.glPixelStorei( GL2.GL_UNPACK_ALIGNMENT, psm.getUnpackAlignment() );
+    gl.glPixelStorei( GL2.GL_UNPACK_SKIP_ROWS, psm.getUnpackSkipRows() );
+    gl.glPixelStorei( GL2.GL_UNPACK_SKIP_PIXELS, psm.getUnpackSkipPixels() );
+    gl.glPixelStorei( GL2.GL_UNPACK_ROW_LENGTH, psm.getUnpackRowLength() );
+    gl.glPixelStorei( GL2.GL_UNPACK_SWAP_BYTES, (psm.getUnpackSwapBytes() ? 1 : 0) );
+  }
+}
@@ -53,4 +53,9 @@ public class WindowsOnscreenWGLDrawable extends WindowsWGLDrawable {
     return new WindowsOnscreenWGLContext(this, shareWith);
   }
 
+  /** The window's DC is released at unlock, since its window class has no CS_OWNDC. */
+  public boolean isSurfaceHandleStable() {
+    return false;
+  }
+
 }
@@ -50,6 +50,14 @@ public abstract class InputEvent extends NEWTEvent
     this.modifiers=modifiers;
  }
 
+ /**
+  * Re-initializes this instance, allowing implementations to pool events.
+  */
+ protected final void reset(int eventType, long when, int modifiers) {
+    reset(eventType, when);
+    this.modifiers=modifiers;
+ }
+
  public int getModifiers() {
     return modifiers;
  }
@@ -85,5 +93,5 @@ public abstract class InputEvent extends NEWTEvent
      return "InputEvent[modifiers:"+modifiers+", "+super.toString()+"]";
  }
 
- private final int modifiers;
+ private int modifiers;
 }
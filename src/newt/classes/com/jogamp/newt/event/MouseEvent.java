@@ -60,6 +60,21 @@ public class MouseEvent extends InputEvent
      this.wheelRotation = rotation;
  }
 
+ /**
+  * Re-initializes this instance, allowing implementations to pool events.
+  */
+ protected final void reset(int eventType, long when,
+                            int modifiers, int x, int y, int clickCount, int button,
+                            int rotation)
+ {
+     reset(eventType, when, modifiers);
+     this.x=x;
+     this.y=y;
+     this.clickCount=clickCount;
+     this.button=button;
+     this.wheelRotation = rotation;
+ }
+
  public int getButton() {
     return button;
  }
@@ -97,7 +112,7 @@ public class MouseEvent extends InputEvent
     }
  }
 
- private final int x, y, clickCount, button, wheelRotation;
+ private int x, y, clickCount, button, wheelRotation;
 
  public static final int EVENT_MOUSE_CLICKED  = 200;
  public static final int EVENT_MOUSE_ENTERED  = 201;
@@ -48,8 +48,8 @@ package com.jogamp.newt.event;
  */
 public class NEWTEvent extends java.util.EventObject {
     private final boolean isSystemEvent;
-    private final int eventType;
-    private final long when;
+    private int eventType;
+    private long when;
     private Object attachment;
 
     static final boolean DEBUG = false;
@@ -114,6 +114,16 @@ public class NEWTEvent extends java.util.EventObject {
         this.attachment=null;
     }
 
+    /**
+     * Re-initializes this instance, allowing implementations to pool events.
+     * The attachment is cleared.
+     */
+    protected final void reset(int eventType, long when) {
+        this.eventType = eventType;
+        this.when = when;
+        this.attachment=null;
+    }
+
     /** Indicates whether this event was produced by the system or
         generated by user code. */
     public final boolean isSystemEvent() {
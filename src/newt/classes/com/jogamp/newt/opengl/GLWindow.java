@@ -315,7 +315,11 @@ public class GLWindow implements GLAutoDrawable, Window, NEWTEventConsumer, FPSC
         DisposeAction disposeAction = new DisposeAction();
 
         public synchronized void destroyActionPreLock() {
-            // nop
+            // the context may be left current on the animation thread,
+            // which needs the window lock to release it
+            if( null != context ) {
+                GLDrawableHelper.awaitStickyRelease(context);
+            }
         }
 
         public synchronized void destroyActionInLock() {
@@ -532,6 +536,7 @@ public class GLWindow implements GLAutoDrawable, Window, NEWTEventConsumer, FPSC
         }
         
         if( isVisible() && null != context ) {
+            GLDrawableHelper.awaitStickyRelease(context);
             if( NativeSurface.LOCK_SURFACE_NOT_READY < lockSurface() ) {
                 try {
                     helper.invokeGL(drawable, context, displayAction, initAction);
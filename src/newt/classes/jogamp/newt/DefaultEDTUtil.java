@@ -37,29 +37,104 @@
 
 package jogamp.newt;
 
-import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
 import javax.media.nativewindow.NativeWindowException;
 import com.jogamp.common.util.RunnableTask;
 import com.jogamp.newt.util.EDTUtil;
 
+/**
+ * Event driven EDT implementation.
+ * <p>
+ * Tasks are enqueued in a lock free queue, all pending tasks are executed
+ * in one iteration following the native event dispatch.
+ * If idle, the EDT blocks on the native event source via the optional {@link EventWaiter},
+ * or parks for at most {@link EDTUtil#defaultEDTPollGranularity} otherwise.
+ * Enqueuing a task wakes up the EDT immediately in both cases.
+ * </p>
+ */
 public class DefaultEDTUtil implements EDTUtil {
     public static final boolean DEBUG = Debug.debug("EDT");
 
+    /** 
+     * Maximum time in milliseconds the EDT blocks on the {@link EventWaiter} w/o being woken up,
+     * a safety net only.
+     */
+    public static final long eventWaitTimeout = 100;
+
+    /**
+     * Blocking access to the native event source,
+     * allowing the EDT to sleep until native events or tasks arrive.
+     */
+    public static interface EventWaiter {
+        /**
+         * Blocks until native events are pending, {@link #wakeup()} has been called
+         * or <code>timeoutMillis</code> elapsed. Called on the EDT only.
+         *
+         * @return false if blocking is not supported (currently), 
+         *         i.e. the EDT shall fall back to polling.
+         */
+        public boolean waitForEvents(long timeoutMillis);
+
+        /** Unblocks a pending or the next {@link #waitForEvents(long)}, may be called from any thread. */
+        public void wakeup();
+    }
+
     private ThreadGroup threadGroup; 
     private EventDispatchThread edt = null;
     private Object edtLock = new Object(); // locking the EDT start/stop state
     private String name;
     int start_iter=0;
     private Runnable dispatchMessages;
+    private EventWaiter eventWaiter;
+
+    // dispatch metrics, written on the EDT only
+    private volatile long taskCount = 0;
+    private volatile long taskLatencySum = 0;
+    private volatile long taskLatencyMax = 0;
 
     public DefaultEDTUtil(ThreadGroup tg, String name, Runnable dispatchMessages) {
+        this(tg, name, dispatchMessages, null);
+    }
+
+    public DefaultEDTUtil(ThreadGroup tg, String name, Runnable dispatchMessages, EventWaiter eventWaiter) {
         this.threadGroup = tg;
         this.name=Thread.currentThread().getName()+"-"+name+"-EDT-";
         this.dispatchMessages=dispatchMessages;
+        this.eventWaiter=eventWaiter;
         this.edt = new EventDispatchThread(threadGroup, name);
         this.edt.setDaemon(true); // don't stop JVM from shutdown ..
     }
 
+    /** @return the number of tasks executed on the EDT since the last {@link #resetTaskLatency()} */
+    public final long getTaskCount() { return taskCount; }
+
+    /** @return the summed up latency in nanoseconds between enqueuing and executing a task */
+    public final long getTaskLatencySum() { return taskLatencySum; }
+
+    /** @return the maximum latency in nanoseconds between enqueuing and executing a task */
+    public final long getTaskLatencyMax() { return taskLatencyMax; }
+
+    /** @return the mean latency in nanoseconds between enqueuing and executing a task */
+    public final long getTaskLatencyMean() { 
+        final long n = taskCount;
+        return 0 < n ? taskLatencySum / n : 0;
+    }
+
+    public final void resetTaskLatency() {
+        taskCount = 0;
+        taskLatencySum = 0;
+        taskLatencyMax = 0;
+    }
+
+    /** 
+     * Wakes up the idle EDT, e.g. if events have been enqueued for 
+     * the next dispatchMessages cycle. May be called from any thread.
+     */
+    public final void wakeup() {
+        edt.wakeup();
+    }
+
     public final void reset() {
         synchronized(edtLock) { 
             waitUntilStopped();
@@ -144,7 +219,7 @@ public class DefaultEDTUtil implements EDTUtil {
                 if( isCurrentThreadEDT() ) {
                     task.run();
                     wait = false; // running in same thread (EDT) -> no wait
-                    if(stop && edt.tasks.size()>0) {
+                    if(stop && !edt.tasks.isEmpty()) {
                         String msg = "Warning: EDT about (2) to stop, having remaining tasks: "+edt.tasks.size()+" - "+edt;
                         if(DEBUG) {
                             Throwable t = new Throwable(msg);
@@ -154,19 +229,17 @@ public class DefaultEDTUtil implements EDTUtil {
                         }
                     }
                 } else {
-                    synchronized(edt.tasks) {
-                        start(); // start if not started yet and !shouldStop
-                        wait = wait && edt.isRunning();
-                        rTask = new RunnableTask(task,
-                                                 wait ? rTaskLock : null,
-                                                 true /* always catch and report Exceptions, don't disturb EDT */);
-                        if(stop) {
-                            rTask.setAttachment(new Boolean(true)); // mark final task
-                        }
-                        // append task ..
-                        edt.tasks.add(rTask);
-                        edt.tasks.notifyAll();
+                    start(); // start if not started yet and !shouldStop
+                    wait = wait && edt.isRunning();
+                    rTask = new RunnableTask(task,
+                                             wait ? rTaskLock : null,
+                                             true /* always catch and report Exceptions, don't disturb EDT */);
+                    if(stop) {
+                        rTask.setAttachment(new Boolean(true)); // mark final task
                     }
+                    // append task ..
+                    edt.tasks.add(new QueuedTask(rTask));
+                    edt.wakeup();
                 }
             }
             if( wait ) {
@@ -199,11 +272,11 @@ public class DefaultEDTUtil implements EDTUtil {
         if(!_edt.isRunning() || _edt == Thread.currentThread()) {
             return;
         }
-        synchronized(_edt.tasks) {
-            while(_edt.isRunning() && _edt.tasks.size()>0) {
+        synchronized(_edt.idleLock) {
+            while(_edt.isRunning() && !_edt.tasks.isEmpty()) {
                 try {
-                    _edt.tasks.notifyAll();
-                    _edt.tasks.wait();
+                    _edt.wakeup();
+                    _edt.idleLock.wait();
                 } catch (InterruptedException e) {
                     e.printStackTrace();
                 }
@@ -225,10 +298,21 @@ public class DefaultEDTUtil implements EDTUtil {
         }
     }
 
+    static final class QueuedTask {
+        final RunnableTask task;
+        final long enqueued;
+
+        QueuedTask(RunnableTask task) {
+            this.task = task;
+            this.enqueued = System.nanoTime();
+        }
+    }
+
     class EventDispatchThread extends Thread {
         volatile boolean shouldStop = false;
         volatile boolean isRunning = false;
-        ArrayList tasks = new ArrayList(); // one shot tasks
+        final ConcurrentLinkedQueue/*<QueuedTask>*/ tasks = new ConcurrentLinkedQueue(); // one shot tasks
+        final Object idleLock = new Object(); // notified after the task queue has been drained
 
         public EventDispatchThread(ThreadGroup tg, String name) {
             super(tg, name);
@@ -244,9 +328,39 @@ public class DefaultEDTUtil implements EDTUtil {
             super.start();
         }
 
+        final void wakeup() {
+            if(null!=eventWaiter) {
+                eventWaiter.wakeup();
+            }
+            LockSupport.unpark(this);
+        }
+
+        private final void runTask(QueuedTask qt) {
+            final long latency = System.nanoTime() - qt.enqueued;
+            taskCount++;
+            taskLatencySum += latency;
+            if(latency > taskLatencyMax) {
+                taskLatencyMax = latency;
+            }
+            // Exceptions are always catched, see RunnableTask creation above
+            qt.task.run();
+        }
+
+        private final void notifyIdle() {
+            synchronized(idleLock) {
+                idleLock.notifyAll();
+            }
+        }
+
+        private final void waitForWork() {
+            if( null == eventWaiter || !eventWaiter.waitForEvents(eventWaitTimeout) ) {
+                LockSupport.parkNanos(defaultEDTPollGranularity * 1000000L);
+            }
+        }
+
         /** 
-         * Utilizing locking only on tasks and its execution,
-         * not for event dispatching.
+         * No locking for event dispatching and task execution,
+         * the task queue is lock free.
          */
         @Override
         final public void run() {
@@ -260,26 +374,17 @@ public class DefaultEDTUtil implements EDTUtil {
                     if(!shouldStop) {
                         dispatchMessages.run();
                     }
-                    // wait and work on tasks
-                    RunnableTask task = null;
-                    synchronized(tasks) {
-                        // wait for tasks
-                        if(!shouldStop && tasks.size()==0) {
-                            try {
-                                tasks.wait(defaultEDTPollGranularity);
-                            } catch (InterruptedException e) {
-                                e.printStackTrace();
-                            }
-                        }
-                        // execute one task, if available
-                        if(tasks.size()>0) {
-                            task = (RunnableTask) tasks.remove(0);
-                            tasks.notifyAll();
-                        }
-                    }
-                    if(null!=task) {
-                        // Exceptions are always catched, see RunnableTask creation above
-                        task.run();
+                    // work on all pending tasks
+                    QueuedTask qt = (QueuedTask) tasks.poll();
+                    if(null!=qt) {
+                        do {
+                            runTask(qt);
+                            qt = (QueuedTask) tasks.poll();
+                        } while(null!=qt);
+                        notifyIdle();
+                    } else if(!shouldStop) {
+                        // wait for native events or tasks
+                        waitForWork();
                     }
                 } while(!shouldStop) ;
             } catch (Throwable t) {
@@ -292,28 +397,26 @@ public class DefaultEDTUtil implements EDTUtil {
                 }
             } finally {
                 if(DEBUG) {
-                    RunnableTask rt = ( tasks.size() > 0 ) ? (RunnableTask) tasks.get(0) : null ;
-                    System.err.println(getName()+": EDT run() END "+ getName()+", tasks: "+tasks.size()+", "+rt+", "+error); 
+                    QueuedTask qt = (QueuedTask) tasks.peek();
+                    System.err.println(getName()+": EDT run() END "+ getName()+", tasks: "+tasks.size()+", "+(null!=qt?qt.task:null)+", "+error); 
                 }
                 synchronized(edtLock) {
                     if(null==error) {
-                        synchronized(tasks) {
-                            // drain remaining tasks (stop not on EDT), 
-                            // while having tasks and no previous-task, or previous-task is non final
-                            RunnableTask task = null;
-                            while ( ( null == task || task.getAttachment() == null ) && tasks.size() > 0 ) {
-                                task = ( RunnableTask ) tasks.remove(0);
-                                task.run();
-                                tasks.notifyAll();
-                            }
-                            if(DEBUG) {
-                                if(null!=task && task.getAttachment()==null) {
-                                    Throwable t = new Throwable("Warning: EDT exit: Last task Not Final: "+tasks.size()+", "+task+" - "+edt);
-                                    t.printStackTrace();
-                                } else if(tasks.size()>0) {
-                                    Throwable t = new Throwable("Warning: EDT exit: Remaining tasks Post Final: "+tasks.size());
-                                    t.printStackTrace();
-                                }
+                        // drain remaining tasks (stop not on EDT), 
+                        // while having tasks and no previous-task, or previous-task is non final
+                        RunnableTask task = null;
+                        QueuedTask qt;
+                        while ( ( null == task || task.getAttachment() == null ) && null != ( qt = (QueuedTask) tasks.poll() ) ) {
+                            task = qt.task;
+                            runTask(qt);
+                        }
+                        if(DEBUG) {
+                            if(null!=task && task.getAttachment()==null) {
+                                Throwable t = new Throwable("Warning: EDT exit: Last task Not Final: "+tasks.size()+", "+task+" - "+edt);
+                                t.printStackTrace();
+                            } else if(tasks.size()>0) {
+                                Throwable t = new Throwable("Warning: EDT exit: Remaining tasks Post Final: "+tasks.size());
+                                t.printStackTrace();
                             }
                         }
                     }
@@ -322,6 +425,7 @@ public class DefaultEDTUtil implements EDTUtil {
                         edtLock.notifyAll();
                     }
                 }
+                notifyIdle();
                 if(DEBUG) {
                     System.err.println(getName()+": EDT run() EXIT "+ getName()+", "+error);
                 }
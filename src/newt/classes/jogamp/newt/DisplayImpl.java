@@ -36,6 +36,7 @@ package jogamp.newt;
 
 import com.jogamp.newt.Display;
 import com.jogamp.newt.NewtFactory;
+import com.jogamp.newt.event.MouseEvent;
 import com.jogamp.newt.event.NEWTEvent;
 import com.jogamp.newt.event.NEWTEventConsumer;
 import jogamp.newt.event.NEWTEventTask;
@@ -49,6 +50,9 @@ import javax.media.nativewindow.NativeWindowFactory;
 public abstract class DisplayImpl extends Display {
     public static final boolean DEBUG_TEST_EDT_MAINTHREAD = Debug.isPropertyDefined("newt.test.EDTMainThread", true); // JAU EDT Test ..
 
+    /** Default of {@link #isEventPooling()}, enabled via property <code>newt.event.pooling</code> */
+    public static final boolean DEFAULT_EVENT_POOLING = Debug.isPropertyDefined("newt.event.pooling", true);
+
     private static int serialno = 1;
 
     private static Class getDisplayClass(String type) 
@@ -169,7 +173,15 @@ public abstract class DisplayImpl extends Display {
         if(NewtFactory.useEDT()) {
             if ( ! DEBUG_TEST_EDT_MAINTHREAD ) {
                 Thread current = Thread.currentThread();
-                edtUtil = new DefaultEDTUtil(current.getThreadGroup(), "Display-"+getFQName(), dispatchMessagesRunnable);
+                edtUtil = new DefaultEDTUtil(current.getThreadGroup(), "Display-"+getFQName(), dispatchMessagesRunnable, 
+                                             new DefaultEDTUtil.EventWaiter() {
+                                                public boolean waitForEvents(long timeoutMillis) {
+                                                    return waitForEventsNative(timeoutMillis);
+                                                }
+                                                public void wakeup() {
+                                                    wakeupNative();
+                                                }
+                                             });
             } else {
                 // Begin JAU EDT Test ..
                 MainThread.addPumpMessage(this, dispatchMessagesRunnable); 
@@ -351,6 +363,43 @@ public abstract class DisplayImpl extends Display {
 
     protected abstract void dispatchMessagesNative();
 
+    /**
+     * Enables or disables the event pooling mode:
+     * <ul>
+     *   <li>Mouse events are reused from a pool after being dispatched,
+     *       hence listeners shall not keep references to them.</li>
+     *   <li>Consecutive pending {@link MouseEvent#EVENT_MOUSE_MOVED} and {@link MouseEvent#EVENT_MOUSE_DRAGGED} events
+     *       of the same source, modifiers and button are coalesced to the latest one.</li>
+     * </ul>
+     * Default is {@link #DEFAULT_EVENT_POOLING}.
+     */
+    public final void setEventPooling(boolean v) {
+        eventPooling = v;
+    }
+
+    public final boolean isEventPooling() {
+        return eventPooling;
+    }
+
+    /**
+     * Blocks until native events are pending, {@link #wakeupNative()} has been called
+     * or <code>timeoutMillis</code> elapsed. Called on the EDT only.
+     * <p>
+     * The default implementation returns <code>false</code>, i.e. blocking on the
+     * native event source is not supported and the EDT polls.
+     * </p>
+     * @return true if blocking on the native event source is supported
+     */
+    protected boolean waitForEventsNative(long timeoutMillis) {
+        return false;
+    }
+
+    /**
+     * Unblocks a pending or the next {@link #waitForEventsNative(long)}, may be called from any thread.
+     */
+    protected void wakeupNative() {
+    }
+
     private Object eventsLock = new Object();
     private ArrayList/*<NEWTEvent>*/ events = new ArrayList();
     private volatile boolean haveEvents = false;
@@ -369,7 +418,9 @@ public abstract class DisplayImpl extends Display {
             NEWTEventConsumer consumer = (NEWTEventConsumer) source ;
             if(!consumer.consumeEvent(event)) {
                 // enqueue for later execution
-                enqueueEvent(false, event);
+                requeueEvent(event);
+            } else if(event instanceof PooledMouseEvent) {
+                ((PooledMouseEvent)event).release();
             }
         } else {
             throw new RuntimeException("Event source not NEWT: "+source.getClass().getName()+", "+source);
@@ -421,14 +472,36 @@ public abstract class DisplayImpl extends Display {
             return;
         }
         
+        if(!wait) {
+            NEWTEvent replaced = null;
+            synchronized(eventsLock) {
+                replaced = coalesceEvent(e);
+                if(null == replaced) {
+                    events.add(new NEWTEventTask(e, null));
+                }
+                haveEvents = true;
+                eventsLock.notifyAll();
+            }
+            if(replaced instanceof PooledMouseEvent) {
+                ((PooledMouseEvent)replaced).release();
+            }
+            if(edtUtil instanceof DefaultEDTUtil) {
+                ((DefaultEDTUtil)edtUtil).wakeup(); // dispatch w/o delay
+            }
+            return;
+        }
+
         Object lock = new Object();
-        NEWTEventTask eTask = new NEWTEventTask(e, wait?lock:null);
+        NEWTEventTask eTask = new NEWTEventTask(e, lock);
         synchronized(lock) {
             synchronized(eventsLock) {
                 events.add(eTask);
                 haveEvents = true;
                 eventsLock.notifyAll();
             }
+            if(edtUtil instanceof DefaultEDTUtil) {
+                ((DefaultEDTUtil)edtUtil).wakeup(); // dispatch w/o delay
+            }
             if( wait ) {
                 try {
                     lock.wait();
@@ -439,7 +512,57 @@ public abstract class DisplayImpl extends Display {
         }
     }
 
+    /**
+     * Appends an event which could not be consumed yet. It is not coalesced,
+     * since pending events are newer and would be replaced by the stale one.
+     */
+    private void requeueEvent(NEWTEvent e) {
+        synchronized(eventsLock) {
+            events.add(new NEWTEventTask(e, null));
+            haveEvents = true;
+            eventsLock.notifyAll();
+        }
+        if(edtUtil instanceof DefaultEDTUtil) {
+            ((DefaultEDTUtil)edtUtil).wakeup(); // dispatch w/o delay
+        }
+    }
+
+    /**
+     * Replaces the last pending event with <code>e</code>, if both are coalescable,
+     * <code>e</code> is not older and the issuer of the last one does not wait.
+     * Caller holds the events lock.
+     *
+     * @return the replaced event or null
+     */
+    private NEWTEvent coalesceEvent(NEWTEvent e) {
+        if( !eventPooling || !haveEvents ) {
+            return null;
+        }
+        final int type = e.getEventType();
+        if( MouseEvent.EVENT_MOUSE_MOVED != type && MouseEvent.EVENT_MOUSE_DRAGGED != type ) {
+            return null;
+        }
+        final int n = events.size();
+        if( 0 == n ) {
+            return null;
+        }
+        final NEWTEventTask last = (NEWTEventTask) events.get(n-1);
+        final NEWTEvent le = last.get();
+        if( last.isWaiting() || le.getEventType() != type || le.getSource() != e.getSource() ) {
+            return null;
+        }
+        final MouseEvent lme = (MouseEvent) le;
+        final MouseEvent me = (MouseEvent) e;
+        if( lme.getModifiers() != me.getModifiers() || lme.getButton() != me.getButton() ||
+            me.getWhen() < lme.getWhen() ) {
+            return null;
+        }
+        last.set(e);
+        return le;
+    }
+
     protected EDTUtil edtUtil = null;
+    private volatile boolean eventPooling = DEFAULT_EVENT_POOLING;
     protected int id;
     protected String name;
     protected String type;
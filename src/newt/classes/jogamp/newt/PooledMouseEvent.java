@@ -0,0 +1,55 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.newt;
+
+import com.jogamp.newt.event.MouseEvent;
+
+/**
+ * Reusable {@link MouseEvent}, owned by the pool of its source {@link WindowImpl}.
+ * <p>
+ * Used in the event pooling mode only, see {@link DisplayImpl#setEventPooling(boolean)}.
+ * Listeners shall not keep references to such events beyond the listener callback.
+ * </p>
+ */
+final class PooledMouseEvent extends MouseEvent {
+    PooledMouseEvent(WindowImpl source) {
+        super(0, source, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    final PooledMouseEvent set(int eventType, long when,
+                               int modifiers, int x, int y, int clickCount, int button,
+                               int rotation) {
+        reset(eventType, when, modifiers, x, y, clickCount, button, rotation);
+        return this;
+    }
+
+    /** Returns this instance to the pool of its source window. */
+    final void release() {
+        ((WindowImpl)getSource()).releaseMouseEvent(this);
+    }
+}
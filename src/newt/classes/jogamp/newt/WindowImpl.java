@@ -105,14 +105,18 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
     private Object childWindowsLock = new Object();
     private ArrayList childWindows = new ArrayList();
 
-    private ArrayList mouseListeners = new ArrayList();
+    // copy-on-write listener arrays, i.e. dispatch iterates w/o copying or locking
+    private Object listenersLock = new Object();
+    private volatile MouseListener[] mouseListeners = new MouseListener[0];
     private int  mouseButtonPressed = 0;  // current pressed mouse button number
     private long lastMousePressed = 0;    // last time when a mouse button was pressed
     private int  lastMouseClickCount = 0; // last mouse button click count
+    private ArrayList mouseEventPool = new ArrayList(); // PooledMouseEvent, see DisplayImpl.isEventPooling()
+    private static final int mouseEventPoolMax = 16;
 
-    private ArrayList keyListeners = new ArrayList();
+    private volatile KeyListener[] keyListeners = new KeyListener[0];
 
-    private ArrayList windowListeners  = new ArrayList();
+    private volatile WindowListener[] windowListeners  = new WindowListener[0];
     private boolean repaintQueued = false;
 
     ScreenModeListenerImpl screenModeListenerImpl = new ScreenModeListenerImpl();
@@ -1310,17 +1314,20 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         for (int i = 0; i < surfaceUpdatedListeners.size(); i++ ) {
           sb.append(surfaceUpdatedListeners.get(i)+", ");
         }
-        sb.append("], WindowListeners num "+windowListeners.size()+" [");
-        for (int i = 0; i < windowListeners.size(); i++ ) {
-          sb.append(windowListeners.get(i)+", ");
+        final WindowListener[] _windowListeners = windowListeners;
+        sb.append("], WindowListeners num "+_windowListeners.length+" [");
+        for (int i = 0; i < _windowListeners.length; i++ ) {
+          sb.append(_windowListeners[i]+", ");
         }
-        sb.append("], MouseListeners num "+mouseListeners.size()+" [");
-        for (int i = 0; i < mouseListeners.size(); i++ ) {
-          sb.append(mouseListeners.get(i)+", ");
+        final MouseListener[] _mouseListeners = mouseListeners;
+        sb.append("], MouseListeners num "+_mouseListeners.length+" [");
+        for (int i = 0; i < _mouseListeners.length; i++ ) {
+          sb.append(_mouseListeners[i]+", ");
         }
-        sb.append("], KeyListeners num "+keyListeners.size()+" [");
-        for (int i = 0; i < keyListeners.size(); i++ ) {
-          sb.append(keyListeners.get(i)+", ");
+        final KeyListener[] _keyListeners = keyListeners;
+        sb.append("], KeyListeners num "+_keyListeners.length+" [");
+        for (int i = 0; i < _keyListeners.length; i++ ) {
+          sb.append(_keyListeners[i]+", ");
         }
         sb.append("] ]");
         return sb.toString();
@@ -1561,6 +1568,8 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
 
         if(!done) {
             enqueueEvent(wait, event);
+        } else if(event instanceof PooledMouseEvent) {
+            ((PooledMouseEvent)event).release();
         }
     }
 
@@ -1702,7 +1711,8 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         if(button<0||button>MouseEvent.BUTTON_NUMBER) {
             throw new NativeWindowException("Invalid mouse button number" + button);
         }
-        long when = System.currentTimeMillis();
+        final long when = System.currentTimeMillis();
+        final boolean pooled = ((DisplayImpl)getScreen().getDisplay()).isEventPooling();
         MouseEvent eClicked = null;
         MouseEvent e = null;
 
@@ -1714,14 +1724,14 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
             }
             lastMousePressed=when;
             mouseButtonPressed=button;
-            e = new MouseEvent(eventType, this, when,
-                               modifiers, x, y, lastMouseClickCount, button, 0);
+            e = newMouseEvent(pooled, eventType, when,
+                              modifiers, x, y, lastMouseClickCount, button, 0);
         } else if(MouseEvent.EVENT_MOUSE_RELEASED==eventType) {
-            e = new MouseEvent(eventType, this, when,
-                               modifiers, x, y, lastMouseClickCount, button, 0);
+            e = newMouseEvent(pooled, eventType, when,
+                              modifiers, x, y, lastMouseClickCount, button, 0);
             if(when-lastMousePressed<MouseEvent.getClickTimeout()) {
-                eClicked = new MouseEvent(MouseEvent.EVENT_MOUSE_CLICKED, this, when,
-                                          modifiers, x, y, lastMouseClickCount, button, 0);
+                eClicked = newMouseEvent(pooled, MouseEvent.EVENT_MOUSE_CLICKED, when,
+                                         modifiers, x, y, lastMouseClickCount, button, 0);
             } else {
                 lastMouseClickCount=0;
                 lastMousePressed=0;
@@ -1729,16 +1739,16 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
             mouseButtonPressed=0;
         } else if(MouseEvent.EVENT_MOUSE_MOVED==eventType) {
             if (mouseButtonPressed>0) {
-                e = new MouseEvent(MouseEvent.EVENT_MOUSE_DRAGGED, this, when,
-                                   modifiers, x, y, 1, mouseButtonPressed, 0);
+                e = newMouseEvent(pooled, MouseEvent.EVENT_MOUSE_DRAGGED, when,
+                                  modifiers, x, y, 1, mouseButtonPressed, 0);
             } else {
-                e = new MouseEvent(eventType, this, when,
-                                   modifiers, x, y, 0, button, 0);
+                e = newMouseEvent(pooled, eventType, when,
+                                  modifiers, x, y, 0, button, 0);
             }
         } else if(MouseEvent.EVENT_MOUSE_WHEEL_MOVED==eventType) {
-            e = new MouseEvent(eventType, this, when, modifiers, x, y, 0, button, rotation);
+            e = newMouseEvent(pooled, eventType, when, modifiers, x, y, 0, button, rotation);
         } else {
-            e = new MouseEvent(eventType, this, when, modifiers, x, y, 0, button, 0);
+            e = newMouseEvent(pooled, eventType, when, modifiers, x, y, 0, button, 0);
         }
         doEvent(enqueue, wait, e);
         if(null!=eClicked) {
@@ -1750,6 +1760,33 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
     }
 
 
+    private MouseEvent newMouseEvent(boolean pooled, int eventType, long when,
+                                     int modifiers, int x, int y, int clickCount, int button, int rotation) {
+        if(!pooled) {
+            return new MouseEvent(eventType, this, when, modifiers, x, y, clickCount, button, rotation);
+        }
+        PooledMouseEvent e = null;
+        synchronized(mouseEventPool) {
+            final int n = mouseEventPool.size();
+            if(0<n) {
+                e = (PooledMouseEvent) mouseEventPool.remove(n-1);
+            }
+        }
+        if(null==e) {
+            e = new PooledMouseEvent(this);
+        }
+        return e.set(eventType, when, modifiers, x, y, clickCount, button, rotation);
+    }
+
+    /** Returns a dispatched pooled event, see {@link PooledMouseEvent#release()} */
+    final void releaseMouseEvent(PooledMouseEvent e) {
+        synchronized(mouseEventPool) {
+            if(mouseEventPool.size()<mouseEventPoolMax) {
+                mouseEventPool.add(e);
+            }
+        }
+    }
+
     public void addMouseListener(MouseListener l) {
         addMouseListener(-1, l);
     }
@@ -1758,33 +1795,45 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         if(l == null) {
             return;
         }
-        ArrayList clonedListeners = (ArrayList) mouseListeners.clone();
-        if(0>index) { 
-            index = clonedListeners.size(); 
+        synchronized(listenersLock) {
+            final MouseListener[] o = mouseListeners;
+            if(0>index) { 
+                index = o.length; 
+            }
+            final MouseListener[] n = new MouseListener[o.length+1];
+            copyAdd(o, n, index, l);
+            mouseListeners = n;
         }
-        clonedListeners.add(index, l);
-        mouseListeners = clonedListeners;
     }
 
     public void removeMouseListener(MouseListener l) {
         if (l == null) {
             return;
         }
-        ArrayList clonedListeners = (ArrayList) mouseListeners.clone();
-        clonedListeners.remove(l);
-        mouseListeners = clonedListeners;
+        synchronized(listenersLock) {
+            final MouseListener[] o = mouseListeners;
+            final int idx = indexOf(o, l);
+            if(0<=idx) {
+                final MouseListener[] n = new MouseListener[o.length-1];
+                copyRemove(o, n, idx);
+                mouseListeners = n;
+            }
+        }
     }
 
     public MouseListener getMouseListener(int index) {
-        ArrayList clonedListeners = (ArrayList) mouseListeners.clone();
+        final MouseListener[] o = mouseListeners;
         if(0>index) { 
-            index = clonedListeners.size()-1; 
+            index = o.length-1; 
         }
-        return (MouseListener) clonedListeners.get(index);
+        return o[index];
     }
 
     public MouseListener[] getMouseListeners() {
-        return (MouseListener[]) mouseListeners.toArray();
+        final MouseListener[] o = mouseListeners;
+        final MouseListener[] n = new MouseListener[o.length];
+        System.arraycopy(o, 0, n, 0, o.length);
+        return n;
     }
 
     protected void consumeMouseEvent(MouseEvent e) {
@@ -1792,8 +1841,9 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
             System.err.println("consumeMouseEvent: event:         "+e);
         }
 
-        for(int i = 0; i < mouseListeners.size(); i++ ) {
-            MouseListener l = (MouseListener) mouseListeners.get(i);
+        final MouseListener[] _mouseListeners = mouseListeners;
+        for(int i = 0; i < _mouseListeners.length; i++ ) {
+            final MouseListener l = _mouseListeners[i];
             switch(e.getEventType()) {
                 case MouseEvent.EVENT_MOUSE_CLICKED:
                     l.mouseClicked(e);
@@ -1845,41 +1895,54 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         if(l == null) {
             return;
         }
-        ArrayList clonedListeners = (ArrayList) keyListeners.clone();
-        if(0>index) { 
-            index = clonedListeners.size();
+        synchronized(listenersLock) {
+            final KeyListener[] o = keyListeners;
+            if(0>index) { 
+                index = o.length;
+            }
+            final KeyListener[] n = new KeyListener[o.length+1];
+            copyAdd(o, n, index, l);
+            keyListeners = n;
         }
-        clonedListeners.add(index, l);
-        keyListeners = clonedListeners;
     }
 
     public void removeKeyListener(KeyListener l) {
         if (l == null) {
             return;
         }
-        ArrayList clonedListeners = (ArrayList) keyListeners.clone();
-        clonedListeners.remove(l);
-        keyListeners = clonedListeners;
+        synchronized(listenersLock) {
+            final KeyListener[] o = keyListeners;
+            final int idx = indexOf(o, l);
+            if(0<=idx) {
+                final KeyListener[] n = new KeyListener[o.length-1];
+                copyRemove(o, n, idx);
+                keyListeners = n;
+            }
+        }
     }
 
     public KeyListener getKeyListener(int index) {
-        ArrayList clonedListeners = (ArrayList) keyListeners.clone();
+        final KeyListener[] o = keyListeners;
         if(0>index) { 
-            index = clonedListeners.size()-1;
+            index = o.length-1;
         }
-        return (KeyListener) clonedListeners.get(index);
+        return o[index];
     }
 
     public KeyListener[] getKeyListeners() {
-        return (KeyListener[]) keyListeners.toArray();
+        final KeyListener[] o = keyListeners;
+        final KeyListener[] n = new KeyListener[o.length];
+        System.arraycopy(o, 0, n, 0, o.length);
+        return n;
     }
 
     protected void consumeKeyEvent(KeyEvent e) {
         if(DEBUG_KEY_EVENT) {
             System.err.println("consumeKeyEvent: "+e);
         }
-        for(int i = 0; i < keyListeners.size(); i++ ) {
-            KeyListener l = (KeyListener) keyListeners.get(i);
+        final KeyListener[] _keyListeners = keyListeners;
+        for(int i = 0; i < _keyListeners.length; i++ ) {
+            final KeyListener l = _keyListeners[i];
             switch(e.getEventType()) {
                 case KeyEvent.EVENT_KEY_PRESSED:
                     l.keyPressed(e);
@@ -1917,41 +1980,77 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         if(l == null) {
             return;
         }
-        ArrayList clonedListeners = (ArrayList) windowListeners.clone();
-        if(0>index) { 
-            index = clonedListeners.size(); 
+        synchronized(listenersLock) {
+            final WindowListener[] o = windowListeners;
+            if(0>index) { 
+                index = o.length; 
+            }
+            final WindowListener[] n = new WindowListener[o.length+1];
+            copyAdd(o, n, index, l);
+            windowListeners = n;
         }
-        clonedListeners.add(index, l);
-        windowListeners = clonedListeners;
     }
 
     public final void removeWindowListener(WindowListener l) {
         if (l == null) {
             return;
         }
-        ArrayList clonedListeners = (ArrayList) windowListeners.clone();
-        clonedListeners.remove(l);
-        windowListeners = clonedListeners;
+        synchronized(listenersLock) {
+            final WindowListener[] o = windowListeners;
+            final int idx = indexOf(o, l);
+            if(0<=idx) {
+                final WindowListener[] n = new WindowListener[o.length-1];
+                copyRemove(o, n, idx);
+                windowListeners = n;
+            }
+        }
     }
 
     public WindowListener getWindowListener(int index) {
-        ArrayList clonedListeners = (ArrayList) windowListeners.clone();
+        final WindowListener[] o = windowListeners;
         if(0>index) { 
-            index = clonedListeners.size()-1; 
+            index = o.length-1; 
         }
-        return (WindowListener) clonedListeners.get(index);
+        return o[index];
     }
 
     public WindowListener[] getWindowListeners() {
-        return (WindowListener[]) windowListeners.toArray();
+        final WindowListener[] o = windowListeners;
+        final WindowListener[] n = new WindowListener[o.length];
+        System.arraycopy(o, 0, n, 0, o.length);
+        return n;
+    }
+
+    private static void copyAdd(Object[] src, Object[] dest, int index, Object l) {
+        if(0>index || index>src.length) {
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+src.length);
+        }
+        System.arraycopy(src, 0, dest, 0, index);
+        dest[index] = l;
+        System.arraycopy(src, index, dest, index+1, src.length-index);
+    }
+
+    private static void copyRemove(Object[] src, Object[] dest, int index) {
+        System.arraycopy(src, 0, dest, 0, index);
+        System.arraycopy(src, index+1, dest, index, src.length-index-1);
+    }
+
+    private static int indexOf(Object[] a, Object l) {
+        for(int i=0; i<a.length; i++) {
+            if(l.equals(a[i])) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     protected void consumeWindowEvent(WindowEvent e) {
         if(DEBUG_WINDOW_EVENT) {
             System.err.println("consumeWindowEvent: "+e+", visible "+isVisible()+" "+getX()+"/"+getY()+" "+getWidth()+"x"+getHeight());
         }
-        for(int i = 0; i < windowListeners.size(); i++ ) {
-            WindowListener l = (WindowListener) windowListeners.get(i);
+        final WindowListener[] _windowListeners = windowListeners;
+        for(int i = 0; i < _windowListeners.length; i++ ) {
+            final WindowListener l = _windowListeners[i];
             switch(e.getEventType()) {
                 case WindowEvent.EVENT_WINDOW_RESIZED:
                     l.windowResized(e);
@@ -45,6 +45,12 @@ public class NEWTEventTask {
 
     public NEWTEvent get() { return event; }
 
+    /** Replaces the event, e.g. to coalesce a pending event with a newer one. */
+    public void set(NEWTEvent event) { this.event = event; }
+
+    /** @return true if the issuer waits for the event being sent */
+    public boolean isWaiting() { return null != notifyObject; }
+
     public void notifyIssuer() {
         if(null != notifyObject) {
             synchronized (notifyObject) {
@@ -75,15 +75,49 @@ public class X11Display extends DisplayImpl {
             X11Util.closeDisplay(handle);
             throw e;
         }
+        synchronized(wakeupLock) {
+            final int[] fds = new int[2];
+            if( CreateWakeupPipe0(fds) ) {
+                wakeupReadFd = fds[0];
+                wakeupWriteFd = fds[1];
+            }
+        }
         aDevice = new X11GraphicsDevice(handle, AbstractGraphicsDevice.DEFAULT_UNIT, NativeWindowFactory.getNullToolkitLock());
         // aDevice = new X11GraphicsDevice(handle, AbstractGraphicsDevice.DEFAULT_UNIT, NativeWindowFactory.createDefaultToolkitLockNoAWT(NativeWindowFactory.TYPE_X11, handle));
         // aDevice = new X11GraphicsDevice(handle, AbstractGraphicsDevice.DEFAULT_UNIT);
     }
 
     protected void closeNativeImpl() {
+        synchronized(wakeupLock) {
+            if( 0 <= wakeupReadFd ) {
+                CloseWakeupPipe0(wakeupReadFd, wakeupWriteFd);
+                wakeupReadFd = -1;
+                wakeupWriteFd = -1;
+            }
+        }
         X11Util.closeDisplay(getHandle());
     }
 
+    /** Blocks on the X11 connection and the wakeup pipe. */
+    protected boolean waitForEventsNative(long timeoutMillis) {
+        final long dpy = getHandle();
+        final int fd = wakeupReadFd;
+        if( 0 == dpy || 0 > fd ) {
+            return false;
+        }
+        WaitForEvents0(dpy, fd, (int)timeoutMillis);
+        return true;
+    }
+
+    protected void wakeupNative() {
+        // locked, so the pipe can't be closed (and its fd reused) while writing
+        synchronized(wakeupLock) {
+            if( 0 <= wakeupWriteFd ) {
+                Wakeup0(wakeupWriteFd);
+            }
+        }
+    }
+
     protected void dispatchMessagesNative() {
         long dpy = getHandle();
         if(0!=dpy) {
@@ -103,6 +137,11 @@ public class X11Display extends DisplayImpl {
 
     private native void DispatchMessages0(long display, long javaObjectAtom, long windowDeleteAtom);
 
+    private static native boolean CreateWakeupPipe0(int[] fds);
+    private static native void CloseWakeupPipe0(int readFd, int writeFd);
+    private static native void Wakeup0(int writeFd);
+    private static native void WaitForEvents0(long display, int readFd, int timeoutMillis);
+
     private void displayCompleted(long javaObjectAtom, long windowDeleteAtom) {
         this.javaObjectAtom=javaObjectAtom;
         this.windowDeleteAtom=windowDeleteAtom;
@@ -110,5 +149,8 @@ public class X11Display extends DisplayImpl {
 
     private long windowDeleteAtom;
     private long javaObjectAtom;
+
+    private final Object wakeupLock = new Object();
+    private volatile int wakeupReadFd = -1, wakeupWriteFd = -1;
 }
 
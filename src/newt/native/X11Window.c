@@ -44,6 +44,8 @@
 #endif
 #include <unistd.h>
 #include <errno.h>
+#include <fcntl.h>
+#include <poll.h>
 #include <X11/Xlib.h>
 #include <X11/Xutil.h>
 #include <X11/keysym.h>
@@ -490,6 +492,101 @@ static void NewtWindows_setFullscreen (Display *dpy, Window root, Window w, Bool
     XSendEvent (dpy, root, False, SubstructureRedirectMask | SubstructureNotifyMask, &xev );
 }
 
+/*
+ * Class:     jogamp_newt_x11_X11Display
+ * Method:    CreateWakeupPipe0
+ * Signature: ([I)Z
+ */
+JNIEXPORT jboolean JNICALL Java_jogamp_newt_x11_X11Display_CreateWakeupPipe0
+  (JNIEnv *env, jclass clazz, jintArray jfds)
+{
+    int fds[2];
+    jint jfdsv[2];
+    int i;
+
+    if( 0 != pipe(fds) ) {
+        fprintf(stderr, "Warning: NEWT X11 CreateWakeupPipe failed, errno %d\n", errno);
+        return JNI_FALSE;
+    }
+    for(i=0; i<2; i++) {
+        fcntl(fds[i], F_SETFL, fcntl(fds[i], F_GETFL) | O_NONBLOCK);
+        fcntl(fds[i], F_SETFD, FD_CLOEXEC);
+        jfdsv[i] = (jint) fds[i];
+    }
+    (*env)->SetIntArrayRegion(env, jfds, 0, 2, jfdsv);
+    return JNI_TRUE;
+}
+
+/*
+ * Class:     jogamp_newt_x11_X11Display
+ * Method:    CloseWakeupPipe0
+ * Signature: (II)V
+ */
+JNIEXPORT void JNICALL Java_jogamp_newt_x11_X11Display_CloseWakeupPipe0
+  (JNIEnv *env, jclass clazz, jint readFd, jint writeFd)
+{
+    close(readFd);
+    close(writeFd);
+}
+
+/*
+ * Class:     jogamp_newt_x11_X11Display
+ * Method:    Wakeup0
+ * Signature: (I)V
+ */
+JNIEXPORT void JNICALL Java_jogamp_newt_x11_X11Display_Wakeup0
+  (JNIEnv *env, jclass clazz, jint writeFd)
+{
+    const char c = 1;
+    // EAGAIN: pipe is full, hence a wakeup is pending already
+    while( 0 > write(writeFd, &c, 1) && EINTR == errno ) ;
+}
+
+static int _eventsQueued(Display * dpy, int mode) {
+    int n;
+    XLockDisplay(dpy);
+    n = XEventsQueued(dpy, mode);
+    XUnlockDisplay(dpy);
+    return n;
+}
+
+/*
+ * Class:     jogamp_newt_x11_X11Display
+ * Method:    WaitForEvents0
+ * Signature: (JII)V
+ *
+ * Blocks in a single poll on the X connection and the wakeup pipe.
+ * Events read into Xlib's queue by another thread sharing the Display
+ * don't wake up the poll, they are dispatched at the latest after timeoutMillis.
+ */
+JNIEXPORT void JNICALL Java_jogamp_newt_x11_X11Display_WaitForEvents0
+  (JNIEnv *env, jclass clazz, jlong display, jint readFd, jint timeoutMillis)
+{
+    Display * dpy = (Display *) (intptr_t) display;
+    struct pollfd pfds[2];
+    char buf[64];
+
+    if ( NULL == dpy ) {
+        return;
+    }
+    // Already queued events, or events pending after flushing our requests
+    if ( 0 < _eventsQueued(dpy, QueuedAfterFlush) ) {
+        return;
+    }
+    pfds[0].fd = ConnectionNumber(dpy);
+    pfds[0].events = POLLIN;
+    pfds[0].revents = 0;
+    pfds[1].fd = readFd;
+    pfds[1].events = POLLIN;
+    pfds[1].revents = 0;
+
+    // EINTR simply returns, the EDT calls again
+    if( 0 < poll(pfds, 2, timeoutMillis) && 0 != ( pfds[1].revents & POLLIN ) ) {
+        // drain all wakeups, one pass serves them all
+        while( 0 < read(readFd, buf, sizeof(buf)) ) ;
+    }
+}
+
 #define USE_SENDIO_DIRECT 1
 
 /*
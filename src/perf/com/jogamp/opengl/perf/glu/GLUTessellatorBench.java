@@ -0,0 +1,123 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+ 
+package com.jogamp.opengl.perf.glu;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.media.opengl.glu.GLU;
+import javax.media.opengl.glu.GLUtessellator;
+import javax.media.opengl.glu.GLUtessellatorCallbackAdapter;
+
+import jogamp.opengl.glu.tessellator.GLUtessellatorImpl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * GLU tessellation of a self intersecting star polygon w/ a hole,
+ * exercising the sweep and the combine callback.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GLUTessellatorBench {
+    @Param({ "64", "1024" })
+    public int points;
+
+    private GLUtessellator tess;
+    private double[][] star;
+    private double[][] hole;
+    private final TessCallback callback = new TessCallback();
+
+    static class TessCallback extends GLUtessellatorCallbackAdapter {
+        int vertices;
+
+        public void begin(int type) { }
+        public void vertex(Object vertexData) { vertices++; }
+        public void end() { }
+        public void combine(double[] coords, Object[] data, float[] weight, Object[] outData) {
+            outData[0] = new double[] { coords[0], coords[1], coords[2] };
+        }
+    }
+
+    @Setup
+    public void setup() {
+        // star w/ 'points' tips, connecting every 3rd tip -> self intersections
+        star = new double[points][];
+        for(int i=0; i<points; i++) {
+            final double a = 2.0 * Math.PI * ( ( i * 3 ) % points ) / points;
+            final double r = 0 == ( i & 1 ) ? 100.0 : 60.0;
+            star[i] = new double[] { r * Math.cos(a), r * Math.sin(a), 0.0 };
+        }
+        hole = new double[points/2][];
+        for(int i=0; i<hole.length; i++) {
+            final double a = -2.0 * Math.PI * i / hole.length;
+            hole[i] = new double[] { 10.0 * Math.cos(a), 10.0 * Math.sin(a), 0.0 };
+        }
+
+        tess = GLUtessellatorImpl.gluNewTess();
+        tess.gluTessCallback(GLU.GLU_TESS_BEGIN, callback);
+        tess.gluTessCallback(GLU.GLU_TESS_VERTEX, callback);
+        tess.gluTessCallback(GLU.GLU_TESS_END, callback);
+        tess.gluTessCallback(GLU.GLU_TESS_COMBINE, callback);
+        tess.gluTessProperty(GLU.GLU_TESS_WINDING_RULE, GLU.GLU_TESS_WINDING_ODD);
+        tess.gluTessNormal(0.0, 0.0, 1.0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        tess.gluDeleteTess();
+    }
+
+    @Benchmark
+    public int tessellate() {
+        callback.vertices = 0;
+        tess.gluTessBeginPolygon(null);
+        tess.gluTessBeginContour();
+        for(int i=0; i<star.length; i++) {
+            tess.gluTessVertex(star[i], 0, star[i]);
+        }
+        tess.gluTessEndContour();
+        tess.gluTessBeginContour();
+        for(int i=0; i<hole.length; i++) {
+            tess.gluTessVertex(hole[i], 0, hole[i]);
+        }
+        tess.gluTessEndContour();
+        tess.gluTessEndPolygon();
+        return callback.vertices;
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+ 
+package com.jogamp.opengl.perf.glu;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import jogamp.opengl.glu.mipmap.HalveImage;
+import jogamp.opengl.glu.mipmap.ParallelMipmap;
+import jogamp.opengl.glu.mipmap.ScaleInternal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * GLU mipmap kernels on GL_UNSIGNED_BYTE RGBA data:
+ * the 2:1 box filter {@link HalveImage} and the arbitrary {@link ScaleInternal},
+ * as well as the specialized and banded {@link ParallelMipmap} kernels.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MipmapBench {
+    static final int components = 4;
+
+    @Param({ "512", "2048" })
+    public int size;
+
+    private ByteBuffer src;
+    private ByteBuffer dst;
+    private ByteBuffer chain;
+
+    @Setup
+    public void setup() {
+        src = Buffers.newDirectByteBuffer(size * size * components);
+        for(int i=0; i<src.capacity(); i++) {
+            src.put(i, (byte) ( i * 31 ));
+        }
+        dst = Buffers.newDirectByteBuffer(size * size * components);
+        chain = Buffers.newDirectByteBuffer(ParallelMipmap.getLevelOffset(components, size, size, ParallelMipmap.getLevelCount(size, size)));
+    }
+
+    @Benchmark
+    public ByteBuffer halveImage() {
+        src.rewind();
+        dst.clear();
+        HalveImage.halveImage_ubyte(components, size, size, src, dst, 1, size * components, components);
+        return dst;
+    }
+
+    /** Non power of two down scaling, as required for NPOT sources */
+    @Benchmark
+    public ByteBuffer scaleInternal() {
+        final int out = size * 3 / 4;
+        src.rewind();
+        dst.clear();
+        ScaleInternal.scale_internal_ubyte(components, size, size, src, out, out, dst, 1, size * components, components);
+        return dst;
+    }
+
+    @Benchmark
+    public ByteBuffer parallelHalveImage() {
+        ParallelMipmap.halveImage(components, size, size, src, 0, size * components, dst, 0);
+        return dst;
+    }
+
+    /** Complete chain into one scratch buffer, compare w/ ~4/3 x {@link #halveImage()} */
+    @Benchmark
+    public ByteBuffer parallelChain() {
+        ParallelMipmap.generateChain(components, size, size, src, 0, size * components, chain, Integer.MAX_VALUE);
+        return chain;
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+ 
+package com.jogamp.opengl.perf.graph;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import jogamp.graph.curve.text.GlyphShape;
+import jogamp.graph.font.FontInt;
+import jogamp.graph.geom.plane.AffineTransform;
+import jogamp.graph.geom.plane.Path2D;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.font.FontFactory;
+import com.jogamp.graph.geom.opengl.SVertex;
+
+/**
+ * {@link com.jogamp.graph.curve.tess.CDTriangulator2D} triangulation of
+ * glyph outlines, as performed for each new string by the TextRenderer,
+ * and of a large generated polygon w/ curved segments.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CDTriangulatorBench {
+    static final String text = "Hello JogAmp @ 60 fps";
+    static final int circleVertices = 512;
+
+    private ArrayList<GlyphShape> glyphs;
+    private OutlineShape circle;
+
+    @Setup
+    public void setup() {
+        final FontInt font = (FontInt) FontFactory.get(FontFactory.UBUNTU).getDefault();
+        final AffineTransform transform = new AffineTransform();
+        final Path2D[] paths = new Path2D[text.length()];
+        font.getOutline(text, 24f, transform, paths);
+
+        glyphs = new ArrayList<GlyphShape>();
+        for(int i=0; i<paths.length; i++) {
+            if(null == paths[i]) {
+                continue;
+            }
+            final GlyphShape glyph = new GlyphShape(SVertex.factory(), paths[i].iterator(transform));
+            if(glyph.getNumVertices() >= 3) {
+                glyphs.add(glyph);
+            }
+        }
+
+        // n-gon w/ every other vertex off-curve and a square hole
+        circle = new OutlineShape(SVertex.factory());
+        for(int i=0; i<circleVertices; i++) {
+            final double a = 2.0 * Math.PI * i / circleVertices;
+            circle.addVertex((float)(100.0*Math.cos(a)), (float)(100.0*Math.sin(a)), 0 == (i & 1));
+        }
+        circle.closeLastOutline();
+        circle.addEmptyOutline();
+        circle.addVertex(-10f, -10f, true);
+        circle.addVertex( 10f, -10f, true);
+        circle.addVertex( 10f,  10f, true);
+        circle.addVertex(-10f,  10f, true);
+        circle.closeLastOutline();
+    }
+
+    @Benchmark
+    public void triangulateGlyphs(Blackhole bh) {
+        for(int i=0; i<glyphs.size(); i++) {
+            bh.consume(glyphs.get(i).triangulate(0.5f));
+        }
+    }
+
+    @Benchmark
+    public Object triangulateShape() {
+        return circle.triangulate(0.5f);
+    }
+}
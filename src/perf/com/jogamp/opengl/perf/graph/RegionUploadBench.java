@@ -0,0 +1,176 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+ 
+package com.jogamp.opengl.perf.graph;
+
+import java.nio.Buffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2ES2;
+
+import jogamp.graph.curve.opengl.VBORegionBuffers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.jogamp.graph.geom.AABBox;
+import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.Vertex;
+import com.jogamp.graph.geom.opengl.SVertex;
+import com.jogamp.opengl.util.GLArrayDataClient;
+import com.jogamp.opengl.util.GLArrayDataServer;
+import com.jogamp.opengl.util.glsl.ShaderState;
+
+/**
+ * Preparation of a large region's triangles for upload, i.e. filling the client buffers 
+ * passed to <code>glBufferData</code>, element wise into separate vertex and texture coordinate arrays 
+ * w/ 16-bit indices as before, and via bulk copy into one interleaved array w/ 32-bit indices
+ * or 16-bit indices split into batches, see {@link VBORegionBuffers}.
+ * <p>
+ * The triangles of a grid mesh are used, as the triangulation of such a large shape would dominate the setup. 
+ * No GL context is required, the data is never enabled nor uploaded.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RegionUploadBench {
+    @Param({ "16384", "131072" })
+    public int vertices;
+
+    private ArrayList<Vertex> meshVertices;
+    private ArrayList<Triangle> meshTriangles;
+    private AABBox box;
+
+    private GLArrayDataClient verticeAttr;
+    private GLArrayDataClient texCoordAttr;
+    private GLArrayDataServer shortIndices;
+    private GLArrayDataServer interleaved;
+    private GLArrayDataServer intIndices;
+    private VBORegionBuffers buffers;
+
+    @Setup
+    public void setup() {
+        final int side = (int) Math.ceil(Math.sqrt(vertices));
+        meshVertices = new ArrayList<Vertex>(side*side);
+        for(int y=0; y<side; y++) {
+            for(int x=0; x<side; x++) {
+                final Vertex v = SVertex.factory().create(x, y, 0f);
+                v.setTexCoord(x & 1, y & 1);
+                v.setId(meshVertices.size());
+                meshVertices.add(v);
+            }
+        }
+        meshTriangles = new ArrayList<Triangle>(2*(side-1)*(side-1));
+        for(int y=0; y<side-1; y++) {
+            for(int x=0; x<side-1; x++) {
+                final Vertex v00 = meshVertices.get(y*side+x);
+                final Vertex v10 = meshVertices.get(y*side+x+1);
+                final Vertex v01 = meshVertices.get((y+1)*side+x);
+                final Vertex v11 = meshVertices.get((y+1)*side+x+1);
+                meshTriangles.add(new Triangle(v00, v10, v11));
+                meshTriangles.add(new Triangle(v00, v11, v01));
+            }
+        }
+        box = new AABBox();
+
+        final ShaderState st = new ShaderState();
+        verticeAttr = GLArrayDataClient.createGLSL(st, "v", 3, GL.GL_FLOAT, false, 256);
+        texCoordAttr = GLArrayDataClient.createGLSL(st, "t", 2, GL.GL_FLOAT, false, 256);
+        shortIndices = GLArrayDataServer.createData(3, GL.GL_SHORT, 256, GL.GL_STATIC_DRAW, GL.GL_ELEMENT_ARRAY_BUFFER);
+        interleaved = GLArrayDataServer.createGLSLInterleaved(st, VBORegionBuffers.COMPONENTS, GL.GL_FLOAT, false, 256, GL.GL_STATIC_DRAW);
+        intIndices = GLArrayDataServer.createData(3, GL2ES2.GL_UNSIGNED_INT, 256, GL.GL_STATIC_DRAW, GL.GL_ELEMENT_ARRAY_BUFFER);
+        buffers = new VBORegionBuffers(st, 256);
+    }
+
+    /** Former path: element wise w/ boxed Vertex access, 16-bit indices overflowing above 65536 vertices */
+    @Benchmark
+    public Buffer separateElementWise() {
+        verticeAttr.seal(false);
+        verticeAttr.rewind();
+        texCoordAttr.seal(false);
+        texCoordAttr.rewind();
+        box.reset();
+        for(int i=0; i<meshVertices.size(); i++) {
+            final Vertex v = meshVertices.get(i);
+            verticeAttr.putf(v.getX());
+            verticeAttr.putf(v.getY());
+            verticeAttr.putf(v.getZ());
+            box.resize(v.getX(), v.getY(), v.getZ());
+            final float[] tex = v.getTexCoord();
+            texCoordAttr.putf(tex[0]);
+            texCoordAttr.putf(tex[1]);
+        }
+        verticeAttr.seal(true);
+        texCoordAttr.seal(true);
+
+        shortIndices.seal(false);
+        shortIndices.rewind();
+        for(int i=0; i<meshTriangles.size(); i++) {
+            final Vertex[] t_vertices = meshTriangles.get(i).getVertices();
+            shortIndices.puts((short) t_vertices[0].getId());
+            shortIndices.puts((short) t_vertices[1].getId());
+            shortIndices.puts((short) t_vertices[2].getId());
+        }
+        shortIndices.seal(true);
+        return shortIndices.getBuffer();
+    }
+
+    @Benchmark
+    public Buffer interleavedBulk() {
+        buffers.fill(meshTriangles, meshVertices, false, box, Integer.MAX_VALUE);
+
+        interleaved.seal(false);
+        interleaved.rewind();
+        interleaved.putf(buffers.getVertexData(), 0, buffers.getVertexCount()*VBORegionBuffers.COMPONENTS);
+        interleaved.seal(true);
+
+        intIndices.seal(false);
+        intIndices.rewind();
+        intIndices.put(IntBuffer.wrap(buffers.getIndexData(), 0, buffers.getIndexCount()));
+        intIndices.seal(true);
+        return intIndices.getBuffer();
+    }
+
+    /** Layout only, split into batches of at most 65536 vertices for 16-bit indices */
+    @Benchmark
+    public int interleavedSplitLayout() {
+        buffers.fill(meshTriangles, meshVertices, false, box, VBORegionBuffers.MAX_SHORT_VERTICES);
+        return buffers.getBatchCount();
+    }
+}
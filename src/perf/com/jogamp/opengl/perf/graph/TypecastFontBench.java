@@ -0,0 +1,108 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+ 
+package com.jogamp.opengl.perf.graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import jogamp.graph.font.FontInt;
+import jogamp.graph.font.UbuntuFontLoader;
+import jogamp.graph.geom.plane.AffineTransform;
+import jogamp.graph.geom.plane.Path2D;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+
+/**
+ * Typecast font backend: font loading, glyph lookup and outline extraction
+ * using the bundled Ubuntu regular font.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TypecastFontBench {
+    static final String text = "The quick brown fox jumps over the lazy dog 0123456789 !?";
+
+    private File fontFile;
+    private FontInt font;
+    private AffineTransform transform;
+    private Path2D[] paths;
+
+    @Setup
+    public void setup() throws IOException {
+        final URL url = UbuntuFontLoader.class.getResource("fonts/ubuntu/Ubuntu-R.ttf");
+        fontFile = File.createTempFile("joglperf", ".ttf");
+        IOUtil.copyURLToFile(url, fontFile);
+
+        font = (FontInt) FontFactory.get(fontFile);
+        transform = new AffineTransform();
+        paths = new Path2D[text.length()];
+        font.getOutline(text, 24f, transform, paths); // warm glyph cache
+    }
+
+    @TearDown
+    public void tearDown() {
+        fontFile.delete();
+    }
+
+    /** Parsing of the complete font file */
+    @Benchmark
+    public Font loadFont() throws IOException {
+        return FontFactory.get(fontFile);
+    }
+
+    /** Cached char to glyph lookup */
+    @Benchmark
+    public void glyphLookup(Blackhole bh) {
+        for(int i=0; i<text.length(); i++) {
+            bh.consume(font.getGlyph(text.charAt(i)));
+        }
+    }
+
+    /** Scaled and transformed outline of a string w/ cached glyphs */
+    @Benchmark
+    public Path2D[] outline() {
+        font.getOutline(text, 24f, transform, paths);
+        return paths;
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+ 
+package com.jogamp.opengl.perf.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.jogamp.opengl.util.texture.spi.DDSImage;
+import com.jogamp.opengl.util.texture.spi.SGIImage;
+import com.jogamp.opengl.util.texture.spi.TGAImage;
+
+/**
+ * CPU side decoding of the built-in TGA, SGI and DDS readers,
+ * from in-memory encoded RGBA images, i.e. w/o file I/O and w/o GL.
+ * TGA images are decoded w/o a GLProfile, i.e. in their native BGR(A) order.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TextureDecodeBench {
+    @Param({ "256", "1024" })
+    public int size;
+
+    private byte[] tga;
+    private byte[] tgaRLE;
+    private byte[] sgi;
+    private ByteBuffer dds;
+
+    @Setup
+    public void setup() throws IOException {
+        final byte[] rgba = new byte[size * size * 4];
+        for(int i=0; i<rgba.length; i++) {
+            rgba[i] = (byte) ( i * 31 + ( i / ( size * 4 ) ) );
+        }
+
+        File f = File.createTempFile("jogl-perf", ".tga");
+        TGAImage.createFromData(size, size, true, false, ByteBuffer.wrap(rgba)).write(f);
+        tga = readFully(f);
+
+        f = File.createTempFile("jogl-perf", ".tga");
+        TGAImage.createFromData(size, size, true, false, ByteBuffer.wrap(rgba)).write(f, true);
+        tgaRLE = readFully(f);
+
+        f = File.createTempFile("jogl-perf", ".sgi");
+        SGIImage.createFromData(size, size, true, rgba).write(f, false);
+        sgi = readFully(f);
+
+        f = File.createTempFile("jogl-perf", ".dds");
+        final ByteBuffer level0 = ByteBuffer.allocateDirect(rgba.length);
+        level0.put(rgba).rewind();
+        DDSImage.createFromData(DDSImage.D3DFMT_A8R8G8B8, size, size, new ByteBuffer[] { level0 }).write(f);
+        final byte[] ddsBytes = readFully(f);
+        dds = ByteBuffer.allocateDirect(ddsBytes.length).order(ByteOrder.LITTLE_ENDIAN);
+        dds.put(ddsBytes).rewind();
+    }
+
+    private static byte[] readFully(File f) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(f, "r");
+        try {
+            final byte[] res = new byte[(int) raf.length()];
+            raf.readFully(res);
+            return res;
+        } finally {
+            raf.close();
+            f.delete();
+        }
+    }
+
+    @Benchmark
+    public TGAImage decodeTGA() throws IOException {
+        return TGAImage.read(null, new ByteArrayInputStream(tga));
+    }
+
+    @Benchmark
+    public TGAImage decodeTGARLE() throws IOException {
+        return TGAImage.read(null, new ByteArrayInputStream(tgaRLE));
+    }
+
+    /** SGI RGB is RLE encoded */
+    @Benchmark
+    public SGIImage decodeSGI() throws IOException {
+        return SGIImage.read(new ByteArrayInputStream(sgi));
+    }
+
+    /** DDS slices the given buffer, hence only the header is parsed */
+    @Benchmark
+    public DDSImage decodeDDS() throws IOException {
+        return DDSImage.read(dds.duplicate());
+    }
+}
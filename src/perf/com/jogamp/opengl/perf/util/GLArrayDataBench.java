@@ -0,0 +1,122 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+ 
+package com.jogamp.opengl.perf.util;
+
+import java.nio.Buffer;
+import java.util.concurrent.TimeUnit;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.fixedfunc.GLPointerFunc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.jogamp.opengl.util.DirectBufferPool;
+import com.jogamp.opengl.util.GLArrayDataClient;
+import com.jogamp.opengl.util.GLArrayDataServer;
+
+/**
+ * Element wise filling of {@link GLArrayDataClient} and {@link GLArrayDataServer},
+ * starting with a small initial size, i.e. including all buffer growth.
+ * <p>
+ * No GL context is required, the data is never enabled nor uploaded.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GLArrayDataBench {
+    @Param({ "1024", "65536" })
+    public int vertices;
+
+    @Param({ "16" })
+    public int initialSize;
+
+    private float[] coords;
+    private DirectBufferPool pool;
+
+    @Setup
+    public void setup() {
+        pool = new DirectBufferPool();
+        coords = new float[vertices*3];
+        for(int i=0; i<coords.length; i++) {
+            coords[i] = (float) i / (float) coords.length;
+        }
+    }
+
+    @Benchmark
+    public Buffer clientPutGrow() {
+        GLArrayDataClient adc = GLArrayDataClient.createFixed(GLPointerFunc.GL_VERTEX_ARRAY, null, 3, GL.GL_FLOAT, false, initialSize);
+        for(int i=0; i<coords.length; i++) {
+            adc.putf(coords[i]);
+        }
+        adc.seal(true);
+        return adc.getBuffer();
+    }
+
+    @Benchmark
+    public Buffer serverPutGrow() {
+        GLArrayDataServer ads = GLArrayDataServer.createData(3, GL.GL_FLOAT, initialSize, GL.GL_STATIC_DRAW, GL.GL_ARRAY_BUFFER);
+        for(int i=0; i<coords.length; i++) {
+            ads.putf(coords[i]);
+        }
+        ads.seal(true);
+        return ads.getBuffer();
+    }
+
+    /** Bulk put, i.e. at most one buffer growth */
+    @Benchmark
+    public Buffer clientPutBulk() {
+        GLArrayDataClient adc = GLArrayDataClient.createFixed(GLPointerFunc.GL_VERTEX_ARRAY, null, 3, GL.GL_FLOAT, false, initialSize);
+        adc.putf(coords, 0, coords.length);
+        adc.seal(true);
+        return adc.getBuffer();
+    }
+
+    /** Rebuilt array w/ a {@link DirectBufferPool}, i.e. w/o native memory allocation in steady state */
+    @Benchmark
+    public int clientPutGrowPooled() {
+        GLArrayDataClient adc = GLArrayDataClient.createFixed(GLPointerFunc.GL_VERTEX_ARRAY, null, 3, GL.GL_FLOAT, false, 0);
+        adc.setBufferPool(pool);
+        for(int i=0; i<coords.length; i++) {
+            adc.putf(coords[i]);
+        }
+        adc.seal(true);
+        final int n = adc.getElementNumber();
+        adc.destroy(null);
+        return n;
+    }
+}
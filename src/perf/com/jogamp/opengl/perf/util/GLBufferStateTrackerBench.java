@@ -0,0 +1,119 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.perf.util;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+
+import jogamp.opengl.GLBufferStateTracker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.jogamp.common.util.IntIntHashMap;
+
+/**
+ * Per call overhead of the buffer object binding lookup, 
+ * as performed by the GL implementation's buffer object checks
+ * on every gl*Pointer, glDraw* and glReadPixels call.
+ * <p>
+ * {@link #mapLookup()} is the former {@link IntIntHashMap} based tracking, 
+ * {@link #trusted()} the skipped check w/ {@link javax.media.opengl.GLContext#CTX_OPTION_TRUSTED}.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GLBufferStateTrackerBench {
+    private static final int[] targets = { GL.GL_ARRAY_BUFFER, GL.GL_ELEMENT_ARRAY_BUFFER, 
+                                           GL2.GL_PIXEL_PACK_BUFFER, GL2.GL_PIXEL_UNPACK_BUFFER };
+
+    private GLBufferStateTracker tracker;
+    private IntIntHashMap bindingMap;
+    private boolean trusted;
+
+    @Setup
+    public void setup() {
+        tracker = new GLBufferStateTracker();
+        bindingMap = new IntIntHashMap();
+        bindingMap.setKeyNotFoundValue(-1);
+        for(int i=0; i<targets.length; i++) {
+            tracker.setBoundBufferObject(targets[i], i);
+            bindingMap.put(targets[i], i);
+        }
+        trusted = true;
+    }
+
+    private static boolean check(int buffer, boolean enabled) {
+        return enabled ? 0 != buffer : 0 == buffer;
+    }
+
+    @Benchmark
+    public int mapLookup() {
+        int r = 0;
+        for(int i=0; i<targets.length; i++) {
+            r += check(bindingMap.get(targets[i]), true) ? 1 : 0;
+        }
+        return r;
+    }
+
+    @Benchmark
+    public int slotLookup() {
+        int r = 0;
+        for(int i=0; i<targets.length; i++) {
+            r += check(tracker.getBoundBufferObject(targets[i], null), true) ? 1 : 0;
+        }
+        return r;
+    }
+
+    @Benchmark
+    public int trusted() {
+        int r = 0;
+        for(int i=0; i<targets.length; i++) {
+            r += ( trusted || check(tracker.getBoundBufferObject(targets[i], null), true) ) ? 1 : 0;
+        }
+        return r;
+    }
+
+    /** Former push/pop invalidated all bindings, requiring a glGetIntegerv round-trip per target */
+    @Benchmark
+    public int pushPopClientAttrib() {
+        tracker.pushBufferObjectState(GL2.GL_CLIENT_ALL_ATTRIB_BITS);
+        tracker.setBoundBufferObject(GL.GL_ARRAY_BUFFER, 42);
+        tracker.popBufferObjectState();
+        return tracker.getBoundBufferObject(GL.GL_ARRAY_BUFFER, null);
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+ 
+package com.jogamp.opengl.perf.util;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.media.opengl.GL;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.jogamp.opengl.util.ImmModeSink;
+
+/**
+ * Vertex emission of a fixed function {@link ImmModeSink},
+ * i.e. the glBegin/glVertex/.. path w/o the final upload and draw.
+ * <p>
+ * The sink is created w/o a GL object, which is valid as long
+ * neither glEnd nor draw is being called.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ImmModeSinkBench {
+    @Param({ "3072" })
+    public int vertices;
+
+    private ImmModeSink sink;
+
+    @Setup
+    public void setup() {
+        sink = createSink();
+    }
+
+    private ImmModeSink createSink() {
+        return ImmModeSink.createFixed(null, GL.GL_STATIC_DRAW, vertices,
+                                       3, GL.GL_FLOAT,  // vertex
+                                       4, GL.GL_FLOAT,  // color
+                                       0, 0,            // normal
+                                       2, GL.GL_FLOAT); // texture
+    }
+
+    private static void emit(ImmModeSink s, int vertices) {
+        s.glBegin(GL.GL_TRIANGLES);
+        for(int i=0; i<vertices; i++) {
+            final float f = (float) i;
+            s.glColor4f(1.0f, 0.5f, 0.25f, 1.0f);
+            s.glTexCoord2f(f, -f);
+            s.glVertex3f(f, f+1.0f, -f);
+        }
+    }
+
+    /** Emission into a reused sink */
+    @Benchmark
+    public ImmModeSink emit() {
+        emit(sink, vertices);
+        sink.reset();
+        return sink;
+    }
+
+    /** Emission into a new sink, i.e. including the buffer allocation */
+    @Benchmark
+    public ImmModeSink emitNewSink() {
+        final ImmModeSink s = createSink();
+        emit(s, vertices);
+        s.reset();
+        return s;
+    }
+}
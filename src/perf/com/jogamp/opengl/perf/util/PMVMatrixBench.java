@@ -0,0 +1,111 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+ 
+package com.jogamp.opengl.perf.util;
+
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+import javax.media.opengl.fixedfunc.GLMatrixFunc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.jogamp.opengl.util.PMVMatrix;
+
+/**
+ * CPU cost of the {@link PMVMatrix} operations used per draw call
+ * by the fixed function emulation and the graph renderer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PMVMatrixBench {
+    private PMVMatrix pmv;
+    private float[] m;
+
+    @Setup
+    public void setup() {
+        pmv = new PMVMatrix();
+        pmv.glMatrixMode(GLMatrixFunc.GL_PROJECTION);
+        pmv.glLoadIdentity();
+        pmv.gluPerspective(45.0f, 4.0f/3.0f, 1.0f, 100.0f);
+        pmv.glMatrixMode(GLMatrixFunc.GL_MODELVIEW);
+        pmv.glLoadIdentity();
+
+        // some non trivial, invertible column major matrix
+        m = new float[] { 0.8f, 0.1f, 0.0f, 0.0f,
+                         -0.1f, 0.9f, 0.2f, 0.0f,
+                          0.0f,-0.2f, 1.1f, 0.0f,
+                          1.0f, 2.0f,-3.0f, 1.0f };
+    }
+
+    @TearDown
+    public void tearDown() {
+        pmv.destroy();
+    }
+
+    @Benchmark
+    public FloatBuffer multMatrixf() {
+        pmv.glLoadIdentity();
+        pmv.glMultMatrixf(m, 0);
+        return pmv.glGetMvMatrixf();
+    }
+
+    @Benchmark
+    public FloatBuffer rotatef() {
+        pmv.glLoadIdentity();
+        pmv.glRotatef(33.0f, 0.3f, 1.0f, 0.1f);
+        return pmv.glGetMvMatrixf();
+    }
+
+    @Benchmark
+    public FloatBuffer pushTranslateScalePop() {
+        pmv.glPushMatrix();
+        pmv.glTranslatef(1.0f, 2.0f, 3.0f);
+        pmv.glScalef(2.0f, 2.0f, 2.0f);
+        pmv.glPopMatrix();
+        return pmv.glGetMvMatrixf();
+    }
+
+    /** Mv modification followed by the Mvi, Mvit and Pmv update, i.e. the inverse */
+    @Benchmark
+    public FloatBuffer inverse() {
+        pmv.glLoadIdentity();
+        pmv.glMultMatrixf(m, 0);
+        pmv.update();
+        return pmv.glGetMviMatrixf();
+    }
+}
@@ -1,8 +1,11 @@
 package com.jogamp.opengl.test.junit.graph;
 
 import java.io.IOException;
+import java.util.ArrayList;
 
 import javax.media.nativewindow.NativeWindowFactory;
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2ES2;
 import javax.media.opengl.GLAutoDrawable;
 import javax.media.opengl.GLCapabilities;
 import javax.media.opengl.GLCapabilitiesImmutable;
@@ -14,9 +17,18 @@ import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import jogamp.graph.curve.opengl.FBOAtlas;
+import jogamp.graph.curve.opengl.RenderStateImpl;
+import jogamp.graph.curve.opengl.VBORegionBuffers;
+
+import com.jogamp.graph.curve.OutlineShape;
 import com.jogamp.graph.curve.Region;
+import com.jogamp.graph.curve.opengl.RegionRenderer;
 import com.jogamp.graph.curve.opengl.RenderState;
 import com.jogamp.graph.curve.opengl.Renderer;
+import com.jogamp.graph.geom.AABBox;
+import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.Vertex;
 import com.jogamp.graph.geom.opengl.SVertex;
 import com.jogamp.newt.opengl.GLWindow;
 import com.jogamp.opengl.test.junit.graph.demos.GPURegionGLListener01;
@@ -118,6 +130,224 @@ public class TestRegionRendererNEWT01 extends UITestCase {
         destroyWindow(window); 
     }
     
+    static OutlineShape createSquare(float x, float y, float size) {
+        OutlineShape shape = new OutlineShape(SVertex.factory());
+        shape.addVertex(x, y, true);
+        shape.addVertex(x+size, y, true);
+        shape.addVertex(x+size, y+size, true);
+        shape.addVertex(x, y+size, true);
+        shape.closeLastOutline();
+        return shape;
+    }
+
+    @Test
+    public void testRegionRendererCache01() throws InterruptedException {
+        GLProfile glp = GLProfile.getGL2ES2();
+        GLCapabilities caps = new GLCapabilities(glp);
+        caps.setAlphaBits(4);
+
+        GLWindow window = createWindow("shape-cache", caps, 800, 400);
+        RenderState rs = Renderer.createRenderState(new ShaderState(), SVertex.factory());
+        final RegionRenderer regionRenderer = RegionRenderer.create(rs, Region.SINGLE_PASS);
+        final OutlineShape shape0 = createSquare(10f, 10f, 50f);
+        final OutlineShape shape1 = createSquare(100f, 10f, 50f);
+        final OutlineShape shape2 = createSquare(200f, 10f, 50f);
+        final OutlineShape[] shapes = new OutlineShape[] { shape0, shape1 };
+        final boolean[] renderShape2 = { false };
+        regionRenderer.setCacheLimit(2);
+
+        window.addGLEventListener(new GLEventListener() {
+            public void init(GLAutoDrawable drawable) {
+                GL2ES2 gl = drawable.getGL().getGL2ES2();
+                regionRenderer.init(gl);
+                regionRenderer.setAlpha(gl, 1.0f);
+                regionRenderer.setColorStatic(gl, 0.0f, 0.0f, 0.0f);
+            }
+            public void dispose(GLAutoDrawable drawable) {
+                regionRenderer.destroy(drawable.getGL().getGL2ES2());
+            }
+            public void display(GLAutoDrawable drawable) {
+                GL2ES2 gl = drawable.getGL().getGL2ES2();
+                gl.glClearColor(1.0f, 1.0f, 1.0f, 1.0f);
+                gl.glClear(GL.GL_COLOR_BUFFER_BIT | GL.GL_DEPTH_BUFFER_BIT);
+                regionRenderer.resetModelview(gl);
+                regionRenderer.renderOutlineShape(gl, shape0, null, 0);
+                regionRenderer.renderOutlineShapes(gl, shapes, null, 0);
+                if(renderShape2[0]) {
+                    regionRenderer.renderOutlineShape(gl, shape2, null, 0);
+                }
+            }
+            public void reshape(GLAutoDrawable drawable, int x, int y, int width, int height) {
+                regionRenderer.reshapeOrtho(drawable.getGL().getGL2ES2(), width, height, -1, 1);
+            }
+        });
+
+        window.display();
+        window.display();
+        // both regions are cached, keyed by identity
+        Assert.assertEquals(2, regionRenderer.getCacheSize());
+        Assert.assertEquals(2, regionRenderer.getCacheMissCount());
+        Assert.assertEquals(2, regionRenderer.getCacheHitCount());
+        Assert.assertEquals(3, regionRenderer.getTriangulationCount());
+        Assert.assertTrue(0 < regionRenderer.getCacheByteSize());
+
+        // modifying shape1 only triangulates shape1 again
+        shape1.getLastOutline().getVertex(1).setX(160f);
+        shape1.getLastOutline().markModified();
+        window.display();
+        Assert.assertEquals(1, regionRenderer.getCacheUpdateCount());
+        Assert.assertEquals(4, regionRenderer.getTriangulationCount());
+
+        // a new shape evicts the least recently used region
+        renderShape2[0] = true;
+        window.display();
+        Assert.assertEquals(2, regionRenderer.getCacheSize());
+        Assert.assertEquals(1, regionRenderer.getCacheEvictionCount());
+
+        // turning the cache off evicts all regions, the uncached regions are destroyed after rendering
+        regionRenderer.setCacheLimit(0);
+        regionRenderer.resetCacheCounter();
+        window.display();
+        Assert.assertEquals(0, regionRenderer.getCacheSize());
+        Assert.assertEquals(0, regionRenderer.getCacheByteSize());
+        Assert.assertEquals(2, regionRenderer.getCacheEvictionCount());
+        Assert.assertEquals(3, regionRenderer.getCacheMissCount());
+        window.display();
+        Assert.assertEquals(0, regionRenderer.getCacheSize());
+        Assert.assertEquals(0, regionRenderer.getCacheHitCount());
+        Assert.assertEquals(6, regionRenderer.getCacheMissCount());
+
+        destroyWindow(window);
+    }
+
+    @Test
+    public void testRegionRendererAtlas01() throws InterruptedException {
+        GLProfile glp = GLProfile.getGL2ES2();
+        GLCapabilities caps = new GLCapabilities(glp);
+        caps.setAlphaBits(4);
+
+        GLWindow window = createWindow("shape-atlas", caps, 800, 400);
+        RenderState rs = Renderer.createRenderState(new ShaderState(), SVertex.factory());
+        final RegionRenderer regionRenderer = RegionRenderer.create(rs, Region.TWO_PASS);
+        final OutlineShape[] shapes = new OutlineShape[] { createSquare(10f, 10f, 50f), 
+                                                           createSquare(100f, 10f, 50f), 
+                                                           createSquare(200f, 10f, 50f) };
+        final int[] texSize = { 400 };
+        final boolean[] prepare = { false };
+
+        window.addGLEventListener(new GLEventListener() {
+            public void init(GLAutoDrawable drawable) {
+                GL2ES2 gl = drawable.getGL().getGL2ES2();
+                regionRenderer.init(gl);
+                regionRenderer.setAlpha(gl, 1.0f);
+                regionRenderer.setColorStatic(gl, 0.0f, 0.0f, 0.0f);
+            }
+            public void dispose(GLAutoDrawable drawable) {
+                regionRenderer.destroy(drawable.getGL().getGL2ES2());
+            }
+            public void display(GLAutoDrawable drawable) {
+                GL2ES2 gl = drawable.getGL().getGL2ES2();
+                gl.glClearColor(1.0f, 1.0f, 1.0f, 1.0f);
+                gl.glClear(GL.GL_COLOR_BUFFER_BIT | GL.GL_DEPTH_BUFFER_BIT);
+                regionRenderer.resetModelview(gl);
+                if(prepare[0]) {
+                    for(int i=0; i<shapes.length; i++) {
+                        regionRenderer.prepareOutlineShape(gl, shapes[i], texSize[0]);
+                    }
+                }
+                for(int i=0; i<shapes.length; i++) {
+                    regionRenderer.renderOutlineShape(gl, shapes[i], null, texSize[0]);
+                }
+            }
+            public void reshape(GLAutoDrawable drawable, int x, int y, int width, int height) {
+                regionRenderer.reshapeOrtho(drawable.getGL().getGL2ES2(), width, height, -1, 1);
+            }
+        });
+
+        window.display();
+        final FBOAtlas atlas = ((RenderStateImpl) rs).getFBOAtlas();
+        // all regions share one atlas, growing it relocates and renders the former ones again
+        Assert.assertEquals(3, atlas.getEntryCount());
+        Assert.assertEquals(0, atlas.getFailedCount());
+        Assert.assertTrue(atlas.getRenderCount() > atlas.getFlushCount());
+        Assert.assertTrue(0f < regionRenderer.getAtlasOccupancy() && regionRenderer.getAtlasOccupancy() <= 1f);
+        Assert.assertTrue(0f <= regionRenderer.getAtlasFragmentation());
+
+        // unchanged regions are not rendered into the atlas again
+        final int flushCount = atlas.getFlushCount();
+        window.display();
+        Assert.assertEquals(flushCount, atlas.getFlushCount());
+
+        // new texture size for all regions w/in one frame, prepared regions are rendered w/ one FBO bind
+        texSize[0] = 300;
+        prepare[0] = true;
+        atlas.resetCounter();
+        window.display();
+        Assert.assertEquals(0, atlas.getFailedCount());
+        Assert.assertEquals(1, atlas.getFlushCount());
+        Assert.assertEquals(shapes.length, atlas.getRenderCount());
+
+        destroyWindow(window);
+    }
+
+    @Test
+    public void testRegionBuffersSplit01() {
+        // 4x4 grid mesh, 18 triangles
+        final int side = 4;
+        final ArrayList<Vertex> vertices = new ArrayList<Vertex>();
+        for(int y=0; y<side; y++) {
+            for(int x=0; x<side; x++) {
+                final Vertex v = SVertex.factory().create(x, y, 0f);
+                v.setId(vertices.size());
+                vertices.add(v);
+            }
+        }
+        final ArrayList<Triangle> triangles = new ArrayList<Triangle>();
+        for(int y=0; y<side-1; y++) {
+            for(int x=0; x<side-1; x++) {
+                triangles.add(new Triangle(vertices.get(y*side+x), vertices.get(y*side+x+1), vertices.get((y+1)*side+x+1)));
+                triangles.add(new Triangle(vertices.get(y*side+x), vertices.get((y+1)*side+x+1), vertices.get((y+1)*side+x)));
+            }
+        }
+        final VBORegionBuffers buffers = new VBORegionBuffers(new ShaderState(), 16);
+        final AABBox box = new AABBox();
+
+        buffers.fill(triangles, vertices, false, box, Integer.MAX_VALUE);
+        Assert.assertEquals(1, buffers.getBatchCount());
+        Assert.assertEquals(vertices.size(), buffers.getVertexCount());
+        Assert.assertEquals(3*triangles.size(), buffers.getIndexCount());
+
+        // at most 6 vertices per batch, each batch relative index must address its own copy of the triangle vertex
+        final int maxBatchVertices = 6;
+        buffers.fill(triangles, vertices, false, box, maxBatchVertices);
+        Assert.assertTrue(1 < buffers.getBatchCount());
+        Assert.assertEquals(3*triangles.size(), buffers.getIndexCount());
+        final float[] vertexData = buffers.getVertexData();
+        final int[] indexData = buffers.getIndexData();
+        int nextIndex = 0;
+        for(int b=0; b<buffers.getBatchCount(); b++) {
+            final int firstVertex = buffers.getBatchFirstVertex(b);
+            final int firstIndex = buffers.getBatchFirstIndex(b);
+            final int count = buffers.getBatchIndexCount(b);
+            Assert.assertEquals(nextIndex, firstIndex);
+            for(int i=firstIndex; i<firstIndex+count; i++) {
+                final int idx = indexData[i];
+                Assert.assertTrue(0 <= idx && idx < maxBatchVertices);
+                final Vertex v = triangles.get(i/3).getVertices()[i%3];
+                final int o = ( firstVertex + idx ) * VBORegionBuffers.COMPONENTS;
+                Assert.assertEquals(v.getX(), vertexData[o], 0f);
+                Assert.assertEquals(v.getY(), vertexData[o+1], 0f);
+            }
+            nextIndex += count;
+        }
+        Assert.assertEquals(buffers.getIndexCount(), nextIndex);
+
+        // duplicated vertices of split batches are accounted for
+        Assert.assertTrue(vertices.size() < buffers.getVertexCount());
+        Assert.assertEquals(buffers.getVertexCount() * VBORegionBuffers.STRIDE_B + buffers.getIndexCount() * buffers.getIndexSize(),
+                            buffers.getByteSize());
+    }
+
     private class RegionGLListener implements GLEventListener {
         String winTitle;
         String name;
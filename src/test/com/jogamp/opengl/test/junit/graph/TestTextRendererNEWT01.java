@@ -8,6 +8,7 @@ import javax.media.opengl.GL2ES2;
 import javax.media.opengl.GLAutoDrawable;
 import javax.media.opengl.GLCapabilities;
 import javax.media.opengl.GLCapabilitiesImmutable;
+import javax.media.opengl.GLEventListener;
 import javax.media.opengl.GLException;
 import javax.media.opengl.GLProfile;
 
@@ -19,6 +20,7 @@ import com.jogamp.graph.curve.Region;
 import com.jogamp.graph.curve.opengl.RenderState;
 import com.jogamp.graph.curve.opengl.Renderer;
 import com.jogamp.graph.curve.opengl.TextRenderer;
+import com.jogamp.graph.font.Font;
 import com.jogamp.graph.font.FontFactory;
 import com.jogamp.graph.geom.opengl.SVertex;
 import com.jogamp.newt.opengl.GLWindow;
@@ -134,6 +136,124 @@ public class TestTextRendererNEWT01 extends UITestCase {
         destroyWindow(window); 
     }
     
+    @Test
+    public void testTextRendererBatch01() throws InterruptedException {
+        GLProfile glp = GLProfile.getGL2ES2();
+        
+        GLCapabilities caps = new GLCapabilities(glp);
+        caps.setAlphaBits(4);    
+
+        GLWindow window = createWindow("text-batch", caps, 800, 400);
+        RenderState rs = Renderer.createRenderState(new ShaderState(), SVertex.factory());
+        final TextRenderer textRenderer = TextRenderer.create(rs, Region.SINGLE_PASS);
+        final Font font = FontFactory.get(FontFactory.UBUNTU).getDefault();
+        final int[] frame = { 0 };
+        
+        window.addGLEventListener(new GLEventListener() {
+            public void init(GLAutoDrawable drawable) {
+                GL2ES2 gl = drawable.getGL().getGL2ES2();
+                textRenderer.init(gl);
+                textRenderer.setAlpha(gl, 1.0f);
+                textRenderer.setColorStatic(gl, 0.0f, 0.0f, 0.0f);
+                textRenderer.setBatchMode(gl, true);
+            }
+            public void dispose(GLAutoDrawable drawable) {
+                textRenderer.destroy(drawable.getGL().getGL2ES2());
+            }
+            public void display(GLAutoDrawable drawable) {
+                GL2ES2 gl = drawable.getGL().getGL2ES2();
+                gl.glClearColor(1.0f, 1.0f, 1.0f, 1.0f);
+                gl.glClear(GL.GL_COLOR_BUFFER_BIT | GL.GL_DEPTH_BUFFER_BIT);
+                textRenderer.resetModelview(gl);
+                // dynamic text, one draw call
+                for(int i=0; i<10; i++) {
+                    textRenderer.renderString3D(gl, font, "frame "+frame[0]+", label "+i, new float[] { 10f, 20f+i*30f, 0f }, 20, 0);
+                }
+                textRenderer.flushBatch(gl);
+                frame[0]++;
+            }
+            public void reshape(GLAutoDrawable drawable, int x, int y, int width, int height) {
+                textRenderer.reshapeOrtho(drawable.getGL().getGL2ES2(), width, height, -1, 1);
+            }
+        });
+        
+        window.display();
+        final int glyphCacheSize = textRenderer.getGlyphCacheSize();
+        Assert.assertTrue(0 < glyphCacheSize);
+        
+        // same glyphs, different strings: no new triangulation
+        for(int i=0; i<9; i++) {
+            window.display();
+        }
+        Assert.assertEquals(glyphCacheSize, textRenderer.getGlyphCacheSize());
+        Assert.assertEquals(0, textRenderer.getCacheSize());
+        
+        destroyWindow(window); 
+    }
+
+    @Test
+    public void testTextRendererBatchTwoPass01() {
+        RenderState rs = Renderer.createRenderState(new ShaderState(), SVertex.factory());
+        final TextRenderer textRenderer = TextRenderer.create(rs, Region.TWO_PASS);
+        try {
+            textRenderer.setBatchMode(null, true);
+            Assert.fail("batch mode enabled for TWO_PASS");
+        } catch (GLException e) { }
+        Assert.assertFalse(textRenderer.isBatchMode());
+    }
+
+    @Test
+    public void testTextRendererCacheLRU01() throws InterruptedException {
+        GLProfile glp = GLProfile.getGL2ES2();
+
+        GLCapabilities caps = new GLCapabilities(glp);
+        caps.setAlphaBits(4);
+
+        GLWindow window = createWindow("text-cache", caps, 800, 400);
+        RenderState rs = Renderer.createRenderState(new ShaderState(), SVertex.factory());
+        final TextRenderer textRenderer = TextRenderer.create(rs, Region.SINGLE_PASS);
+        final Font font = FontFactory.get(FontFactory.UBUNTU).getDefault();
+        final int[] frame = { 0 };
+        textRenderer.setCacheLimit(4);
+
+        window.addGLEventListener(new GLEventListener() {
+            public void init(GLAutoDrawable drawable) {
+                GL2ES2 gl = drawable.getGL().getGL2ES2();
+                textRenderer.init(gl);
+                textRenderer.setAlpha(gl, 1.0f);
+                textRenderer.setColorStatic(gl, 0.0f, 0.0f, 0.0f);
+            }
+            public void dispose(GLAutoDrawable drawable) {
+                textRenderer.destroy(drawable.getGL().getGL2ES2());
+            }
+            public void display(GLAutoDrawable drawable) {
+                GL2ES2 gl = drawable.getGL().getGL2ES2();
+                gl.glClearColor(1.0f, 1.0f, 1.0f, 1.0f);
+                gl.glClear(GL.GL_COLOR_BUFFER_BIT | GL.GL_DEPTH_BUFFER_BIT);
+                textRenderer.resetModelview(gl);
+                // hot label is used every frame, others rotate through
+                textRenderer.renderString3D(gl, font, "hot label", new float[] { 10f, 20f, 0f }, 20, 0);
+                textRenderer.renderString3D(gl, font, "label "+frame[0], new float[] { 10f, 50f, 0f }, 20, 0);
+                frame[0]++;
+            }
+            public void reshape(GLAutoDrawable drawable, int x, int y, int width, int height) {
+                textRenderer.reshapeOrtho(drawable.getGL().getGL2ES2(), width, height, -1, 1);
+            }
+        });
+
+        for(int i=0; i<10; i++) {
+            window.display();
+        }
+        Assert.assertEquals(4, textRenderer.getCacheSize());
+        Assert.assertTrue(0 < textRenderer.getCacheByteSize());
+        // the hot label survives, since it is the most recently used
+        Assert.assertEquals(9, textRenderer.getCacheHitCount());
+        Assert.assertEquals(11, textRenderer.getCacheMissCount());
+        Assert.assertEquals(7, textRenderer.getCacheEvictionCount());
+
+        destroyWindow(window);
+    }
+
     private class TextGLListener extends GPUTextRendererListenerBase01 {
         String winTitle;
         
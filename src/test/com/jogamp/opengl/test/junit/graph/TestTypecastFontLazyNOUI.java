@@ -0,0 +1,210 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+
+import jogamp.graph.font.typecast.ot.OTFont;
+import jogamp.graph.font.typecast.ot.OTFontCollection;
+import jogamp.graph.font.typecast.ot.table.GlyfTable;
+import jogamp.graph.font.typecast.ot.table.GlyphDescription;
+import jogamp.graph.font.typecast.ot.table.Table;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.common.util.IOUtil;
+
+/**
+ * Compares the glyph descriptions of the memory mapped, lazily parsed typecast fonts
+ * with the eagerly parsed ones, w/o a GL context.
+ */
+public class TestTypecastFontLazyNOUI {
+    static final String[] fontNames = { "Ubuntu-R.ttf", "Ubuntu-BI.ttf" };
+
+    static File copyToTempFile(URL url) throws IOException {
+        final File tf = File.createTempFile("joglfont", ".ttf");
+        tf.deleteOnExit();
+        IOUtil.copyURLToFile(url, tf);
+        return tf;
+    }
+
+    static void assertEquals(int glyph, GlyphDescription exp, GlyphDescription has) {
+        if( null == exp ) {
+            Assert.assertNull("glyph "+glyph, has);
+            return;
+        }
+        Assert.assertNotNull("glyph "+glyph, has);
+        Assert.assertEquals("glyph "+glyph, exp.isComposite(), has.isComposite());
+        Assert.assertEquals("glyph "+glyph, exp.getXMinimum(), has.getXMinimum());
+        Assert.assertEquals("glyph "+glyph, exp.getYMinimum(), has.getYMinimum());
+        Assert.assertEquals("glyph "+glyph, exp.getXMaximum(), has.getXMaximum());
+        Assert.assertEquals("glyph "+glyph, exp.getYMaximum(), has.getYMaximum());
+        Assert.assertEquals("glyph "+glyph, exp.getContourCount(), has.getContourCount());
+        Assert.assertEquals("glyph "+glyph, exp.getPointCount(), has.getPointCount());
+        for(int i=0; i<exp.getContourCount(); i++) {
+            Assert.assertEquals("glyph "+glyph+", contour "+i, exp.getEndPtOfContours(i), has.getEndPtOfContours(i));
+        }
+        for(int i=0; i<exp.getPointCount(); i++) {
+            Assert.assertEquals("glyph "+glyph+", point "+i, exp.getFlags(i), has.getFlags(i));
+            Assert.assertEquals("glyph "+glyph+", point "+i, exp.getXCoordinate(i), has.getXCoordinate(i));
+            Assert.assertEquals("glyph "+glyph+", point "+i, exp.getYCoordinate(i), has.getYCoordinate(i));
+        }
+    }
+
+    @Test
+    public void testLazyEqualsEager() throws IOException {
+        for(int f=0; f<fontNames.length; f++) {
+            final URL url = TestTypecastFontLazyNOUI.class.getClassLoader().getResource("jogamp/graph/font/fonts/ubuntu/"+fontNames[f]);
+            Assert.assertNotNull(fontNames[f], url);
+            final File tf = copyToTempFile(url);
+            final OTFont eager = OTFontCollection.create(tf, false).getFont(0);
+            final OTFont lazy = OTFontCollection.create(tf, true).getFont(0);
+            Assert.assertEquals(eager.getNumGlyphs(), lazy.getNumGlyphs());
+            final GlyfTable eagerGlyf = (GlyfTable) eager.getTable(Table.glyf);
+            final GlyfTable lazyGlyf = (GlyfTable) lazy.getTable(Table.glyf);
+            // reverse order, so composites are resolved before their components
+            for(int i=eager.getNumGlyphs()-1; i>=0; i--) {
+                assertEquals(i, eagerGlyf.getDescription(i), lazyGlyf.getDescription(i));
+            }
+        }
+    }
+
+    /**
+     * @return a TrueType font w/ a simple glyph 0 and a composite glyph 1 referencing itself
+     */
+    static ByteBuffer createCyclicFont() {
+        final int[] tags = { Table.head, Table.hhea, Table.maxp, Table.loca, Table.glyf };
+        final int[] lengths = { 54, 36, 6, 12, 0 };
+        final ByteBuffer glyf = ByteBuffer.allocate(64);
+        // glyph 0: a triangle
+        glyf.putShort((short)1); // numberOfContours
+        glyf.putShort((short)0).putShort((short)0).putShort((short)100).putShort((short)100); // bbox
+        glyf.putShort((short)2); // endPtsOfContours
+        glyf.putShort((short)0); // instructionLength
+        glyf.put((byte)1).put((byte)1).put((byte)1); // flags, on curve w/ 16bit coordinates
+        glyf.putShort((short)0).putShort((short)100).putShort((short)-50); // x deltas
+        glyf.putShort((short)0).putShort((short)0).putShort((short)100); // y deltas
+        final int glyph1 = glyf.position();
+        // glyph 1: composite of itself
+        glyf.putShort((short)-1); // numberOfContours
+        glyf.putShort((short)0).putShort((short)0).putShort((short)100).putShort((short)100); // bbox
+        glyf.putShort((short)0); // flags, byte arguments and no more components
+        glyf.putShort((short)1); // glyphIndex
+        glyf.put((byte)0).put((byte)0); // arguments
+        final int glyfLength = glyf.position();
+        lengths[4] = glyfLength;
+
+        int size = 12 + 16 * tags.length;
+        final int[] offsets = new int[tags.length];
+        for(int i=0; i<tags.length; i++) {
+            offsets[i] = size;
+            size += ( lengths[i] + 3 ) & ~3;
+        }
+        final ByteBuffer bb = ByteBuffer.allocate(size);
+        bb.putInt(0x00010000).putShort((short)tags.length).putShort((short)0).putShort((short)0).putShort((short)0);
+        for(int i=0; i<tags.length; i++) {
+            bb.putInt(tags[i]).putInt(0).putInt(offsets[i]).putInt(lengths[i]);
+        }
+        // head
+        bb.position(offsets[0]);
+        bb.putInt(0x00010000).putInt(0).putInt(0).putInt(0x5F0F3CF5).putShort((short)0).putShort((short)1000);
+        bb.putLong(0).putLong(0);
+        bb.putShort((short)0).putShort((short)0).putShort((short)100).putShort((short)100);
+        bb.putShort((short)0).putShort((short)8).putShort((short)2);
+        bb.putShort((short)1); // indexToLocFormat, long offsets
+        bb.putShort((short)0);
+        // hhea
+        bb.position(offsets[1]);
+        bb.putInt(0x00010000);
+        for(int i=0; i<15; i++) {
+            bb.putShort((short)0);
+        }
+        bb.putShort((short)2); // numberOfHMetrics
+        // maxp v0.5
+        bb.position(offsets[2]);
+        bb.putInt(0x00005000).putShort((short)2);
+        // loca
+        bb.position(offsets[3]);
+        bb.putInt(0).putInt(glyph1).putInt(glyfLength);
+        // glyf
+        bb.position(offsets[4]);
+        glyf.flip();
+        bb.put(glyf);
+        bb.rewind();
+        return bb;
+    }
+
+    static File writeTempFile(ByteBuffer bb) throws IOException {
+        final File tf = File.createTempFile("joglfont", ".ttf");
+        tf.deleteOnExit();
+        final FileOutputStream out = new FileOutputStream(tf);
+        try {
+            out.getChannel().write(bb);
+        } finally {
+            out.close();
+        }
+        return tf;
+    }
+
+    @Test
+    public void testCyclicCompositeEager() throws IOException {
+        final File tf = writeTempFile(createCyclicFont());
+        try {
+            OTFontCollection.create(tf, false);
+            Assert.fail("Expected IOException for cyclic composite glyph");
+        } catch (IOException ioe) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCyclicCompositeLazy() throws IOException {
+        final File tf = writeTempFile(createCyclicFont());
+        final OTFont font = OTFontCollection.create(tf, true).getFont(0);
+        final GlyfTable glyf = (GlyfTable) font.getTable(Table.glyf);
+        Assert.assertEquals(3, glyf.getDescription(0).getPointCount());
+        try {
+            glyf.getDescription(1);
+            Assert.fail("Expected RuntimeException for cyclic composite glyph");
+        } catch (RuntimeException re) {
+            Assert.assertTrue(re.getCause() instanceof IOException);
+        }
+        // still usable afterwards
+        Assert.assertEquals(3, glyf.getDescription(0).getPointCount());
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestTypecastFontLazyNOUI.class.getName());
+    }
+}
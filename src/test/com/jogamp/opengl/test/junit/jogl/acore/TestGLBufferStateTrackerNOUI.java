@@ -0,0 +1,97 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+
+import jogamp.opengl.GLBufferStateTracker;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Binding state of the known targets is tracked w/o any GL query,
+ * hence the trackers are used w/o a GL object.
+ */
+public class TestGLBufferStateTrackerNOUI {
+    static final int UNIFORM_BUFFER = 0x8A11;
+
+    @Test
+    public void testBindings() {
+        final GLBufferStateTracker t = new GLBufferStateTracker();
+        Assert.assertEquals(0, t.getBoundBufferObject(GL.GL_ARRAY_BUFFER, null));
+        Assert.assertEquals(0, t.getBoundBufferObject(GL2.GL_PIXEL_UNPACK_BUFFER, null));
+        Assert.assertEquals(0, t.getBoundBufferObject(UNIFORM_BUFFER, null));
+
+        t.setBoundBufferObject(GL.GL_ARRAY_BUFFER, 1);
+        t.setBoundBufferObject(GL.GL_ELEMENT_ARRAY_BUFFER, 2);
+        t.setBoundBufferObject(GL2.GL_PIXEL_PACK_BUFFER, 3);
+        t.setBoundBufferObject(UNIFORM_BUFFER, 4);
+        Assert.assertEquals(1, t.getBoundBufferObject(GL.GL_ARRAY_BUFFER, null));
+        Assert.assertEquals(2, t.getBoundBufferObject(GL.GL_ELEMENT_ARRAY_BUFFER, null));
+        Assert.assertEquals(3, t.getBoundBufferObject(GL2.GL_PIXEL_PACK_BUFFER, null));
+        Assert.assertEquals(0, t.getBoundBufferObject(GL2.GL_PIXEL_UNPACK_BUFFER, null));
+        Assert.assertEquals(4, t.getBoundBufferObject(UNIFORM_BUFFER, null));
+    }
+
+    @Test
+    public void testPushPopClientAttrib() {
+        final GLBufferStateTracker t = new GLBufferStateTracker();
+        t.setBoundBufferObject(GL.GL_ARRAY_BUFFER, 1);
+        t.setBoundBufferObject(GL2.GL_PIXEL_PACK_BUFFER, 3);
+
+        // vertex array group only
+        t.pushBufferObjectState(GL2.GL_CLIENT_VERTEX_ARRAY_BIT);
+        t.setBoundBufferObject(GL.GL_ARRAY_BUFFER, 10);
+        t.setBoundBufferObject(GL2.GL_PIXEL_PACK_BUFFER, 30);
+        t.popBufferObjectState();
+        Assert.assertEquals(1, t.getBoundBufferObject(GL.GL_ARRAY_BUFFER, null));
+        Assert.assertEquals(30, t.getBoundBufferObject(GL2.GL_PIXEL_PACK_BUFFER, null));
+
+        // nested, beyond the initial stack capacity
+        final int depth = 40;
+        for(int i=0; i<depth; i++) {
+            t.setBoundBufferObject(GL.GL_ARRAY_BUFFER, 100+i);
+            t.pushBufferObjectState(GL2.GL_CLIENT_ALL_ATTRIB_BITS);
+        }
+        for(int i=depth-1; i>=0; i--) {
+            t.popBufferObjectState();
+            Assert.assertEquals(100+i, t.getBoundBufferObject(GL.GL_ARRAY_BUFFER, null));
+        }
+
+        // underflow leaves the state untouched
+        t.popBufferObjectState();
+        Assert.assertEquals(100, t.getBoundBufferObject(GL.GL_ARRAY_BUFFER, null));
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLBufferStateTrackerNOUI.class.getName());
+    }
+}
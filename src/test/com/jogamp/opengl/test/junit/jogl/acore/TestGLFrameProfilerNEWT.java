@@ -0,0 +1,136 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.media.opengl.*;
+
+import com.jogamp.newt.opengl.GLWindow;
+import com.jogamp.opengl.GLFrameProfiler;
+import com.jogamp.opengl.util.Animator;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.test.junit.jogl.demos.gl2.gears.Gears;
+
+public class TestGLFrameProfilerNEWT extends UITestCase {
+    static GLProfile glp;
+    static long duration = 300; // ms
+
+    @BeforeClass
+    public static void initClass() {
+        GLProfile.initSingleton(true);
+        glp = GLProfile.getDefault();
+    }
+
+    @Test
+    public void test01ProfileGears() throws InterruptedException {
+        GLWindow glWindow = GLWindow.create(new GLCapabilities(glp));
+        Assert.assertNotNull(glWindow);
+        final Gears gears = new Gears();
+        glWindow.addGLEventListener(gears);
+        glWindow.setSize(256, 256);
+        glWindow.setVisible(true);
+
+        final int[] notified = new int[] { 0 };
+        GLFrameProfiler.Listener l = new GLFrameProfiler.Listener() {
+            public void frameProfiled(GLFrameProfiler.Profile profile) {
+                notified[0]++;
+            }
+        };
+        GLFrameProfiler.addListener(l);
+        GLFrameProfiler.setGPUTimingEnabled(true);
+        GLFrameProfiler.setEnabled(true);
+
+        Animator animator = new Animator(glWindow);
+        try {
+            animator.start();
+            glWindow.invoke(false, new GLRunnable() {
+                public void run(GLAutoDrawable drawable) { }
+            });
+            while(animator.isAnimating() && animator.getTotalFPSDuration()<duration) {
+                Thread.sleep(100);
+            }
+        } finally {
+            animator.stop();
+            GLFrameProfiler.setEnabled(false);
+            GLFrameProfiler.removeListener(l);
+        }
+
+        GLFrameProfiler.Profile profile = GLFrameProfiler.getProfile(glWindow);
+        Assert.assertNotNull(profile);
+        Assert.assertSame(glWindow, profile.getDrawable());
+        Assert.assertTrue(GLFrameProfiler.getProfiles().contains(profile));
+        final long frames = profile.getFrames();
+        Assert.assertTrue(frames > 0);
+        Assert.assertEquals(frames, notified[0]);
+        System.err.println(profile);
+
+        final GLFrameProfiler.Stats display = profile.getPhaseStats(GLFrameProfiler.DISPLAY);
+        Assert.assertEquals(frames, display.getCount());
+        Assert.assertEquals(frames, profile.getPhaseStats(GLFrameProfiler.MAKE_CURRENT).getCount());
+        Assert.assertEquals(frames, profile.getPhaseStats(GLFrameProfiler.SWAP_BUFFERS).getCount());
+        Assert.assertTrue(display.getMin() <= display.getAverage());
+        Assert.assertTrue(display.getAverage() <= display.getMax());
+
+        Map<GLEventListener, GLFrameProfiler.Stats> ls = profile.getListenerStats();
+        Assert.assertEquals(1, ls.size());
+        final GLFrameProfiler.Stats gearsStats = ls.get(gears);
+        Assert.assertNotNull(gearsStats);
+        Assert.assertEquals(frames, gearsStats.getCount());
+        Assert.assertTrue(gearsStats.getTotal() <= display.getTotal());
+
+        // disabled: no more frames recorded
+        glWindow.display();
+        Assert.assertEquals(frames, profile.getFrames());
+        profile.reset();
+        Assert.assertEquals(0, profile.getFrames());
+        Assert.assertEquals(0, profile.getPhaseStats(GLFrameProfiler.DISPLAY).getCount());
+
+        glWindow.destroy();
+    }
+
+    public static void main(String args[]) throws IOException {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-time")) {
+                i++;
+                try {
+                    duration = Integer.parseInt(args[i]);
+                } catch (Exception ex) { ex.printStackTrace(); }
+            }
+        }
+        String tstname = TestGLFrameProfilerNEWT.class.getName();
+        org.junit.runner.JUnitCore.main(tstname);
+    }
+}
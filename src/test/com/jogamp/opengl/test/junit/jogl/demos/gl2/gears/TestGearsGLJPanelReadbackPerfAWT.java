@@ -0,0 +1,156 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+ 
+package com.jogamp.opengl.test.junit.jogl.demos.gl2.gears;
+
+import javax.media.opengl.*;
+
+import com.jogamp.opengl.util.Animator;
+import javax.media.opengl.awt.GLJPanel;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import java.awt.AWTException;
+import java.awt.BorderLayout;
+import java.lang.reflect.InvocationTargetException;
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Frame time of the {@link GLJPanel} readback,
+ * w/o PBO, w/ a synchronous PBO and w/ a ring of PBOs,
+ * see {@link GLJPanel#setReadbackPBOCount(int)}.
+ * <p>
+ * The frame times depend on the GPU and driver, hence they are only reported.
+ * </p>
+ */
+public class TestGearsGLJPanelReadbackPerfAWT extends UITestCase {
+    static GLProfile glp;
+    static int width, height;
+
+    @BeforeClass
+    public static void initClass() {
+        GLProfile.initSingleton(false);
+        glp = GLProfile.getDefault();
+        Assert.assertNotNull(glp);
+        width  = 1024;
+        height = 768;
+    }
+
+    protected void runTestGL(GLCapabilities caps, int pboCount)
+            throws AWTException, InterruptedException, InvocationTargetException
+    {
+        final JFrame frame = new JFrame("Swing GLJPanel readback, PBOs "+pboCount);
+        Assert.assertNotNull(frame);
+
+        final GLJPanel glJPanel = new GLJPanel(caps);
+        Assert.assertNotNull(glJPanel);
+        glJPanel.setReadbackPBOCount(pboCount);
+        Assert.assertEquals(pboCount, glJPanel.getReadbackPBOCount());
+        glJPanel.addGLEventListener(new Gears());
+
+        final Animator animator = new Animator(glJPanel);
+        animator.setRunAsFastAsPossible(true);
+
+        SwingUtilities.invokeAndWait(new Runnable() {
+                public void run() {
+                    frame.getContentPane().add(glJPanel, BorderLayout.CENTER);
+                    frame.setSize(width, height);
+                    frame.setVisible(true);
+                } } ) ;
+
+        animator.setUpdateFPSFrames(60, null);
+        animator.start();
+        Assert.assertEquals(true, animator.isAnimating());
+
+        // warmup, i.e. the PBO ring is filled
+        Thread.sleep(duration/4);
+        animator.resetFPSCounter();
+        while(animator.isAnimating() && animator.getTotalFPSDuration()<duration) {
+            Thread.sleep(100);
+        }
+
+        final int frames = animator.getTotalFPSFrames();
+        System.err.println("GLJPanel "+glJPanel.getWidth()+"x"+glJPanel.getHeight()+", PBOs "+pboCount+
+                           ": frames "+frames+", "+animator.getTotalFPS()+" fps, p50 "+
+                           animator.getFrameTimePercentile(0.5f)/1000+" us, p95 "+
+                           animator.getFrameTimePercentile(0.95f)/1000+" us, max "+
+                           animator.getMaxFrameTime()/1000+" us");
+        Assert.assertTrue(frames > 0);
+
+        animator.stop();
+        Assert.assertEquals(false, animator.isAnimating());
+        SwingUtilities.invokeAndWait(new Runnable() {
+                public void run() {
+                    frame.setVisible(false);
+                    frame.getContentPane().remove(glJPanel);
+                    frame.remove(glJPanel);
+                    glJPanel.destroy();
+                    frame.dispose();
+                } } );
+    }
+
+    @Test
+    public void test01NoPBO()
+            throws AWTException, InterruptedException, InvocationTargetException
+    {
+        runTestGL(new GLCapabilities(glp), 0);
+    }
+
+    @Test
+    public void test02SyncPBO()
+            throws AWTException, InterruptedException, InvocationTargetException
+    {
+        runTestGL(new GLCapabilities(glp), 1);
+    }
+
+    @Test
+    public void test03PBORing()
+            throws AWTException, InterruptedException, InvocationTargetException
+    {
+        runTestGL(new GLCapabilities(glp), 3);
+    }
+
+    static long duration = 2000; // ms
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-time")) {
+                i++;
+                try {
+                    duration = Integer.parseInt(args[i]);
+                } catch (Exception ex) { ex.printStackTrace(); }
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestGearsGLJPanelReadbackPerfAWT.class.getName());
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.jogl.glsl;
+
+import com.jogamp.opengl.util.GLArrayDataServer;
+import com.jogamp.opengl.util.PMVMatrix;
+import com.jogamp.opengl.util.glsl.ShaderCode;
+import com.jogamp.opengl.util.glsl.ShaderProgram;
+import com.jogamp.opengl.util.glsl.ShaderState;
+import com.jogamp.opengl.test.junit.jogl.demos.es2.RedSquare0;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+
+import java.io.IOException;
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2ES2;
+import javax.media.opengl.GLProfile;
+import javax.media.opengl.GLUniformData;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Testing the per program uniform and attribute state cache of {@link ShaderState},
+ * i.e. redundant uniform values are not passed to GL, even across program switches.
+ */
+public class TestGLSLShaderState03NEWT extends UITestCase {
+    static final int vertices0_loc = 0;
+    static final int colors0_loc = 5;
+
+    @Test
+    public void testRedundantUniforms() throws InterruptedException {
+        GLSLMiscHelper.WindowContext winctx = GLSLMiscHelper.createWindow(GLProfile.getGL2ES2(), true);
+        GL2ES2 gl = winctx.context.getGL().getGL2ES2();
+        Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+
+        ShaderState st = new ShaderState();
+
+        ShaderCode rsVp0 = ShaderCode.create(gl, GL2ES2.GL_VERTEX_SHADER, 1, RedSquare0.class,
+                "shader", "shader/bin", "RedSquareShader");
+        ShaderCode rsFp0 = ShaderCode.create(gl, GL2ES2.GL_FRAGMENT_SHADER, 1, RedSquare0.class,
+                "shader", "shader/bin", "RedSquareShader");
+        ShaderCode rsFp1 = ShaderCode.create(gl, GL2ES2.GL_FRAGMENT_SHADER, 1, RedSquare0.class,
+                "shader", "shader/bin", "RedSquareShader2");
+
+        ShaderProgram sp0 = new ShaderProgram();
+        sp0.add(rsVp0);
+        sp0.add(rsFp0);
+        sp0.init(gl);
+        ShaderProgram sp1 = new ShaderProgram();
+        sp1.add(rsVp0);
+        sp1.add(rsFp1);
+        sp1.init(gl);
+
+        st.attachShaderProgram(gl, sp0);
+        GLArrayDataServer vertices0 = GLSLMiscHelper.createRSVertices0(gl, st, vertices0_loc);
+        st.ownAttribute(vertices0, true);
+        vertices0.enableBuffer(gl, false);
+        GLArrayDataServer colors0 = GLSLMiscHelper.createRSColors0(gl, st, colors0_loc);
+        st.ownAttribute(colors0, true);
+        colors0.enableBuffer(gl, false);
+        Assert.assertTrue(sp0.link(gl, System.err));
+        Assert.assertTrue(sp1.link(gl, System.err));
+        st.useProgram(gl, true);
+
+        PMVMatrix pmvMatrix = new PMVMatrix();
+        GLUniformData pmvMatrixUniform = new GLUniformData("gcu_PMVMatrix", 4, 4, pmvMatrix.glGetPMvMatrixf());
+        st.ownUniform(pmvMatrixUniform);
+        st.resetStats();
+
+        // first pass is uploaded, same content again is dropped
+        st.uniform(gl, pmvMatrixUniform);
+        st.uniform(gl, pmvMatrixUniform);
+        Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+        Assert.assertEquals(1, st.getUniformUploadCount());
+        Assert.assertEquals(1, st.getRedundantUniformCount());
+
+        // in place buffer modification is detected
+        pmvMatrix.glMatrixMode(PMVMatrix.GL_MODELVIEW);
+        pmvMatrix.glTranslatef(0, 0, -10);
+        st.uniform(gl, pmvMatrixUniform);
+        Assert.assertEquals(2, st.getUniformUploadCount());
+
+        // sp1 has not seen the value yet
+        st.attachShaderProgram(gl, sp1);
+        Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+        Assert.assertEquals(3, st.getUniformUploadCount());
+
+        // sp0 still holds the value, attribute locations are unchanged
+        st.attachShaderProgram(gl, sp0);
+        Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+        Assert.assertEquals(3, st.getUniformUploadCount());
+        Assert.assertEquals(2, st.getRedundantUniformCount());
+        Assert.assertTrue(0 < st.getRedundantAttributeCount());
+        Assert.assertEquals(vertices0_loc, vertices0.getLocation());
+        Assert.assertEquals(colors0_loc, colors0.getLocation());
+
+        // atom uniforms are tracked via their version
+        GLUniformData scalar = new GLUniformData("gcu_Dummy", 1.0f);
+        Assert.assertEquals(1, scalar.getVersion());
+        scalar.setData(2.0f);
+        Assert.assertEquals(2, scalar.getVersion());
+
+        st.useProgram(gl, false);
+        st.destroy(gl);
+        GLSLMiscHelper.destroyWindow(winctx);
+    }
+
+    public static void main(String args[]) throws IOException {
+        String tstname = TestGLSLShaderState03NEWT.class.getName();
+        org.junit.runner.JUnitCore.main(tstname);
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.jogl.glsl;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.util.GLArrayDataServer;
+import com.jogamp.opengl.util.PMVMatrix;
+import com.jogamp.opengl.util.glsl.GLUniformBlock;
+import com.jogamp.opengl.util.glsl.ShaderCode;
+import com.jogamp.opengl.util.glsl.ShaderProgram;
+import com.jogamp.opengl.util.glsl.ShaderState;
+import com.jogamp.opengl.test.junit.jogl.demos.es2.RedSquare0;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+
+import java.io.IOException;
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2ES2;
+import javax.media.opengl.GL2GL3;
+import javax.media.opengl.GLProfile;
+import javax.media.opengl.GLUniformData;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Testing the <code>std140</code> layout of {@link GLUniformBlock},
+ * the fallback to plain uniforms for programs not declaring the block
+ * and the uniform buffer object shared by programs declaring the block.
+ */
+public class TestGLUniformBlockNEWT extends UITestCase {
+
+    @Test
+    public void testStd140Layout() {
+        GLUniformBlock block = new GLUniformBlock("gcb_Test");
+        block.add(new GLUniformData("a", 1.0f));                                        // float
+        block.add(new GLUniformData("b", 2, Buffers.newDirectFloatBuffer(2)));          // vec2
+        block.add(new GLUniformData("c", 3, Buffers.newDirectFloatBuffer(3)));          // vec3
+        block.add(new GLUniformData("d", 2));                                           // int
+        block.add(new GLUniformData("e", 4, 4, Buffers.newDirectFloatBuffer(2*16)));    // mat4[2]
+        block.add(new GLUniformData("f", 1, Buffers.newDirectFloatBuffer(3)));          // float[3]
+        block.add(new GLUniformData("g", 3, 3, Buffers.newDirectFloatBuffer(9)));       // mat3
+        Assert.assertEquals(  0, block.getOffset(0));
+        Assert.assertEquals(  8, block.getOffset(1));
+        Assert.assertEquals( 16, block.getOffset(2));
+        Assert.assertEquals( 28, block.getOffset(3));
+        Assert.assertEquals( 32, block.getOffset(4));
+        Assert.assertEquals(160, block.getOffset(5));
+        Assert.assertEquals(208, block.getOffset(6));
+        Assert.assertEquals(256, block.getSize());
+    }
+
+    @Test
+    public void testUniformFallback() throws InterruptedException {
+        GLSLMiscHelper.WindowContext winctx = GLSLMiscHelper.createWindow(GLProfile.getGL2ES2(), true);
+        GL2ES2 gl = winctx.context.getGL().getGL2ES2();
+        Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+
+        ShaderState st = new ShaderState();
+        ShaderCode rsVp0 = ShaderCode.create(gl, GL2ES2.GL_VERTEX_SHADER, 1, RedSquare0.class,
+                "shader", "shader/bin", "RedSquareShader");
+        ShaderCode rsFp0 = ShaderCode.create(gl, GL2ES2.GL_FRAGMENT_SHADER, 1, RedSquare0.class,
+                "shader", "shader/bin", "RedSquareShader");
+        ShaderProgram sp0 = new ShaderProgram();
+        sp0.add(rsVp0);
+        sp0.add(rsFp0);
+        sp0.init(gl);
+        st.attachShaderProgram(gl, sp0);
+        GLArrayDataServer vertices0 = GLSLMiscHelper.createRSVertices0(gl, st, 0);
+        st.ownAttribute(vertices0, true);
+        Assert.assertTrue(sp0.link(gl, System.err));
+        st.useProgram(gl, true);
+
+        // the program declares gcu_PMVMatrix as a plain uniform
+        PMVMatrix pmvMatrix = new PMVMatrix();
+        GLUniformData pmvMatrixUniform = new GLUniformData("gcu_PMVMatrix", 4, 4, pmvMatrix.glGetPMvMatrixf());
+        GLUniformBlock block = new GLUniformBlock("gcb_PMVMatrix").add(pmvMatrixUniform);
+        st.ownUniformBlock(block);
+        Assert.assertTrue(st.ownsUniformBlock(block));
+        Assert.assertEquals(-1, st.getUniformBlockIndex(gl, block));
+
+        st.resetStats();
+        Assert.assertFalse(st.uniformBlock(gl, block));
+        Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+        Assert.assertEquals(1, st.getUniformUploadCount());
+        Assert.assertTrue(0 <= pmvMatrixUniform.getLocation());
+        Assert.assertEquals(0, block.getBufferName());
+
+        st.useProgram(gl, false);
+        st.destroy(gl);
+        GLSLMiscHelper.destroyWindow(winctx);
+    }
+
+    static final String gcbVertexShader =
+        "#version 140\n"+
+        "layout(std140) uniform gcb_PMVMatrix { mat4 gcu_PMVMatrix[2]; };\n"+
+        "in vec4 mgl_Vertex;\n"+
+        "void main(void) {\n"+
+        "  gl_Position = gcu_PMVMatrix[0] * gcu_PMVMatrix[1] * mgl_Vertex;\n"+
+        "}\n";
+
+    static String gcbFragmentShader(String color) {
+        return "#version 140\n"+
+               "out vec4 mgl_FragColor;\n"+
+               "void main(void) {\n"+
+               "  mgl_FragColor = vec4("+color+");\n"+
+               "}\n";
+    }
+
+    static ShaderProgram createGCBProgram(GL2ES2 gl, String color) {
+        ShaderProgram sp = new ShaderProgram();
+        sp.add(new ShaderCode(GL2ES2.GL_VERTEX_SHADER, 1, new String[][] { { gcbVertexShader } }));
+        sp.add(new ShaderCode(GL2ES2.GL_FRAGMENT_SHADER, 1, new String[][] { { gcbFragmentShader(color) } }));
+        Assert.assertTrue(sp.link(gl, System.err));
+        return sp;
+    }
+
+    /** @return the binding point of the program's block, as queried from GL */
+    static int getProgramBinding(GL2GL3 gl, ShaderProgram sp, String blockName) {
+        final int index = gl.glGetUniformBlockIndex(sp.program(), blockName);
+        Assert.assertTrue(GL2GL3.GL_INVALID_INDEX != index);
+        final int[] tmp = new int[1];
+        gl.glGetActiveUniformBlockiv(sp.program(), index, GL2GL3.GL_UNIFORM_BLOCK_BINDING, tmp, 0);
+        return tmp[0];
+    }
+
+    @Test
+    public void testSharedBlock() throws InterruptedException {
+        if(!GLProfile.isGL3Available()) {
+            System.err.println("GL3 n/a, skip test");
+            return;
+        }
+        GLSLMiscHelper.WindowContext winctx = GLSLMiscHelper.createWindow(GLProfile.get(GLProfile.GL3), true);
+        GL2ES2 gl = winctx.context.getGL().getGL2ES2();
+        if(!GLUniformBlock.isSupported(gl)) {
+            System.err.println("Uniform buffer objects n/a or disabled, skip test");
+            GLSLMiscHelper.destroyWindow(winctx);
+            return;
+        }
+        GL2GL3 gl23 = gl.getGL2GL3();
+        Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+
+        // both programs declare the block gcb_PMVMatrix
+        ShaderState st = new ShaderState();
+        ShaderProgram sp0 = createGCBProgram(gl, "1.0, 0.0, 0.0, 1.0");
+        ShaderProgram sp1 = createGCBProgram(gl, "0.0, 0.0, 1.0, 1.0");
+        st.attachShaderProgram(gl, sp0);
+        st.useProgram(gl, true);
+
+        PMVMatrix pmvMatrix = new PMVMatrix();
+        pmvMatrix.glMatrixMode(PMVMatrix.GL_MODELVIEW);
+        pmvMatrix.glLoadIdentity();
+        GLUniformBlock block = new GLUniformBlock("gcb_PMVMatrix")
+                                   .add(new GLUniformData("gcu_PMVMatrix", 4, 4, pmvMatrix.glGetPMvMatrixf()));
+        st.ownUniformBlock(block);
+        Assert.assertTrue(0 <= st.getUniformBlockIndex(gl, block));
+
+        // 1st program: create, upload and bind
+        Assert.assertTrue(st.uniformBlock(gl, block));
+        Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+        Assert.assertEquals(1, block.getUploadCount());
+        final int binding0 = block.getBinding();
+        Assert.assertTrue(0 <= binding0);
+        Assert.assertTrue(0 != block.getBufferName());
+        Assert.assertEquals(binding0, getProgramBinding(gl23, sp0, block.getName()));
+
+        // 2nd program: unchanged content, no upload, bound to the same binding point
+        st.attachShaderProgram(gl, sp1);
+        Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+        Assert.assertEquals(1, block.getUploadCount());
+        Assert.assertEquals(binding0, getProgramBinding(gl23, sp1, block.getName()));
+
+        // changed content: a single upload serves both programs
+        pmvMatrix.glTranslatef(0, 0, -10);
+        Assert.assertTrue(st.uniformBlock(gl, block));
+        Assert.assertEquals(2, block.getUploadCount());
+        st.attachShaderProgram(gl, sp0);
+        Assert.assertTrue(st.uniformBlock(gl, block));
+        Assert.assertEquals(2, block.getUploadCount());
+        Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+
+        // destroy the block and let another block take its binding point
+        block.destroy(gl);
+        Assert.assertEquals(-1, block.getBinding());
+        Assert.assertEquals(0, block.getBufferName());
+        GLUniformBlock other = new GLUniformBlock("gcb_Other").add(new GLUniformData("gcu_Other", 1.0f));
+        Assert.assertTrue(other.update(gl23));
+        Assert.assertEquals(binding0, other.getBinding());
+
+        // the block gets a new binding point, which both programs follow
+        Assert.assertTrue(st.uniformBlock(gl, block));
+        Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+        Assert.assertEquals(3, block.getUploadCount());
+        final int binding1 = block.getBinding();
+        Assert.assertTrue(0 <= binding1);
+        Assert.assertTrue(binding0 != binding1);
+        Assert.assertEquals(binding1, getProgramBinding(gl23, sp0, block.getName()));
+        st.attachShaderProgram(gl, sp1);
+        Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+        Assert.assertEquals(3, block.getUploadCount());
+        Assert.assertEquals(binding1, getProgramBinding(gl23, sp1, block.getName()));
+
+        other.destroy(gl);
+        st.useProgram(gl, false);
+        sp0.release(gl, true);
+        st.destroy(gl);
+        Assert.assertEquals(0, block.getBufferName());
+        GLSLMiscHelper.destroyWindow(winctx);
+    }
+
+    public static void main(String args[]) throws IOException {
+        String tstname = TestGLUniformBlockNEWT.class.getName();
+        org.junit.runner.JUnitCore.main(tstname);
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.jogl.glsl;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import javax.media.opengl.GL2ES2;
+import javax.media.opengl.GLCapabilities;
+import javax.media.opengl.GLContext;
+import javax.media.opengl.GLProfile;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.newt.opengl.GLWindow;
+import com.jogamp.opengl.test.junit.jogl.demos.es2.shader.RedSquareShader;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.glsl.ShaderCode;
+import com.jogamp.opengl.util.glsl.ShaderProgram;
+import com.jogamp.opengl.util.glsl.ShaderProgramCache;
+
+public class TestShaderProgramCacheNEWT extends UITestCase {
+
+    @BeforeClass
+    public static void initClass() {
+        GLProfile.initSingleton(true);
+    }
+
+    static ShaderProgram createProgram(String vertex) {
+        ShaderProgram sp = new ShaderProgram();
+        sp.add(new ShaderCode(GL2ES2.GL_VERTEX_SHADER, 1, new String[][] { { vertex } }));
+        sp.add(new ShaderCode(GL2ES2.GL_FRAGMENT_SHADER, 1, new String[][] { { RedSquareShader.FRAGMENT_SHADER_TEXT } }));
+        return sp;
+    }
+
+    static File[] listBinaries(File dir) {
+        File[] files = dir.listFiles();
+        return null != files ? files : new File[0];
+    }
+
+    @Test(timeout=60000)
+    public void testCacheHitMissReject() throws IOException {
+        GLProfile glp = GLProfile.get(GLProfile.GL2ES2);
+        GLWindow window = GLWindow.create(new GLCapabilities(glp));
+        window.setSize(64, 64);
+        window.setVisible(true);
+        window.display();
+        GLContext context = window.getContext();
+        context.setSynchronized(true);
+        context.makeCurrent();
+
+        File dir = new File(System.getProperty("java.io.tmpdir"), "jogl-programcache-"+System.currentTimeMillis());
+        ShaderProgramCache cache = new ShaderProgramCache(dir);
+        ShaderProgramCache saved = ShaderProgramCache.getDefault();
+        ShaderProgramCache.setDefault(cache);
+        try {
+            GL2ES2 gl = context.getGL().getGL2ES2();
+            if(!ShaderProgramCache.isAvailable(gl)) {
+                System.err.println("Program binaries not supported, skipping: "+context.getGLVersion());
+                return;
+            }
+
+            // miss: built from source and stored
+            ShaderProgram sp0 = createProgram(RedSquareShader.VERTEX_SHADER_TEXT);
+            Assert.assertTrue(sp0.link(gl, System.err));
+            Assert.assertEquals(1, cache.getMissCount());
+            Assert.assertEquals(0, cache.getHitCount());
+            Assert.assertEquals(1, cache.getStoreCount());
+            Assert.assertEquals(1, listBinaries(dir).length);
+            sp0.destroy(gl);
+
+            // hit: same sources, loaded w/o compilation
+            ShaderProgram sp1 = createProgram(RedSquareShader.VERTEX_SHADER_TEXT);
+            Assert.assertTrue(sp1.link(gl, System.err));
+            Assert.assertTrue(sp1.linked());
+            Assert.assertEquals(1, cache.getHitCount());
+            Assert.assertEquals(1, cache.getStoreCount());
+            gl.glUseProgram(sp1.program());
+            gl.glUseProgram(0);
+            sp1.destroy(gl);
+
+            // different sources, different key
+            ShaderProgram sp2 = createProgram(RedSquareShader.VERTEX_SHADER_TEXT+"\n// variant\n");
+            Assert.assertTrue(sp2.link(gl, System.err));
+            Assert.assertEquals(2, cache.getMissCount());
+            Assert.assertEquals(2, listBinaries(dir).length);
+            sp2.destroy(gl);
+
+            // corrupt binaries are dropped, program built from source
+            File[] bins = listBinaries(dir);
+            for(int i=0; i<bins.length; i++) {
+                FileOutputStream out = new FileOutputStream(bins[i]);
+                out.write(new byte[] { 'J', 'P', 'B', 'N', 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 8, 1, 2, 3, 4, 5, 6, 7, 8 });
+                out.close();
+            }
+            ShaderProgram sp3 = createProgram(RedSquareShader.VERTEX_SHADER_TEXT);
+            Assert.assertTrue(sp3.link(gl, System.err));
+            Assert.assertEquals(1, cache.getRejectCount());
+            Assert.assertEquals(3, cache.getStoreCount());
+            sp3.destroy(gl);
+            System.err.println(cache);
+        } finally {
+            ShaderProgramCache.setDefault(saved);
+            cache.clear();
+            dir.delete();
+            context.release();
+            window.destroy();
+        }
+    }
+
+    public static void main(String args[]) throws IOException {
+        String tstname = TestShaderProgramCacheNEWT.class.getName();
+        org.junit.runner.JUnitCore.main(tstname);
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.jogl.glu;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import jogamp.opengl.glu.mipmap.HalveImage;
+import jogamp.opengl.glu.mipmap.ParallelMipmap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * Validates {@link ParallelMipmap} against the reference {@link HalveImage#halveImage_ubyte(int, int, int, ByteBuffer, ByteBuffer, int, int, int)},
+ * w/o a GL context.
+ */
+public class TestParallelMipmapNOUI {
+
+    static ByteBuffer createImage(int bytes) {
+        final ByteBuffer bb = Buffers.newDirectByteBuffer(bytes);
+        int seed = 0x1234567;
+        for(int i=0; i<bytes; i++) {
+            seed = seed * 1103515245 + 12345;
+            bb.put(i, (byte) (seed >>> 16));
+        }
+        return bb;
+    }
+
+    static ByteBuffer referenceHalve(int components, int width, int height, ByteBuffer src) {
+        final ByteBuffer ref = Buffers.newDirectByteBuffer(Math.max(1, width/2) * Math.max(1, height/2) * components);
+        src.rewind();
+        HalveImage.halveImage_ubyte(components, width, height, src, ref, 1, width * components, components);
+        ref.rewind();
+        return ref;
+    }
+
+    static void assertEquals(ByteBuffer expected, int expectedOffset, ByteBuffer actual, int actualOffset, int bytes) {
+        for(int i=0; i<bytes; i++) {
+            Assert.assertEquals("byte "+i, expected.get(expectedOffset+i), actual.get(actualOffset+i));
+        }
+    }
+
+    @Test
+    public void testHalveImage() {
+        final int[][] sizes = { { 8, 8 }, { 16, 4 }, { 4, 16 }, { 1, 8 }, { 8, 1 }, { 2, 2 } };
+        for(int components=1; components<=4; components++) {
+            for(int i=0; i<sizes.length; i++) {
+                final int w = sizes[i][0];
+                final int h = sizes[i][1];
+                final ByteBuffer src = createImage(w * h * components);
+                final ByteBuffer ref = referenceHalve(components, w, h, src);
+                final ByteBuffer dst = Buffers.newDirectByteBuffer(ref.capacity());
+                ParallelMipmap.halveImage(components, w, h, src, 0, w * components, dst, 0);
+                assertEquals(ref, 0, dst, 0, ref.capacity());
+            }
+        }
+    }
+
+    @Test
+    public void testRowStrideAndOffset() {
+        final int components = 3, w = 10, h = 6;
+        final int stride = w * components + 2;
+        final int offset = 5;
+        final ByteBuffer packed = createImage(w * h * components);
+        final ByteBuffer padded = Buffers.newDirectByteBuffer(offset + stride * h);
+        for(int y=0; y<h; y++) {
+            for(int x=0; x<w*components; x++) {
+                padded.put(offset + y*stride + x, packed.get(y*w*components + x));
+            }
+        }
+        final ByteBuffer ref = referenceHalve(components, w, h, packed);
+        final ByteBuffer dst = Buffers.newDirectByteBuffer(ref.capacity());
+        ParallelMipmap.halveImage(components, w, h, padded, offset, stride, dst, 0);
+        assertEquals(ref, 0, dst, 0, ref.capacity());
+        Assert.assertEquals(0, padded.position());
+    }
+
+    /** User data w/ a byte order other than the native order of the chain, as the byte[] path of gluBuild2DMipmaps */
+    @Test
+    public void testByteOrder() {
+        final int w = 8, h = 8;
+        for(int components=1; components<=4; components++) {
+            final ByteBuffer src = createImage(w * h * components);
+            final ByteOrder other = ByteOrder.BIG_ENDIAN == ByteOrder.nativeOrder() ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+            src.order(other);
+            final ByteBuffer ref = referenceHalve(components, w, h, src);
+            final ByteBuffer dst = Buffers.newDirectByteBuffer(ref.capacity());
+            Assert.assertEquals(ByteOrder.nativeOrder(), dst.order());
+            ParallelMipmap.halveImage(components, w, h, src, 0, w * components, dst, 0);
+            assertEquals(ref, 0, dst, 0, ref.capacity());
+            Assert.assertEquals(other, src.order());
+        }
+    }
+
+    @Test
+    public void testLevelLayout() {
+        Assert.assertEquals(13, ParallelMipmap.getLevelCount(4096, 4096));
+        Assert.assertEquals(11, ParallelMipmap.getLevelCount(1024, 16));
+        Assert.assertEquals(1, ParallelMipmap.getLevelCount(1, 1));
+        Assert.assertEquals(0, ParallelMipmap.getLevelOffset(4, 8, 8, 1));
+        Assert.assertEquals(4*4*4, ParallelMipmap.getLevelOffset(4, 8, 8, 2));
+        // 4x4 + 2x2 + 1x1
+        Assert.assertEquals((16+4+1)*4, ParallelMipmap.getLevelOffset(4, 8, 8, ParallelMipmap.getLevelCount(8, 8)));
+    }
+
+    /** Large enough to be split in bands, if more than one processor is available */
+    @Test
+    public void testChain() {
+        final int components = 4, w = 512, h = 256;
+        final ByteBuffer src = createImage(w * h * components);
+        final int levels = ParallelMipmap.getLevelCount(w, h) - 1;
+        final ByteBuffer chain = Buffers.newDirectByteBuffer(ParallelMipmap.getLevelOffset(components, w, h, levels + 1));
+        Assert.assertEquals(levels, ParallelMipmap.generateChain(components, w, h, src, 0, w * components, chain, Integer.MAX_VALUE));
+
+        ByteBuffer level = src;
+        int lw = w, lh = h;
+        for(int i=1; i<=levels; i++) {
+            level = referenceHalve(components, lw, lh, level);
+            lw = Math.max(1, lw/2);
+            lh = Math.max(1, lh/2);
+            Assert.assertEquals(lw, ParallelMipmap.getLevelSize(w, i));
+            Assert.assertEquals(lh, ParallelMipmap.getLevelSize(h, i));
+            assertEquals(level, 0, chain, ParallelMipmap.getLevelOffset(components, w, h, i), lw * lh * components);
+        }
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestParallelMipmapNOUI.class.getName());
+    }
+}
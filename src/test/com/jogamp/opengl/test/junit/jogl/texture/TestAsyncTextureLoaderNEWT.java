@@ -0,0 +1,144 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.jogl.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.GLCapabilities;
+import javax.media.opengl.GLEventListener;
+import javax.media.opengl.GLProfile;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.newt.opengl.GLWindow;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.texture.AsyncTextureLoader;
+import com.jogamp.opengl.util.texture.Texture;
+import com.jogamp.opengl.util.texture.TextureIO;
+
+public class TestAsyncTextureLoaderNEWT extends UITestCase {
+    static final int textureCount = 8;
+    static GLProfile glp;
+
+    @BeforeClass
+    public static void initClass() {
+        GLProfile.initSingleton(true);
+        glp = GLProfile.getDefault();
+    }
+
+    static InputStream openTexture() {
+        final InputStream stream = TestAsyncTextureLoaderNEWT.class.getResourceAsStream( "grayscale_texture.png" );
+        Assert.assertNotNull(stream);
+        return stream;
+    }
+
+    @Test
+    public void testLoadWithBudget() throws InterruptedException, ExecutionException {
+        final AsyncTextureLoader loader = new AsyncTextureLoader(glp, 2);
+        // smallest budget, i.e. one texture per frame
+        loader.setUploadBudget(1, 1000L * 1000L * 1000L);
+
+        final Future<?>[] textures = new Future<?>[textureCount];
+        for(int i=0; i<textureCount; i++) {
+            textures[i] = loader.load(openTexture(), false, TextureIO.PNG);
+        }
+        final Future<Texture> garbage = loader.load(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4 }), false, TextureIO.PNG);
+        Assert.assertEquals(textureCount+1, loader.getSubmittedCount());
+
+        final int[] maxUploadsPerFrame = { 0 };
+        GLWindow glWindow = GLWindow.create(new GLCapabilities(glp));
+        Assert.assertNotNull(glWindow);
+        glWindow.setTitle("TestAsyncTextureLoaderNEWT");
+        glWindow.addGLEventListener(new GLEventListener() {
+            public void init(GLAutoDrawable drawable) { }
+            public void dispose(GLAutoDrawable drawable) {
+                final GL gl = drawable.getGL();
+                for(int i=0; i<textureCount; i++) {
+                    try {
+                        if( textures[i].isDone() && null != textures[i].get() ) {
+                            ((Texture)textures[i].get()).destroy(gl);
+                        }
+                    } catch (Exception e) { }
+                }
+            }
+            public void display(GLAutoDrawable drawable) {
+                final GL gl = drawable.getGL();
+                gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+                maxUploadsPerFrame[0] = Math.max(maxUploadsPerFrame[0], loader.processUploads(gl));
+            }
+            public void reshape(GLAutoDrawable drawable, int x, int y, int width, int height) { }
+        });
+        glWindow.setSize(128, 128);
+        glWindow.setVisible(true);
+
+        for(int frames = 0; 0 < loader.getPendingCount() && frames < 500; frames++) {
+            glWindow.display();
+            Thread.sleep(10);
+        }
+        System.err.println(loader);
+        Assert.assertEquals(0, loader.getPendingCount());
+        Assert.assertEquals(1f, loader.getProgress(), 0f);
+        Assert.assertEquals(1, maxUploadsPerFrame[0]);
+        Assert.assertEquals(textureCount, loader.getLoadedCount());
+        Assert.assertEquals(1, loader.getFailedCount());
+        Assert.assertTrue(0 < loader.getUploadedBytes());
+        Assert.assertEquals(loader.getDecodedBytes(), loader.getUploadedBytes());
+        for(int i=0; i<textureCount; i++) {
+            Assert.assertTrue(textures[i].isDone());
+            Assert.assertNotNull(textures[i].get());
+        }
+        Assert.assertTrue(garbage.isDone());
+
+        glWindow.destroy();
+        loader.shutdown();
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        final AsyncTextureLoader loader = new AsyncTextureLoader(glp, 1);
+        final Future<Texture> texture = loader.load(openTexture(), false, TextureIO.PNG);
+        texture.cancel(false);
+        Assert.assertTrue(texture.isCancelled());
+        Assert.assertTrue(texture.isDone());
+        loader.shutdown();
+    }
+
+    public static void main(String args[]) throws IOException {
+        String tstname = TestAsyncTextureLoaderNEWT.class.getName();
+        org.junit.runner.JUnitCore.main(tstname);
+    }
+}
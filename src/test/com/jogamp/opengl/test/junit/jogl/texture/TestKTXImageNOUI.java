@@ -0,0 +1,197 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.jogl.texture;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.texture.spi.KTXImage;
+
+/**
+ * Parses synthetic KTX files via {@link KTXImage}, memory-mapped and from a buffer,
+ * w/o a GL context.
+ */
+public class TestKTXImageNOUI {
+    static final byte[] IDENTIFIER = new byte[] {
+        (byte)0xAB, (byte)0x4B, (byte)0x54, (byte)0x58, (byte)0x20, (byte)0x31,
+        (byte)0x31, (byte)0xBB, (byte)0x0D, (byte)0x0A, (byte)0x1A, (byte)0x0A };
+
+    static final int GL_UNSIGNED_BYTE = 0x1401;
+    static final int GL_RGB = 0x1907;
+    static final int GL_RGBA = 0x1908;
+    static final int GL_COMPRESSED_RGBA_S3TC_DXT5_EXT = 0x83F3;
+
+    /** Level <i>i</i> is filled w/ byte value <i>i+1</i>, key/value data w/ 0x55 */
+    static ByteBuffer createKTX(ByteOrder order, int glType, int glFormat, int glInternalFormat, int glBaseInternalFormat,
+                                int width, int height, int faces, int keyValueBytes, int[] levelSizes) {
+        int size = KTXImage.HEADER_SIZE + keyValueBytes;
+        for(int i=0; i<levelSizes.length; i++) {
+            size += 4 + ( ( levelSizes[i] + 3 ) & ~3 );
+        }
+        final ByteBuffer bb = ByteBuffer.allocate(size).order(order);
+        bb.put(IDENTIFIER);
+        bb.putInt(0x04030201);
+        bb.putInt(glType);
+        bb.putInt(1); // glTypeSize
+        bb.putInt(glFormat);
+        bb.putInt(glInternalFormat);
+        bb.putInt(glBaseInternalFormat);
+        bb.putInt(width);
+        bb.putInt(height);
+        bb.putInt(0); // depth
+        bb.putInt(0); // array elements
+        bb.putInt(faces);
+        bb.putInt(levelSizes.length);
+        bb.putInt(keyValueBytes);
+        for(int i=0; i<keyValueBytes; i++) {
+            bb.put((byte)0x55);
+        }
+        for(int i=0; i<levelSizes.length; i++) {
+            bb.putInt(levelSizes[i]);
+            final int padded = ( levelSizes[i] + 3 ) & ~3;
+            for(int j=0; j<padded; j++) {
+                bb.put( j < levelSizes[i] ? (byte)(i+1) : (byte)0 );
+            }
+        }
+        bb.flip();
+        return bb;
+    }
+
+    static void validateLevels(KTXImage image, int[] levelSizes) {
+        Assert.assertEquals(levelSizes.length, image.getNumMipMaps());
+        for(int i=0; i<levelSizes.length; i++) {
+            final ByteBuffer level = image.getMipMap(i);
+            Assert.assertEquals("level "+i, levelSizes[i], level.remaining());
+            for(int j=0; j<level.remaining(); j++) {
+                Assert.assertEquals("level "+i+", byte "+j, (byte)(i+1), level.get(j));
+            }
+        }
+    }
+
+    @Test
+    public void testUncompressedFromBuffer() throws IOException {
+        // RGB 5x3: rows padded to 16 bytes, 2x1 level 8 bytes, 1x1 level 4 bytes
+        final int[] levelSizes = { 48, 8, 4 };
+        final ByteBuffer bb = createKTX(ByteOrder.LITTLE_ENDIAN, GL_UNSIGNED_BYTE, GL_RGB, GL_RGB, GL_RGB, 5, 3, 1, 12, levelSizes);
+        final KTXImage image = KTXImage.read(bb);
+        Assert.assertFalse(image.isCompressed());
+        Assert.assertEquals(5, image.getWidth());
+        Assert.assertEquals(3, image.getHeight());
+        Assert.assertEquals(2, image.getWidth(1));
+        Assert.assertEquals(1, image.getHeight(1));
+        Assert.assertEquals(GL_UNSIGNED_BYTE, image.getGLType());
+        Assert.assertEquals(GL_RGB, image.getGLFormat());
+        validateLevels(image, levelSizes);
+        image.close();
+    }
+
+    @Test
+    public void testBigEndianBytes() throws IOException {
+        final int[] levelSizes = { 16, 4, 4 };
+        final ByteBuffer bb = createKTX(ByteOrder.BIG_ENDIAN, GL_UNSIGNED_BYTE, GL_RGBA, GL_RGBA, GL_RGBA, 2, 2, 1, 0, levelSizes);
+        final KTXImage image = KTXImage.read(bb);
+        Assert.assertEquals(GL_RGBA, image.getGLInternalFormat());
+        validateLevels(image, levelSizes);
+    }
+
+    @Test
+    public void testCompressedMapped() throws IOException {
+        // DXT5 8x8: 4 blocks, 4x4: 1 block, 2x2: 1 block, 1x1: 1 block
+        final int[] levelSizes = { 64, 16, 16, 16 };
+        final ByteBuffer bb = createKTX(ByteOrder.LITTLE_ENDIAN, 0, 0, GL_COMPRESSED_RGBA_S3TC_DXT5_EXT, GL_RGBA, 8, 8, 1, 0, levelSizes);
+        final File file = File.createTempFile("jogl-test", ".ktx");
+        file.deleteOnExit();
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(bb.array(), 0, bb.limit());
+        } finally {
+            out.close();
+        }
+        final KTXImage image = KTXImage.read(file);
+        Assert.assertTrue(image.isCompressed());
+        Assert.assertEquals(GL_COMPRESSED_RGBA_S3TC_DXT5_EXT, image.getGLInternalFormat());
+        Assert.assertEquals(GL_RGBA, image.getGLBaseInternalFormat());
+        Assert.assertTrue(image.getMipMap(0).isDirect());
+        validateLevels(image, levelSizes);
+        image.close();
+    }
+
+    @Test
+    public void testIdentification() throws IOException {
+        final ByteBuffer bb = createKTX(ByteOrder.LITTLE_ENDIAN, GL_UNSIGNED_BYTE, GL_RGBA, GL_RGBA, GL_RGBA, 1, 1, 1, 0, new int[] { 4 });
+        final BufferedInputStream in = new BufferedInputStream(new ByteArrayInputStream(bb.array(), 0, bb.limit()));
+        Assert.assertTrue(KTXImage.isKTXImage(in));
+        Assert.assertEquals(0xAB, in.read()); // stream has been reset
+        Assert.assertFalse(KTXImage.isKTXImage(new BufferedInputStream(new ByteArrayInputStream(new byte[] { 'D', 'D', 'S', ' ' }))));
+    }
+
+    @Test
+    public void testUnsupported() {
+        final int[][] bad = { { 1, 1, 6 }, { 0, 1, 1 } }; // cube map, zero width
+        for(int i=0; i<bad.length; i++) {
+            final ByteBuffer bb = createKTX(ByteOrder.LITTLE_ENDIAN, GL_UNSIGNED_BYTE, GL_RGBA, GL_RGBA, GL_RGBA,
+                                            bad[i][0], bad[i][1], bad[i][2], 0, new int[] { 4 });
+            try {
+                KTXImage.read(bb);
+                Assert.fail("Expected IOException for case "+i);
+            } catch (IOException ioe) {
+                // expected
+            }
+        }
+        final ByteBuffer truncated = createKTX(ByteOrder.LITTLE_ENDIAN, GL_UNSIGNED_BYTE, GL_RGBA, GL_RGBA, GL_RGBA, 2, 2, 1, 0, new int[] { 16 });
+        truncated.limit(truncated.limit() - 4);
+        try {
+            KTXImage.read(truncated);
+            Assert.fail("Expected IOException for truncated image");
+        } catch (IOException ioe) {
+            // expected
+        }
+        // image size close to Integer.MAX_VALUE, overflows the end position
+        final ByteBuffer huge = createKTX(ByteOrder.LITTLE_ENDIAN, GL_UNSIGNED_BYTE, GL_RGBA, GL_RGBA, GL_RGBA, 2, 2, 1, 0, new int[] { 16 });
+        huge.putInt(KTXImage.HEADER_SIZE, Integer.MAX_VALUE - 2);
+        try {
+            KTXImage.read(huge);
+            Assert.fail("Expected IOException for oversized image");
+        } catch (IOException ioe) {
+            // expected
+        }
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestKTXImageNOUI.class.getName());
+    }
+}
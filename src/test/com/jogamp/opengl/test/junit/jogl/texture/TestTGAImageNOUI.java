@@ -0,0 +1,267 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.jogl.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2GL3;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.texture.spi.TGAImage;
+
+/**
+ * Decodes synthetic TGA files of all image types via {@link TGAImage}
+ * and validates the RLE writer by round trip, w/o a GL context.
+ * <p>
+ * W/o a current context the decoder keeps the BGR(A) order.
+ * </p>
+ */
+public class TestTGAImageNOUI {
+
+    /** TGA header w/o image ID */
+    static void writeHeader(ByteArrayOutputStream out, int colorMapType, int imageType,
+                            int colorMapLength, int colorMapEntrySize,
+                            int width, int height, int pixelDepth, int imageDescriptor) {
+        out.write(0); // id length
+        out.write(colorMapType);
+        out.write(imageType);
+        writeShort(out, 0); // first entry index
+        writeShort(out, colorMapLength);
+        out.write(colorMapEntrySize);
+        writeShort(out, 0); // x origin
+        writeShort(out, 0); // y origin
+        writeShort(out, width);
+        writeShort(out, height);
+        out.write(pixelDepth);
+        out.write(imageDescriptor);
+    }
+
+    static void writeShort(ByteArrayOutputStream out, int v) {
+        out.write(v & 0xFF);
+        out.write(( v >> 8 ) & 0xFF);
+    }
+
+    static TGAImage read(ByteArrayOutputStream out) throws IOException {
+        return TGAImage.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    static void assertData(byte[] expected, TGAImage image) {
+        final ByteBuffer data = image.getData();
+        Assert.assertEquals(expected.length, data.remaining());
+        Assert.assertTrue(data.isDirect());
+        for(int i=0; i<expected.length; i++) {
+            Assert.assertEquals("byte "+i, expected[i], data.get(i));
+        }
+    }
+
+    @Test
+    public void testGrayscaleRLE() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeHeader(out, 0, TGAImage.Header.BLACKWHITE, 0, 0, 3, 2, 8, TGAImage.Header.ID_TOPTOBOTTOM);
+        // run of 4 x 0x10 crossing the scanline, then a raw packet of 2
+        out.write(0x80 | 3); out.write(0x10);
+        out.write(1); out.write(0x20); out.write(0x30);
+        final TGAImage image = read(out);
+        Assert.assertEquals(GL.GL_LUMINANCE, image.getGLFormat());
+        Assert.assertEquals(1, image.getBytesPerPixel());
+        // top-to-bottom file order is flipped to bottom-to-top
+        assertData(new byte[] { 0x10, 0x20, 0x30, 0x10, 0x10, 0x10 }, image);
+    }
+
+    @Test
+    public void testGrayscaleAlpha() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeHeader(out, 0, TGAImage.Header.UBLACKWHITE, 0, 0, 2, 1, 16, 8);
+        out.write(0x11); out.write(0xFF); out.write(0x22); out.write(0x80);
+        final TGAImage image = read(out);
+        Assert.assertEquals(GL.GL_LUMINANCE_ALPHA, image.getGLFormat());
+        assertData(new byte[] { 0x11, (byte)0xFF, 0x22, (byte)0x80 }, image);
+    }
+
+    @Test
+    public void testColormapped() throws IOException {
+        final byte[] palette = { 1, 2, 3,  4, 5, 6,  7, 8, 9 }; // BGR
+        for(int rle=0; rle<2; rle++) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeHeader(out, 1, 0 == rle ? TGAImage.Header.UCOLORMAPPED : TGAImage.Header.COLORMAPPED, 3, 24, 4, 1, 8, 0);
+            out.write(palette, 0, palette.length);
+            if( 0 == rle ) {
+                out.write(2); out.write(2); out.write(0); out.write(1);
+            } else {
+                out.write(0x80 | 1); out.write(2);
+                out.write(1); out.write(0); out.write(1);
+            }
+            final TGAImage image = read(out);
+            Assert.assertEquals(GL2GL3.GL_BGR, image.getGLFormat());
+            Assert.assertEquals(3, image.getBytesPerPixel());
+            assertData(new byte[] { 7, 8, 9,  7, 8, 9,  1, 2, 3,  4, 5, 6 }, image);
+        }
+    }
+
+    @Test
+    public void testTrueColor16() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeHeader(out, 0, TGAImage.Header.TRUECOLOR, 0, 0, 2, 1, 16, 1); // A1R5G5B5
+        out.write(0x80 | 1); writeShort(out, 0x8000 | ( 31 << 10 ) | ( 16 << 5 ) | 1 );
+        final TGAImage image = read(out);
+        Assert.assertEquals(GL2GL3.GL_BGRA, image.getGLFormat());
+        final byte b = (byte) ( ( 1 << 3 ) | 0 ), g = (byte) ( ( 16 << 3 ) | 4 ), r = (byte) 0xFF, a = (byte) 0xFF;
+        assertData(new byte[] { b, g, r, a,  b, g, r, a }, image);
+    }
+
+    @Test
+    public void testTruncatedRLE() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeHeader(out, 0, TGAImage.Header.TRUECOLOR, 0, 0, 2, 1, 24, 0);
+        out.write(0x80 | 2); out.write(1); out.write(2); out.write(3); // run of 3 exceeds 2 pixels
+        try {
+            read(out);
+            Assert.fail("Expected IOException");
+        } catch (IOException ioe) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRLERoundTrip() throws IOException {
+        final int width = 300, height = 7, bpp = 4;
+        final byte[] bgra = new byte[width * height * bpp];
+        for(int y=0; y<height; y++) {
+            for(int x=0; x<width; x++) {
+                // runs, single pixels and a run longer than 128 pixels
+                final int v = ( x < 140 ) ? y : ( x % 3 == 0 ? x : x / 5 );
+                for(int c=0; c<bpp; c++) {
+                    bgra[( y * width + x ) * bpp + c] = (byte) ( v + c );
+                }
+            }
+        }
+        final File rleFile = File.createTempFile("jogl-test", ".tga");
+        final File rawFile = File.createTempFile("jogl-test", ".tga");
+        rleFile.deleteOnExit();
+        rawFile.deleteOnExit();
+        final TGAImage src = TGAImage.createFromData(width, height, true, false, ByteBuffer.wrap(bgra));
+        src.write(rleFile, true);
+        src.write(rawFile);
+        Assert.assertTrue("RLE not smaller", rleFile.length() < rawFile.length());
+
+        final FileInputStream in = new FileInputStream(rleFile);
+        try {
+            final TGAImage image = TGAImage.read(in);
+            Assert.assertEquals(width, image.getWidth());
+            Assert.assertEquals(height, image.getHeight());
+            Assert.assertEquals(GL2GL3.GL_BGRA, image.getGLFormat());
+            assertData(bgra, image);
+        } finally {
+            in.close();
+        }
+    }
+
+    /** Alternating single pixels and runs of 2, the worst case of 1 byte pixels */
+    @Test
+    public void testRLEGrayscaleWorstCase() throws IOException {
+        final int width = 300, height = 3;
+        final byte[] gray = new byte[width * height];
+        for(int i=0; i<gray.length; i++) {
+            // x yy z ww ..
+            final int k = ( i % width ) % 3;
+            gray[i] = (byte) ( 0 == k ? i : i - k + 1 );
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeHeader(out, 0, TGAImage.Header.UBLACKWHITE, 0, 0, width, height, 8, 0);
+        out.write(gray, 0, gray.length);
+        final TGAImage src = read(out);
+
+        final File rleFile = File.createTempFile("jogl-test", ".tga");
+        rleFile.deleteOnExit();
+        src.write(rleFile, true);
+        final FileInputStream in = new FileInputStream(rleFile);
+        try {
+            final TGAImage image = TGAImage.read(in);
+            Assert.assertEquals(GL.GL_LUMINANCE, image.getGLFormat());
+            assertData(gray, image);
+        } finally {
+            in.close();
+        }
+    }
+
+    static TGAImage writeAndRead(TGAImage src, boolean rle) throws IOException {
+        final File file = File.createTempFile("jogl-test", ".tga");
+        file.deleteOnExit();
+        src.write(file, rle);
+        final FileInputStream in = new FileInputStream(file);
+        try {
+            return TGAImage.read(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /** Decoded colormapped, 15 bit and right-to-left images are written as what they were decoded to */
+    @Test
+    public void testWriteDecoded() throws IOException {
+        final ByteArrayOutputStream cmap = new ByteArrayOutputStream();
+        writeHeader(cmap, 1, TGAImage.Header.UCOLORMAPPED, 2, 32, 3, 1, 8, 8);
+        cmap.write(new byte[] { 1, 2, 3, 4,  5, 6, 7, 8 }, 0, 8); // BGRA
+        cmap.write(1); cmap.write(0); cmap.write(1);
+
+        final ByteArrayOutputStream rgb15 = new ByteArrayOutputStream();
+        writeHeader(rgb15, 0, TGAImage.Header.UTRUECOLOR, 0, 0, 2, 2, 15,
+                    TGAImage.Header.ID_RIGHTTOLEFT | TGAImage.Header.ID_TOPTOBOTTOM);
+        writeShort(rgb15, 31 << 10); writeShort(rgb15, 31 << 5);
+        writeShort(rgb15, 31);       writeShort(rgb15, 0x7FFF);
+
+        final ByteArrayOutputStream[] files = { cmap, rgb15 };
+        for(int i=0; i<files.length; i++) {
+            final TGAImage src = read(files[i]);
+            final byte[] expected = new byte[src.getData().remaining()];
+            src.getData().get(expected);
+            src.getData().rewind();
+            for(int rle=0; rle<2; rle++) {
+                final TGAImage image = writeAndRead(src, 1 == rle);
+                Assert.assertEquals(src.getWidth(), image.getWidth());
+                Assert.assertEquals(src.getHeight(), image.getHeight());
+                Assert.assertEquals(src.getGLFormat(), image.getGLFormat());
+                Assert.assertEquals(src.getBytesPerPixel(), image.getBytesPerPixel());
+                assertData(expected, image);
+            }
+        }
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestTGAImageNOUI.class.getName());
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import jogamp.opengl.FPSCounterImpl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.FPSAnimator;
+
+/**
+ * Validates the pacing and the frame time statistics of an {@link FPSAnimator}
+ * w/o any drawable, hence w/o GL.
+ */
+public class TestFPSAnimatorNOUI {
+
+    @Test
+    public void testPercentiles() {
+        final long[] sorted = new long[100];
+        for(int i=0; i<sorted.length; i++) {
+            sorted[i] = ( i + 1 ) * 10;
+        }
+        Assert.assertEquals(  10, FPSCounterImpl.percentile(sorted, 0f));
+        Assert.assertEquals( 500, FPSCounterImpl.percentile(sorted, 0.5f));
+        Assert.assertEquals( 950, FPSCounterImpl.percentile(sorted, 0.95f));
+        Assert.assertEquals( 990, FPSCounterImpl.percentile(sorted, 0.99f));
+        Assert.assertEquals(1000, FPSCounterImpl.percentile(sorted, 1f));
+        Assert.assertEquals(   0, FPSCounterImpl.percentile(new long[0], 0.5f));
+
+        Assert.assertEquals(0, FPSCounterImpl.jitter(new long[] { 5, 5, 5, 5 }));
+        Assert.assertEquals(2, FPSCounterImpl.jitter(new long[] { 2, 4, 4, 4, 5, 5, 7, 9 }));
+    }
+
+    @Test
+    public void testCounter() throws InterruptedException {
+        final FPSCounterImpl counter = new FPSCounterImpl();
+        counter.setUpdateFPSFrames(2, null);
+        Assert.assertEquals(0, counter.getMaxFrameTime());
+        for(int i=0; i<5; i++) {
+            counter.tickFPS();
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(5, counter.getTotalFPSFrames());
+        // no frame time for the first tick
+        Assert.assertEquals(4, counter.getFrameTimes().length);
+        Assert.assertTrue(counter.getFrameTimePercentile(0.5f) >= 5000000L);
+        Assert.assertTrue(counter.getMaxFrameTime() >= counter.getFrameTimePercentile(0.5f));
+        Assert.assertTrue(counter.getLastFPSPeriod() > 0);
+        counter.resetFPSCounter();
+        Assert.assertEquals(0, counter.getTotalFPSFrames());
+        Assert.assertEquals(0, counter.getFrameTimes().length);
+    }
+
+    void testPacing(boolean fixedRate) throws InterruptedException {
+        final int fps = 100;
+        final FPSAnimator animator = new FPSAnimator(fps, fixedRate);
+        animator.setUpdateFPSFrames(10, null);
+        Assert.assertTrue(animator.start());
+        try {
+            Assert.assertEquals(true, animator.isStarted());
+            Thread.sleep(600);
+            Assert.assertEquals(true, animator.isAnimating());
+
+            final int frames = animator.getTotalFPSFrames();
+            final long p50 = animator.getFrameTimePercentile(0.5f);
+            System.err.println("fixedRate "+fixedRate+": frames "+frames+", p50 "+p50/1000+" us, p99 "+
+                               animator.getFrameTimePercentile(0.99f)/1000+" us, max "+animator.getMaxFrameTime()/1000+
+                               " us, jitter "+animator.getFrameTimeJitter()/1000+" us");
+            Assert.assertEquals(10000000L, p50, 2000000L);
+            Assert.assertTrue("frames "+frames, frames >= 30 && frames <= 90);
+
+            Assert.assertTrue(animator.pause());
+            Assert.assertEquals(false, animator.isAnimating());
+            Assert.assertEquals(true, animator.isPaused());
+            final int pausedFrames = animator.getTotalFPSFrames();
+            Thread.sleep(50);
+            Assert.assertEquals(pausedFrames, animator.getTotalFPSFrames());
+
+            Assert.assertTrue(animator.resume());
+            Assert.assertEquals(true, animator.isAnimating());
+            Thread.sleep(100);
+            Assert.assertTrue(animator.getTotalFPSFrames() > 0);
+        } finally {
+            Assert.assertTrue(animator.stop());
+        }
+        Assert.assertEquals(false, animator.isStarted());
+        Assert.assertEquals(false, animator.isAnimating());
+        Assert.assertEquals(false, animator.stop());
+    }
+
+    @Test
+    public void testPacingFixedDelay() throws InterruptedException {
+        testPacing(false);
+    }
+
+    @Test
+    public void testPacingFixedRate() throws InterruptedException {
+        testPacing(true);
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestFPSAnimatorNOUI.class.getName());
+    }
+}
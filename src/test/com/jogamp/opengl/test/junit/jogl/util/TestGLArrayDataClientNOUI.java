@@ -0,0 +1,109 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.nio.FloatBuffer;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.fixedfunc.GLPointerFunc;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.DirectBufferPool;
+import com.jogamp.opengl.util.GLArrayDataClient;
+
+public class TestGLArrayDataClientNOUI {
+    static final int VERTICES = 10000;
+
+    static float[] createCoords() {
+        final float[] coords = new float[VERTICES*3];
+        for(int i=0; i<coords.length; i++) {
+            coords[i] = (float) i;
+        }
+        return coords;
+    }
+
+    static void assertContent(float[] coords, GLArrayDataClient adc) {
+        Assert.assertEquals(VERTICES, adc.getElementNumber());
+        final FloatBuffer fb = (FloatBuffer) adc.getBuffer();
+        Assert.assertEquals(coords.length, fb.remaining());
+        for(int i=0; i<coords.length; i++) {
+            Assert.assertEquals(coords[i], fb.get(i), 0f);
+        }
+    }
+
+    @Test
+    public void testGrowth() {
+        final float[] coords = createCoords();
+        final GLArrayDataClient adc = GLArrayDataClient.createFixed(GLPointerFunc.GL_VERTEX_ARRAY, null, 3, GL.GL_FLOAT, false, 16);
+        for(int i=0; i<coords.length; i++) {
+            adc.putf(coords[i]);
+        }
+        adc.seal(true);
+        assertContent(coords, adc);
+        // geometric growth
+        Assert.assertTrue(adc.getBuffer().capacity() < 2 * coords.length);
+    }
+
+    @Test
+    public void testBulkPut() {
+        final float[] coords = createCoords();
+        final GLArrayDataClient adc = GLArrayDataClient.createFixed(GLPointerFunc.GL_VERTEX_ARRAY, null, 3, GL.GL_FLOAT, false, 16);
+        adc.putf(coords, 0, 3);
+        adc.putf(coords, 3, coords.length-3);
+        adc.seal(true);
+        assertContent(coords, adc);
+    }
+
+    @Test
+    public void testPool() {
+        final float[] coords = createCoords();
+        final DirectBufferPool pool = new DirectBufferPool();
+        for(int j=0; j<3; j++) {
+            final GLArrayDataClient adc = GLArrayDataClient.createFixed(GLPointerFunc.GL_VERTEX_ARRAY, null, 3, GL.GL_FLOAT, false, 0);
+            adc.setBufferPool(pool);
+            for(int i=0; i<coords.length; i++) {
+                adc.putf(coords[i]);
+            }
+            adc.seal(true);
+            assertContent(coords, adc);
+            adc.destroy(null);
+        }
+        // the 2nd and 3rd run reuse the buffers of the 1st
+        final long misses = pool.getMissCount();
+        Assert.assertTrue(0 < pool.getHitCount());
+        Assert.assertTrue(0 < pool.getPooledBytes());
+        Assert.assertTrue(misses < 2 * pool.getHitCount());
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLArrayDataClientNOUI.class.getName());
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.io.IOException;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2ES1;
+import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.GLCapabilities;
+import javax.media.opengl.GLEventListener;
+import javax.media.opengl.GLProfile;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.newt.opengl.GLWindow;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.ImmModeSink;
+
+public class TestImmModeSinkNEWT extends UITestCase {
+    static final int batches = 100;
+
+    @BeforeClass
+    public static void initClass() {
+        GLProfile.initSingleton(true);
+    }
+
+    static void emitTriangle(ImmModeSink sink, int mode, float x, float y) {
+        sink.glBegin(mode);
+        sink.glColor4f(1f, 0f, 0f, 1f);
+        sink.glVertex3f(x,     y,     0f);
+        sink.glColor4f(0f, 1f, 0f, 1f);
+        sink.glVertex3f(x+.01f, y,     0f);
+        sink.glColor4f(0f, 0f, 1f, 1f);
+        sink.glVertex3f(x+.01f, y+.01f, 0f);
+    }
+
+    protected void runTest(final boolean streaming, final int[] stats) throws InterruptedException {
+        GLCapabilities caps = new GLCapabilities(GLProfile.getGL2ES1());
+        GLWindow glWindow = GLWindow.create(caps);
+        Assert.assertNotNull(glWindow);
+        glWindow.setTitle("TestImmModeSinkNEWT");
+
+        glWindow.addGLEventListener(new GLEventListener() {
+            ImmModeSink sink;
+
+            public void init(GLAutoDrawable drawable) {
+                GL2ES1 gl = drawable.getGL().getGL2ES1();
+                sink = ImmModeSink.createFixed(gl, GL.GL_STATIC_DRAW, 32, 
+                                               3, GL.GL_FLOAT,  // vertex
+                                               4, GL.GL_FLOAT,  // color
+                                               0, 0,            // normal
+                                               0, 0);           // texture
+                // small ring, forces orphaning
+                sink.setStreaming(streaming, 4096);
+            }
+            public void dispose(GLAutoDrawable drawable) {
+                sink.destroy(drawable.getGL());
+            }
+            public void display(GLAutoDrawable drawable) {
+                GL2ES1 gl = drawable.getGL().getGL2ES1();
+                gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+                sink.resetStats();
+                for(int i=0; i<batches; i++) {
+                    emitTriangle(sink, GL.GL_TRIANGLES, -1f+i*.02f, 0f);
+                    sink.glEnd(gl);
+                }
+                // a mode change breaks the merge
+                emitTriangle(sink, GL.GL_LINES, 0f, 0f);
+                sink.glEnd(gl);
+                sink.flush(gl);
+                stats[0] = sink.getBatchCount();
+                stats[1] = sink.getDrawCount();
+                stats[2] = sink.getOrphanCount();
+                Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+            }
+            public void reshape(GLAutoDrawable drawable, int x, int y, int width, int height) {
+            }
+        });
+
+        glWindow.setSize(128, 128);
+        glWindow.setVisible(true);
+        glWindow.display();
+        glWindow.destroy();
+    }
+
+    @Test
+    public void test01Immediate() throws InterruptedException {
+        if(!GLProfile.isGL2ES1Available()) {
+            System.err.println("GL2ES1 n/a");
+            return;
+        }
+        final int[] stats = new int[3];
+        runTest(false, stats);
+        Assert.assertEquals(batches+1, stats[0]);
+        Assert.assertEquals(batches+1, stats[1]);
+        Assert.assertEquals(0, stats[2]);
+    }
+
+    @Test
+    public void test02Streaming() throws InterruptedException {
+        if(!GLProfile.isGL2ES1Available()) {
+            System.err.println("GL2ES1 n/a");
+            return;
+        }
+        final int[] stats = new int[3];
+        runTest(true, stats);
+        Assert.assertEquals(batches+1, stats[0]);
+        // 300 vertices * 28 bytes fill the 4096 bytes ring 3 times,
+        // hence the triangles are split into 3 draw calls plus the lines.
+        Assert.assertEquals(2, stats[2]);
+        Assert.assertEquals(4, stats[1]);
+    }
+
+    public static void main(String args[]) throws IOException {
+        String tstname = TestImmModeSinkNEWT.class.getName();
+        org.junit.runner.JUnitCore.main(tstname);
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.nio.FloatBuffer;
+
+import javax.media.opengl.GLException;
+import javax.media.opengl.fixedfunc.GLMatrixFunc;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.PMVMatrix;
+
+public class TestPMVMatrix01NOUI {
+    static final float EPSILON = 1e-5f;
+
+    static void assertIdentity(FloatBuffer a, FloatBuffer b) {
+        for(int i=0; i<4; i++) {
+            for(int j=0; j<4; j++) {
+                float s = 0f;
+                for(int k=0; k<4; k++) {
+                    s += a.get(i+k*4) * b.get(k+j*4);
+                }
+                Assert.assertEquals(i==j ? 1f : 0f, s, EPSILON);
+            }
+        }
+    }
+
+    @Test
+    public void testPushPop() {
+        final PMVMatrix pmv = new PMVMatrix();
+        pmv.glMatrixMode(GLMatrixFunc.GL_MODELVIEW);
+        pmv.glLoadIdentity();
+        pmv.glTranslatef(1f, 2f, 3f);
+        final float[] before = new float[16];
+        pmv.glGetFloatv(GLMatrixFunc.GL_MODELVIEW_MATRIX, before, 0);
+
+        // deeper than the preallocated stack
+        for(int i=0; i<100; i++) {
+            pmv.glPushMatrix();
+            pmv.glRotatef(10f, 0f, 1f, 0f);
+            pmv.glScalef(2f, 2f, 2f);
+        }
+        for(int i=0; i<100; i++) {
+            pmv.glPopMatrix();
+        }
+        final float[] after = new float[16];
+        pmv.glGetFloatv(GLMatrixFunc.GL_MODELVIEW_MATRIX, after, 0);
+        Assert.assertArrayEquals(before, after, 0f);
+
+        try {
+            pmv.glPopMatrix();
+            Assert.fail("stack underflow not detected");
+        } catch (GLException e) { }
+        pmv.destroy();
+    }
+
+    @Test
+    public void testDerivedMatrices() {
+        final PMVMatrix pmv = new PMVMatrix();
+        final FloatBuffer mvi = pmv.glGetMviMatrixf();
+        final FloatBuffer pmvBuf = pmv.glGetPmvMatrixf();
+        pmv.glMatrixMode(GLMatrixFunc.GL_PROJECTION);
+        pmv.glLoadIdentity();
+        pmv.gluPerspective(45f, 1f, 1f, 100f);
+        pmv.glMatrixMode(GLMatrixFunc.GL_MODELVIEW);
+        pmv.glLoadIdentity();
+        pmv.glTranslatef(1f, -2f, -10f);
+        pmv.glRotatef(30f, 1f, 1f, 0f);
+        pmv.glScalef(0.5f, 2f, 1f);
+
+        Assert.assertTrue(pmv.update());
+        assertIdentity(pmv.glGetMvMatrixf(), mvi);
+
+        // P x Mv
+        final FloatBuffer p = pmv.glGetPMatrixf();
+        final FloatBuffer mv = pmv.glGetMvMatrixf();
+        for(int i=0; i<4; i++) {
+            for(int j=0; j<4; j++) {
+                float s = 0f;
+                for(int k=0; k<4; k++) {
+                    s += p.get(i+k*4) * mv.get(k+j*4);
+                }
+                Assert.assertEquals(s, pmvBuf.get(i+j*4), EPSILON);
+            }
+        }
+
+        // normal matrix is the upper left 3x3 of the transposed inverse
+        final FloatBuffer nrm = pmv.glGetNormalMatrixf();
+        for(int i=0; i<3; i++) {
+            for(int j=0; j<3; j++) {
+                Assert.assertEquals(mvi.get(j+i*4), nrm.get(i+j*3), EPSILON);
+            }
+        }
+
+        // no modification, no update required
+        Assert.assertFalse(pmv.update());
+        pmv.glTranslatef(0f, 0f, 1f);
+        Assert.assertTrue(pmv.isDirty(GLMatrixFunc.GL_MODELVIEW));
+        Assert.assertTrue(pmv.update());
+        assertIdentity(pmv.glGetMvMatrixf(), mvi);
+        pmv.destroy();
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestPMVMatrix01NOUI.class.getName());
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.newt;
+
+import jogamp.newt.DefaultEDTUtil;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Runs {@link DefaultEDTUtil} w/o a native display, using a blocking {@link DefaultEDTUtil.EventWaiter}
+ * which is only unblocked by {@link DefaultEDTUtil.EventWaiter#wakeup()} or its timeout.
+ */
+public class TestDefaultEDTUtilNOUI {
+    static final Runnable noop = new Runnable() { public void run() { } };
+
+    static class BlockingWaiter implements DefaultEDTUtil.EventWaiter {
+        final boolean blocking;
+        int waitCount = 0;
+        boolean blocked = false;
+        boolean woken = false;
+
+        BlockingWaiter(boolean blocking) {
+            this.blocking = blocking;
+        }
+
+        public synchronized boolean waitForEvents(long timeoutMillis) {
+            waitCount++;
+            notifyAll();
+            if( !blocking ) {
+                return false;
+            }
+            final long t1 = System.currentTimeMillis() + timeoutMillis;
+            long left = timeoutMillis;
+            blocked = true;
+            while( !woken && 0 < left ) {
+                try {
+                    wait(left);
+                } catch (InterruptedException e) { }
+                left = t1 - System.currentTimeMillis();
+            }
+            blocked = false;
+            woken = false;
+            return true;
+        }
+
+        public synchronized void wakeup() {
+            woken = true;
+            notifyAll();
+        }
+
+        /** Waits until the EDT blocks, i.e. it is idle. */
+        synchronized void waitForBlocked() throws InterruptedException {
+            while( !blocked ) {
+                wait();
+            }
+        }
+
+        /** Waits until the EDT calls {@link #waitForEvents(long)} again. */
+        synchronized void waitForNextWait() throws InterruptedException {
+            final int n = waitCount;
+            while( n == waitCount ) {
+                wait();
+            }
+        }
+    }
+
+    static DefaultEDTUtil createEDT(BlockingWaiter waiter) {
+        return new DefaultEDTUtil(Thread.currentThread().getThreadGroup(), "TestDefaultEDTUtilNOUI", noop, waiter);
+    }
+
+    /** Tasks of each thread are executed in order, all of them are counted. */
+    @Test
+    public void testTaskOrder() throws InterruptedException {
+        final DefaultEDTUtil edt = createEDT(new BlockingWaiter(true));
+        final int threadCount = 4, taskCount = 1000;
+        final int[] executed = new int[threadCount];
+        final boolean[] ordered = new boolean[] { true };
+        final Thread[] threads = new Thread[threadCount];
+        for(int i=0; i<threadCount; i++) {
+            final int t = i;
+            threads[i] = new Thread() {
+                public void run() {
+                    for(int j=0; j<taskCount; j++) {
+                        final int k = j;
+                        edt.invoke(false, new Runnable() {
+                            public void run() {
+                                // EDT only
+                                if( executed[t] != k ) {
+                                    ordered[0] = false;
+                                }
+                                executed[t]++;
+                            }
+                        });
+                    }
+                }
+            };
+        }
+        edt.start();
+        for(int i=0; i<threadCount; i++) {
+            threads[i].start();
+        }
+        for(int i=0; i<threadCount; i++) {
+            threads[i].join();
+        }
+        edt.invoke(true, noop);
+        for(int i=0; i<threadCount; i++) {
+            Assert.assertEquals(taskCount, executed[i]);
+        }
+        Assert.assertTrue("tasks out of order", ordered[0]);
+        Assert.assertEquals(threadCount * taskCount + 1, edt.getTaskCount());
+        edt.invokeStop(noop);
+        edt.waitUntilStopped();
+        Assert.assertFalse(edt.isRunning());
+    }
+
+    /** Enqueuing a task wakes up the blocked EDT, instead of waiting for the event timeout. */
+    @Test
+    public void testWakeup() throws InterruptedException {
+        final BlockingWaiter waiter = new BlockingWaiter(true);
+        final DefaultEDTUtil edt = createEDT(waiter);
+        edt.start();
+        final int loops = 20;
+        for(int i=0; i<loops; i++) {
+            waiter.waitForBlocked();
+            edt.invoke(true, noop);
+        }
+        System.err.println("EDT task latency mean "+edt.getTaskLatencyMean()/1000+" us, max "+edt.getTaskLatencyMax()/1000+" us");
+        Assert.assertEquals(loops, edt.getTaskCount());
+        Assert.assertTrue("latency max "+edt.getTaskLatencyMax()/1000000+" ms",
+                          edt.getTaskLatencyMax() < DefaultEDTUtil.eventWaitTimeout * 1000000L / 2);
+        synchronized(waiter) {
+            Assert.assertTrue(loops <= waiter.waitCount);
+        }
+        edt.resetTaskLatency();
+        Assert.assertEquals(0, edt.getTaskCount());
+        Assert.assertEquals(0, edt.getTaskLatencyMax());
+        Assert.assertEquals(0, edt.getTaskLatencyMean());
+        edt.invokeStop(noop);
+        edt.waitUntilStopped();
+    }
+
+    /** W/o blocking support the EDT parks and still executes tasks immediately. */
+    @Test
+    public void testNonBlockingWaiter() throws InterruptedException {
+        final BlockingWaiter waiter = new BlockingWaiter(false);
+        final DefaultEDTUtil edt = createEDT(waiter);
+        edt.start();
+        final int loops = 20;
+        for(int i=0; i<loops; i++) {
+            waiter.waitForNextWait();
+            edt.invoke(true, noop);
+        }
+        Assert.assertEquals(loops, edt.getTaskCount());
+        Assert.assertTrue("latency max "+edt.getTaskLatencyMax()/1000000+" ms",
+                          edt.getTaskLatencyMax() < DefaultEDTUtil.eventWaitTimeout * 1000000L / 2);
+        edt.invokeStop(noop);
+        edt.waitUntilStopped();
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestDefaultEDTUtilNOUI.class.getName());
+    }
+}
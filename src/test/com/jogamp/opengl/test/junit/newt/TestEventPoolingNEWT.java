@@ -0,0 +1,286 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.newt;
+
+import java.util.ArrayList;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.media.nativewindow.*;
+
+import jogamp.newt.DisplayImpl;
+import jogamp.newt.WindowImpl;
+
+import com.jogamp.newt.*;
+import com.jogamp.newt.event.*;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+
+/**
+ * Mouse event pooling and coalescing, see {@link DisplayImpl#setEventPooling(boolean)},
+ * and copy-on-write listeners mutated during dispatch.
+ * <p>
+ * Synthetic events use a y coordinate of {@link #Y}, to tell them apart from native ones.
+ * </p>
+ */
+public class TestEventPoolingNEWT extends UITestCase {
+    static final int Y = 17;
+    static final long timeout = 2000; // ms
+    static Display display;
+    static Screen screen;
+    static WindowImpl window;
+
+    @BeforeClass
+    public static void initClass() {
+        NativeWindowFactory.initSingleton(true);
+        display = NewtFactory.createDisplay(null); // local display
+        screen  = NewtFactory.createScreen(display, 0); // screen 0
+        window = (WindowImpl) NewtFactory.createWindow(screen, new Capabilities());
+        Assert.assertNotNull(window);
+        window.setSize(320, 240);
+        window.setVisible(true);
+        Assert.assertEquals(true,window.isNativeValid());
+    }
+
+    @AfterClass
+    public static void releaseClass() {
+        window.destroy();
+        screen.destroy();
+        display.destroy();
+    }
+
+    static void setEventPooling(boolean v) {
+        ((DisplayImpl)display).setEventPooling(v);
+    }
+
+    /** Records synthetic mouse moved events */
+    static class MovedListener extends MouseAdapter {
+        final ArrayList<MouseEvent> events = new ArrayList<MouseEvent>();
+        final ArrayList<Integer> xs = new ArrayList<Integer>();
+
+        public void mouseMoved(MouseEvent e) {
+            if( Y == e.getY() ) {
+                synchronized(this) {
+                    events.add(e);
+                    xs.add(Integer.valueOf(e.getX()));
+                    notifyAll();
+                }
+            }
+        }
+
+        synchronized boolean waitForX(int x) throws InterruptedException {
+            final long t1 = System.currentTimeMillis() + timeout;
+            while( !xs.contains(Integer.valueOf(x)) && System.currentTimeMillis() < t1 ) {
+                wait(timeout);
+            }
+            return xs.contains(Integer.valueOf(x));
+        }
+
+        synchronized int distinctEvents() {
+            int n = 0;
+            for(int i=0; i<events.size(); i++) {
+                boolean dup = false;
+                for(int j=0; j<i && !dup; j++) {
+                    dup = events.get(i) == events.get(j);
+                }
+                if(!dup) {
+                    n++;
+                }
+            }
+            return n;
+        }
+    }
+
+    /** Blocks the EDT until {@link #release()}, so enqueued events stay pending */
+    static class EDTBlocker implements Runnable {
+        boolean running = false;
+        boolean released = false;
+
+        public synchronized void run() {
+            running = true;
+            notifyAll();
+            while(!released) {
+                try {
+                    wait();
+                } catch (InterruptedException e) { }
+            }
+        }
+
+        synchronized void block() throws InterruptedException {
+            display.getEDTUtil().invoke(false, this);
+            while(!running) {
+                wait();
+            }
+        }
+
+        synchronized void release() {
+            released = true;
+            notifyAll();
+        }
+    }
+
+    /** Pooled events are reused after dispatch */
+    @Test
+    public void testPooling() throws InterruptedException {
+        for(int p=0; p<2; p++) {
+            final boolean pooling = 0 == p;
+            setEventPooling(pooling);
+            final MovedListener l = new MovedListener();
+            window.addMouseListener(l);
+            for(int x=0; x<10; x++) {
+                window.sendMouseEvent(MouseEvent.EVENT_MOUSE_MOVED, 0, x, Y, 0, 0);
+            }
+            window.removeMouseListener(l);
+            Assert.assertEquals(10, l.xs.size());
+            for(int x=0; x<10; x++) {
+                Assert.assertEquals(x, l.xs.get(x).intValue());
+            }
+            // native events dispatched meanwhile may take an instance from the pool as well
+            if( pooling ) {
+                Assert.assertTrue(l.distinctEvents() < 10);
+            } else {
+                Assert.assertEquals(10, l.distinctEvents());
+            }
+        }
+        setEventPooling(false);
+    }
+
+    /** Pending mouse moved events are coalesced to the latest one, if pooling */
+    @Test
+    public void testCoalescing() throws InterruptedException {
+        for(int p=0; p<2; p++) {
+            final boolean pooling = 0 == p;
+            setEventPooling(pooling);
+            final MovedListener l = new MovedListener();
+            window.addMouseListener(l);
+            final EDTBlocker blocker = new EDTBlocker();
+            blocker.block();
+            for(int x=0; x<10; x++) {
+                window.enqueueMouseEvent(false, MouseEvent.EVENT_MOUSE_MOVED, 0, x, Y, 0, 0);
+            }
+            blocker.release();
+            Assert.assertTrue("last event not dispatched", l.waitForX(9));
+            window.removeMouseListener(l);
+            if( pooling ) {
+                Assert.assertEquals(1, l.xs.size());
+            } else {
+                Assert.assertEquals(10, l.xs.size());
+                for(int x=0; x<10; x++) {
+                    Assert.assertEquals(x, l.xs.get(x).intValue());
+                }
+            }
+        }
+        setEventPooling(false);
+    }
+
+    /** Declines the first event and enqueues a newer one while doing so */
+    static class DecliningConsumer implements NEWTEventConsumer {
+        final ArrayList<Integer> xs = new ArrayList<Integer>();
+        boolean declined = false;
+
+        public synchronized boolean consumeEvent(NEWTEvent event) {
+            final MouseEvent e = (MouseEvent) event;
+            if( !declined ) {
+                declined = true;
+                window.enqueueEvent(false, new MouseEvent(MouseEvent.EVENT_MOUSE_MOVED, this, e.getWhen() + 1, 0, e.getX() + 1, Y, 0, 0, 0));
+                return false;
+            }
+            xs.add(Integer.valueOf(e.getX()));
+            notifyAll();
+            return true;
+        }
+
+        synchronized boolean waitForEvents(int n) throws InterruptedException {
+            final long t1 = System.currentTimeMillis() + timeout;
+            while( xs.size() < n && System.currentTimeMillis() < t1 ) {
+                wait(timeout);
+            }
+            return xs.size() >= n;
+        }
+    }
+
+    /** An event which could not be consumed is enqueued again, w/o replacing a newer pending one */
+    @Test
+    public void testRequeueNotCoalesced() throws InterruptedException {
+        setEventPooling(true);
+        final DecliningConsumer consumer = new DecliningConsumer();
+        window.enqueueEvent(false, new MouseEvent(MouseEvent.EVENT_MOUSE_MOVED, consumer, System.currentTimeMillis(), 0, 1, Y, 0, 0, 0));
+        Assert.assertTrue("events lost: "+consumer.xs, consumer.waitForEvents(2));
+        Assert.assertTrue(consumer.xs.contains(Integer.valueOf(1)));
+        Assert.assertTrue(consumer.xs.contains(Integer.valueOf(2)));
+        setEventPooling(false);
+    }
+
+    static class CountingListener extends MouseAdapter {
+        int count = 0;
+
+        public void mouseMoved(MouseEvent e) {
+            if( Y == e.getY() ) {
+                count++;
+            }
+        }
+    }
+
+    /** Listeners added or removed during dispatch take effect w/ the next event */
+    @Test
+    public void testListenerMutationDuringDispatch() throws InterruptedException {
+        final CountingListener l2 = new CountingListener();
+        final CountingListener l3 = new CountingListener();
+        final CountingListener l1 = new CountingListener() {
+            public void mouseMoved(MouseEvent e) {
+                super.mouseMoved(e);
+                if( 1 == count ) {
+                    window.removeMouseListener(l2);
+                    window.addMouseListener(l3);
+                }
+            }
+        };
+        final int listenerCount = window.getMouseListeners().length;
+        window.addMouseListener(l1);
+        window.addMouseListener(l2);
+        window.sendMouseEvent(MouseEvent.EVENT_MOUSE_MOVED, 0, 1, Y, 0, 0);
+        Assert.assertEquals(1, l1.count);
+        Assert.assertEquals(1, l2.count);
+        Assert.assertEquals(0, l3.count);
+        window.sendMouseEvent(MouseEvent.EVENT_MOUSE_MOVED, 0, 2, Y, 0, 0);
+        Assert.assertEquals(2, l1.count);
+        Assert.assertEquals(1, l2.count);
+        Assert.assertEquals(1, l3.count);
+        window.removeMouseListener(l1);
+        window.removeMouseListener(l3);
+        Assert.assertEquals(listenerCount, window.getMouseListeners().length);
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestEventPoolingNEWT.class.getName());
+    }
+}
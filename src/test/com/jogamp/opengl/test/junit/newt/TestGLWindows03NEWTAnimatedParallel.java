@@ -0,0 +1,148 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.newt;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.media.opengl.*;
+
+import com.jogamp.opengl.util.Animator;
+import com.jogamp.newt.*;
+import com.jogamp.newt.opengl.*;
+import java.io.IOException;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.test.junit.jogl.demos.gl2.gears.Gears;
+
+/**
+ * Animates two windows w/ {@link Animator#setParallelDisplay(boolean, boolean)},
+ * validating the lifecycle and the per drawable frame durations.
+ */
+public class TestGLWindows03NEWTAnimatedParallel extends UITestCase {
+    static GLProfile glp;
+    static int width, height;
+    static long durationPerTest = 200; // ms
+
+    @BeforeClass
+    public static void initClass() {
+        GLProfile.initSingleton(true);
+        width  = 320;
+        height = 240;
+        glp = GLProfile.getDefault();
+    }
+
+    static GLWindow createWindow(GLCapabilities caps, int x, int y) {
+        GLWindow glWindow = GLWindow.create(caps);
+        Assert.assertNotNull(glWindow);
+        glWindow.addGLEventListener(new Gears());
+        glWindow.setSize(width, height);
+        glWindow.setPosition(x, y);
+        glWindow.setVisible(true);
+        Assert.assertEquals(true,glWindow.isNativeValid());
+        return glWindow;
+    }
+
+    void testTwoWindows(boolean frameBarrier) throws InterruptedException {
+        GLCapabilities caps = new GLCapabilities(glp);
+        GLWindow window1 = createWindow(caps, 0, 0);
+        GLWindow window2 = createWindow(caps, width+10, 0);
+
+        Animator animator = new Animator();
+        animator.setUpdateFPSFrames(1, null);
+        animator.setParallelDisplay(true, frameBarrier);
+        Assert.assertEquals(true, animator.isParallelDisplay());
+        animator.add(window1);
+        animator.add(window2);
+        Assert.assertEquals(-1, animator.getLastFrameDuration(window1));
+
+        Assert.assertTrue(animator.start());
+        Assert.assertEquals(true, animator.isAnimating());
+        while(animator.isAnimating() && animator.getTotalFPSDuration()<durationPerTest) {
+            Thread.sleep(100);
+        }
+        Assert.assertTrue(animator.getLastFrameDuration(window1) >= 0);
+        Assert.assertTrue(animator.getLastFrameDuration(window2) >= 0);
+
+        Assert.assertTrue(animator.pause());
+        Assert.assertEquals(false, animator.isAnimating());
+        Assert.assertEquals(true, animator.isPaused());
+        final int frames = animator.getTotalFPSFrames();
+        Thread.sleep(100);
+        Assert.assertEquals(frames, animator.getTotalFPSFrames());
+        Assert.assertTrue(animator.resume());
+        Assert.assertEquals(true, animator.isAnimating());
+
+        // switching modes while animating
+        animator.setParallelDisplay(false, false);
+        Assert.assertEquals(false, animator.isParallelDisplay());
+        Assert.assertEquals(true, animator.isAnimating());
+        Assert.assertEquals(-1, animator.getLastFrameDuration(window1));
+        animator.setParallelDisplay(true, frameBarrier);
+        Assert.assertEquals(true, animator.isAnimating());
+
+        animator.remove(window1);
+        window1.destroy();
+        Assert.assertEquals(true, animator.isAnimating());
+        Thread.sleep(100);
+
+        Assert.assertTrue(animator.stop());
+        Assert.assertEquals(false, animator.isStarted());
+        window2.destroy();
+    }
+
+    @Test
+    public void test01ParallelTwoWindows() throws InterruptedException {
+        testTwoWindows(false);
+    }
+
+    @Test
+    public void test02ParallelTwoWindowsFrameBarrier() throws InterruptedException {
+        testTwoWindows(true);
+    }
+
+    static int atoi(String a) {
+        int i=0;
+        try {
+            i = Integer.parseInt(a);
+        } catch (Exception ex) { ex.printStackTrace(); }
+        return i;
+    }
+
+    public static void main(String args[]) throws IOException {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-time")) {
+                durationPerTest = atoi(args[++i]);
+            }
+        }
+        String tstname = TestGLWindows03NEWTAnimatedParallel.class.getName();
+        org.junit.runner.JUnitCore.main(tstname);
+    }
+}
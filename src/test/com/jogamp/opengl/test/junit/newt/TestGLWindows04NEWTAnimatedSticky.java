@@ -0,0 +1,140 @@
+/**
+ * Copyright 2011 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.newt;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.media.opengl.*;
+
+import com.jogamp.opengl.util.Animator;
+import com.jogamp.opengl.util.AnimatorBase;
+import com.jogamp.opengl.util.FPSAnimator;
+import com.jogamp.newt.opengl.*;
+import java.io.IOException;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.test.junit.jogl.demos.gl2.gears.Gears;
+
+/**
+ * Animates windows w/ {@link AnimatorBase#setStickyContext(boolean)},
+ * while other threads render, pause and destroy them.
+ */
+public class TestGLWindows04NEWTAnimatedSticky extends UITestCase {
+    static GLProfile glp;
+    static int width, height;
+    static long durationPerTest = 200; // ms
+
+    @BeforeClass
+    public static void initClass() {
+        GLProfile.initSingleton(true);
+        width  = 320;
+        height = 240;
+        glp = GLProfile.getDefault();
+    }
+
+    static GLWindow createWindow(GLCapabilities caps, int x, int y) {
+        GLWindow glWindow = GLWindow.create(caps);
+        Assert.assertNotNull(glWindow);
+        glWindow.addGLEventListener(new Gears());
+        glWindow.setSize(width, height);
+        glWindow.setPosition(x, y);
+        glWindow.setVisible(true);
+        Assert.assertEquals(true,glWindow.isNativeValid());
+        return glWindow;
+    }
+
+    void testSticky(AnimatorBase animator) throws InterruptedException {
+        GLCapabilities caps = new GLCapabilities(glp);
+        GLWindow window1 = createWindow(caps, 0, 0);
+        GLWindow window2 = createWindow(caps, width+10, 0);
+
+        animator.setStickyContext(true);
+        Assert.assertEquals(true, animator.isStickyContext());
+        animator.add(window1);
+        Assert.assertTrue(animator.start());
+        while(animator.isAnimating() && animator.getTotalFPSDuration()<durationPerTest) {
+            Thread.sleep(50);
+        }
+
+        // other thread requires the context
+        window1.display();
+        Assert.assertEquals(true, animator.isAnimating());
+
+        // other drawable on the animation thread
+        animator.add(window2);
+        Thread.sleep(100);
+        Assert.assertTrue(animator.pause());
+        window1.display();
+        window2.display();
+        Assert.assertTrue(animator.resume());
+
+        animator.setStickyContext(false);
+        Thread.sleep(50);
+        window2.display();
+        animator.setStickyContext(true);
+        animator.remove(window2);
+        Thread.sleep(50);
+
+        // destroy while animating
+        window1.destroy();
+        window2.destroy();
+        Assert.assertTrue(animator.stop());
+        Assert.assertEquals(false, animator.isStarted());
+    }
+
+    @Test
+    public void test01StickyAnimator() throws InterruptedException {
+        testSticky(new Animator());
+    }
+
+    @Test
+    public void test02StickyFPSAnimator() throws InterruptedException {
+        testSticky(new FPSAnimator(60));
+    }
+
+    static int atoi(String a) {
+        int i=0;
+        try {
+            i = Integer.parseInt(a);
+        } catch (Exception ex) { ex.printStackTrace(); }
+        return i;
+    }
+
+    public static void main(String args[]) throws IOException {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-time")) {
+                durationPerTest = atoi(args[++i]);
+            }
+        }
+        String tstname = TestGLWindows04NEWTAnimatedSticky.class.getName();
+        org.junit.runner.JUnitCore.main(tstname);
+    }
+}